@@ -122,6 +122,22 @@ public class DbCompareCommand extends AbstractCommandLauncher {
         if (!StringUtils.isEmpty(continueAfterError)) {
             config.setContinueAfterError(Boolean.parseBoolean(continueAfterError));
         }
+        String bucketCompare = getOptionValue(OPTION_BUCKET_COMPARE, "bucketCompare", line, config);
+        if (!StringUtils.isEmpty(bucketCompare)) {
+            config.setBucketCompare(Boolean.parseBoolean(bucketCompare));
+        }
+        String bucketCount = getOptionValue(OPTION_BUCKET_COUNT, "bucketCount", line, config);
+        if (!StringUtils.isEmpty(bucketCount)) {
+            config.setBucketCount(parseInt(bucketCount));
+        }
+        String bucketRows = getOptionValue(OPTION_BUCKET_ROWS, "bucketRows", line, config);
+        if (!StringUtils.isEmpty(bucketRows)) {
+            config.setBucketRows(parseInt(bucketRows));
+        }
+        String threads = getOptionValue(OPTION_THREADS, "threadCount", line, config);
+        if (!StringUtils.isEmpty(threads)) {
+            config.setThreadCount(parseInt(threads));
+        }
         ISymmetricEngine sourceEngine = new ClientSymmetricEngine(sourceProperies);
         ISymmetricEngine targetEngine = new ClientSymmetricEngine(targetProperties);
         DbCompare dbCompare = new DbCompare(sourceEngine, targetEngine, config);
@@ -137,6 +153,14 @@ public class DbCompareCommand extends AbstractCommandLauncher {
         return false;
     }
 
+    private int parseInt(String arg) {
+        try {
+            return Integer.parseInt(arg.trim());
+        } catch (NumberFormatException ex) {
+            throw new RuntimeException("Failed to parse arg [" + arg + "] ", ex);
+        }
+    }
+
     private boolean isValidDateFormat(String format) {
         try {
             if (format != null) {
@@ -186,6 +210,10 @@ public class DbCompareCommand extends AbstractCommandLauncher {
     private static final String OPTION_DATE_TIME_FORMAT = "date-time-format";
     private static final String OPTION_CONFIG_PROPERTIES = "config";
     private static final String OPTION_CONTINUE_AFTER_ERROR = "continue-after-error";
+    private static final String OPTION_BUCKET_COMPARE = "bucket-compare";
+    private static final String OPTION_BUCKET_COUNT = "bucket-count";
+    private static final String OPTION_BUCKET_ROWS = "bucket-rows";
+    private static final String OPTION_THREADS = "threads";
 
     @Override
     protected void printHelp(CommandLine cmd, Options options) {
@@ -207,6 +235,10 @@ public class DbCompareCommand extends AbstractCommandLauncher {
         addOption(options, null, OPTION_DATE_TIME_FORMAT, true);
         addOption(options, null, OPTION_CONFIG_PROPERTIES, true);
         addOption(options, null, OPTION_CONTINUE_AFTER_ERROR, true);
+        addOption(options, null, OPTION_BUCKET_COMPARE, true);
+        addOption(options, null, OPTION_BUCKET_COUNT, true);
+        addOption(options, null, OPTION_BUCKET_ROWS, true);
+        addOption(options, null, OPTION_THREADS, true);
     }
 
     protected Map<String, String> parseProperty(CommandLine line, String propertyName) {
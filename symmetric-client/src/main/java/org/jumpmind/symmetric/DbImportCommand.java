@@ -20,9 +20,10 @@
  */
 package org.jumpmind.symmetric;
 
-import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.Options;
@@ -49,9 +50,10 @@ public class DbImportCommand extends AbstractCommandLauncher {
     private static final String OPTION_FILTER_CLASSES = "filter-classes";
     private static final String OPTION_DROP_IF_EXISTS = "drop-if-exists";
     private static final String OPTION_ALTER_CASE = "alter-case";
+    private static final String OPTION_THREADS = "threads";
 
     public DbImportCommand() {
-        super("dbimport", "[file...]", "DbImport.Option.");
+        super("dbimport", "[file or dir...]", "DbImport.Option.");
     }
 
     public static void main(String[] args) {
@@ -92,6 +94,7 @@ public class DbImportCommand extends AbstractCommandLauncher {
         addOption(options, null, OPTION_FILTER_CLASSES, true);
         addOption(options, null, OPTION_DROP_IF_EXISTS, false);
         addOption(options, null, OPTION_ALTER_CASE, false);
+        addOption(options, null, OPTION_THREADS, true);
     }
 
     @Override
@@ -146,20 +149,27 @@ public class DbImportCommand extends AbstractCommandLauncher {
         if (line.hasOption(OPTION_IGNORE)) {
             dbImport.setIgnoreCollisions(true);
         }
+        if (line.hasOption(OPTION_THREADS)) {
+            dbImport.setThreadCount(Integer.parseInt(line.getOptionValue(OPTION_THREADS)));
+        }
         String[] args = line.getArgs();
         if (args.length == 0) {
             dbImport.importTables(System.in, line.getOptionValue(OPTION_TABLE));
         } else {
+            List<File> files = new ArrayList<File>();
             for (String fileName : args) {
-                if (!new File(fileName).exists()) {
+                File file = new File(fileName);
+                if (!file.exists()) {
                     throw new RuntimeException("Cannot find file " + fileName);
+                } else if (file.isDirectory()) {
+                    File[] dirFiles = file.listFiles(File::isFile);
+                    Arrays.sort(dirFiles);
+                    files.addAll(Arrays.asList(dirFiles));
+                } else {
+                    files.add(file);
                 }
             }
-            for (String fileName : args) {
-                BufferedInputStream in = new BufferedInputStream(new FileInputStream(fileName));
-                dbImport.importTables(in, line.getOptionValue(OPTION_TABLE));
-                in.close();
-            }
+            dbImport.importTables(files, line.getOptionValue(OPTION_TABLE));
         }
         return true;
     }
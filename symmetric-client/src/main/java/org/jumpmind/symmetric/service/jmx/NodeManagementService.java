@@ -45,6 +45,7 @@ import org.jumpmind.symmetric.model.Node;
 import org.jumpmind.symmetric.model.NodeCommunication.CommunicationType;
 import org.jumpmind.symmetric.service.IDataExtractorService;
 import org.jumpmind.symmetric.transport.ConcurrentConnectionManager.NodeConnectionStatistics;
+import org.jumpmind.symmetric.transport.ConcurrentConnectionManager.ReservationPool;
 import org.jumpmind.util.FormatUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -186,6 +187,35 @@ public class NodeManagementService implements IBuiltInExtensionPoint, ISymmetric
         return out.toString();
     }
 
+    @ManagedOperation(description = "Get statistics about the time spent reserving connections")
+    public String showConnectionReservationStatisticsAsText() {
+        String lineFeed = "\n";
+        if (engine.getParameterService().getString(ParameterConstants.JMX_LINE_FEED).equals("html")) {
+            lineFeed = "</br>";
+        }
+        Map<String, ReservationPool> pools = engine.getConcurrentConnectionManager().getReservationPoolsById();
+        StringBuilder out = new StringBuilder();
+        out.append("-------------------------------------------------------------------------------------------------------------------------------");
+        out.append(lineFeed);
+        out.append("     CONNECTION TYPE      RESERVATIONS      RESERVE REQUESTS      AVG RESERVE MICROS      MAX RESERVE MICROS      RETRIES");
+        out.append(lineFeed);
+        out.append("-------------------------------------------------------------------------------------------------------------------------------");
+        out.append(lineFeed);
+        for (String pool : pools.keySet()) {
+            ReservationPool poolStat = pools.get(pool);
+            long reserveCount = poolStat.getReserveCount();
+            out.append(StringUtils.leftPad(pool, 20));
+            out.append(StringUtils.leftPad(Integer.toString(poolStat.getReservationCount()), 18));
+            out.append(StringUtils.leftPad(Long.toString(reserveCount), 22));
+            out.append(StringUtils.leftPad(NumberFormat.getIntegerInstance().format(
+                    reserveCount > 0 ? poolStat.getTotalReserveTimeNanos() / reserveCount / 1000 : 0), 24));
+            out.append(StringUtils.leftPad(NumberFormat.getIntegerInstance().format(poolStat.getMaxReserveTimeNanos() / 1000), 24));
+            out.append(StringUtils.leftPad(Long.toString(poolStat.getRetryCount()), 13));
+            out.append(lineFeed);
+        }
+        return out.toString();
+    }
+
     @ManagedOperation(description = "Clean up both incoming and outgoing resources that are older than the passed in number of milliseconds")
     @ManagedOperationParameters({ @ManagedOperationParameter(
             name = "timeToLiveInMS",
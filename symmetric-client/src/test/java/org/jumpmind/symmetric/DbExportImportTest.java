@@ -23,6 +23,8 @@ package org.jumpmind.symmetric;
 import java.io.File;
 import java.nio.charset.Charset;
 import java.sql.Types;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
@@ -459,6 +461,113 @@ public class DbExportImportTest extends AbstractServiceTest {
         Assert.assertEquals("\"2\",\"This is a test of c\"", lines.get(8));
     }
 
+    @Test
+    public void exportThenImportCsvInParallel() throws Exception {
+        ISymmetricEngine engine = getSymmetricEngine();
+        IDatabasePlatform platform = engine.getSymmetricDialect().getPlatform();
+        Database testTables = platform.readDatabaseFromXml("/test-dbimport.xml", true);
+        Table table = testTables.findTable("test_db_import_1", false);
+        recreateImportTable();
+        final int RECORD_COUNT = 100;
+        DbFill fill = new DbFill(platform);
+        fill.setRecordCount(RECORD_COUNT);
+        fill.fillTables(table.getName());
+        File dir = new File("target/parallel");
+        FileUtils.deleteDirectory(dir);
+        dir.mkdirs();
+        DbExport export = new DbExport(platform);
+        export.setFormat(Format.CSV);
+        export.setNoCreateInfo(true);
+        export.setDir(dir.getAbsolutePath());
+        export.setThreadCount(4);
+        export.setChunkRows(30);
+        export.exportTables(new String[] { table.getName() });
+        String tableName = platform.getTableFromCache(table.getName(), false).getName();
+        Assert.assertTrue(new File(dir, tableName + ".csv").isFile());
+        Assert.assertTrue(new File(dir, tableName + ".part4.csv").isFile());
+        ISqlTemplate sqlTemplate = platform.getSqlTemplate();
+        List<Row> rowsBeforeImport = sqlTemplate.query(SELECT_FROM_TEST_DB_IMPORT_1_ORDER_BY_ID);
+        recreateImportTable();
+        DbImport importCsv = new DbImport(platform);
+        importCsv.setFormat(DbImport.Format.CSV);
+        importCsv.setThreadCount(4);
+        importCsv.importTables(Arrays.asList(dir.listFiles()), null);
+        Assert.assertEquals(RECORD_COUNT, sqlTemplate.queryForInt("select count(*) from " + table.getName()));
+        compareRows(table, rowsBeforeImport, sqlTemplate.query(SELECT_FROM_TEST_DB_IMPORT_1_ORDER_BY_ID));
+    }
+
+    @Test
+    public void exportInParallelWithOrWhereClause() throws Exception {
+        ISymmetricEngine engine = getSymmetricEngine();
+        IDatabasePlatform platform = engine.getSymmetricDialect().getPlatform();
+        Database testTables = platform.readDatabaseFromXml("/test-dbimport.xml", true);
+        Table table = testTables.findTable("test_db_import_1", false);
+        recreateImportTable();
+        DbFill fill = new DbFill(platform);
+        fill.setRecordCount(100);
+        fill.fillTables(table.getName());
+        ISqlTemplate sqlTemplate = platform.getSqlTemplate();
+        List<Row> allRows = sqlTemplate.query(SELECT_FROM_TEST_DB_IMPORT_1_ORDER_BY_ID);
+        int lowId = allRows.get(20).getInt("id");
+        int highId = allRows.get(70).getInt("id");
+        String condition = "id < " + lowId + " or id > " + highId;
+        List<Row> expectedRows = sqlTemplate.query("select * from test_db_import_1 where " + condition + " order by id");
+        File dir = new File("target/parallel-where");
+        FileUtils.deleteDirectory(dir);
+        dir.mkdirs();
+        DbExport export = new DbExport(platform);
+        export.setFormat(Format.CSV);
+        export.setNoCreateInfo(true);
+        export.setDir(dir.getAbsolutePath());
+        export.setThreadCount(4);
+        export.setChunkRows(10);
+        export.setWhereClause("where " + condition + " order by id");
+        export.exportTables(new String[] { table.getName() });
+        String tableName = platform.getTableFromCache(table.getName(), false).getName();
+        Assert.assertTrue(new File(dir, tableName + ".part2.csv").isFile());
+        recreateImportTable();
+        DbImport importCsv = new DbImport(platform);
+        importCsv.setFormat(DbImport.Format.CSV);
+        importCsv.setThreadCount(4);
+        importCsv.importTables(Arrays.asList(dir.listFiles()), null);
+        Assert.assertEquals(expectedRows.size(), sqlTemplate.queryForInt("select count(*) from " + table.getName()));
+        compareRows(table, expectedRows, sqlTemplate.query(SELECT_FROM_TEST_DB_IMPORT_1_ORDER_BY_ID));
+    }
+
+    @Test
+    public void exportThenImportParentAndChildInForeignKeyOrder() throws Exception {
+        ISymmetricEngine engine = getSymmetricEngine();
+        IDatabasePlatform platform = engine.getSymmetricDialect().getPlatform();
+        Database fkTables = platform.readDatabaseFromXml("/test-dbexportimport-fk-tables.xml", true);
+        platform.dropDatabase(fkTables, true);
+        DbImport importXml = new DbImport(platform);
+        importXml.setFormat(DbImport.Format.XML);
+        importXml.setAlterCaseToMatchDatabaseDefaultCase(true);
+        importXml.importTables(getClass().getResourceAsStream("/test-dbexportimport-fk-tables.xml"));
+        File dir = new File("target/parallel-fk");
+        FileUtils.deleteDirectory(dir);
+        DbExport export = new DbExport(platform);
+        export.setDir(dir.getAbsolutePath());
+        export.setThreadCount(4);
+        export.exportTables(new String[] { "test_fk_a_child", "test_fk_b_parent" });
+        List<String> manifest = FileUtils.readLines(new File(dir, DbExport.MANIFEST_FILE_NAME), Charset.defaultCharset());
+        Assert.assertEquals(2, manifest.size());
+        Assert.assertTrue(manifest.get(0).equalsIgnoreCase("0\ttest_fk_b_parent"));
+        Assert.assertTrue(manifest.get(1).equalsIgnoreCase("1\ttest_fk_a_child"));
+        ISqlTemplate sqlTemplate = platform.getSqlTemplate();
+        for (int threadCount : new int[] { 1, 4 }) {
+            platform.dropDatabase(fkTables, true);
+            List<File> files = Arrays.asList(dir.listFiles());
+            Collections.sort(files);
+            DbImport importSql = new DbImport(platform);
+            importSql.setThreadCount(threadCount);
+            importSql.importTables(files, null);
+            Assert.assertEquals(2, sqlTemplate.queryForInt("select count(*) from test_fk_b_parent"));
+            Assert.assertEquals(3, sqlTemplate.queryForInt("select count(*) from test_fk_a_child"));
+        }
+        platform.dropDatabase(fkTables, true);
+    }
+
     protected void compareRows(Table table, List<Row> one, List<Row> two) {
         if (one.size() != two.size()) {
             Assert.fail("First list had " + one.size() + " and second list had " + two.size());
@@ -823,9 +823,18 @@ abstract public class AbstractSymmetricEngine implements ISymmetricEngine {
         if (nodeCommunicationService != null) {
             nodeCommunicationService.stop();
         }
+        if (dataLoaderService != null) {
+            dataLoaderService.stop();
+        }
+        if (fileSyncService != null) {
+            fileSyncService.stop();
+        }
         if (updateService != null) {
             updateService.stop();
         }
+        if (concurrentConnectionManager != null) {
+            concurrentConnectionManager.stop();
+        }
         if (statisticManager != null) {
             List<ProcessInfo> infos = statisticManager.getProcessInfos();
             List<Thread> threadsToWaitOn = new ArrayList<Thread>();
@@ -1024,6 +1033,7 @@ abstract public class AbstractSymmetricEngine implements ISymmetricEngine {
         getNodeService().flushNodeGroupCache();
         getLoadFilterService().clearCache();
         getFileSyncService().clearCache();
+        getOutgoingBatchService().clearCache();
     }
 
     public void reOpenRegistration(String nodeId) {
@@ -53,6 +53,7 @@ public class CacheManager implements ICacheManager {
     volatile private GroupletCache groupletCache;
     volatile private LoadFilterCache loadFilterCache;
     volatile private TransformCache transformCache;
+    volatile private RouterCache routerCache;
 
     public CacheManager(ISymmetricEngine engine) {
         this.engine = engine;
@@ -128,6 +129,16 @@ public class CacheManager implements ICacheManager {
         }
     }
 
+    private void initializeRouterCache() {
+        if (routerCache == null) {
+            synchronized (constructorCreator) {
+                if (routerCache == null) {
+                    routerCache = new RouterCache(engine);
+                }
+            }
+        }
+    }
+
     private void initializeTransformCache() {
         if (transformCache == null) {
             synchronized (constructorCreator) {
@@ -226,6 +237,14 @@ public class CacheManager implements ICacheManager {
     public void flushRouters() {
         initializeTriggerRouterCache();
         triggerRouterCache.flushRouters();
+        initializeRouterCache();
+        routerCache.flushRouters();
+    }
+
+    @Override
+    public RouterCache getRouterCache() {
+        initializeRouterCache();
+        return routerCache;
     }
 
     @Override
@@ -72,6 +72,8 @@ public interface ICacheManager {
 
     public void flushRouters();
 
+    public RouterCache getRouterCache();
+
     public void flushAllWithRouters();
 
     public List<Node> getSourceNodesCache(NodeGroupLinkAction eventAction, Node node);
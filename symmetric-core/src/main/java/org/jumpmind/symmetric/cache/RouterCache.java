@@ -0,0 +1,136 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.jumpmind.symmetric.ISymmetricEngine;
+import org.jumpmind.symmetric.common.ParameterConstants;
+import org.jumpmind.symmetric.model.Router;
+import org.jumpmind.symmetric.service.IParameterService;
+
+/**
+ * Holds parsed router expressions and lookup tables across routing passes. Entries are keyed by router id, last update time and expression, so a
+ * router that changes is parsed again. The least recently used entries are evicted when the cache is full. Cached values are shared by routing
+ * threads, so they must not be changed after they are loaded.
+ */
+public class RouterCache {
+    private IParameterService parameterService;
+    private Map<String, CacheEntry> cache;
+    private AtomicLong hitCount = new AtomicLong();
+    private AtomicLong missCount = new AtomicLong();
+    private AtomicLong evictionCount = new AtomicLong();
+
+    public RouterCache(ISymmetricEngine engine) {
+        this.parameterService = engine.getParameterService();
+        this.cache = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+                if (size() > parameterService.getInt(ParameterConstants.CACHE_ROUTER_MAX_ENTRIES, 1000)) {
+                    evictionCount.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public <T> T get(Router router, String name, Supplier<T> loader) {
+        return get(router, name, 0, loader);
+    }
+
+    /**
+     * @param timeToLiveMs
+     *            how long a loaded value can be used before it is loaded again, or zero to use it until the router changes or it is evicted
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(Router router, String name, long timeToLiveMs, Supplier<T> loader) {
+        String key = buildKey(router, name);
+        CacheEntry entry = null;
+        synchronized (cache) {
+            entry = cache.get(key);
+        }
+        long now = System.currentTimeMillis();
+        if (entry != null && (timeToLiveMs <= 0 || now - entry.loadTime < timeToLiveMs)) {
+            hitCount.incrementAndGet();
+            return (T) entry.value;
+        }
+        missCount.incrementAndGet();
+        T value = loader.get();
+        synchronized (cache) {
+            cache.put(key, new CacheEntry(value, now));
+        }
+        return value;
+    }
+
+    protected String buildKey(Router router, String name) {
+        StringBuilder key = new StringBuilder(64).append(router.getRouterId()).append(":");
+        if (router.getLastUpdateTime() != null) {
+            key.append(router.getLastUpdateTime().getTime());
+        }
+        key.append(":").append(name).append(":").append(router.getRouterExpression());
+        return key.toString();
+    }
+
+    public void flushRouters() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("RouterCache [size=%d, hits=%d, misses=%d, evictions=%d]", size(), getHitCount(), getMissCount(), getEvictionCount());
+    }
+
+    static class CacheEntry {
+        Object value;
+        long loadTime;
+
+        CacheEntry(Object value, long loadTime) {
+            this.value = value;
+            this.loadTime = loadTime;
+        }
+    }
+}
@@ -50,6 +50,7 @@ final public class Constants {
     public static final String STAGING_CATEGORY_LOG_MINER = "logminer";
     public static final String STAGING_CATEGORY_BULK_LOAD = "bulkloaddir";
     public static final String STAGING_CATEGORY_COMPARE = "compare";
+    public static final String STAGING_CATEGORY_ROUTING = "routing";
     public static final String CLIENT_SPRING_XML = "classpath:/symmetric-client.xml";
     public static final String SERVER_SPRING_XML = "classpath:/symmetric-server.xml";
     public static final String PLEASE_SET_ME = "please set me";
@@ -91,6 +91,7 @@ final public class ParameterConstants {
     public final static String FILE_PUSH_THREAD_COUNT_PER_SERVER = "file.push.thread.per.server.count";
     public final static String FILE_PUSH_MINIMUM_PERIOD_MS = "file.push.period.minimum.ms";
     public final static String FILE_PUSH_LOCK_TIMEOUT_MS = "file.push.lock.timeout.ms";
+    public final static String NODE_COMMUNICATION_VIRTUAL_THREADS = "node.communication.virtual.threads";
     public final static String JOB_RANDOM_MAX_START_TIME_MS = "job.random.max.start.time.ms";
     public final static String JOB_PULL_PERIOD_TIME_MS = "job.pull.period.time.ms";
     public final static String JOB_PUSH_PERIOD_TIME_MS = "job.push.period.time.ms";
@@ -150,6 +151,8 @@ final public class ParameterConstants {
     public final static String INITIAL_LOAD_CONCAT_CSV_IN_SQL_ENABLED = "initial.load.concat.csv.in.sql.enabled";
     public final static String INITIAL_LOAD_USE_COLUMN_TEMPLATES_ENABLED = "initial.load.use.column.templates.enabled";
     public final static String INITIAL_LOAD_EXTRACT_THREAD_COUNT_PER_SERVER = "initial.load.extract.thread.per.server.count";
+    public final static String INITIAL_LOAD_EXTRACT_RANGE_THREAD_COUNT = "initial.load.extract.range.thread.count";
+    public final static String INITIAL_LOAD_EXTRACT_RANGE_MIN_BATCHES = "initial.load.extract.range.min.batches";
     public final static String INITIAL_LOAD_EXTRACT_TIMEOUT_MS = "initial.load.extract.timeout.ms";
     public final static String INITIAL_LOAD_EXTRACT_USE_TWO_PASS_LOB = "initial.load.extract.use.two.pass.lob";
     public final static String INITIAL_LOAD_EXTRACT_JOB_START = "start.initial.load.extract.job";
@@ -163,6 +166,7 @@ final public class ParameterConstants {
     public final static String EXTRACT_CHECK_ROW_SIZE = "extract.check.row.size";
     public final static String EXTRACT_ROW_MAX_LENGTH = "extract.row.max.length";
     public final static String EXTRACT_ROW_CAPTURE_TIME = "extract.row.capture.time";
+    public final static String EXTRACT_THREAD_COUNT_PER_REQUEST = "extract.thread.per.request.count";
     public final static String CREATE_TABLE_WITHOUT_DEFAULTS = "create.table.without.defaults";
     public final static String CREATE_TABLE_WITHOUT_FOREIGN_KEYS = "create.table.without.foreign.keys";
     public final static String CREATE_TABLE_WITHOUT_INDEXES = "create.table.without.indexes";
@@ -173,6 +177,8 @@ final public class ParameterConstants {
     public final static String STREAM_TO_FILE_TIME_TO_LIVE_MS = "stream.to.file.ttl.ms";
     public final static String STREAM_TO_FILE_MIN_TIME_TO_LIVE_MS = "stream.to.file.min.ttl.ms";
     public final static String STREAM_TO_FILE_PURGE_ON_TTL_ENABLED = "stream.to.file.purge.on.ttl.enabled";
+    public final static String STREAM_TO_FILE_LOAD_THREAD_COUNT = "stream.to.file.load.thread.count";
+    public final static String STREAM_TO_FILE_LOAD_PARALLEL_CHANNELS = "stream.to.file.load.parallel.channels";
     public final static String PARAMETER_REFRESH_PERIOD_IN_MS = "parameter.reload.timeout.ms";
     public final static String CONCURRENT_WORKERS = "http.concurrent.workers.max";
     public final static String CONCURRENT_RESERVATION_TIMEOUT = "http.concurrent.reservation.timeout.ms";
@@ -184,6 +190,7 @@ final public class ParameterConstants {
     public final static String ROUTING_MAX_GAPS_TO_QUALIFY_IN_SQL = "routing.max.gaps.to.qualify.in.sql";
     public final static String ROUTING_PEEK_AHEAD_MEMORY_THRESHOLD = "routing.peek.ahead.memory.threshold.percent";
     public final static String ROUTING_PEEK_AHEAD_WINDOW = "routing.peek.ahead.window.after.max.size";
+    public final static String ROUTING_PEEK_AHEAD_SPILL_THRESHOLD = "routing.peek.ahead.spill.threshold.bytes";
     public final static String ROUTING_STALE_DATA_ID_GAP_TIME = "routing.stale.dataid.gap.time.ms";
     public final static String ROUTING_STALE_GAP_BUSY_EXPIRE_TIME = "routing.stale.gap.busy.expire.time.ms";
     public final static String ROUTING_LARGEST_GAP_SIZE = "routing.largest.gap.size";
@@ -205,6 +212,9 @@ final public class ParameterConstants {
     public final static String ROUTING_USE_CHANNEL_THREADS = "routing.use.channel.threads";
     public final static String ROUTING_THREAD_COUNT_PER_SERVER = "routing.thread.per.server.count";
     public final static String ROUTING_LOCK_TIMEOUT_MS = "routing.lock.timeout.ms";
+    public final static String ROUTING_PARALLEL_ROUTER_THREADS = "routing.parallel.router.threads";
+    public final static String ROUTING_PARALLEL_ROUTER_QUEUE_SIZE = "routing.parallel.router.queue.size";
+    public final static String ROUTING_BSH_COMPILE_ENABLED = "routing.bsh.compile.enabled";
     public final static String INCOMING_BATCH_SKIP_DUPLICATE_BATCHES_ENABLED = "incoming.batches.skip.duplicates";
     @Deprecated
     public final static String INCOMING_BATCH_DELETE_ON_LOAD = "incoming.batch.delete.on.load";
@@ -217,6 +227,7 @@ final public class ParameterConstants {
     public final static String DATA_LOADER_NUM_OF_ACK_RETRIES = "num.of.ack.retries";
     public final static String DATA_LOADER_SEND_ACK_KEEPALIVE = "send.ack.keepalive.ms";
     public final static String DATA_LOADER_TIME_BETWEEN_ACK_RETRIES = "time.between.ack.retries.ms";
+    public final static String PULL_ACK_ASYNC_ENABLED = "pull.ack.async.enabled";
     public final static String DATA_LOADER_MAX_ROWS_BEFORE_COMMIT = "dataloader.max.rows.before.commit";
     public final static String DATA_LOADER_CREATE_TABLE_ALTER_TO_MATCH_DB_CASE = "dataloader.create.table.alter.to.match.db.case";
     public final static String DATA_LOADER_CREATE_TABLE_WITHOUT_DEFAULTS_ON_ERROR = "dataloader.create.table.without.defaults.on.error";
@@ -226,11 +237,16 @@ final public class ParameterConstants {
     public final static String DATA_LOADER_USE_PRIMARY_KEYS_FROM_SOURCE = "dataloader.use.primary.keys.from.source";
     public final static String DATA_LOADER_IGNORE_SQL_EVENT_ERRORS = "dataloader.ignore.sql.event.errors";
     public final static String DATA_LOADER_LOG_SQL_PARAMS_ON_ERROR = "dataloader.log.sql.params.on.error";
+    public final static String DATA_LOADER_USE_BATCH_INSERTS = "dataloader.use.batch.inserts";
     public final static String DATA_RELOAD_IS_BATCH_INSERT_TRANSACTIONAL = "datareload.batch.insert.transactional";
     public final static String DATA_EXTRACTOR_ENABLED = "dataextractor.enable";
     public final static String DATA_EXTRACTOR_TEXT_COLUMN_EXPRESSION = "dataextractor.text.column.expression";
     public final static String DATA_FLUSH_JDBC_BATCH_SIZE = "data.flush.jdbc.batch.size";
     public final static String OUTGOING_BATCH_MAX_BATCHES_TO_SELECT = "outgoing.batches.max.to.select";
+    public final static String OUTGOING_BATCH_QUEUE_INDEX_ENABLED = "outgoing.batches.queue.index.enabled";
+    public final static String OUTGOING_BATCH_QUEUE_INDEX_MAX_BATCHES = "outgoing.batches.queue.index.max.batches";
+    public final static String OUTGOING_BATCH_QUEUE_INDEX_REFRESH_MS = "outgoing.batches.queue.index.refresh.ms";
+    public final static String OUTGOING_BATCH_QUEUE_INDEX_CLUSTER_REFRESH_MS = "outgoing.batches.queue.index.cluster.refresh.ms";
     public final static String DBDIALECT_ORACLE_USE_TRANSACTION_VIEW = "oracle.use.transaction.view";
     public final static String DBDIALECT_ORACLE_TEMPLATE_NUMBER_SPEC = "oracle.template.precision";
     public final static String DBDIALECT_ORACLE_TEMPLATE_NUMBER_TEXT_MINIMUM = "oracle.template.precision.text.minimum";
@@ -260,12 +276,14 @@ final public class ParameterConstants {
     public final static String TRANSPORT_HTTP_MANUAL_REDIRECTS_ENABLED = "http.manual.redirects.enabled";
     public final static String TRANSPORT_HTTP_TIMEOUT = "http.timeout.ms";
     public final static String TRANSPORT_HTTP_CONNECT_TIMEOUT = "http.connect.timeout.ms";
+    public final static String TRANSPORT_HTTP_CLIENT_ENABLED = "http.client.enabled";
     public final static String TRANSPORT_HTTP_PUSH_STREAM_ENABLED = "http.push.stream.output.enabled";
     public final static String TRANSPORT_HTTP_PUSH_STREAM_SIZE = "http.push.stream.output.size";
     public final static String TRANSPORT_HTTP_USE_COMPRESSION_CLIENT = "http.compression";
     public final static String TRANSPORT_HTTP_COMPRESSION_DISABLED_SERVLET = "web.compression.disabled";
     public final static String TRANSPORT_HTTP_COMPRESSION_LEVEL = "compression.level";
     public final static String TRANSPORT_HTTP_COMPRESSION_STRATEGY = "compression.strategy";
+    public final static String TRANSPORT_HTTP_COMPRESSION_CODEC = "http.compression.codec";
     public final static String TRANSPORT_HTTP_USE_SESSION_AUTH = "http.use.session.auth";
     public final static String TRANSPORT_HTTP_SESSION_EXPIRE_SECONDS = "http.session.expire.seconds";
     public final static String TRANSPORT_HTTP_SESSION_MAX_COUNT = "http.session.max.count";
@@ -282,6 +300,8 @@ final public class ParameterConstants {
     public final static String CACHE_TIMEOUT_TRANSFORM_IN_MS = "cache.transform.time.ms";
     public final static String CACHE_TIMEOUT_LOAD_FILTER_IN_MS = "cache.load.filter.time.ms";
     public final static String CACHE_TIMEOUT_CONFLICT_IN_MS = "cache.conflict.time.ms";
+    public final static String CACHE_ROUTER_MAX_ENTRIES = "cache.router.max.entries";
+    public final static String CACHE_TIMEOUT_ROUTER_LOOKUP_TABLE_IN_MS = "cache.router.lookup.table.time.ms";
     public final static String CACHE_TIMEOUT_TABLES_IN_MS = "cache.table.time.ms";
     public final static String CACHE_CHANNEL_COMMON_BATCHES_IN_MS = "cache.channel.common.batches.time.ms";
     public final static String CACHE_CHANNEL_DEFAULT_ROUTER_IN_MS = "cache.channel.default.router.time.ms";
@@ -355,6 +375,8 @@ final public class ParameterConstants {
     public final static String FILE_SYNC_ENABLE = "file.sync.enable";
     public final static String FILE_SYNC_FAST_SCAN = "file.sync.fast.scan";
     public final static String FILE_SYNC_USE_CRC = "file.sync.use.crc";
+    public final static String FILE_SYNC_CRC_THREADS = "file.sync.crc.threads";
+    public final static String FILE_SYNC_WATCH_ENABLED = "file.sync.watch.enabled";
     public final static String FILE_SYNC_PREVENT_PING_BACK = "file.sync.prevent.ping.back";
     public final static String FILE_SYNC_LOCK_WAIT_MS = "file.sync.lock.wait.ms";
     public final static String FILE_SYNC_DELETE_ZIP_FILE_AFTER_SYNC = "file.sync.delete.zip.file.after.sync";
@@ -408,6 +430,7 @@ final public class ParameterConstants {
     public final static String STAGING_MANAGER_CLASS = "staging.manager.class";
     public final static String STAGING_DIR = "staging.dir";
     public final static String STAGING_LOW_SPACE_THRESHOLD_MEGABYTES = "staging.low.space.threshold.megabytes";
+    public final static String STAGING_CODEC = "staging.codec";
     public final static String STATISTIC_MANAGER_CLASS = "statistic.manager.class";
     public final static String DB2_CAPTURE_TRANSACTION_ID = "db2.capture.transaction.id";
     public final static String TREAT_BINARY_AS_LOB_ENABLED = "treat.binary.as.lob.enabled";
@@ -427,15 +450,16 @@ final public class ParameterConstants {
     public final static String KAFKA_TOPIC_BY = "kafka.topic.by";
     public final static String KAFKA_CONFLUENT_REGISTRY_URL = "kafka.confluent.registry.url";
     public final static String KAFKA_AVRO_JAVA_PACKAGE = "kafka.avro.java.package";
+    public final static String KAFKA_MAX_IN_FLIGHT_MESSAGES = "kafka.max.in.flight.messages";
     public final static String KAFKACLIENT_SECURITY_PROTOCOL = "kafkaclient.security.protocol";
     public final static String KAFKACLIENT_SSL_KEYSTORE_LOCATION = "kafkaclient.ssl.keystore.location";
     public final static String KAFKACLIENT_SSL_KEYSTORE_PASSWORD = "kafkaclient.ssl.keystore.password";
     public final static String KAFKACLIENT_SSL_TRUSTSTORE_LOCATION = "kafkaclient.ssl.truststore.location";
     public final static String KAFKACLIENT_SSL_KEYSTORE_TYPE = "kafkaclient.ssl.keystore.type";
     public final static String[] ALL_KAFKA_PARAMS = new String[] { KAFKA_PRODUCER, KAFKA_FORMAT, KAFKA_MESSAGE_BY,
-            KAFKA_TOPIC_BY, KAFKA_CONFLUENT_REGISTRY_URL, KAFKA_AVRO_JAVA_PACKAGE, KAFKACLIENT_SECURITY_PROTOCOL,
-            KAFKACLIENT_SSL_KEYSTORE_LOCATION, KAFKACLIENT_SSL_KEYSTORE_PASSWORD, KAFKACLIENT_SSL_TRUSTSTORE_LOCATION,
-            KAFKACLIENT_SSL_KEYSTORE_TYPE };
+            KAFKA_TOPIC_BY, KAFKA_CONFLUENT_REGISTRY_URL, KAFKA_AVRO_JAVA_PACKAGE, KAFKA_MAX_IN_FLIGHT_MESSAGES,
+            KAFKACLIENT_SECURITY_PROTOCOL, KAFKACLIENT_SSL_KEYSTORE_LOCATION, KAFKACLIENT_SSL_KEYSTORE_PASSWORD,
+            KAFKACLIENT_SSL_TRUSTSTORE_LOCATION, KAFKACLIENT_SSL_KEYSTORE_TYPE };
     public final static String SNOWFLAKE_STAGING_TYPE = "snowflake.staging.type";
     public final static String SNOWFLAKE_INTERNAL_STAGE_NAME = "snowflake.internal.stage.name";
     public final static String CLOUD_BULK_LOAD_MAX_ROWS_BEFORE_FLUSH = "cloud.bulk.load.max.rows.before.flush";
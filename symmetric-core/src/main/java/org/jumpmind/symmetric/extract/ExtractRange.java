@@ -0,0 +1,167 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.extract;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jumpmind.symmetric.model.OutgoingBatch;
+
+/**
+ * One part of an extract request for a large table. The rows of the table are split into ranges of a single numeric primary key column and each
+ * range is extracted on its own thread into its own share of the request's batches.
+ */
+public class ExtractRange {
+    protected int rangeNumber;
+    protected int rangeCount;
+    protected String condition;
+    protected List<OutgoingBatch> batches;
+
+    public ExtractRange(int rangeNumber, int rangeCount, String condition, List<OutgoingBatch> batches) {
+        this.rangeNumber = rangeNumber;
+        this.rangeCount = rangeCount;
+        this.condition = condition;
+        this.batches = batches;
+    }
+
+    /**
+     * Split the key values from min to max into ranges that hold about the same number of rows. The key values are first divided into
+     * sub-ranges of equal width and rowCounts has the number of rows in each one, so dense and sparse areas of the key can be balanced. Each
+     * range gets enough batches to hold its rows at maxBatchSize rows per batch, and any batches left over go to the ranges with the most rows
+     * per batch. The first range has no lower bound and the last range has no upper bound, so rows outside of min and max are still extracted.
+     *
+     * @return the ranges, or null if there are not enough batches to hold the rows of every range
+     */
+    public static List<ExtractRange> split(String quotedColumnName, long min, long max, long[] rowCounts, List<OutgoingBatch> batches,
+            int rangeCount, long maxBatchSize) {
+        int subRangeCount = rowCounts.length;
+        long step = getSubRangeStep(min, max, subRangeCount);
+        long totalRows = 0;
+        for (long rowCount : rowCounts) {
+            totalRows += rowCount;
+        }
+        List<Integer> ends = new ArrayList<Integer>(rangeCount);
+        List<Long> counts = new ArrayList<Long>(rangeCount);
+        long cumulativeRows = 0;
+        long rangeRows = 0;
+        for (int i = 0; i < subRangeCount; i++) {
+            cumulativeRows += rowCounts[i];
+            rangeRows += rowCounts[i];
+            if (ends.size() < rangeCount - 1 && i < subRangeCount - 1 && rangeRows > 0
+                    && cumulativeRows * rangeCount >= totalRows * (ends.size() + 1)) {
+                ends.add(i + 1);
+                counts.add(rangeRows);
+                rangeRows = 0;
+            }
+        }
+        ends.add(subRangeCount);
+        counts.add(rangeRows);
+        int[] batchCounts = new int[ends.size()];
+        int neededBatches = 0;
+        for (int i = 0; i < batchCounts.length; i++) {
+            batchCounts[i] = (int) Math.max(1, (counts.get(i) + maxBatchSize - 1) / Math.max(1, maxBatchSize));
+            neededBatches += batchCounts[i];
+        }
+        if (ends.size() < 2 || neededBatches > batches.size()) {
+            return null;
+        }
+        for (int extra = batches.size() - neededBatches; extra > 0; extra--) {
+            int fullest = 0;
+            for (int i = 1; i < batchCounts.length; i++) {
+                if (counts.get(i) * batchCounts[fullest] > counts.get(fullest) * batchCounts[i]) {
+                    fullest = i;
+                }
+            }
+            batchCounts[fullest]++;
+        }
+        List<ExtractRange> ranges = new ArrayList<ExtractRange>(ends.size());
+        int batchIndex = 0;
+        int subRangeStart = 0;
+        for (int i = 0; i < ends.size(); i++) {
+            long start = min + step * subRangeStart;
+            long end = min + step * ends.get(i);
+            String condition = null;
+            if (i == 0) {
+                condition = quotedColumnName + " < " + end;
+            } else if (i == ends.size() - 1) {
+                condition = quotedColumnName + " >= " + start;
+            } else {
+                condition = quotedColumnName + " >= " + start + " and " + quotedColumnName + " < " + end;
+            }
+            List<OutgoingBatch> rangeBatches = new ArrayList<OutgoingBatch>(batches.subList(batchIndex, batchIndex + batchCounts[i]));
+            batchIndex += batchCounts[i];
+            ranges.add(new ExtractRange(i + 1, ends.size(), condition, rangeBatches));
+            subRangeStart = ends.get(i);
+        }
+        return ranges;
+    }
+
+    /**
+     * @return the width of each sub-range when the key values from min to max are divided into subRangeCount sub-ranges
+     */
+    public static long getSubRangeStep(long min, long max, int subRangeCount) {
+        return Math.max(1, (max - min) / subRangeCount + 1);
+    }
+
+    /**
+     * Add the range condition to the initial load select of a reload event, keeping any order by clause at the end
+     */
+    public static String addCondition(String initialLoadSelect, String condition) {
+        String select = initialLoadSelect == null ? "" : initialLoadSelect.trim();
+        if (select.toUpperCase().startsWith("WHERE")) {
+            select = select.substring(5).trim();
+        }
+        String orderBy = "";
+        int orderByIndex = select.toLowerCase().lastIndexOf("order by");
+        if (orderByIndex >= 0) {
+            orderBy = " " + select.substring(orderByIndex);
+            select = select.substring(0, orderByIndex).trim();
+        }
+        if (select.length() == 0) {
+            return condition + orderBy;
+        }
+        return "(" + select + ") and " + condition + orderBy;
+    }
+
+    public int getRangeNumber() {
+        return rangeNumber;
+    }
+
+    public int getRangeCount() {
+        return rangeCount;
+    }
+
+    public String getCondition() {
+        return condition;
+    }
+
+    public List<OutgoingBatch> getBatches() {
+        return batches;
+    }
+
+    public long getStartBatchId() {
+        return batches.get(0).getBatchId();
+    }
+
+    public long getEndBatchId() {
+        return batches.get(batches.size() - 1).getBatchId();
+    }
+}
@@ -75,6 +75,7 @@ public class MultiBatchStagingWriter implements IDataWriter {
     protected Map<Long, OutgoingBatch> childBatches;
     protected long memoryThresholdInBytes;
     protected boolean isRestarted;
+    protected long startBatchId, endBatchId;
 
     public MultiBatchStagingWriter(ISymmetricEngine engine, ExtractRequest request, List<ExtractRequest> childRequests, String sourceNodeId,
             List<OutgoingBatch> batches, long maxBatchSize, ProcessInfo processInfo, boolean isRestarted) {
@@ -85,6 +86,10 @@ public class MultiBatchStagingWriter implements IDataWriter {
         this.maxBatchSize = maxBatchSize;
         this.batches = new ArrayList<OutgoingBatch>(batches);
         this.finishedBatches = new ArrayList<OutgoingBatch>(batches.size());
+        if (batches.size() > 0) {
+            this.startBatchId = batches.get(0).getBatchId();
+            this.endBatchId = batches.get(batches.size() - 1).getBatchId();
+        }
         this.processInfo = processInfo;
         this.startTime = this.ts = System.currentTimeMillis();
         this.childRequests = childRequests;
@@ -151,6 +156,11 @@ public class MultiBatchStagingWriter implements IDataWriter {
     }
 
     public void start(Batch batch) {
+        if (batch != null && batch.getBatchId() != outgoingBatch.getBatchId()) {
+            // Extracting a range of the request, so the batch that holds the reload event is not the first batch written
+            batch = new Batch(BatchType.EXTRACT, outgoingBatch.getBatchId(), outgoingBatch.getChannelId(), batch.getBinaryEncoding(),
+                    batch.getSourceNodeId(), outgoingBatch.getNodeId(), false);
+        }
         this.batch = batch;
         if (batch != null) {
             processInfo.setCurrentBatchId(batch.getBatchId());
@@ -187,7 +197,7 @@ public class MultiBatchStagingWriter implements IDataWriter {
             log.info(
                     "Extract request {} for table {} extracting for {} seconds, {} batches, {} rows, and {} bytes.  Current batch is {} in range {}-{}.",
                     request.getRequestId(), request.getTableName(), (System.currentTimeMillis() - startTime) / 1000, finishedBatches.size() + 1,
-                    currentRowCount, currentByteCount, batch.getBatchId(), request.getStartBatchId(), request.getEndBatchId());
+                    currentRowCount, currentByteCount, batch.getBatchId(), startBatchId, endBatchId);
             ts = System.currentTimeMillis();
         }
     }
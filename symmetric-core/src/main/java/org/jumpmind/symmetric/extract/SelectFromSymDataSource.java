@@ -73,6 +73,7 @@ public class SelectFromSymDataSource extends SelectFromSource {
     protected Map<Integer, CounterStat> missingTriggerRoutersByTriggerHist = new HashMap<Integer, CounterStat>();
     protected boolean containsBigLob;
     protected boolean dialectHasNoOldBinaryData;
+    protected String reloadRangeCondition;
 
     public SelectFromSymDataSource(ISymmetricEngine engine, OutgoingBatch outgoingBatch, Node sourceNode, Node targetNode,
             ProcessInfo processInfo, boolean containsBigLob) {
@@ -228,6 +229,10 @@ public class SelectFromSymDataSource extends SelectFromSource {
                         initialLoadSelect.length() - platform.getDatabaseInfo().getSqlCommandDelimiter().length());
             }
         }
+        if (reloadRangeCondition != null) {
+            initialLoadSelect = ExtractRange.addCondition(initialLoadSelect, reloadRangeCondition);
+            log.debug("Extracting range of table {} with select: {}", triggerHistory.getSourceTableName(), initialLoadSelect);
+        }
         SelectFromTableEvent event = new SelectFromTableEvent(targetNode, triggerRouter, triggerHistory, initialLoadSelect);
         reloadSource = createSelectFromTableSource(event);
         data = (Data) reloadSource.next();
@@ -334,6 +339,13 @@ public class SelectFromSymDataSource extends SelectFromSource {
         return requiresLobSelectedFromSource;
     }
 
+    /**
+     * Limit the rows selected for a reload event to one range of the table
+     */
+    public void setReloadRangeCondition(String reloadRangeCondition) {
+        this.reloadRangeCondition = reloadRangeCondition;
+    }
+
     protected void closeCursor() {
         if (cursor != null) {
             cursor.close();
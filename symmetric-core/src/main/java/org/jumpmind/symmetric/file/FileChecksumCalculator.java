@@ -0,0 +1,101 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.file;
+
+import java.io.File;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+
+import org.jumpmind.exception.InterruptedException;
+import org.jumpmind.symmetric.model.FileSnapshot;
+
+/**
+ * Calculates the CRC32 checksum of file snapshots on a shared thread pool while the caller keeps scanning. The number of files waiting for a
+ * checksum is bounded so a large scan doesn't queue up every file in the tree. Call {@link #await()} before using the snapshots.
+ */
+public class FileChecksumCalculator {
+    protected ExecutorService executor;
+    protected int maxPending;
+    protected Semaphore permits;
+    protected volatile RuntimeException error;
+
+    /**
+     * @param executor
+     *            the pool to calculate on, or null to calculate on the calling thread
+     */
+    public FileChecksumCalculator(ExecutorService executor, int maxPending) {
+        this.executor = executor;
+        this.maxPending = Math.max(maxPending, 1);
+        this.permits = new Semaphore(this.maxPending);
+    }
+
+    public void calculate(final FileSnapshot snapshot, final File file) {
+        if (executor == null) {
+            snapshot.calculateCrc32Checksum(file);
+            return;
+        }
+        checkError();
+        try {
+            permits.acquire();
+        } catch (java.lang.InterruptedException e) {
+            throw new InterruptedException(e);
+        }
+        try {
+            executor.execute(new Runnable() {
+                public void run() {
+                    try {
+                        snapshot.calculateCrc32Checksum(file);
+                    } catch (RuntimeException e) {
+                        error = e;
+                    } finally {
+                        permits.release();
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Wait for all pending checksums to finish
+     */
+    public void await() {
+        if (executor != null) {
+            try {
+                permits.acquire(maxPending);
+                permits.release(maxPending);
+            } catch (java.lang.InterruptedException e) {
+                throw new InterruptedException(e);
+            }
+            checkError();
+        }
+    }
+
+    protected void checkError() {
+        RuntimeException e = error;
+        if (e != null) {
+            error = null;
+            throw e;
+        }
+    }
+}
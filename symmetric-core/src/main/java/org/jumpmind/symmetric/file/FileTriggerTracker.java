@@ -44,11 +44,22 @@ public class FileTriggerTracker {
     private ProcessInfo processInfo;
     private ISymmetricEngine engine;
     protected boolean useCrc;
+    protected FileChecksumCalculator checksumCalculator;
     long startTime = System.currentTimeMillis();
     long ts = startTime;
 
     public FileTriggerTracker(FileTriggerRouter fileTriggerRouter, DirectorySnapshot lastSnapshot, ProcessInfo processInfo,
             boolean useCrc, ISymmetricEngine engine) {
+        this(fileTriggerRouter, lastSnapshot, processInfo, useCrc, null, engine);
+    }
+
+    /**
+     * @param checksumCalculator
+     *            calculates checksums off the scanning thread when useCrc is on, or null to calculate them while scanning
+     */
+    public FileTriggerTracker(FileTriggerRouter fileTriggerRouter, DirectorySnapshot lastSnapshot, ProcessInfo processInfo,
+            boolean useCrc, FileChecksumCalculator checksumCalculator, ISymmetricEngine engine) {
+        this.checksumCalculator = checksumCalculator;
         this.fileTriggerRouter = fileTriggerRouter;
         this.processInfo = processInfo;
         this.useCrc = useCrc;
@@ -79,6 +90,13 @@ public class FileTriggerTracker {
     protected void pollForChanges() {
         if (fileObserver != null) {
             fileObserver.checkAndNotify();
+            awaitChecksums();
+        }
+    }
+
+    protected void awaitChecksums() {
+        if (checksumCalculator != null) {
+            checksumCalculator.await();
         }
     }
 
@@ -109,6 +127,7 @@ public class FileTriggerTracker {
                 .getFileTrigger().createIOFileFilter());
         observer.addListener(new SnapshotUpdater(snapshot));
         observer.checkAndNotify();
+        awaitChecksums();
     }
 
     class SnapshotUpdater extends FileAlterationListenerAdaptor {
@@ -164,7 +183,12 @@ public class FileTriggerTracker {
             if (processInfo != null) {
                 processInfo.incrementCurrentDataCount();
             }
-            snapshot.add(new FileSnapshot(snapshot.getFileTriggerRouter(), file, lastEventType, useCrc));
+            boolean calculateLater = useCrc && checksumCalculator != null;
+            FileSnapshot fileSnapshot = new FileSnapshot(snapshot.getFileTriggerRouter(), file, lastEventType, useCrc && !calculateLater);
+            if (calculateLater && lastEventType != LastEventType.DELETE && file.isFile()) {
+                checksumCalculator.calculate(fileSnapshot, file);
+            }
+            snapshot.add(fileSnapshot);
             if (System.currentTimeMillis() - ts > 60000) {
                 log.info("File tracker has been processing for {} seconds.  The following stats have been gathered: {}", new Object[] {
                         (System.currentTimeMillis() - startTime) / 1000, "{ fileCount=" + snapshot.size() + " }" });
@@ -0,0 +1,292 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.file;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.io.filefilter.IOFileFilter;
+import org.jumpmind.symmetric.ISymmetricEngine;
+import org.jumpmind.symmetric.file.FileTriggerFileModifiedListener.FileModifiedCallback;
+import org.jumpmind.symmetric.model.FileSnapshot;
+import org.jumpmind.symmetric.model.FileSnapshot.LastEventType;
+import org.jumpmind.symmetric.model.FileTrigger;
+import org.jumpmind.symmetric.model.FileTriggerRouter;
+import org.jumpmind.symmetric.model.ProcessInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tracks changes for a file trigger router with a {@link WatchService}, so only the directories that had events are listed and compared to
+ * their last snapshot instead of walking the whole tree. A full scan is still needed when watching starts and whenever the operating system
+ * drops events, which is reported by {@link #trackChanges} returning false. Network file systems usually don't deliver events at all.
+ */
+public class FileTriggerWatcher {
+    final protected Logger log = LoggerFactory.getLogger(getClass());
+    protected FileTriggerRouter fileTriggerRouter;
+    protected ISymmetricEngine engine;
+    protected Path basePath;
+    protected IOFileFilter fileFilter;
+    protected boolean recurse;
+    protected WatchService watchService;
+    protected Map<WatchKey, Path> watchedDirs = new HashMap<WatchKey, Path>();
+    protected Map<Path, WatchKey> watchKeys = new HashMap<Path, WatchKey>();
+    protected boolean fullScanNeeded = true;
+    protected boolean warned;
+
+    public FileTriggerWatcher(FileTriggerRouter fileTriggerRouter, ISymmetricEngine engine) {
+        this.fileTriggerRouter = fileTriggerRouter;
+        this.engine = engine;
+        FileTrigger fileTrigger = fileTriggerRouter.getFileTrigger();
+        this.basePath = new File(fileTrigger.getBaseDir()).toPath();
+        this.fileFilter = fileTrigger.createIOFileFilter();
+        this.recurse = fileTrigger.isRecurse();
+    }
+
+    public synchronized boolean isFullScanNeeded() {
+        return fullScanNeeded || watchService == null;
+    }
+
+    /**
+     * Start watching the directory tree from scratch. Call this before a full scan, so changes made during the scan are picked up next time.
+     */
+    public synchronized void startWatching() {
+        close();
+        try {
+            watchService = basePath.getFileSystem().newWatchService();
+            register(basePath);
+            fullScanNeeded = false;
+            warned = false;
+        } catch (IOException e) {
+            if (!warned) {
+                log.warn("Unable to watch {} for changes, so it will be fully scanned each time.  {}", basePath, e.getMessage());
+                warned = true;
+            }
+            close();
+        }
+    }
+
+    /**
+     * Compare each directory that had events since the last call to its last snapshot and commit the differences.
+     *
+     * @param checksumCalculator
+     *            calculates checksums for new and changed files, or null if checksums are not used
+     * @return false if events were lost and a full scan is needed instead
+     */
+    public synchronized boolean trackChanges(ProcessInfo processInfo, FileChecksumCalculator checksumCalculator,
+            FileModifiedCallback callback) {
+        if (isFullScanNeeded()) {
+            return false;
+        }
+        long startTime = System.currentTimeMillis();
+        Set<Path> changedDirs = pollChangedDirs();
+        if (changedDirs == null) {
+            return false;
+        }
+        int changeCount = 0;
+        for (Path dir : changedDirs) {
+            String relativeDir = getRelativeDir(dir);
+            DirectorySnapshot lastSnapshot = callback.getLastDirectorySnapshot(relativeDir);
+            DirectorySnapshot currentSnapshot = takeSnapshot(dir, lastSnapshot, processInfo, checksumCalculator);
+            if (checksumCalculator != null) {
+                checksumCalculator.await();
+            }
+            DirectorySnapshot changes = lastSnapshot.diff(currentSnapshot);
+            if (changes.size() > 0) {
+                changeCount += changes.size();
+                callback.commit(changes);
+            }
+        }
+        if (changeCount > 0) {
+            log.info("File tracker watched {} changed directories in {} ms and found {} files changed", new Object[] { changedDirs.size(),
+                    System.currentTimeMillis() - startTime, changeCount });
+        }
+        return true;
+    }
+
+    /**
+     * @return the directories that had events, or null if events were lost
+     */
+    protected Set<Path> pollChangedDirs() {
+        Set<Path> changedDirs = new LinkedHashSet<Path>();
+        WatchKey key = null;
+        while (!fullScanNeeded && (key = watchService.poll()) != null) {
+            Path dir = watchedDirs.get(key);
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == OVERFLOW) {
+                    log.info("File tracker lost events for {}, so it will do a full scan", basePath);
+                    fullScanNeeded = true;
+                } else if (dir != null) {
+                    changedDirs.add(dir);
+                    Path child = dir.resolve((Path) event.context());
+                    if (event.kind() == ENTRY_CREATE) {
+                        if (recurse && Files.isDirectory(child) && fileFilter.accept(child.toFile())) {
+                            try {
+                                // files can be added before the new directory is registered, so list everything under it
+                                changedDirs.addAll(register(child));
+                            } catch (IOException e) {
+                                log.info("File tracker could not watch {}, so it will do a full scan.  {}", child, e.getMessage());
+                                fullScanNeeded = true;
+                            }
+                        }
+                    } else if (event.kind() == ENTRY_DELETE) {
+                        unregister(child, changedDirs);
+                    }
+                }
+            }
+            if (!key.reset() && dir != null && watchKeys.get(dir) == key) {
+                if (dir.equals(basePath)) {
+                    fullScanNeeded = true;
+                } else {
+                    unregister(dir, changedDirs);
+                }
+            }
+        }
+        return fullScanNeeded ? null : changedDirs;
+    }
+
+    protected DirectorySnapshot takeSnapshot(Path dir, DirectorySnapshot lastSnapshot, ProcessInfo processInfo,
+            FileChecksumCalculator checksumCalculator) {
+        DirectorySnapshot snapshot = new DirectorySnapshot(fileTriggerRouter);
+        File[] files = dir.toFile().listFiles((FileFilter) fileFilter);
+        if (files == null) {
+            return snapshot;
+        }
+        Map<String, FileSnapshot> lastFiles = new HashMap<String, FileSnapshot>(lastSnapshot.size());
+        for (FileSnapshot lastFile : lastSnapshot) {
+            if (lastFile.getLastEventType() != LastEventType.DELETE) {
+                lastFiles.put(lastFile.getFileName(), lastFile);
+            }
+        }
+        boolean isSyncOnCtlFile = fileTriggerRouter.getFileTrigger().isSyncOnCtlFile();
+        for (File file : files) {
+            boolean isFile = file.isFile();
+            FileSnapshot lastFile = lastFiles.get(file.getName());
+            if (isFile && isSyncOnCtlFile && lastFile == null && !engine.getFileSyncService().getControleFile(file).exists()) {
+                continue;
+            }
+            FileSnapshot fileSnapshot = new FileSnapshot(fileTriggerRouter, file, LastEventType.CREATE, false);
+            if (isFile && checksumCalculator != null) {
+                if (lastFile != null && lastFile.getFileSize() == fileSnapshot.getFileSize()
+                        && lastFile.getFileModifiedTime() == fileSnapshot.getFileModifiedTime()) {
+                    fileSnapshot.setCrc32Checksum(lastFile.getCrc32Checksum());
+                } else {
+                    checksumCalculator.calculate(fileSnapshot, file);
+                }
+            }
+            snapshot.add(fileSnapshot);
+            if (processInfo != null) {
+                processInfo.incrementCurrentDataCount();
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Watch the directory, and every directory under it if the trigger recurses
+     *
+     * @return the directories that were registered
+     */
+    protected List<Path> register(Path dir) throws IOException {
+        final List<Path> registered = new ArrayList<Path>();
+        Files.walkFileTree(dir, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path subDir, BasicFileAttributes attrs) throws IOException {
+                if (!subDir.equals(basePath) && !fileFilter.accept(subDir.toFile())) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                WatchKey key = subDir.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+                watchedDirs.put(key, subDir);
+                watchKeys.put(subDir, key);
+                registered.add(subDir);
+                return recurse ? FileVisitResult.CONTINUE : FileVisitResult.SKIP_SUBTREE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) throws IOException {
+                log.debug("File tracker could not watch {}.  {}", file, e.getMessage());
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return registered;
+    }
+
+    /**
+     * Stop watching a directory that was removed, along with every directory under it, and mark them changed so their files are deleted
+     */
+    protected void unregister(Path dir, Set<Path> changedDirs) {
+        if (!watchKeys.containsKey(dir)) {
+            // a file was deleted, or a directory that was never watched, so there is nothing under it to stop watching
+            return;
+        }
+        Iterator<Map.Entry<Path, WatchKey>> iterator = watchKeys.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Path, WatchKey> entry = iterator.next();
+            if (entry.getKey().startsWith(dir)) {
+                entry.getValue().cancel();
+                watchedDirs.remove(entry.getValue());
+                changedDirs.add(entry.getKey());
+                iterator.remove();
+            }
+        }
+    }
+
+    protected String getRelativeDir(Path dir) {
+        String relativeDir = basePath.relativize(dir).toString().replace('\\', '/');
+        return relativeDir.length() == 0 ? "." : relativeDir;
+    }
+
+    public synchronized void close() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+            }
+            watchService = null;
+        }
+        watchedDirs.clear();
+        watchKeys.clear();
+        fullScanNeeded = true;
+    }
+}
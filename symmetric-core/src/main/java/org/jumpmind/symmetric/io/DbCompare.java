@@ -28,6 +28,11 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -44,10 +49,12 @@ import org.jumpmind.db.sql.Row;
 import org.jumpmind.symmetric.ISymmetricEngine;
 import org.jumpmind.symmetric.SymmetricException;
 import org.jumpmind.symmetric.common.TableConstants;
+import org.jumpmind.symmetric.io.DbCompareBucketHasher.Digest;
 import org.jumpmind.symmetric.io.DbCompareReport.TableReport;
 import org.jumpmind.symmetric.model.TriggerHistory;
 import org.jumpmind.symmetric.model.TriggerRouter;
 import org.jumpmind.symmetric.service.impl.TransformService.TransformTableNodeGroupLink;
+import org.jumpmind.util.CustomizableThreadFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -66,35 +73,61 @@ public class DbCompare {
     private ISymmetricEngine sourceEngine;
     private ISymmetricEngine targetEngine;
     private DbCompareConfig config;
-    private DbValueComparator dbValueComparator;
+    // tables can be compared on more than one thread, and the comparator's date formats are not thread safe
+    private ThreadLocal<DbValueComparator> dbValueComparator = ThreadLocal.withInitial(() -> createValueComparator());
 
     public DbCompare(ISymmetricEngine sourceEngine, ISymmetricEngine targetEngine, DbCompareConfig config) {
         this.config = config;
         this.sourceEngine = sourceEngine;
         this.targetEngine = targetEngine;
-        dbValueComparator = new DbValueComparator(sourceEngine, targetEngine);
+    }
+
+    protected DbValueComparator createValueComparator() {
+        DbValueComparator comparator = new DbValueComparator(sourceEngine, targetEngine);
+        comparator.setNumericScale(config.getNumericScale());
+        comparator.setDateTimeFormat(config.getDateTimeFormat());
+        return comparator;
     }
 
     public DbCompareReport compare() {
-        dbValueComparator.setNumericScale(config.getNumericScale());
-        dbValueComparator.setDateTimeFormat(config.getDateTimeFormat());
+        dbValueComparator.remove();
         log.info("Starting DBCompare with config:\n{}", config.report());
         OutputStream sqlDiffOutput = getSqlDiffOutputStream();
         DbCompareReport report = new DbCompareReport();
         long start = System.currentTimeMillis();
         List<DbCompareTables> tablesToCompare = getTablesToCompare();
         report.printReportHeader(System.out);
-        for (DbCompareTables tables : tablesToCompare) {
+        if (config.getThreadCount() > 1 && tablesToCompare.size() > 1) {
+            ExecutorService executor = Executors.newFixedThreadPool(Math.min(config.getThreadCount(), tablesToCompare.size()),
+                    new CustomizableThreadFactory("dbcompare"));
+            List<Future<TableReport>> futures = new ArrayList<Future<TableReport>>(tablesToCompare.size());
+            for (final DbCompareTables tables : tablesToCompare) {
+                futures.add(executor.submit(() -> compareTables(tables, sqlDiffOutput)));
+            }
             try {
-                TableReport tableReport = compareTables(tables, sqlDiffOutput);
-                report.addTableReport(tableReport);
-                long elapsed = System.currentTimeMillis() - start;
-                log.info("Completed table {}.  Elapsed time: {}", tableReport,
-                        DurationFormatUtils.formatDurationWords((elapsed), true, true));
-                report.printTableReport(tableReport, System.out);
-            } catch (Exception e) {
-                log.error("Exception while comparing " + tables.getSourceTable() +
-                        " to " + tables.getTargetTable(), e);
+                for (int i = 0; i < tablesToCompare.size(); i++) {
+                    DbCompareTables tables = tablesToCompare.get(i);
+                    try {
+                        addTableReport(report, futures.get(i).get(), start);
+                    } catch (ExecutionException e) {
+                        log.error("Exception while comparing " + tables.getSourceTable() +
+                                " to " + tables.getTargetTable(), e.getCause());
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        } else {
+            for (DbCompareTables tables : tablesToCompare) {
+                try {
+                    addTableReport(report, compareTables(tables, sqlDiffOutput), start);
+                } catch (Exception e) {
+                    log.error("Exception while comparing " + tables.getSourceTable() +
+                            " to " + tables.getTargetTable(), e);
+                }
             }
         }
         report.printReportFooter(System.out);
@@ -104,6 +137,14 @@ public class DbCompare {
         return report;
     }
 
+    protected void addTableReport(DbCompareReport report, TableReport tableReport, long start) {
+        report.addTableReport(tableReport);
+        long elapsed = System.currentTimeMillis() - start;
+        log.info("Completed table {}.  Elapsed time: {}", tableReport,
+                DurationFormatUtils.formatDurationWords((elapsed), true, true));
+        report.printTableReport(tableReport, System.out);
+    }
+
     protected OutputStream getSqlDiffOutputStream() {
         String outputSqlDiffFileName = config.getOutputSql();
         if (!StringUtils.isEmpty(outputSqlDiffFileName) && !outputSqlDiffFileName.contains("%t")) {
@@ -135,22 +176,9 @@ public class DbCompare {
     }
 
     protected TableReport compareTables(DbCompareTables tables, OutputStream sqlDiffOutput) {
-        String sourceSelect = getSourceComparisonSQL(tables, sourceEngine.getTargetDialect().getTargetPlatform());
-        String targetSelect = getTargetComparisonSQL(tables, targetEngine.getTargetDialect().getTargetPlatform());
-        // String targetSelect = getTargetComparisonSQL(tables, targetEngine.getDatabasePlatform());
-        CountingSqlReadCursor sourceCursor = new CountingSqlReadCursor(sourceEngine.getTargetDialect().getTargetPlatform().getSqlTemplateDirty().queryForCursor(
-                sourceSelect,
-                defaultRowMapper));
-        CountingSqlReadCursor targetCursor = new CountingSqlReadCursor(targetEngine.getTargetDialect().getTargetPlatform().getSqlTemplateDirty().queryForCursor(
-                targetSelect,
-                defaultRowMapper));
         TableReport tableReport = new TableReport();
         tableReport.setSourceTable(tables.getSourceTable().getName());
         tableReport.setTargetTable(tables.getTargetTable().getName());
-        Row sourceRow = sourceCursor.next();
-        Row targetRow = targetCursor.next();
-        int counter = 0;
-        long startTime = System.currentTimeMillis();
         DbCompareDiffWriter diffWriter = null;
         OutputStream stream = null;
         if (sqlDiffOutput != null) {
@@ -160,6 +188,116 @@ public class DbCompare {
             diffWriter = new DbCompareDiffWriter(targetEngine, tables, stream);
         }
         diffWriter.setContinueAfterError(config.isContinueAfterError());
+        try {
+            DbCompareBucketHasher[] hashers = config.isBucketCompare() ? getBucketHashers(tables) : null;
+            if (hashers != null) {
+                compareBuckets(tables, hashers[0], hashers[1], tableReport, diffWriter);
+            } else {
+                compareRows(tables, null, null, tableReport, diffWriter);
+            }
+        } finally {
+            if (stream != null) {
+                try {
+                    stream.close();
+                } catch (IOException e) {
+                }
+            }
+        }
+        return tableReport;
+    }
+
+    /**
+     * Get the hashers for the source and target tables, or null if the tables can't be compared by buckets
+     */
+    protected DbCompareBucketHasher[] getBucketHashers(DbCompareTables tables) {
+        IDatabasePlatform sourcePlatform = sourceEngine.getTargetDialect().getTargetPlatform();
+        IDatabasePlatform targetPlatform = targetEngine.getTargetDialect().getTargetPlatform();
+        String reason = null;
+        if (!sourcePlatform.getName().equals(targetPlatform.getName()) || !DbCompareBucketHasher.isSupported(sourcePlatform.getName())) {
+            reason = "bucket digests are only supported between databases of the same type";
+        } else if (tables.getTransform() != null) {
+            reason = "the table is transformed";
+        } else if (!DbCompareBucketHasher.isSupported(tables.getSourceTable()) || !DbCompareBucketHasher.isSupported(tables.getTargetTable())) {
+            reason = "it needs a single integer primary key column and no binary or large text columns";
+        }
+        if (reason != null) {
+            log.info("Comparing table {} row by row because {}", tables.getSourceTable().getName(), reason);
+            return null;
+        }
+        List<Column> sourceColumns = new ArrayList<Column>();
+        List<Column> targetColumns = new ArrayList<Column>();
+        for (Column sourceColumn : tables.getSourceTable().getColumns()) {
+            Column targetColumn = tables.getColumnMapping().get(sourceColumn);
+            if (targetColumn != null) {
+                sourceColumns.add(sourceColumn);
+                targetColumns.add(targetColumn);
+            }
+        }
+        return new DbCompareBucketHasher[] {
+                new DbCompareBucketHasher(sourcePlatform, tables.getSourceTable(), sourceColumns, tables.getSourceTable().getPrimaryKeyColumns()[0],
+                        config.getSourceWhereClause(tables.getSourceTable().getName())),
+                new DbCompareBucketHasher(targetPlatform, tables.getTargetTable(), targetColumns, tables.getTargetTable().getPrimaryKeyColumns()[0],
+                        config.getTargetWhereClause(tables.getTargetTable().getName())) };
+    }
+
+    protected void compareBuckets(DbCompareTables tables, DbCompareBucketHasher sourceHasher, DbCompareBucketHasher targetHasher,
+            TableReport tableReport, DbCompareDiffWriter diffWriter) {
+        long[] sourceRange = sourceHasher.getKeyRange();
+        long[] targetRange = targetHasher.getKeyRange();
+        if (sourceRange != null || targetRange != null) {
+            long start = Math.min(sourceRange != null ? sourceRange[0] : Long.MAX_VALUE, targetRange != null ? targetRange[0] : Long.MAX_VALUE);
+            long end = Math.max(sourceRange != null ? sourceRange[1] : Long.MIN_VALUE, targetRange != null ? targetRange[1] : Long.MIN_VALUE);
+            compareBuckets(tables, sourceHasher, targetHasher, start, end, tableReport, diffWriter);
+        }
+    }
+
+    /**
+     * Compare the digests of buckets that split up a range of keys. Buckets that match are counted as matched rows. Buckets that differ are split
+     * into smaller buckets until they hold few enough rows to compare row by row.
+     */
+    protected void compareBuckets(DbCompareTables tables, DbCompareBucketHasher sourceHasher, DbCompareBucketHasher targetHasher, long start,
+            long end, TableReport tableReport, DbCompareDiffWriter diffWriter) {
+        long width = (end - start) / Math.max(config.getBucketCount(), 2) + 1;
+        Map<Long, Digest> sourceDigests = sourceHasher.hashBuckets(start, end, width);
+        Map<Long, Digest> targetDigests = targetHasher.hashBuckets(start, end, width);
+        Set<Long> bucketIds = new TreeSet<Long>(sourceDigests.keySet());
+        bucketIds.addAll(targetDigests.keySet());
+        for (Long bucketId : bucketIds) {
+            Digest sourceDigest = sourceDigests.get(bucketId);
+            Digest targetDigest = targetDigests.get(bucketId);
+            long bucketStart = start + bucketId * width;
+            long bucketEnd = Math.min(end, bucketStart + width - 1);
+            if (sourceDigest != null && sourceDigest.matches(targetDigest)) {
+                tableReport.countMatchedRows((int) sourceDigest.getRowCount());
+            } else {
+                long rowCount = Math.max(sourceDigest != null ? sourceDigest.getRowCount() : 0, targetDigest != null ? targetDigest.getRowCount() : 0);
+                if (rowCount <= config.getBucketRows() || width == 1) {
+                    compareRows(tables, sourceHasher.getRangeClause(bucketStart, bucketEnd), targetHasher.getRangeClause(bucketStart, bucketEnd),
+                            tableReport, diffWriter);
+                } else {
+                    compareBuckets(tables, sourceHasher, targetHasher, bucketStart, bucketEnd, tableReport, diffWriter);
+                }
+            }
+        }
+    }
+
+    protected void compareRows(DbCompareTables tables, String sourceRangeClause, String targetRangeClause, TableReport tableReport,
+            DbCompareDiffWriter diffWriter) {
+        String sourceSelect = getSourceComparisonSQL(tables, sourceEngine.getTargetDialect().getTargetPlatform(), sourceRangeClause);
+        String targetSelect = getTargetComparisonSQL(tables, targetEngine.getTargetDialect().getTargetPlatform(), targetRangeClause);
+        CountingSqlReadCursor sourceCursor = new CountingSqlReadCursor(sourceEngine.getTargetDialect().getTargetPlatform().getSqlTemplateDirty().queryForCursor(
+                sourceSelect,
+                defaultRowMapper));
+        CountingSqlReadCursor targetCursor = new CountingSqlReadCursor(targetEngine.getTargetDialect().getTargetPlatform().getSqlTemplateDirty().queryForCursor(
+                targetSelect,
+                defaultRowMapper));
+        int sourceRows = tableReport.getSourceRows();
+        int targetRows = tableReport.getTargetRows();
+        DbValueComparator dbValueComparator = this.dbValueComparator.get();
+        Row sourceRow = sourceCursor.next();
+        Row targetRow = targetCursor.next();
+        int counter = 0;
+        long startTime = System.currentTimeMillis();
         try {
             while (true) {
                 if (sourceRow == null && targetRow == null) {
@@ -214,16 +352,10 @@ public class DbCompare {
                     }
                     targetRow = targetCursor.next();
                 }
-                tableReport.setSourceRows(sourceCursor.count);
-                tableReport.setTargetRows(targetCursor.count);
+                tableReport.setSourceRows(sourceRows + sourceCursor.count);
+                tableReport.setTargetRows(targetRows + targetCursor.count);
             }
         } finally {
-            if (stream != null) {
-                try {
-                    stream.close();
-                } catch (IOException e) {
-                }
-            }
             if (sourceCursor != null) {
                 sourceCursor.close();
             }
@@ -231,7 +363,6 @@ public class DbCompare {
                 targetCursor.close();
             }
         }
-        return tableReport;
     }
 
     protected int comparePk(DbCompareTables tables, DbCompareRow sourceCompareRow, DbCompareRow targetCompareRow) {
@@ -248,14 +379,22 @@ public class DbCompare {
     }
 
     protected String getSourceComparisonSQL(DbCompareTables tables, IDatabasePlatform platform) {
-        String whereClause = config.getSourceWhereClause(tables.getSourceTable().getName());
+        return getSourceComparisonSQL(tables, platform, null);
+    }
+
+    protected String getSourceComparisonSQL(DbCompareTables tables, IDatabasePlatform platform, String rangeClause) {
+        String whereClause = addRangeClause(config.getSourceWhereClause(tables.getSourceTable().getName()), rangeClause);
         String sql = getComparisonSQL(tables.getSourceTable(),
                 tables.getSourceTable().getPrimaryKeyColumns(), platform, whereClause, true);
-        log.info("Source comparison SQL: {}", sql);
+        logComparisonSQL("Source", sql, rangeClause);
         return sql;
     }
 
     protected String getTargetComparisonSQL(DbCompareTables tables, IDatabasePlatform platform) {
+        return getTargetComparisonSQL(tables, platform, null);
+    }
+
+    protected String getTargetComparisonSQL(DbCompareTables tables, IDatabasePlatform platform, String rangeClause) {
         List<Column> mappedPkColumns = new ArrayList<Column>();
         for (Column sourcePkColumn : tables.getSourceTable().getPrimaryKeyColumns()) {
             Column targetColumn = tables.getColumnMapping().get(sourcePkColumn);
@@ -265,13 +404,26 @@ public class DbCompare {
                 mappedPkColumns.add(targetColumn);
             }
         }
-        String whereClause = config.getTargetWhereClause(tables.getTargetTable().getName());
+        String whereClause = addRangeClause(config.getTargetWhereClause(tables.getTargetTable().getName()), rangeClause);
         String sql = getComparisonSQL(tables.getTargetTable(), tables.getTargetTable().getPrimaryKeyColumns(), platform,
                 whereClause, false);
-        log.info("Target comparison SQL: {}", sql);
+        logComparisonSQL("Target", sql, rangeClause);
         return sql;
     }
 
+    protected String addRangeClause(String whereClause, String rangeClause) {
+        return rangeClause == null ? whereClause : "(" + whereClause + ") and " + rangeClause;
+    }
+
+    protected void logComparisonSQL(String side, String sql, String rangeClause) {
+        if (rangeClause == null) {
+            log.info("{} comparison SQL: {}", side, sql);
+        } else {
+            // bucket compare runs one query per differing bucket
+            log.debug("{} comparison SQL: {}", side, sql);
+        }
+    }
+
     protected String getComparisonSQL(Table table, Column[] sortByColumns, IDatabasePlatform platform,
             String whereClause, boolean isSource) {
         DmlStatement statement = platform.createDmlStatement(DmlType.SELECT,
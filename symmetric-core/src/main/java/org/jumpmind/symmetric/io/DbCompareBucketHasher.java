@@ -0,0 +1,192 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.io;
+
+import java.math.BigDecimal;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jumpmind.db.model.Column;
+import org.jumpmind.db.model.Table;
+import org.jumpmind.db.platform.DatabaseInfo;
+import org.jumpmind.db.platform.DatabaseNamesConstants;
+import org.jumpmind.db.platform.IDatabasePlatform;
+import org.jumpmind.db.sql.Row;
+
+/**
+ * Hashes buckets of rows inside the database for {@link DbCompare}, so only a row count and a digest per bucket is read instead of every row. Rows
+ * are split into buckets by ranges of a single integer primary key column, and the digest of a bucket is the sum of a hash of each row, which
+ * doesn't depend on row order. Each database has its own row hash function, so digests can only be compared between databases of the same type.
+ */
+public class DbCompareBucketHasher {
+    protected IDatabasePlatform platform;
+    protected Table table;
+    protected List<Column> columns;
+    protected Column pkColumn;
+    protected String whereClause;
+    protected String quote;
+
+    public DbCompareBucketHasher(IDatabasePlatform platform, Table table, List<Column> columns, Column pkColumn, String whereClause) {
+        this.platform = platform;
+        this.table = table;
+        this.columns = columns;
+        this.pkColumn = pkColumn;
+        this.whereClause = whereClause;
+        String delimiter = platform.getDatabaseInfo().getDelimiterToken();
+        this.quote = delimiter == null ? "" : delimiter;
+    }
+
+    public static boolean isSupported(String platformName) {
+        return getRowHashFunction(platformName) != null;
+    }
+
+    /**
+     * @return whether the table has a single integer primary key to split buckets on and only has column types that can be hashed as text
+     */
+    public static boolean isSupported(Table table) {
+        if (table.getPrimaryKeyColumnCount() != 1 || !isIntegerType(table.getPrimaryKeyColumns()[0])) {
+            return false;
+        }
+        for (Column column : table.getColumns()) {
+            int type = column.getMappedTypeCode();
+            if (column.isOfBinaryType() || column.isOfSpecialType() || type == Types.CLOB || type == Types.NCLOB || type == Types.LONGVARCHAR
+                    || type == Types.LONGNVARCHAR) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    protected static boolean isIntegerType(Column column) {
+        int type = column.getMappedTypeCode();
+        return type == Types.TINYINT || type == Types.SMALLINT || type == Types.INTEGER || type == Types.BIGINT
+                || ((type == Types.NUMERIC || type == Types.DECIMAL) && column.getScale() == 0);
+    }
+
+    protected static String getRowHashFunction(String platformName) {
+        if (platformName.startsWith(DatabaseNamesConstants.POSTGRESQL)) {
+            return "('x' || substr(md5(%s), 1, 8))::bit(32)::bigint";
+        } else if (platformName.startsWith(DatabaseNamesConstants.MYSQL) || platformName.startsWith(DatabaseNamesConstants.MARIADB)) {
+            return "crc32(%s)";
+        } else if (platformName.startsWith(DatabaseNamesConstants.ORACLE) || platformName.startsWith(DatabaseNamesConstants.H2)) {
+            return "ora_hash(%s)";
+        } else if (platformName.startsWith(DatabaseNamesConstants.MSSQL)) {
+            return "cast(binary_checksum(%s) as bigint)";
+        }
+        return null;
+    }
+
+    public String getRowHashSql() {
+        String platformName = platform.getName();
+        StringBuilder sb = new StringBuilder();
+        for (Column column : columns) {
+            String columnName = "t." + quote + column.getName() + quote;
+            if (sb.length() > 0) {
+                if (platformName.startsWith(DatabaseNamesConstants.MSSQL) || platformName.startsWith(DatabaseNamesConstants.MYSQL)
+                        || platformName.startsWith(DatabaseNamesConstants.MARIADB)) {
+                    sb.append(", ");
+                } else {
+                    sb.append(" || '|' || ");
+                }
+            }
+            if (platformName.startsWith(DatabaseNamesConstants.MSSQL)) {
+                sb.append(columnName);
+            } else if (platformName.startsWith(DatabaseNamesConstants.ORACLE)) {
+                sb.append("coalesce(to_char(").append(columnName).append("), '~')");
+            } else if (platformName.startsWith(DatabaseNamesConstants.MYSQL) || platformName.startsWith(DatabaseNamesConstants.MARIADB)) {
+                sb.append("coalesce(cast(").append(columnName).append(" as char), '~')");
+            } else {
+                sb.append("coalesce(cast(").append(columnName).append(" as varchar), '~')");
+            }
+        }
+        String row = sb.toString();
+        if (platformName.startsWith(DatabaseNamesConstants.MYSQL) || platformName.startsWith(DatabaseNamesConstants.MARIADB)) {
+            row = "concat_ws('|', " + row + ")";
+        }
+        return String.format(getRowHashFunction(platformName), row);
+    }
+
+    public String getKeyRangeSql() {
+        String pk = getPkColumnName();
+        return "select min(" + pk + ") as min_id, max(" + pk + ") as max_id from " + getTableName() + " t where " + whereClause;
+    }
+
+    public String getBucketSql(long start, long end, long width) {
+        String bucket = "floor((" + getPkColumnName() + " - " + start + ") / " + width + ")";
+        return "select " + bucket + " as bucket_id, count(*) as row_count, sum(" + getRowHashSql() + ") as row_hash from " + getTableName()
+                + " t where (" + whereClause + ") and " + getRangeClause(start, end) + " group by " + bucket;
+    }
+
+    public String getRangeClause(long start, long end) {
+        return getPkColumnName() + " between " + start + " and " + end;
+    }
+
+    /**
+     * @return the minimum and maximum key, or null if there are no rows
+     */
+    public long[] getKeyRange() {
+        Row row = platform.getSqlTemplateDirty().queryForRow(getKeyRangeSql());
+        if (row == null || row.get("min_id") == null) {
+            return null;
+        }
+        return new long[] { new BigDecimal(row.getString("min_id")).longValue(), new BigDecimal(row.getString("max_id")).longValue() };
+    }
+
+    public Map<Long, Digest> hashBuckets(long start, long end, long width) {
+        Map<Long, Digest> digests = new HashMap<Long, Digest>();
+        for (Row row : platform.getSqlTemplateDirty().query(getBucketSql(start, end, width))) {
+            long bucketId = new BigDecimal(row.getString("bucket_id")).longValue();
+            String hash = row.getString("row_hash");
+            digests.put(bucketId, new Digest(new BigDecimal(row.getString("row_count")).longValue(), hash == null ? null : new BigDecimal(hash)));
+        }
+        return digests;
+    }
+
+    protected String getTableName() {
+        DatabaseInfo databaseInfo = platform.getDatabaseInfo();
+        return table.getQualifiedTableName(quote, databaseInfo.getCatalogSeparator(), databaseInfo.getSchemaSeparator());
+    }
+
+    protected String getPkColumnName() {
+        return "t." + quote + pkColumn.getName() + quote;
+    }
+
+    public static class Digest {
+        long rowCount;
+        BigDecimal hash;
+
+        public Digest(long rowCount, BigDecimal hash) {
+            this.rowCount = rowCount;
+            this.hash = hash;
+        }
+
+        public long getRowCount() {
+            return rowCount;
+        }
+
+        public boolean matches(Digest digest) {
+            return digest != null && rowCount == digest.rowCount
+                    && (hash == null ? digest.hash == null : digest.hash != null && hash.compareTo(digest.hash) == 0);
+        }
+    }
+}
@@ -46,6 +46,10 @@ public class DbCompareConfig {
     private Map<String, List<String>> tablesToExcludedColumns = new LinkedHashMap<String, List<String>>();
     private String outputSql;
     private boolean continueAfterError = false;
+    private boolean bucketCompare = false;
+    private int bucketCount = 100;
+    private int bucketRows = 10000;
+    private int threadCount = 1;
     private Map<String, String> configSources = new HashMap<String, String>();
 
     public DbCompareConfig() {
@@ -61,6 +65,10 @@ public class DbCompareConfig {
         configSources.put("sqlDiffFileName", "default");
         configSources.put("outputSql", "default");
         configSources.put("continueAfterError", "default");
+        configSources.put("bucketCompare", "default");
+        configSources.put("bucketCount", "default");
+        configSources.put("bucketRows", "default");
+        configSources.put("threadCount", "default");
     }
 
     public String getSourceWhereClause(String tableName) {
@@ -237,6 +245,38 @@ public class DbCompareConfig {
         return continueAfterError;
     }
 
+    public boolean isBucketCompare() {
+        return bucketCompare;
+    }
+
+    public void setBucketCompare(boolean bucketCompare) {
+        this.bucketCompare = bucketCompare;
+    }
+
+    public int getBucketCount() {
+        return bucketCount;
+    }
+
+    public void setBucketCount(int bucketCount) {
+        this.bucketCount = bucketCount;
+    }
+
+    public int getBucketRows() {
+        return bucketRows;
+    }
+
+    public void setBucketRows(int bucketRows) {
+        this.bucketRows = bucketRows;
+    }
+
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    public void setThreadCount(int threadCount) {
+        this.threadCount = threadCount;
+    }
+
     public String report() {
         StringBuilder buff = new StringBuilder(128);
         buff.append("\tsourceTableNames=").append(sourceTableNames).append(" @").append(configSources.get("sourceTableNames")).append("\n");
@@ -250,6 +290,10 @@ public class DbCompareConfig {
                 "\n");
         buff.append("\toutputSql=").append(outputSql).append(" @").append(configSources.get("outputSql")).append("\n");
         buff.append("\tcontinueAfterError=").append(continueAfterError).append(" @").append(configSources.get("continueAfterError")).append("\n");
+        buff.append("\tbucketCompare=").append(bucketCompare).append(" @").append(configSources.get("bucketCompare")).append("\n");
+        buff.append("\tbucketCount=").append(bucketCount).append(" @").append(configSources.get("bucketCount")).append("\n");
+        buff.append("\tbucketRows=").append(bucketRows).append(" @").append(configSources.get("bucketRows")).append("\n");
+        buff.append("\tthreadCount=").append(threadCount).append(" @").append(configSources.get("threadCount")).append("\n");
         return buff.toString();
     }
 }
@@ -111,6 +111,12 @@ public class DbCompareReport {
             errorRows++;
         }
 
+        public void countMatchedRows(int rows) {
+            sourceRows += rows;
+            targetRows += rows;
+            matchedRows += rows;
+        }
+
         public String getSourceTable() {
             return sourceTable;
         }
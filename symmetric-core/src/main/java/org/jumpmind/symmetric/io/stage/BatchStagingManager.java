@@ -20,10 +20,12 @@
  */
 package org.jumpmind.symmetric.io.stage;
 
+import static org.apache.commons.lang3.StringUtils.isBlank;
 import static org.jumpmind.symmetric.common.Constants.STAGING_CATEGORY_INCOMING;
 import static org.jumpmind.symmetric.common.Constants.STAGING_CATEGORY_OUTGOING;
 import static org.jumpmind.symmetric.common.Constants.STAGING_CATEGORY_LOG_MINER;
 import static org.jumpmind.symmetric.common.Constants.STAGING_CATEGORY_BULK_LOAD;
+import static org.jumpmind.symmetric.common.Constants.STAGING_CATEGORY_ROUTING;
 
 import java.util.HashMap;
 import java.util.HashSet;
@@ -46,6 +48,34 @@ public class BatchStagingManager extends StagingManager {
         super(directory, engine.getParameterService().is(ParameterConstants.CLUSTER_LOCKING_ENABLED),
                 engine.getParameterService().getLong(ParameterConstants.STAGING_LOW_SPACE_THRESHOLD_MEGABYTES, 0));
         this.engine = engine;
+        setStagingCodec(createStagingCodec(engine.getParameterService().getString(ParameterConstants.STAGING_CODEC)));
+    }
+
+    protected IStagingCodec createStagingCodec(String name) {
+        if (isBlank(name) || name.equalsIgnoreCase("none")) {
+            return null;
+        } else if (name.equalsIgnoreCase(DeflateStagingCodec.NAME)) {
+            return new DeflateStagingCodec();
+        }
+        try {
+            return (IStagingCodec) Class.forName(name).getDeclaredConstructor().newInstance();
+        } catch (Exception e) {
+            log.error("Could not create the staging codec '" + name + "'.  Staged files will be written as plain text", e);
+            return null;
+        }
+    }
+
+    /**
+     * Only batches are encoded. Other categories, like bulk load files, are read directly from disk by other programs, and file sync batches are
+     * already compressed.
+     */
+    @Override
+    protected IStagingCodec getStagingCodec(String path) {
+        if ((path.startsWith(STAGING_CATEGORY_OUTGOING + "/") && !path.endsWith("_filesync")) || path.startsWith(STAGING_CATEGORY_INCOMING + "/")
+                || path.startsWith(StagingPerf.STAGE_PATH + "/")) {
+            return super.getStagingCodec(path);
+        }
+        return null;
     }
 
     protected Map<String, Long> getBiggestBatchIds(Set<BatchId> batches) {
@@ -124,6 +154,12 @@ public class BatchStagingManager extends StagingManager {
             return false;
         } else if (path[0].equals(STAGING_CATEGORY_BULK_LOAD)) {
             return false;
+        } else if (path[0].equals(STAGING_CATEGORY_ROUTING)) {
+            IStagedResource spillFile = inUse.get(resource.getPath());
+            if (spillFile != null && spillFile.isInUse()) {
+                return false;
+            }
+            return resourceIsOld || ttlInMs == 0;
         } else {
             IBatchStagingExtension ext = (IBatchStagingExtension) context.getContextValue("extension");
             if (ext != null && ext.isValidPath(path[0])) {
@@ -29,6 +29,9 @@ import java.util.Date;
 import org.jumpmind.extension.IProcessInfoListener;
 import org.jumpmind.util.AppUtils;
 
+/**
+ * The progress of a process. Extract workers and other pools share one process info, so counts are changed under its lock.
+ */
 public class ProcessInfo implements Serializable, Comparable<ProcessInfo>, Cloneable {
     private static final long serialVersionUID = 1L;
 
@@ -58,20 +61,20 @@ public class ProcessInfo implements Serializable, Comparable<ProcessInfo>, Clone
     };
 
     private ProcessInfoKey key;
-    private ProcessStatus status = ProcessStatus.NEW;
-    private long currentDataCount;
-    private long totalDataCount = 0;
-    private long totalBatchCount;
-    private long currentBatchId;
-    private long currentBatchCount;
-    private String currentChannelId;
-    private String currentTableName;
-    private transient Thread thread;
-    private Date currentBatchStartTime;
-    private long currentLoadId;
+    private volatile ProcessStatus status = ProcessStatus.NEW;
+    private volatile long currentDataCount;
+    private volatile long totalDataCount = 0;
+    private volatile long totalBatchCount;
+    private volatile long currentBatchId;
+    private volatile long currentBatchCount;
+    private volatile String currentChannelId;
+    private volatile String currentTableName;
+    private transient volatile Thread thread;
+    private volatile Date currentBatchStartTime;
+    private volatile long currentLoadId;
     private Date startTime = new Date();
-    private Date lastStatusChangeTime = new Date();
-    private Date endTime;
+    private volatile Date lastStatusChangeTime = new Date();
+    private volatile Date endTime;
     private IProcessInfoListener listener;
 
     public ProcessInfo() {
@@ -107,7 +110,7 @@ public class ProcessInfo implements Serializable, Comparable<ProcessInfo>, Clone
         return status;
     }
 
-    public void setStatus(ProcessStatus status) {
+    public synchronized void setStatus(ProcessStatus status) {
         this.status = status;
         this.lastStatusChangeTime = new Date();
         if (status == ProcessStatus.OK || status == ProcessStatus.ERROR) {
@@ -119,7 +122,7 @@ public class ProcessInfo implements Serializable, Comparable<ProcessInfo>, Clone
         return currentDataCount;
     }
 
-    public void setCurrentDataCount(long dataCount) {
+    public synchronized void setCurrentDataCount(long dataCount) {
         this.currentDataCount = dataCount;
         if (listener != null) {
             listener.changeDataCount(currentDataCount);
@@ -134,7 +137,7 @@ public class ProcessInfo implements Serializable, Comparable<ProcessInfo>, Clone
         this.totalBatchCount = batchCount;
     }
 
-    public void incrementCurrentDataCount() {
+    public synchronized void incrementCurrentDataCount() {
         this.currentDataCount++;
         if (totalDataCount < currentDataCount) {
             totalDataCount = currentDataCount;
@@ -144,11 +147,11 @@ public class ProcessInfo implements Serializable, Comparable<ProcessInfo>, Clone
         }
     }
 
-    public void incrementBatchCount() {
+    public synchronized void incrementBatchCount() {
         this.totalBatchCount++;
     }
 
-    public void incrementCurrentBatchCount() {
+    public synchronized void incrementCurrentBatchCount() {
         this.currentBatchCount++;
     }
 
@@ -164,7 +167,7 @@ public class ProcessInfo implements Serializable, Comparable<ProcessInfo>, Clone
         return currentBatchId;
     }
 
-    public void setCurrentBatchId(long currentBatchId) {
+    public synchronized void setCurrentBatchId(long currentBatchId) {
         this.currentBatchId = currentBatchId;
         this.currentBatchStartTime = new Date();
     }
@@ -330,7 +333,7 @@ public class ProcessInfo implements Serializable, Comparable<ProcessInfo>, Clone
         }
     }
 
-    public ProcessInfo copy() {
+    public synchronized ProcessInfo copy() {
         try {
             return (ProcessInfo) this.clone();
         } catch (CloneNotSupportedException e) {
@@ -93,7 +93,8 @@ public abstract class AbstractDataGapRouteCursor implements IDataGapRouteCursor
         } else if (parameterService.is(ParameterConstants.ROUTING_DATA_READER_ORDER_BY_DATA_ID_ENABLED, true)) {
             comparator = DataMemoryCursor.SORT_BY_ID;
         }
-        return new DataMemoryCursor(cursor, context, comparator);
+        return new DataMemoryCursor(cursor, context, comparator,
+                parameterService.getLong(ParameterConstants.ROUTING_PEEK_AHEAD_SPILL_THRESHOLD, 0), engine.getStagingManager());
     }
 
     protected String getSql(String sqlName) {
@@ -0,0 +1,54 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.route;
+
+import java.util.Map;
+
+/**
+ * Base class for a bean shell router expression that has been compiled to Java by {@link BshExpressionCompiler}. The generated code only uses
+ * these helpers, so when a value is not what the expression expects an exception is thrown and the caller can fall back to the interpreter.
+ */
+public abstract class BshCompiledExpression {
+    public abstract Object eval(Map<String, Object> variables, boolean initialLoad, String identityNodeId);
+
+    protected static Object get(Map<String, Object> variables, String name) {
+        Object value = variables.get(name);
+        if (value == null && !variables.containsKey(name)) {
+            throw new IllegalStateException("Variable " + name + " is not bound");
+        }
+        return value;
+    }
+
+    protected static boolean eq(Object value, Object other) {
+        if (value == null) {
+            throw new NullPointerException("Called equals on a null value");
+        }
+        return value.equals(other);
+    }
+
+    protected static boolean bool(Object value) {
+        return ((Boolean) value).booleanValue();
+    }
+
+    protected static String str(Object value) {
+        return (String) value;
+    }
+}
@@ -29,8 +29,10 @@ import java.util.Set;
 
 import org.jumpmind.extension.IBuiltInExtensionPoint;
 import org.jumpmind.symmetric.ISymmetricEngine;
+import org.jumpmind.symmetric.common.ParameterConstants;
 import org.jumpmind.symmetric.model.DataMetaData;
 import org.jumpmind.symmetric.model.Node;
+import org.jumpmind.symmetric.model.Router;
 import org.jumpmind.symmetric.model.TriggerRouter;
 
 import bsh.EvalError;
@@ -44,10 +46,15 @@ import bsh.TargetError;
  * Bound to the interpreter are the names of both the current and old column values. They can be used in the expression. They should always be referenced using
  * upper case. Also bound to the interpreter is a {@link Collection} of targetNodes. The script is expected to add the the list of target nodes a list of the
  * node_ids that should be routed to.
+ * <P/>
+ * When routing.bsh.compile.enabled is on, simple boolean expressions are compiled to Java by {@link BshExpressionCompiler} and the interpreter is only
+ * used for expressions that cannot be compiled.
  */
 public class BshDataRouter extends AbstractDataRouter implements IBuiltInExtensionPoint {
     protected ISymmetricEngine engine;
     final String INTERPRETER_KEY = String.format("%d.BshInterpreter", hashCode());
+    final String COMPILED_KEY = String.format("%d.BshCompiledExpression", hashCode());
+    protected static final String COMPILED_EXPRESSION_KEY = "bsh.compiled.expression";
 
     public BshDataRouter(ISymmetricEngine engine) {
         this.engine = engine;
@@ -56,6 +63,12 @@ public class BshDataRouter extends AbstractDataRouter implements IBuiltInExtensi
     public Set<String> routeToNodes(SimpleRouterContext context, DataMetaData dataMetaData,
             Set<Node> nodes, boolean initialLoad, boolean initialLoadSelectUsed,
             TriggerRouter triggerRouter) {
+        if (engine.getParameterService().is(ParameterConstants.ROUTING_BSH_COMPILE_ENABLED)) {
+            Set<String> nodeIds = routeToNodesCompiled(context, dataMetaData, nodes, initialLoad);
+            if (nodeIds != null) {
+                return nodeIds;
+            }
+        }
         Set<String> boundVariableNames = new LinkedHashSet<String>();
         try {
             long ts = System.currentTimeMillis();
@@ -83,6 +96,63 @@ public class BshDataRouter extends AbstractDataRouter implements IBuiltInExtensi
         }
     }
 
+    /**
+     * @return the target node ids, or null if the expression could not be compiled or failed and the interpreter should be used instead
+     */
+    protected Set<String> routeToNodesCompiled(SimpleRouterContext context, DataMetaData dataMetaData, Set<Node> nodes, boolean initialLoad) {
+        CompiledExpression compiled = getCompiledExpression(context, dataMetaData.getRouter());
+        BshCompiledExpression expression = compiled.expression;
+        if (expression == null) {
+            return null;
+        }
+        try {
+            long ts = System.currentTimeMillis();
+            Map<String, Object> params = getDataObjectMap(dataMetaData, engine.getSymmetricDialect(), true);
+            Object returnValue = expression.eval(params, initialLoad, engine.getNodeService().findIdentityNodeId());
+            context.incrementStat(System.currentTimeMillis() - ts, "bsh.compiled.eval.ms");
+            return eval(returnValue, nodes, new HashSet<String>());
+        } catch (ClassCastException e) {
+            log.info("The compiled expression for router '{}' does not match its column types, so the interpreter will be used instead: {}",
+                    dataMetaData.getRouter().getRouterId(), e.getMessage());
+            compiled.expression = null;
+            return null;
+        } catch (RuntimeException e) {
+            // let the interpreter evaluate this row so the result and any error are the same as without compiling
+            return null;
+        }
+    }
+
+    protected CompiledExpression getCompiledExpression(SimpleRouterContext context, Router router) {
+        CompiledExpression compiled = (CompiledExpression) context.getContextCache().get(COMPILED_KEY);
+        if (compiled == null) {
+            long ts = System.currentTimeMillis();
+            if (engine.getCacheManager() != null) {
+                compiled = engine.getCacheManager().getRouterCache().get(router, COMPILED_EXPRESSION_KEY, () -> compile(router));
+            } else {
+                compiled = compile(router);
+            }
+            context.getContextCache().put(COMPILED_KEY, compiled);
+            context.incrementStat(System.currentTimeMillis() - ts, "bsh.compile.ms");
+        }
+        return compiled;
+    }
+
+    protected CompiledExpression compile(Router router) {
+        CompiledExpression compiled = new CompiledExpression();
+        String javaCode = new BshExpressionCompiler().toJavaCode(router.getRouterExpression());
+        if (javaCode != null) {
+            try {
+                compiled.expression = (BshCompiledExpression) engine.getExtensionService().getCompiledClass(javaCode);
+            } catch (Exception e) {
+                log.warn("Failed to compile the expression for router '{}', so the interpreter will be used instead: {}", router.getRouterId(),
+                        e.getMessage());
+            }
+        } else {
+            log.debug("The expression for router '{}' is not simple enough to compile", router.getRouterId());
+        }
+        return compiled;
+    }
+
     protected Interpreter getInterpreter(SimpleRouterContext context) {
         Interpreter interpreter = (Interpreter) context.getContextCache().get(INTERPRETER_KEY);
         if (interpreter == null) {
@@ -144,4 +214,8 @@ public class BshDataRouter extends AbstractDataRouter implements IBuiltInExtensi
     public boolean isDmlOnly() {
         return false;
     }
+
+    static class CompiledExpression {
+        volatile BshCompiledExpression expression;
+    }
 }
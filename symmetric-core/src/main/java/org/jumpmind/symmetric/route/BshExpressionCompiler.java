@@ -0,0 +1,311 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.route;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Translates simple bean shell router expressions to Java source code that extends {@link BshCompiledExpression}. A simple expression is a single
+ * expression, optionally prefixed with return and followed by a semicolon, made up of:
+ * <ul>
+ * <li>upper case column variables, like STATUS or OLD_STATUS, and the initialLoad and identityNodeId variables</li>
+ * <li>string, integer, boolean and null literals</li>
+ * <li>the equals, equalsIgnoreCase, startsWith, endsWith, contains, trim, toUpperCase and toLowerCase methods</li>
+ * <li>the &amp;&amp;, ||, ! operators, parentheses, and == or != to compare with null</li>
+ * </ul>
+ * Anything else returns null and the expression is left for the interpreter.
+ */
+public class BshExpressionCompiler {
+    private static final String CLASS_NAME = "BshCompiledRouterExpression";
+    private static final String TYPE_BOOLEAN = "boolean";
+    private static final String TYPE_STRING = "String";
+    private static final String TYPE_OBJECT = "Object";
+    private static final String TYPE_NULL = "null";
+    private static final String TYPE_INT = "int";
+    protected List<String> tokens;
+    protected int position;
+
+    /**
+     * @return the Java source of a class that evaluates the expression, or null if the expression is not simple enough to compile
+     */
+    public String toJavaCode(String expression) {
+        String javaExpression = toJavaExpression(expression);
+        if (javaExpression == null) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder(256 + javaExpression.length());
+        sb.append("import java.util.Map;\n");
+        sb.append("import ").append(BshCompiledExpression.class.getName()).append(";\n");
+        sb.append("public class ").append(CLASS_NAME).append(" extends ").append(BshCompiledExpression.class.getSimpleName()).append(" {\n");
+        sb.append("    public Object eval(Map<String, Object> variables, boolean initialLoad, String identityNodeId) {\n");
+        sb.append("        return ").append(javaExpression).append(";\n");
+        sb.append("    }\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    public String toJavaExpression(String expression) {
+        if (expression == null || !tokenize(expression.trim())) {
+            return null;
+        }
+        if (tokens.size() > 0 && tokens.get(0).equals("return")) {
+            tokens.remove(0);
+        }
+        if (tokens.size() > 0 && tokens.get(tokens.size() - 1).equals(";")) {
+            tokens.remove(tokens.size() - 1);
+        }
+        if (tokens.isEmpty()) {
+            return null;
+        }
+        position = 0;
+        try {
+            Node node = parseOr();
+            if (position != tokens.size()) {
+                return null;
+            }
+            return node.code;
+        } catch (NotSimpleException e) {
+            return null;
+        }
+    }
+
+    protected boolean tokenize(String expression) {
+        tokens = new ArrayList<String>();
+        int i = 0;
+        int length = expression.length();
+        while (i < length) {
+            char c = expression.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (Character.isJavaIdentifierStart(c)) {
+                int start = i;
+                while (i < length && Character.isJavaIdentifierPart(expression.charAt(i))) {
+                    i++;
+                }
+                tokens.add(expression.substring(start, i));
+            } else if (c >= '0' && c <= '9') {
+                int start = i;
+                while (i < length && Character.isDigit(expression.charAt(i))) {
+                    i++;
+                }
+                String number = expression.substring(start, i);
+                if ((number.length() > 1 && number.charAt(0) == '0') || number.length() > 9
+                        || (i < length && Character.isJavaIdentifierPart(expression.charAt(i)))) {
+                    return false;
+                }
+                tokens.add(number);
+            } else if (c == '"') {
+                int start = i++;
+                boolean closed = false;
+                while (i < length && !closed) {
+                    char s = expression.charAt(i++);
+                    if (s == '\\') {
+                        if (i >= length || "\\\"'ntr".indexOf(expression.charAt(i)) < 0) {
+                            return false;
+                        }
+                        i++;
+                    } else if (s == '"') {
+                        closed = true;
+                    } else if (s == '\n' || s == '\r') {
+                        return false;
+                    }
+                }
+                if (!closed) {
+                    return false;
+                }
+                tokens.add(expression.substring(start, i));
+            } else if (i + 1 < length && isTwoCharOperator(expression.substring(i, i + 2))) {
+                tokens.add(expression.substring(i, i + 2));
+                i += 2;
+            } else if ("!().,;".indexOf(c) >= 0) {
+                tokens.add(String.valueOf(c));
+                i++;
+            } else {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    protected boolean isTwoCharOperator(String s) {
+        return s.equals("==") || s.equals("!=") || s.equals("&&") || s.equals("||");
+    }
+
+    protected Node parseOr() {
+        Node node = parseAnd();
+        while (accept("||")) {
+            node = new Node(TYPE_BOOLEAN, "(" + toBoolean(node) + " || " + toBoolean(parseAnd()) + ")");
+        }
+        return node;
+    }
+
+    protected Node parseAnd() {
+        Node node = parseEquality();
+        while (accept("&&")) {
+            node = new Node(TYPE_BOOLEAN, "(" + toBoolean(node) + " && " + toBoolean(parseEquality()) + ")");
+        }
+        return node;
+    }
+
+    protected Node parseEquality() {
+        Node node = parseUnary();
+        String operator = null;
+        if (accept("==")) {
+            operator = "==";
+        } else if (accept("!=")) {
+            operator = "!=";
+        }
+        if (operator != null) {
+            Node other = parseUnary();
+            if (node.type.equals(TYPE_NULL) == other.type.equals(TYPE_NULL) || node.type.equals(TYPE_BOOLEAN) || other.type.equals(TYPE_BOOLEAN)
+                    || node.type.equals(TYPE_INT) || other.type.equals(TYPE_INT)) {
+                // only comparing a reference to null means the same thing in bean shell and java
+                throw new NotSimpleException();
+            }
+            node = new Node(TYPE_BOOLEAN, "(" + node.code + " " + operator + " " + other.code + ")");
+        }
+        return node;
+    }
+
+    protected Node parseUnary() {
+        // binds tighter than == and != like it does in java, so !A == B is (!A) == B
+        if (accept("!")) {
+            return new Node(TYPE_BOOLEAN, "!" + toBoolean(parseUnary()));
+        }
+        return parsePrimary();
+    }
+
+    protected Node parsePrimary() {
+        String token = next();
+        Node node = null;
+        if (token.equals("(")) {
+            // operators already wrap their code in parentheses
+            node = parseOr();
+            expect(")");
+        } else if (token.startsWith("\"")) {
+            node = new Node(TYPE_STRING, token);
+        } else if (Character.isDigit(token.charAt(0))) {
+            node = new Node(TYPE_INT, token);
+        } else if (token.equals("true") || token.equals("false")) {
+            node = new Node(TYPE_BOOLEAN, token);
+        } else if (token.equals("null")) {
+            node = new Node(TYPE_NULL, token);
+        } else if (token.equals("initialLoad")) {
+            node = new Node(TYPE_BOOLEAN, token);
+        } else if (token.equals("identityNodeId")) {
+            node = new Node(TYPE_STRING, token);
+        } else if (Character.isJavaIdentifierStart(token.charAt(0)) && token.equals(token.toUpperCase()) && !peek("(")) {
+            node = new Node(TYPE_OBJECT, "get(variables, \"" + token + "\")");
+        } else {
+            throw new NotSimpleException();
+        }
+        while (accept(".")) {
+            node = parseMethod(node);
+        }
+        return node;
+    }
+
+    protected Node parseMethod(Node target) {
+        if (!target.type.equals(TYPE_STRING) && !target.type.equals(TYPE_OBJECT)) {
+            throw new NotSimpleException();
+        }
+        String method = next();
+        expect("(");
+        List<Node> args = new ArrayList<Node>();
+        if (!accept(")")) {
+            do {
+                args.add(parseOr());
+            } while (accept(","));
+            expect(")");
+        }
+        if (method.equals("equals") && args.size() == 1) {
+            Node arg = args.get(0);
+            if (arg.type.equals(TYPE_NULL)) {
+                throw new NotSimpleException();
+            }
+            return new Node(TYPE_BOOLEAN, "eq(" + target.code + ", " + arg.code + ")");
+        } else if ((method.equals("equalsIgnoreCase") || method.equals("startsWith") || method.equals("endsWith") || method.equals("contains"))
+                && args.size() == 1) {
+            return new Node(TYPE_BOOLEAN, toString(target) + "." + method + "(" + toString(args.get(0)) + ")");
+        } else if ((method.equals("trim") || method.equals("toUpperCase") || method.equals("toLowerCase")) && args.size() == 0) {
+            return new Node(TYPE_STRING, toString(target) + "." + method + "()");
+        }
+        throw new NotSimpleException();
+    }
+
+    protected String toBoolean(Node node) {
+        if (node.type.equals(TYPE_BOOLEAN)) {
+            return node.code;
+        } else if (node.type.equals(TYPE_OBJECT)) {
+            return "bool(" + node.code + ")";
+        }
+        throw new NotSimpleException();
+    }
+
+    protected String toString(Node node) {
+        if (node.type.equals(TYPE_STRING)) {
+            return node.code;
+        } else if (node.type.equals(TYPE_OBJECT)) {
+            return "str(" + node.code + ")";
+        }
+        throw new NotSimpleException();
+    }
+
+    protected String next() {
+        if (position >= tokens.size()) {
+            throw new NotSimpleException();
+        }
+        return tokens.get(position++);
+    }
+
+    protected boolean peek(String token) {
+        return position < tokens.size() && tokens.get(position).equals(token);
+    }
+
+    protected boolean accept(String token) {
+        if (peek(token)) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    protected void expect(String token) {
+        if (!accept(token)) {
+            throw new NotSimpleException();
+        }
+    }
+
+    static class Node {
+        String type;
+        String code;
+
+        Node(String type, String code) {
+            this.type = type;
+            this.code = code;
+        }
+    }
+
+    static class NotSimpleException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+    }
+}
@@ -39,6 +39,7 @@ import org.jumpmind.symmetric.model.Node;
 import org.jumpmind.symmetric.model.NodeChannel;
 import org.jumpmind.symmetric.model.OutgoingBatch;
 import org.jumpmind.symmetric.model.TriggerRouter;
+import org.jumpmind.util.LongList;
 import org.slf4j.Logger;
 
 public class ChannelRouterContext extends SimpleRouterContext {
@@ -64,7 +65,6 @@ public class ChannelRouterContext extends SimpleRouterContext {
     private Map<Integer, Map<String, OutgoingBatch>> batchesByGroups = new HashMap<Integer, Map<String, OutgoingBatch>>();
     private Map<TriggerRouter, Set<Node>> availableNodes = new HashMap<TriggerRouter, Set<Node>>();
     private Set<IDataRouter> usedDataRouters = new HashSet<IDataRouter>();
-    private Map<String, Long> timesByRouter = new HashMap<String, Long>();
     private ISqlTransaction sqlTransaction;
     private boolean needsCommitted = false;
     private long createdTimeInMs = System.currentTimeMillis();
@@ -85,9 +85,10 @@ public class ChannelRouterContext extends SimpleRouterContext {
     private int maxBatchesJdbcFlushSize;
     private long dataRereadCount;
     private List<DataGap> dataGaps = new ArrayList<DataGap>();
+    private DataGapIndex dataGapIndex;
     private long lastDataId = -1;
-    private List<Long> dataIds = new ArrayList<Long>();
-    private List<Long> uncommittedDataIds = new ArrayList<Long>();
+    private LongList dataIds = new LongList();
+    private LongList uncommittedDataIds = new LongList();
     private long uncommittedDataEventCount = 0;
     private long committedDataEventCount = 0;
     private IBatchAlgorithm batchAlgorithm;
@@ -125,7 +126,7 @@ public class ChannelRouterContext extends SimpleRouterContext {
     }
 
     public void removeLastData() {
-        uncommittedDataIds.remove(lastDataId);
+        uncommittedDataIds.removeValue(lastDataId);
         ListIterator<DataEvent> iter = dataEventsToSend.listIterator();
         while (iter.hasNext()) {
             DataEvent dataEvent = iter.next();
@@ -231,19 +232,6 @@ public class ChannelRouterContext extends SimpleRouterContext {
         this.usedDataRouters.add(dataRouter);
     }
 
-    public Map<String, Long> getTimesByRouter() {
-        return timesByRouter;
-    }
-
-    public void addTimesByRouter(String routerId, long millis) {
-        Long totalMillis = timesByRouter.get(routerId);
-        if (totalMillis == null) {
-            timesByRouter.put(routerId, millis);
-        } else {
-            timesByRouter.put(routerId, totalMillis + millis);
-        }
-    }
-
     public void resetForNextData() {
         this.needsCommitted = false;
     }
@@ -358,6 +346,21 @@ public class ChannelRouterContext extends SimpleRouterContext {
 
     public void setDataGaps(List<DataGap> dataGaps) {
         this.dataGaps = dataGaps;
+        this.dataGapIndex = null;
+    }
+
+    /**
+     * @return an index of the data gaps, which is built from the data gaps if one was not set
+     */
+    public DataGapIndex getDataGapIndex() {
+        if (dataGapIndex == null && dataGaps != null) {
+            dataGapIndex = new DataGapIndex(dataGaps);
+        }
+        return dataGapIndex;
+    }
+
+    public void setDataGapIndex(DataGapIndex dataGapIndex) {
+        this.dataGapIndex = dataGapIndex;
     }
 
     public void setOnlyDefaultRoutersAssigned(boolean onlyDefaultRoutersAssigned) {
@@ -368,7 +371,7 @@ public class ChannelRouterContext extends SimpleRouterContext {
         return onlyDefaultRoutersAssigned;
     }
 
-    public List<Long> getDataIds() {
+    public LongList getDataIds() {
         return dataIds;
     }
 
@@ -31,6 +31,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.jumpmind.extension.IBuiltInExtensionPoint;
 import org.jumpmind.symmetric.ISymmetricEngine;
 import org.jumpmind.symmetric.SyntaxParsingException;
+import org.jumpmind.symmetric.cache.ICacheManager;
 import org.jumpmind.symmetric.common.TokenConstants;
 import org.jumpmind.symmetric.model.DataMetaData;
 import org.jumpmind.symmetric.model.Node;
@@ -183,7 +184,8 @@ public class ColumnMatchDataRouter extends AbstractDataRouter implements IDataRo
     }
 
     /**
-     * Cache parsed expressions in the context to minimize the amount of parsing we have to do when we have lots of throughput.
+     * Cache parsed expressions in the context and in the engine's router cache to minimize the amount of parsing we have to do when we have lots of
+     * throughput.
      */
     @SuppressWarnings("unchecked")
     protected List<Expression> getExpressions(Router router, SimpleRouterContext context) {
@@ -191,7 +193,12 @@ public class ColumnMatchDataRouter extends AbstractDataRouter implements IDataRo
         List<Expression> expressions = (List<Expression>) context.getContextCache().get(
                 KEY);
         if (expressions == null) {
-            expressions = parse(router.getRouterExpression());
+            ICacheManager cacheManager = engine != null ? engine.getCacheManager() : null;
+            if (cacheManager != null) {
+                expressions = cacheManager.getRouterCache().get(router, EXPRESSION_KEY, () -> parse(router.getRouterExpression()));
+            } else {
+                expressions = parse(router.getRouterExpression());
+            }
             context.getContextCache().put(KEY, expressions);
         }
         return expressions;
@@ -25,12 +25,12 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import org.apache.commons.lang3.StringUtils;
+import org.jumpmind.db.sql.ISqlPositionalRowMapper;
 import org.jumpmind.db.sql.ISqlRowMapper;
 import org.jumpmind.db.sql.ISqlTemplate;
 import org.jumpmind.db.sql.ISqlTransaction;
@@ -52,23 +52,26 @@ import org.jumpmind.symmetric.service.INodeService;
 import org.jumpmind.symmetric.service.IParameterService;
 import org.jumpmind.symmetric.service.IRouterService;
 import org.jumpmind.symmetric.statistic.IStatisticManager;
+import org.jumpmind.util.LongList;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Responsible for managing gaps in data ids to ensure that all captured data is routed for delivery to other nodes.
  */
-public class DataGapFastDetector extends DataGapDetector implements ISqlRowMapper<Long> {
+public class DataGapFastDetector extends DataGapDetector implements ISqlPositionalRowMapper<Long> {
     private static final Logger log = LoggerFactory.getLogger(DataGapFastDetector.class);
     protected IContextService contextService;
     protected List<DataGap> gaps;
+    protected DataGapIndex gapIndex;
+    protected List<DataGap> gapIndexSource;
     protected DataGap lastGap;
-    protected List<Long> dataIds;
+    protected LongList dataIds;
     protected boolean isAllDataRead = true;
     protected long maxDataToSelect;
     protected boolean isFullGapAnalysis = true;
     protected long lastBusyExpireRunTime;
-    protected Set<DataGap> gapsAll;
+    protected List<DataGap> gapsAll;
     protected Set<DataGap> gapsAdded;
     protected Set<DataGap> gapsDeleted;
     protected Set<DataGap> gapsExpired;
@@ -130,8 +133,9 @@ public class DataGapFastDetector extends DataGapDetector implements ISqlRowMappe
 
     protected void reset() {
         isAllDataRead = true;
-        dataIds = new ArrayList<Long>();
-        gapsAll = new HashSet<DataGap>();
+        gapIndex = null;
+        dataIds = new LongList();
+        gapsAll = new ArrayList<DataGap>();
         gapsAdded = new HashSet<DataGap>();
         gapsDeleted = new HashSet<DataGap>();
         gapsExpired = new HashSet<DataGap>();
@@ -184,22 +188,35 @@ public class DataGapFastDetector extends DataGapDetector implements ISqlRowMappe
             int dataIdCount = 0;
             int rangeChecked = 0;
             int expireChecked = 0;
-            gapsAll.addAll(gaps);
-            Map<DataGap, List<Long>> dataIdMap = getDataIdMap();
+            dataIds.sort();
             if (System.currentTimeMillis() - ts > 30000) {
-                log.info("It took {}ms to map {} data IDs into {} gaps", new Object[] { System.currentTimeMillis() - ts,
-                        dataIds.size(), gaps.size() });
+                log.info("It took {}ms to sort {} data IDs", System.currentTimeMillis() - ts, dataIds.size());
             }
+            /*
+             * Gaps and data IDs are both sorted, so walk them together in one pass. The new list of gaps is built in order from the gaps that are kept
+             * and the new gaps found inside of gaps that had data.
+             */
+            int idIndex = 0;
+            int idCount = dataIds.size();
+            DataGap finalGap = gaps.size() > 0 ? gaps.get(gaps.size() - 1) : null;
             for (final DataGap dataGap : gaps) {
-                final boolean lastGap = dataGap.equals(gaps.get(gaps.size() - 1));
+                final boolean lastGap = dataGap.equals(finalGap);
                 lastDataId = -1;
-                List<Long> ids = dataIdMap.get(dataGap);
-                dataIdCount += ids.size();
+                while (idIndex < idCount && dataIds.get(idIndex) < dataGap.getStartId()) {
+                    idIndex++;
+                }
+                int firstIdIndex = idIndex;
+                while (idIndex < idCount && dataIds.get(idIndex) <= dataGap.getEndId()) {
+                    idIndex++;
+                }
+                int idsInGap = idIndex - firstIdIndex;
+                boolean isKept = true;
+                dataIdCount += idsInGap;
                 rangeChecked += dataGap.getEndId() - dataGap.getStartId();
                 // if we found data in the gap
-                if (ids.size() > 0) {
+                if (idsInGap > 0) {
                     gapsDeleted.add(dataGap);
-                    gapsAll.remove(dataGap);
+                    isKept = false;
                     // if we did not find data in the gap and it was not the last gap
                 } else if (!lastGap && (isAllDataRead || isBusyExpire)) {
                     Date createTime = dataGap.getCreateTime();
@@ -220,12 +237,15 @@ public class DataGapFastDetector extends DataGapDetector implements ISqlRowMappe
                         }
                         if (isAllDataRead || isGapEmpty) {
                             gapsExpired.add(dataGap);
-                            gapsAll.remove(dataGap);
+                            isKept = false;
                         }
                     }
                 }
-                for (Number number : ids) {
-                    long dataId = number.longValue();
+                if (isKept) {
+                    gapsAll.add(dataGap);
+                }
+                for (int i = firstIdIndex; i < idIndex; i++) {
+                    long dataId = dataIds.get(i);
                     processInfo.incrementCurrentDataCount();
                     if (lastDataId == -1 && dataGap.getStartId() + dataIdIncrementBy <= dataId) {
                         // there was a new gap at the start
@@ -277,7 +297,7 @@ public class DataGapFastDetector extends DataGapDetector implements ISqlRowMappe
     protected boolean addDataGap(DataGap dataGap) {
         boolean isOkay = true;
         if (detectInvalidGaps) {
-            if (gapsAll.contains(dataGap)) {
+            if (gapsAll.size() > 0 && gapsAll.get(gapsAll.size() - 1).equals(dataGap)) {
                 log.warn("Detected a duplicate data gap: " + dataGap);
                 isOkay = false;
             } else if (dataGap.getStartId() > dataGap.getEndId()) {
@@ -311,8 +331,7 @@ public class DataGapFastDetector extends DataGapDetector implements ISqlRowMappe
         int totalGapChanges = gapsDeleted.size() + gapsAdded.size() + gapsExpired.size();
         if (totalGapChanges > 0) {
             ISqlTransaction transaction = null;
-            gaps = new ArrayList<DataGap>(gapsAll);
-            Collections.sort(gaps);
+            gaps = gapsAll;
             try {
                 transaction = sqlTemplate.startSqlTransaction();
                 int maxGapChanges = parameterService.getInt(ParameterConstants.ROUTING_MAX_GAP_CHANGES);
@@ -371,31 +390,6 @@ public class DataGapFastDetector extends DataGapDetector implements ISqlRowMappe
         }
     }
 
-    protected Map<DataGap, List<Long>> getDataIdMap() {
-        HashMap<DataGap, List<Long>> map = new HashMap<DataGap, List<Long>>();
-        Collections.sort(dataIds);
-        Iterator<Long> iterator = dataIds.iterator();
-        long dataId = -1;
-        if (iterator.hasNext()) {
-            dataId = iterator.next().longValue();
-        }
-        for (DataGap gap : gaps) {
-            List<Long> idList = map.get(gap);
-            if (idList == null) {
-                idList = new ArrayList<Long>();
-                map.put(gap, idList);
-            }
-            do {
-                if (dataId >= gap.getStartId() && dataId <= gap.getEndId()) {
-                    idList.add(dataId);
-                } else {
-                    break;
-                }
-            } while (iterator.hasNext() && (dataId = iterator.next().longValue()) != -1);
-        }
-        return map;
-    }
-
     protected void fixOverlappingGaps(List<DataGap> gapsToCheck, ProcessInfo processInfo) {
         List<DataGap> gapsCopy = new ArrayList<DataGap>(gapsToCheck);
         boolean ok = true;
@@ -535,6 +529,21 @@ public class DataGapFastDetector extends DataGapDetector implements ISqlRowMappe
         return gaps;
     }
 
+    /**
+     * The index is built once for the gaps used by a routing run and shared by the readers of every channel
+     */
+    @Override
+    public synchronized DataGapIndex getDataGapIndex() {
+        if (gaps == null) {
+            return new DataGapIndex(null);
+        }
+        if (gapIndex == null || gapIndexSource != gaps || gapIndex.size() != gaps.size()) {
+            gapIndex = new DataGapIndex(gaps);
+            gapIndexSource = gaps;
+        }
+        return gapIndex;
+    }
+
     @Override
     public DataGap getLastDataGap() {
         return lastGap;
@@ -545,6 +554,11 @@ public class DataGapFastDetector extends DataGapDetector implements ISqlRowMappe
         this.dataIds.addAll(dataIds);
     }
 
+    @Override
+    public synchronized void addDataIds(LongList dataIds) {
+        this.dataIds.addAll(dataIds);
+    }
+
     /**
      * This method is called for each channel that is routed. Once it is set for a routing pass it should remain set until the routing pass is done.
      */
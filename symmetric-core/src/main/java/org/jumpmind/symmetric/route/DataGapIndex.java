@@ -0,0 +1,119 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.route;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.jumpmind.symmetric.model.DataGap;
+
+/**
+ * A read-only index of data gaps for finding the gap that holds a data ID with a binary search. The start and end IDs are kept in sorted arrays of
+ * primitive longs, so a lookup does not touch the {@link DataGap} objects. Gaps should not overlap, but if they do, a lookup still finds a gap that
+ * holds the data ID.
+ */
+public class DataGapIndex {
+    protected long[] startIds;
+    protected long[] endIds;
+    /**
+     * The largest end ID of the gaps up to and including each index, which is always ascending even if gaps overlap
+     */
+    protected long[] maxEndIds;
+
+    public DataGapIndex(List<DataGap> dataGaps) {
+        int size = dataGaps == null ? 0 : dataGaps.size();
+        if (!isSorted(dataGaps)) {
+            dataGaps = new ArrayList<DataGap>(dataGaps);
+            Collections.sort(dataGaps);
+        }
+        startIds = new long[size];
+        endIds = new long[size];
+        maxEndIds = new long[size];
+        long maxEndId = Long.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            DataGap dataGap = dataGaps.get(i);
+            startIds[i] = dataGap.getStartId();
+            endIds[i] = dataGap.getEndId();
+            maxEndId = Math.max(maxEndId, endIds[i]);
+            maxEndIds[i] = maxEndId;
+        }
+    }
+
+    public int size() {
+        return startIds.length;
+    }
+
+    public long getStartId(int index) {
+        return startIds[index];
+    }
+
+    public long getEndId(int index) {
+        return endIds[index];
+    }
+
+    public boolean contains(long dataId) {
+        return indexOf(dataId) >= 0;
+    }
+
+    /**
+     * @return the index of a gap that holds the data ID, or -1 if no gap holds it
+     */
+    public int indexOf(long dataId) {
+        for (int i = nextIndex(dataId, 0); i < startIds.length && startIds[i] <= dataId; i++) {
+            if (endIds[i] >= dataId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Find the first gap, starting from an index, that has not ended before the data ID. The data ID is in that gap when it is not before the gap's
+     * start ID. Used to move forward through the gaps while reading data IDs in ascending order.
+     *
+     * @return the index of the gap, or {@link #size()} if every gap ends before the data ID
+     */
+    public int nextIndex(long dataId, int fromIndex) {
+        int low = Math.max(fromIndex, 0);
+        int high = maxEndIds.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (maxEndIds[mid] < dataId) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    protected static boolean isSorted(List<DataGap> dataGaps) {
+        if (dataGaps != null) {
+            for (int i = 1; i < dataGaps.size(); i++) {
+                if (dataGaps.get(i - 1).getStartId() > dataGaps.get(i).getStartId()) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
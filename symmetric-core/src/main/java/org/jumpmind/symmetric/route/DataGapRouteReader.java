@@ -23,9 +23,7 @@ package org.jumpmind.symmetric.route;
 import static org.jumpmind.symmetric.common.Constants.LOG_PROCESS_SUMMARY_THRESHOLD;
 
 import java.sql.SQLException;
-import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.List;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
@@ -36,7 +34,6 @@ import org.jumpmind.symmetric.SymmetricException;
 import org.jumpmind.symmetric.common.ParameterConstants;
 import org.jumpmind.symmetric.db.ISymmetricDialect;
 import org.jumpmind.symmetric.model.Data;
-import org.jumpmind.symmetric.model.DataGap;
 import org.jumpmind.symmetric.model.ProcessInfo;
 import org.jumpmind.symmetric.model.ProcessInfo.ProcessStatus;
 import org.jumpmind.symmetric.model.ProcessInfoKey;
@@ -53,8 +50,8 @@ import org.slf4j.MDC;
  */
 public class DataGapRouteReader implements IDataToRouteReader {
     private static final Logger log = LoggerFactory.getLogger(DataGapRouteReader.class);
-    protected List<DataGap> dataGaps;
-    protected DataGap currentGap;
+    protected DataGapIndex dataGapIndex;
+    protected int currentGapIndex;
     protected BlockingQueue<Data> dataQueue;
     protected ChannelRouterContext context;
     protected ISymmetricEngine engine;
@@ -63,7 +60,7 @@ public class DataGapRouteReader implements IDataToRouteReader {
     protected int takeTimeout;
     protected ProcessInfo processInfo;
     protected double percentOfHeapToUse = .5;
-    protected long peekAheadSizeInBytes = 0;
+    protected long spillThresholdInBytes;
     protected boolean finishTransactionMode = false;
     protected boolean isEachGapQueried;
     protected boolean isOracleNoOrder;
@@ -75,6 +72,7 @@ public class DataGapRouteReader implements IDataToRouteReader {
         IParameterService parameterService = engine.getParameterService();
         this.peekAheadCount = parameterService.getInt(ParameterConstants.ROUTING_PEEK_AHEAD_WINDOW);
         this.percentOfHeapToUse = (double) parameterService.getInt(ParameterConstants.ROUTING_PEEK_AHEAD_MEMORY_THRESHOLD) / (double) 100;
+        this.spillThresholdInBytes = parameterService.getLong(ParameterConstants.ROUTING_PEEK_AHEAD_SPILL_THRESHOLD, 0);
         this.takeTimeout = engine.getParameterService().getInt(
                 ParameterConstants.ROUTING_WAIT_FOR_DATA_TIMEOUT_SECONDS, 330);
         if (parameterService.is(ParameterConstants.SYNCHRONIZE_ALL_JOBS)) {
@@ -114,13 +112,11 @@ public class DataGapRouteReader implements IDataToRouteReader {
             }
             isOracleNoOrder = cursor.isOracleNoOrder();
             isEachGapQueried = cursor.isEachGapQueried();
-            if (isOracleNoOrder) {
-                // for oracle no-order mode, it will use a read-only check that each data is in a gap
-                dataGaps = context.getDataGaps();
-            } else if (!isEachGapQueried) {
-                // for a wide-open query that uses only the first gap, it will check each gap in memory and remove it from the list
-                dataGaps = new ArrayList<DataGap>(context.getDataGaps());
-                currentGap = dataGaps.remove(0);
+            if (isOracleNoOrder || !isEachGapQueried) {
+                // for oracle no-order mode, it will check that each data is in a gap
+                // for a wide-open query that uses only the first gap, it will move forward through the gaps as data is read in order
+                dataGapIndex = context.getDataGapIndex();
+                currentGapIndex = 0;
             }
             processInfo.setStatus(ProcessStatus.EXTRACTING);
             if (transactional) {
@@ -154,76 +150,91 @@ public class DataGapRouteReader implements IDataToRouteReader {
         int lastPeekAheadIndex = 0;
         int dataCount = 0;
         long maxDataToRoute = context.getChannel().getMaxDataToRoute();
-        List<Data> peekAheadQueue = new ArrayList<Data>(peekAheadCount);
+        DataPeekAheadQueue peekAheadQueue = newPeekAheadQueue();
         boolean moreData = true;
-        while (dataCount < maxDataToRoute || (lastTransactionId != null)) {
-            if (moreData && (lastTransactionId != null || peekAheadQueue.size() == 0)) {
-                moreData = fillPeekAheadQueue(peekAheadQueue, peekAheadCount, cursor);
-            }
-            int dataWithSameTransactionIdCount = 0;
-            while (peekAheadQueue.size() > 0 && lastTransactionId == null &&
-                    dataCount < maxDataToRoute) {
-                Data data = peekAheadQueue.remove(0);
-                copyToQueue(data);
-                dataCount++;
-                processInfo.incrementCurrentDataCount();
-                processInfo.setCurrentTableName(data.getTableName());
-                lastTransactionId = data.getTransactionId();
-                dataWithSameTransactionIdCount++;
-            }
-            if (lastTransactionId != null && peekAheadQueue.size() > 0) {
-                Iterator<Data> datas = peekAheadQueue.iterator();
-                int index = 0;
-                while (datas.hasNext()) {
-                    Data data = datas.next();
-                    if (lastTransactionId.equals(data.getTransactionId())) {
-                        dataWithSameTransactionIdCount++;
-                        datas.remove();
-                        copyToQueue(data);
-                        dataCount++;
-                        processInfo.incrementCurrentDataCount();
-                        processInfo.setCurrentTableName(data.getTableName());
-                        lastPeekAheadIndex = index;
-                    } else {
-                        index++;
+        try {
+            while (dataCount < maxDataToRoute || (lastTransactionId != null)) {
+                if (moreData && (lastTransactionId != null || peekAheadQueue.size() == 0)) {
+                    moreData = fillPeekAheadQueue(peekAheadQueue, peekAheadCount, cursor);
+                }
+                int dataWithSameTransactionIdCount = 0;
+                while (peekAheadQueue.size() > 0 && lastTransactionId == null &&
+                        dataCount < maxDataToRoute) {
+                    Data data = peekAheadQueue.removeFirst();
+                    copyToQueue(data);
+                    dataCount++;
+                    processInfo.incrementCurrentDataCount();
+                    processInfo.setCurrentTableName(data.getTableName());
+                    lastTransactionId = data.getTransactionId();
+                    dataWithSameTransactionIdCount++;
+                }
+                if (lastTransactionId != null && peekAheadQueue.size() > 0) {
+                    Iterator<DataPeekAheadQueue.Entry> entries = peekAheadQueue.iterator();
+                    int index = 0;
+                    while (entries.hasNext()) {
+                        DataPeekAheadQueue.Entry entry = entries.next();
+                        if (lastTransactionId.equals(entry.getTransactionId())) {
+                            dataWithSameTransactionIdCount++;
+                            Data data = peekAheadQueue.load(entry);
+                            entries.remove();
+                            copyToQueue(data);
+                            dataCount++;
+                            processInfo.incrementCurrentDataCount();
+                            processInfo.setCurrentTableName(data.getTableName());
+                            lastPeekAheadIndex = index;
+                        } else {
+                            index++;
+                        }
+                    }
+                    if (dataWithSameTransactionIdCount == 0 || peekAheadQueue.size() - lastPeekAheadIndex > peekAheadCount) {
+                        lastTransactionId = null;
+                        lastPeekAheadIndex = 0;
                     }
                 }
-                if (dataWithSameTransactionIdCount == 0 || peekAheadQueue.size() - lastPeekAheadIndex > peekAheadCount) {
-                    lastTransactionId = null;
-                    lastPeekAheadIndex = 0;
+                if (!moreData && peekAheadQueue.size() == 0) {
+                    // we've reached the end of the result set
+                    break;
+                } else if (peekAheadQueue.getMemorySizeInBytes() >= maxPeekAheadSizeInBytes) {
+                    log.info("The peek ahead queue has reached its max size of {} bytes.  Finishing reading the current transaction",
+                            peekAheadQueue.getMemorySizeInBytes());
+                    finishTransactionMode = true;
+                    peekAheadQueue.clear();
                 }
             }
-            if (!moreData && peekAheadQueue.size() == 0) {
-                // we've reached the end of the result set
-                break;
-            } else if (peekAheadSizeInBytes >= maxPeekAheadSizeInBytes) {
-                log.info("The peek ahead queue has reached its max size of {} bytes.  Finishing reading the current transaction", peekAheadSizeInBytes);
-                finishTransactionMode = true;
-                peekAheadQueue.clear();
-            }
+        } finally {
+            peekAheadQueue.close();
         }
     }
 
     protected void executeNonTransactional(ISqlReadCursor<Data> cursor) throws Exception {
         long maxDataToRoute = context.getChannel().getMaxDataToRoute();
-        List<Data> peekAheadQueue = new ArrayList<Data>(peekAheadCount);
+        DataPeekAheadQueue peekAheadQueue = newPeekAheadQueue();
         int dataCount = 0;
-        while (dataCount < maxDataToRoute) {
-            fillPeekAheadQueue(peekAheadQueue, peekAheadCount, cursor);
-            if (peekAheadQueue.size() > 0) {
-                while (peekAheadQueue.size() > 0 && dataCount < maxDataToRoute) {
-                    Data data = peekAheadQueue.remove(0);
-                    copyToQueue(data);
-                    dataCount++;
-                    processInfo.incrementCurrentDataCount();
-                    processInfo.setCurrentTableName(data.getTableName());
+        try {
+            while (dataCount < maxDataToRoute) {
+                fillPeekAheadQueue(peekAheadQueue, peekAheadCount, cursor);
+                if (peekAheadQueue.size() > 0) {
+                    while (peekAheadQueue.size() > 0 && dataCount < maxDataToRoute) {
+                        Data data = peekAheadQueue.removeFirst();
+                        copyToQueue(data);
+                        dataCount++;
+                        processInfo.incrementCurrentDataCount();
+                        processInfo.setCurrentTableName(data.getTableName());
+                    }
+                } else {
+                    break;
                 }
-            } else {
-                break;
             }
+        } finally {
+            peekAheadQueue.close();
         }
     }
 
+    protected DataPeekAheadQueue newPeekAheadQueue() {
+        return new DataPeekAheadQueue(peekAheadCount, spillThresholdInBytes, engine.getStagingManager(),
+                context.getChannel().getChannelId());
+    }
+
     protected boolean process(Data data) {
         long dataId = data.getDataId();
         boolean okToProcess = false;
@@ -235,40 +246,16 @@ public class DataGapRouteReader implements IDataToRouteReader {
             } else if (isOracleNoOrder) {
                 okToProcess = isInDataGap(dataId);
             } else {
-                while (!okToProcess && currentGap != null && dataId >= currentGap.getStartId()) {
-                    if (dataId <= currentGap.getEndId()) {
-                        okToProcess = true;
-                    } else {
-                        // past current gap. move to next gap
-                        if (dataGaps.size() > 0) {
-                            currentGap = dataGaps.remove(0);
-                        } else {
-                            currentGap = null;
-                        }
-                    }
-                }
+                // skip past gaps that end before this data
+                currentGapIndex = dataGapIndex.nextIndex(dataId, currentGapIndex);
+                okToProcess = currentGapIndex < dataGapIndex.size() && dataId >= dataGapIndex.getStartId(currentGapIndex);
             }
         }
         return okToProcess;
     }
 
     protected boolean isInDataGap(long dataId) {
-        // binary search algorithm
-        int start = 0;
-        int end = dataGaps.size() - 1;
-        while (start <= end) {
-            int mid = (start + end) / 2;
-            DataGap midGap = dataGaps.get(mid);
-            if (dataId >= midGap.getStartId() && dataId <= midGap.getEndId()) {
-                return true;
-            }
-            if (dataId < midGap.getStartId()) {
-                end = mid - 1;
-            } else {
-                start = mid + 1;
-            }
-        }
-        return false;
+        return dataGapIndex.contains(dataId);
     }
 
     public Data take() throws InterruptedException {
@@ -285,7 +272,7 @@ public class DataGapRouteReader implements IDataToRouteReader {
         return data;
     }
 
-    protected boolean fillPeekAheadQueue(List<Data> peekAheadQueue, int peekAheadCount,
+    protected boolean fillPeekAheadQueue(DataPeekAheadQueue peekAheadQueue, int peekAheadCount,
             ISqlReadCursor<Data> cursor) throws SQLException {
         boolean moreData = true;
         int dataCount = 0;
@@ -297,7 +284,6 @@ public class DataGapRouteReader implements IDataToRouteReader {
             if (data != null) {
                 if (process(data)) {
                     peekAheadQueue.add(data);
-                    peekAheadSizeInBytes += data.getSizeInBytes();
                     dataCount++;
                     context.incrementStat(System.currentTimeMillis() - ts,
                             ChannelRouterContext.STAT_READ_DATA_MS);
@@ -336,7 +322,6 @@ public class DataGapRouteReader implements IDataToRouteReader {
 
     protected void copyToQueue(Data data) {
         long ts = System.currentTimeMillis();
-        peekAheadSizeInBytes -= data.getSizeInBytes();
         while (!dataQueue.offer(data) && reading) {
             AppUtils.sleep(50);
         }
@@ -25,8 +25,10 @@ import static org.jumpmind.symmetric.common.Constants.LOG_PROCESS_SUMMARY_THRESH
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.Iterator;
+import java.util.List;
 
 import org.jumpmind.db.sql.ISqlReadCursor;
+import org.jumpmind.symmetric.io.stage.IStagingManager;
 import org.jumpmind.symmetric.model.Data;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,23 +38,55 @@ public class DataMemoryCursor implements ISqlReadCursor<Data> {
     public final static Comparator<Data> SORT_BY_TIME = new DataByTimeComparator();
     public final static Comparator<Data> SORT_BY_ID = new DataByIdComparator();
     protected Iterator<Data> iter;
+    protected Comparator<Data> comparator;
+    protected DataSpillFile spillFile;
+    protected List<ISqlReadCursor<Data>> runs;
+    protected Data[] runHeads;
 
     public DataMemoryCursor(ISqlReadCursor<Data> cursor, ChannelRouterContext context, Comparator<Data> comparator) {
+        this(cursor, context, comparator, 0, null);
+    }
+
+    /**
+     * When the data read exceeds the spill threshold, each chunk is sorted and written to a spill file in the staging area as a sorted run. The runs
+     * are then merged as the cursor is read, so only one data per run is held in memory.
+     */
+    public DataMemoryCursor(ISqlReadCursor<Data> cursor, ChannelRouterContext context, Comparator<Data> comparator, long spillThresholdInBytes,
+            IStagingManager stagingManager) {
+        this.comparator = comparator;
         ArrayList<Data> datas = new ArrayList<Data>();
         Data data = null;
         long ts = System.currentTimeMillis();
+        long sizeInBytes = 0;
+        long dataCount = 0;
+        boolean isSpillEnabled = spillThresholdInBytes > 0 && stagingManager != null;
         try {
             while ((data = cursor.next()) != null) {
                 datas.add(data);
+                dataCount++;
+                if (isSpillEnabled) {
+                    sizeInBytes += data.getSizeInBytes();
+                    if (sizeInBytes >= spillThresholdInBytes) {
+                        if (spillFile == null) {
+                            spillFile = new DataSpillFile(stagingManager, context.getChannel().getChannelId());
+                            runs = new ArrayList<ISqlReadCursor<Data>>();
+                        }
+                        spill(datas);
+                        sizeInBytes = 0;
+                    }
+                }
                 long totalTimeInMs = System.currentTimeMillis() - ts;
                 if (totalTimeInMs > LOG_PROCESS_SUMMARY_THRESHOLD) {
                     log.info(
                             "Reading data to route for channel '{}' has been processing for {} seconds. The following stats have been gathered: dataCount={}",
                             context.getChannel().getChannelId(), (System.currentTimeMillis() - context.getCreatedTimeInMs()) / 1000,
-                            datas.size());
+                            dataCount);
                     ts = System.currentTimeMillis();
                 }
             }
+        } catch (RuntimeException e) {
+            close();
+            throw e;
         } finally {
             cursor.close();
         }
@@ -61,19 +95,81 @@ public class DataMemoryCursor implements ISqlReadCursor<Data> {
             datas.sort(comparator);
         }
         this.iter = datas.iterator();
+        if (runs != null) {
+            log.info("Merging {} sorted runs of data to route for channel '{}' from staging", runs.size(), context.getChannel().getChannelId());
+            // data remaining in memory was read last, so it is merged as the last run
+            runs.add(new IteratorCursor(this.iter));
+            runHeads = new Data[runs.size()];
+            for (int i = 0; i < runs.size(); i++) {
+                runHeads[i] = runs.get(i).next();
+            }
+        }
+    }
+
+    protected void spill(List<Data> datas) {
+        if (comparator != null) {
+            datas.sort(comparator);
+        }
+        long startOffset = spillFile.getLength();
+        for (Data data : datas) {
+            spillFile.write(data);
+        }
+        runs.add(spillFile.cursor(startOffset, spillFile.getLength()));
+        datas.clear();
     }
 
     @Override
     public Data next() {
-        if (this.iter.hasNext()) {
-            return this.iter.next();
+        if (runHeads == null) {
+            if (this.iter.hasNext()) {
+                return this.iter.next();
+            }
+            return null;
+        }
+        return nextMerged();
+    }
+
+    protected Data nextMerged() {
+        int index = -1;
+        Data next = null;
+        for (int i = 0; i < runHeads.length; i++) {
+            if (runHeads[i] != null && (next == null || (comparator != null && comparator.compare(runHeads[i], next) < 0))) {
+                next = runHeads[i];
+                index = i;
+            }
         }
-        return null;
+        if (index >= 0) {
+            // runs are checked in the order they were written, so ties are returned in their original order
+            runHeads[index] = runs.get(index).next();
+        }
+        return next;
     }
 
     @Override
     public void close() {
         this.iter = null;
+        this.runHeads = null;
+        if (spillFile != null) {
+            spillFile.close();
+            spillFile = null;
+        }
+    }
+
+    static protected class IteratorCursor implements ISqlReadCursor<Data> {
+        Iterator<Data> iter;
+
+        public IteratorCursor(Iterator<Data> iter) {
+            this.iter = iter;
+        }
+
+        @Override
+        public Data next() {
+            return iter.hasNext() ? iter.next() : null;
+        }
+
+        @Override
+        public void close() {
+        }
     }
 
     static protected class DataByTimeComparator implements Comparator<Data> {
@@ -0,0 +1,180 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.route;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+
+import org.jumpmind.symmetric.io.stage.IStagingManager;
+import org.jumpmind.symmetric.model.Data;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The peek ahead queue used by {@link DataGapRouteReader}. Data is kept in memory until the spill threshold is reached, then additional data is
+ * written to a {@link DataSpillFile} and only its transaction id and file offset are kept in memory. Order is preserved across memory and disk.
+ */
+public class DataPeekAheadQueue {
+    private static final Logger log = LoggerFactory.getLogger(DataPeekAheadQueue.class);
+    protected Deque<Entry> entries;
+    protected long memorySizeInBytes;
+    protected long spillThresholdInBytes;
+    protected IStagingManager stagingManager;
+    protected String channelId;
+    protected DataSpillFile spillFile;
+    protected int spilledCount;
+    protected String lastSpilledTransactionId;
+
+    public DataPeekAheadQueue(int initialCapacity) {
+        this(initialCapacity, 0, null, null);
+    }
+
+    public DataPeekAheadQueue(int initialCapacity, long spillThresholdInBytes, IStagingManager stagingManager, String channelId) {
+        this.entries = new ArrayDeque<Entry>(initialCapacity);
+        this.spillThresholdInBytes = stagingManager != null ? spillThresholdInBytes : 0;
+        this.stagingManager = stagingManager;
+        this.channelId = channelId;
+    }
+
+    public void add(Data data) {
+        long sizeInBytes = data.getSizeInBytes();
+        Entry entry = new Entry();
+        entry.sizeInBytes = sizeInBytes;
+        if (spillThresholdInBytes > 0 && memorySizeInBytes + sizeInBytes > spillThresholdInBytes) {
+            if (spillFile == null) {
+                log.info("The peek ahead queue for channel '{}' has reached its spill threshold of {} bytes.  Writing additional data to staging",
+                        channelId, spillThresholdInBytes);
+                spillFile = new DataSpillFile(stagingManager, channelId);
+            }
+            String transactionId = data.getTransactionId();
+            if (transactionId != null && transactionId.equals(lastSpilledTransactionId)) {
+                transactionId = lastSpilledTransactionId;
+            }
+            lastSpilledTransactionId = transactionId;
+            entry.transactionId = transactionId;
+            entry.offset = spillFile.write(data);
+            spilledCount++;
+        } else {
+            entry.data = data;
+            entry.transactionId = data.getTransactionId();
+            memorySizeInBytes += sizeInBytes;
+        }
+        entries.add(entry);
+    }
+
+    public Data removeFirst() {
+        Entry entry = entries.removeFirst();
+        Data data = load(entry);
+        removed(entry);
+        return data;
+    }
+
+    /**
+     * Iterate over entries without reading spilled data back from disk. Use {@link #load(Entry)} to get the data for an entry before removing it.
+     */
+    public Iterator<Entry> iterator() {
+        return new Iterator<Entry>() {
+            Iterator<Entry> iterator = entries.iterator();
+            Entry current;
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Entry next() {
+                current = iterator.next();
+                return current;
+            }
+
+            @Override
+            public void remove() {
+                iterator.remove();
+                removed(current);
+            }
+        };
+    }
+
+    public Data load(Entry entry) {
+        return entry.data != null ? entry.data : spillFile.read(entry.offset);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    public long getMemorySizeInBytes() {
+        return memorySizeInBytes;
+    }
+
+    public int getSpilledCount() {
+        return spilledCount;
+    }
+
+    public void clear() {
+        entries.clear();
+        memorySizeInBytes = 0;
+        spilledCount = 0;
+        if (spillFile != null) {
+            spillFile.truncate();
+        }
+    }
+
+    public void close() {
+        entries.clear();
+        memorySizeInBytes = 0;
+        spilledCount = 0;
+        if (spillFile != null) {
+            spillFile.close();
+            spillFile = null;
+        }
+    }
+
+    protected void removed(Entry entry) {
+        if (entry.data != null) {
+            memorySizeInBytes -= entry.sizeInBytes;
+        } else if (--spilledCount == 0) {
+            // everything written to disk has been read back, so start over at the beginning of the file
+            spillFile.truncate();
+        }
+    }
+
+    public static class Entry {
+        Data data;
+        String transactionId;
+        long offset;
+        long sizeInBytes;
+
+        public String getTransactionId() {
+            return transactionId;
+        }
+
+        public boolean isSpilled() {
+            return data == null;
+        }
+    }
+}
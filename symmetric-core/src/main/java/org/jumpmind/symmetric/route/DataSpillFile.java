@@ -0,0 +1,344 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.route;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jumpmind.db.sql.ISqlReadCursor;
+import org.jumpmind.exception.IoException;
+import org.jumpmind.symmetric.common.Constants;
+import org.jumpmind.symmetric.io.data.CsvData;
+import org.jumpmind.symmetric.io.data.DataEventType;
+import org.jumpmind.symmetric.io.stage.IStagedResource;
+import org.jumpmind.symmetric.io.stage.IStagingManager;
+import org.jumpmind.symmetric.model.Data;
+import org.jumpmind.symmetric.model.TriggerHistory;
+
+/**
+ * A temporary file in the staging area that holds data read for routing when it is too big to keep in memory. Each data is appended as a length
+ * prefixed record and can be read back by its offset or sequentially with a cursor. Trigger histories are kept in memory and referenced by index, so
+ * data read back shares the same trigger history instances as the data that was written.
+ */
+public class DataSpillFile {
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+    private static final int WRITE_BUFFER_SIZE = 65536;
+    private static final int READ_BUFFER_SIZE = 65536;
+    private static final byte TIME_NULL = 0;
+    private static final byte TIME_DATE = 1;
+    private static final byte TIME_TIMESTAMP = 2;
+    protected IStagedResource resource;
+    protected RandomAccessFile file;
+    protected RecordBuffer writeBuffer = new RecordBuffer(WRITE_BUFFER_SIZE);
+    protected RecordBuffer recordBuffer = new RecordBuffer(1024);
+    protected DataOutputStream recordOut = new DataOutputStream(recordBuffer);
+    protected long flushedLength;
+    protected byte[] readBuffer = new byte[READ_BUFFER_SIZE];
+    protected long readBufferOffset;
+    protected int readBufferLength;
+    protected List<TriggerHistory> triggerHistories = new ArrayList<TriggerHistory>();
+    protected Map<TriggerHistory, Integer> triggerHistoryIndexes = new IdentityHashMap<TriggerHistory, Integer>();
+
+    public DataSpillFile(IStagingManager stagingManager, String channelId) {
+        resource = stagingManager.create(Constants.STAGING_CATEGORY_ROUTING, channelId, SEQUENCE.incrementAndGet());
+        try {
+            file = new RandomAccessFile(resource.getFile(), "rw");
+            resource.reference();
+        } catch (IOException e) {
+            resource.delete();
+            throw new IoException(e);
+        }
+    }
+
+    /**
+     * @return the offset of the data, which can be passed to {@link #read(long)}
+     */
+    public long write(Data data) {
+        long offset = getLength();
+        try {
+            recordBuffer.reset();
+            writeData(recordOut, data);
+            int length = recordBuffer.size();
+            writeBuffer.write(length >>> 24);
+            writeBuffer.write(length >>> 16);
+            writeBuffer.write(length >>> 8);
+            writeBuffer.write(length);
+            recordBuffer.writeTo(writeBuffer);
+            if (writeBuffer.size() >= WRITE_BUFFER_SIZE) {
+                flush();
+            }
+        } catch (IOException e) {
+            throw new IoException(e);
+        }
+        return offset;
+    }
+
+    public Data read(long offset) {
+        return readRecord(offset).data;
+    }
+
+    /**
+     * @return the offset where the next data will be written
+     */
+    public long getLength() {
+        return flushedLength + writeBuffer.size();
+    }
+
+    /**
+     * Open a cursor that reads data sequentially starting at one offset and stopping at another
+     */
+    public ISqlReadCursor<Data> cursor(long startOffset, long endOffset) {
+        return new SpillCursor(startOffset, endOffset);
+    }
+
+    /**
+     * Discard all data that has been written
+     */
+    public void truncate() {
+        try {
+            writeBuffer.reset();
+            file.setLength(0);
+            flushedLength = 0;
+            readBufferLength = 0;
+        } catch (IOException e) {
+            throw new IoException(e);
+        }
+    }
+
+    public void close() {
+        try {
+            file.close();
+        } catch (IOException e) {
+        }
+        resource.dereference();
+        resource.delete();
+    }
+
+    protected void flush() throws IOException {
+        if (writeBuffer.size() > 0) {
+            file.seek(flushedLength);
+            file.write(writeBuffer.getBuffer(), 0, writeBuffer.size());
+            flushedLength += writeBuffer.size();
+            writeBuffer.reset();
+        }
+    }
+
+    protected Record readRecord(long offset) {
+        try {
+            if (offset >= flushedLength) {
+                flush();
+            }
+            fillReadBuffer(offset, 4);
+            int position = (int) (offset - readBufferOffset);
+            int length = ((readBuffer[position] & 0xff) << 24) | ((readBuffer[position + 1] & 0xff) << 16)
+                    | ((readBuffer[position + 2] & 0xff) << 8) | (readBuffer[position + 3] & 0xff);
+            fillReadBuffer(offset, 4 + length);
+            position = (int) (offset - readBufferOffset);
+            Data data = readData(new DataInputStream(new ByteArrayInputStream(readBuffer, position + 4, length)));
+            return new Record(data, offset + 4 + length);
+        } catch (IOException e) {
+            throw new IoException(e);
+        }
+    }
+
+    /**
+     * Make sure the read buffer holds the given range of the file. Records are usually read back in the order they were written, so the buffer
+     * is filled with as much of the flushed file as fits, and following records are read from memory.
+     */
+    protected void fillReadBuffer(long offset, int length) throws IOException {
+        if (offset < readBufferOffset || offset + length > readBufferOffset + readBufferLength) {
+            if (readBuffer.length < length) {
+                readBuffer = new byte[length];
+            }
+            file.seek(offset);
+            readBufferOffset = offset;
+            readBufferLength = (int) Math.min(readBuffer.length, flushedLength - offset);
+            file.readFully(readBuffer, 0, readBufferLength);
+        }
+    }
+
+    protected void writeData(DataOutputStream out, Data data) throws IOException {
+        out.writeLong(data.getDataId());
+        DataEventType eventType = data.getDataEventType();
+        writeString(out, eventType == null ? null : eventType.getCode());
+        writeString(out, data.getTableName());
+        writeString(out, data.getChannelId());
+        writeString(out, data.getTransactionId());
+        writeString(out, data.getSourceNodeId());
+        writeString(out, data.getExternalData());
+        writeString(out, data.getNodeList());
+        Date createTime = data.getCreateTime();
+        if (createTime == null) {
+            out.writeByte(TIME_NULL);
+        } else if (createTime instanceof Timestamp) {
+            out.writeByte(TIME_TIMESTAMP);
+            out.writeLong(createTime.getTime());
+            out.writeInt(((Timestamp) createTime).getNanos());
+        } else {
+            out.writeByte(TIME_DATE);
+            out.writeLong(createTime.getTime());
+        }
+        Integer tableId = data.getAttribute(CsvData.ATTRIBUTE_TABLE_ID);
+        out.writeBoolean(tableId != null);
+        if (tableId != null) {
+            out.writeInt(tableId);
+        }
+        out.writeInt(getTriggerHistoryIndex(data.getTriggerHistory()));
+        out.writeBoolean(data.isPreRouted());
+        writeString(out, data.getRowData());
+        writeString(out, data.getPkData());
+        writeString(out, data.getOldData());
+    }
+
+    protected Data readData(DataInputStream in) throws IOException {
+        Data data = new Data();
+        data.setDataId(in.readLong());
+        String eventType = readString(in);
+        if (eventType != null) {
+            data.setDataEventType(DataEventType.getEventType(eventType));
+        }
+        data.setTableName(readString(in));
+        data.setChannelId(readString(in));
+        data.setTransactionId(readString(in));
+        data.setSourceNodeId(readString(in));
+        data.setExternalData(readString(in));
+        data.setNodeList(readString(in));
+        byte timeType = in.readByte();
+        if (timeType == TIME_TIMESTAMP) {
+            Timestamp createTime = new Timestamp(in.readLong());
+            createTime.setNanos(in.readInt());
+            data.setCreateTime(createTime);
+        } else if (timeType == TIME_DATE) {
+            data.setCreateTime(new Date(in.readLong()));
+        }
+        if (in.readBoolean()) {
+            data.putAttribute(CsvData.ATTRIBUTE_TABLE_ID, in.readInt());
+        }
+        int triggerHistoryIndex = in.readInt();
+        if (triggerHistoryIndex >= 0) {
+            data.setTriggerHistory(triggerHistories.get(triggerHistoryIndex));
+        }
+        data.setPreRouted(in.readBoolean());
+        String rowData = readString(in);
+        if (rowData != null) {
+            data.setRowData(rowData);
+        }
+        String pkData = readString(in);
+        if (pkData != null) {
+            data.setPkData(pkData);
+        }
+        String oldData = readString(in);
+        if (oldData != null) {
+            data.setOldData(oldData);
+        }
+        return data;
+    }
+
+    protected int getTriggerHistoryIndex(TriggerHistory triggerHistory) {
+        if (triggerHistory == null) {
+            return -1;
+        }
+        Integer index = triggerHistoryIndexes.get(triggerHistory);
+        if (index == null) {
+            index = triggerHistories.size();
+            triggerHistories.add(triggerHistory);
+            triggerHistoryIndexes.put(triggerHistory, index);
+        }
+        return index;
+    }
+
+    protected static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    protected static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static class Record {
+        Data data;
+        long nextOffset;
+
+        Record(Data data, long nextOffset) {
+            this.data = data;
+            this.nextOffset = nextOffset;
+        }
+    }
+
+    static class RecordBuffer extends ByteArrayOutputStream {
+        RecordBuffer(int size) {
+            super(size);
+        }
+
+        byte[] getBuffer() {
+            return buf;
+        }
+    }
+
+    class SpillCursor implements ISqlReadCursor<Data> {
+        long offset;
+        long endOffset;
+
+        SpillCursor(long startOffset, long endOffset) {
+            this.offset = startOffset;
+            this.endOffset = endOffset;
+        }
+
+        @Override
+        public Data next() {
+            if (offset < endOffset) {
+                Record record = readRecord(offset);
+                offset = record.nextOffset;
+                return record.data;
+            }
+            return null;
+        }
+
+        @Override
+        public void close() {
+            offset = endOffset;
+        }
+    }
+}
@@ -31,7 +31,10 @@ import org.jumpmind.db.sql.ISqlRowMapper;
 import org.jumpmind.db.sql.ISqlTemplate;
 import org.jumpmind.db.sql.Row;
 import org.jumpmind.extension.IBuiltInExtensionPoint;
+import org.jumpmind.symmetric.ISymmetricEngine;
 import org.jumpmind.symmetric.SyntaxParsingException;
+import org.jumpmind.symmetric.cache.ICacheManager;
+import org.jumpmind.symmetric.common.ParameterConstants;
 import org.jumpmind.symmetric.db.ISymmetricDialect;
 import org.jumpmind.symmetric.model.DataMetaData;
 import org.jumpmind.symmetric.model.Node;
@@ -55,6 +58,12 @@ public class LookupTableDataRouter extends AbstractDataRouter implements IDataRo
     final static String LOOKUP_TABLE_KEY = String.format("%s.Table.",
             LookupTableDataRouter.class.getName());
     private ISymmetricDialect symmetricDialect;
+    private ISymmetricEngine engine;
+
+    public LookupTableDataRouter(ISymmetricEngine engine) {
+        this.engine = engine;
+        this.symmetricDialect = engine.getSymmetricDialect();
+    }
 
     public LookupTableDataRouter(ISymmetricDialect symmetricDialect) {
         this.symmetricDialect = symmetricDialect;
@@ -100,7 +109,8 @@ public class LookupTableDataRouter extends AbstractDataRouter implements IDataRo
     }
 
     /**
-     * Cache parsed expressions in the context to minimize the amount of parsing we have to do when we have lots of throughput.
+     * Cache parsed expressions in the context and in the engine's router cache to minimize the amount of parsing we have to do when we have lots of
+     * throughput.
      */
     @SuppressWarnings("unchecked")
     protected Map<String, String> getParams(Router router, SimpleRouterContext routingContext) {
@@ -108,7 +118,12 @@ public class LookupTableDataRouter extends AbstractDataRouter implements IDataRo
         Map<String, String> params = (Map<String, String>) routingContext.getContextCache()
                 .get(KEY);
         if (params == null) {
-            params = parse(router.getRouterExpression());
+            ICacheManager cacheManager = engine != null ? engine.getCacheManager() : null;
+            if (cacheManager != null) {
+                params = cacheManager.getRouterCache().get(router, EXPRESSION_KEY, () -> parse(router.getRouterExpression()));
+            } else {
+                params = parse(router.getRouterExpression());
+            }
             routingContext.getContextCache().put(KEY, params);
         }
         return params;
@@ -213,19 +228,30 @@ public class LookupTableDataRouter extends AbstractDataRouter implements IDataRo
         Map<String, Set<String>> lookupMap = (Map<String, Set<String>>) routingContext
                 .getContextCache().get(CTX_CACHE_KEY);
         if (lookupMap == null) {
-            ISqlTemplate template = symmetricDialect.getPlatform().getSqlTemplate();
-            final Map<String, Set<String>> fillMap = new HashMap<String, Set<String>>();
-            RowMapper rowMapper = new RowMapper(fillMap, params);
-            template.query(String.format("select %s, %s from %s",
-                    params.get(PARAM_MAPPED_KEY_COLUMN), params.get(PARAM_EXTERNAL_ID_COLUMN),
-                    params.get(PARAM_LOOKUP_TABLE)), rowMapper);
-            if (System.currentTimeMillis() - rowMapper.getTs() > 10000) {
-                log.info("Done querying table {} for {} seconds, {} rows, and {} bytes", params.get(PARAM_LOOKUP_TABLE), ((System.currentTimeMillis()
-                        - rowMapper.getTs())) / 1000, rowMapper.getNumRows(), rowMapper.getBytes());
+            ICacheManager cacheManager = engine != null ? engine.getCacheManager() : null;
+            long cacheTimeInMs = cacheManager != null
+                    ? engine.getParameterService().getLong(ParameterConstants.CACHE_TIMEOUT_ROUTER_LOOKUP_TABLE_IN_MS, 0) : 0;
+            if (cacheTimeInMs > 0) {
+                lookupMap = cacheManager.getRouterCache().get(router, CTX_CACHE_KEY, cacheTimeInMs, () -> queryLookupTable(params));
+            } else {
+                lookupMap = queryLookupTable(params);
             }
-            lookupMap = fillMap;
             routingContext.getContextCache().put(CTX_CACHE_KEY, lookupMap);
         }
         return lookupMap;
     }
+
+    protected Map<String, Set<String>> queryLookupTable(final Map<String, String> params) {
+        ISqlTemplate template = symmetricDialect.getPlatform().getSqlTemplate();
+        final Map<String, Set<String>> fillMap = new HashMap<String, Set<String>>();
+        RowMapper rowMapper = new RowMapper(fillMap, params);
+        template.query(String.format("select %s, %s from %s",
+                params.get(PARAM_MAPPED_KEY_COLUMN), params.get(PARAM_EXTERNAL_ID_COLUMN),
+                params.get(PARAM_LOOKUP_TABLE)), rowMapper);
+        if (System.currentTimeMillis() - rowMapper.getTs() > 10000) {
+            log.info("Done querying table {} for {} seconds, {} rows, and {} bytes", params.get(PARAM_LOOKUP_TABLE), ((System.currentTimeMillis()
+                    - rowMapper.getTs())) / 1000, rowMapper.getNumRows(), rowMapper.getBytes());
+        }
+        return fillMap;
+    }
 }
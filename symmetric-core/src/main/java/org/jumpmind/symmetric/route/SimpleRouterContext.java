@@ -21,7 +21,6 @@
 package org.jumpmind.symmetric.route;
 
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
@@ -42,6 +41,7 @@ public class SimpleRouterContext extends Context {
     protected boolean requestGapDetection = false;
     protected int batchSizeNotToExceed;
     protected Map<String, RouterTimer> routerTimers = new HashMap<String, RouterTimer>();
+    protected Map<String, Long> timesByRouter = new HashMap<String, Long>();
 
     public SimpleRouterContext() {
     }
@@ -114,6 +114,19 @@ public class SimpleRouterContext extends Context {
         return val;
     }
 
+    synchronized public Map<String, Long> getTimesByRouter() {
+        return timesByRouter;
+    }
+
+    synchronized public void addTimesByRouter(String routerId, long millis) {
+        Long totalMillis = timesByRouter.get(routerId);
+        if (totalMillis == null) {
+            timesByRouter.put(routerId, millis);
+        } else {
+            timesByRouter.put(routerId, totalMillis + millis);
+        }
+    }
+
     synchronized public void logStats(Logger log, long totalTimeInMs) {
         boolean infoLevel = totalTimeInMs > Constants.LONG_OPERATION_THRESHOLD;
         if ((infoLevel && log.isInfoEnabled()) || log.isDebugEnabled()) {
@@ -131,13 +144,17 @@ public class SimpleRouterContext extends Context {
     }
 
     synchronized public void transferStats(SimpleRouterContext ctx) {
-        Set<String> keys = new HashSet<String>(ctx.stats.keySet());
-        for (String key : keys) {
-            Long value = stats.get(key);
-            if (value == null) {
-                value = 0l;
-            }
-            incrementStat(value, key);
+        Map<String, Long> ctxStats = null;
+        Map<String, Long> ctxTimesByRouter = null;
+        synchronized (ctx) {
+            ctxStats = new HashMap<String, Long>(ctx.stats);
+            ctxTimesByRouter = new HashMap<String, Long>(ctx.timesByRouter);
+        }
+        for (Map.Entry<String, Long> entry : ctxStats.entrySet()) {
+            incrementStat(entry.getValue(), entry.getKey());
+        }
+        for (Map.Entry<String, Long> entry : ctxTimesByRouter.entrySet()) {
+            addTimesByRouter(entry.getKey(), entry.getValue());
         }
     }
 
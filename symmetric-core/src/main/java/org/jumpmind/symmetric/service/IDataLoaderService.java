@@ -42,6 +42,8 @@ import org.jumpmind.symmetric.transport.IIncomingTransport;
 public interface IDataLoaderService {
     public boolean refreshFromDatabase();
 
+    public void stop();
+
     public RemoteNodeStatus loadDataFromPull(Node remote, String channelId) throws IOException;
 
     public void loadDataFromPull(Node sourceNode, RemoteNodeStatus status) throws IOException;
@@ -38,6 +38,8 @@ import org.jumpmind.symmetric.transport.IOutgoingTransport;
 public interface IFileSyncService {
     public void trackChanges(boolean force);
 
+    public void stop();
+
     public List<FileTrigger> getFileTriggers();
 
     public FileTrigger getFileTrigger(String triggerId);
@@ -54,6 +54,8 @@ public interface IOutgoingBatchService {
     public OutgoingBatches getOutgoingBatches(String nodeId, String channelThread, NodeGroupLinkAction eventAction,
             NodeGroupLinkAction defaultEventAction, boolean includeDisabledChannels);
 
+    public void clearCache();
+
     public OutgoingBatches getOutgoingBatchRange(long startBatchId, long endBatchId);
 
     public OutgoingBatches getOutgoingBatchByLoad(long loadI);
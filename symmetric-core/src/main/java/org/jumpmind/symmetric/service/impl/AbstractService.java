@@ -349,8 +349,10 @@ abstract public class AbstractService implements IService {
 
     /**
      * Try a configured number of times to get the ACK through.
+     *
+     * @return true if the ACK was accepted by the remote node
      */
-    protected void sendAck(Node remote, Node local, NodeSecurity localSecurity,
+    protected boolean sendAck(Node remote, Node local, NodeSecurity localSecurity,
             List<IncomingBatch> list, ITransportManager transportManager, String queue) throws IOException {
         assertNotNull(remote, "Node remote cannot be null. Maybe there is a missing sym_node row.");
         assertNotNull(local, "Node local cannot be null. Maybe there is a missing sym_node row.");
@@ -400,6 +402,7 @@ abstract public class AbstractService implements IService {
                 }
             }
         }
+        return statusCode == WebConstants.SC_OK;
     }
 
     protected List<BatchAck> readAcks(List<OutgoingBatch> batches, IOutgoingWithResponseTransport transport,
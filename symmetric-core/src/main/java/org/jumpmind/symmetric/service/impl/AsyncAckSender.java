@@ -0,0 +1,247 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.service.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.jumpmind.symmetric.common.ParameterConstants;
+import org.jumpmind.symmetric.model.IncomingBatch;
+import org.jumpmind.symmetric.model.Node;
+import org.jumpmind.symmetric.model.NodeSecurity;
+import org.jumpmind.symmetric.transport.ITransportManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends the acknowledgements for pulled batches in the background, so the pull job does not wait on the ack round trip. Acks that are waiting for
+ * the same node and queue are coalesced into one request. Before the next pull from a node and queue, {@link #awaitAcks} waits for its acks, so
+ * the remote node does not send the same batches again. The incoming batch status is saved before its ack is queued, so an ack that could not be
+ * sent is kept and tried again after a delay, or sent along with the next acks for the node. Acks that are never sent are recovered when the
+ * remote node sends the batch again and it is acknowledged as already loaded.
+ */
+public class AsyncAckSender {
+    private static final Logger log = LoggerFactory.getLogger(AsyncAckSender.class);
+    protected AbstractService service;
+    protected ITransportManager transportManager;
+    protected ThreadFactory threadFactory;
+    protected ExecutorService executor;
+    protected ScheduledExecutorService retryExecutor;
+    protected Map<String, PendingAcks> pendingAcksByKey = new ConcurrentHashMap<String, PendingAcks>();
+
+    public AsyncAckSender(AbstractService service, ITransportManager transportManager, ThreadFactory threadFactory) {
+        this.service = service;
+        this.transportManager = transportManager;
+        this.threadFactory = threadFactory;
+    }
+
+    public void queue(Node remote, Node local, NodeSecurity localSecurity, List<IncomingBatch> batches, String queue) {
+        final PendingAcks pending = pendingAcksByKey.computeIfAbsent(getKey(remote.getNodeId(), queue), k -> new PendingAcks(queue));
+        synchronized (pending) {
+            pending.remote = remote;
+            pending.local = local;
+            pending.localSecurity = localSecurity;
+            for (IncomingBatch batch : batches) {
+                pending.batches.put(batch.getBatchId(), batch);
+            }
+        }
+        schedule(pending);
+    }
+
+    /**
+     * Wait for the acks to a node and queue to be sent, so the next pull does not download the same batches again. Acks that failed and are
+     * waiting for a retry are sent right away.
+     *
+     * @return true if there are no acks left to send
+     */
+    public boolean awaitAcks(String nodeId, String queue, long timeoutMs) {
+        PendingAcks pending = pendingAcksByKey.get(getKey(nodeId, queue));
+        if (pending == null) {
+            return true;
+        }
+        schedule(pending);
+        long endTime = System.currentTimeMillis() + timeoutMs;
+        synchronized (pending) {
+            long waitTime = timeoutMs;
+            while (pending.scheduled && waitTime > 0) {
+                try {
+                    pending.wait(waitTime);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                waitTime = endTime - System.currentTimeMillis();
+            }
+            if (pending.scheduled || !pending.batches.isEmpty()) {
+                log.info("Pulling from node '{}' for queue '{}' before {} acks were sent", nodeId, queue, pending.batches.size());
+                return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * @return the number of acks that are waiting to be sent
+     */
+    public int getPendingCount() {
+        int count = 0;
+        for (PendingAcks pending : pendingAcksByKey.values()) {
+            synchronized (pending) {
+                count += pending.batches.size();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Wait for acks that are being sent to finish
+     */
+    public void stop() {
+        ExecutorService executor = null;
+        synchronized (this) {
+            executor = this.executor;
+        }
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                    log.warn("Gave up waiting for {} acks to be sent", getPendingCount());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (this) {
+            if (this.executor == executor) {
+                this.executor = null;
+            }
+            if (retryExecutor != null) {
+                retryExecutor.shutdownNow();
+                retryExecutor = null;
+            }
+        }
+    }
+
+    protected synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            executor = Executors.newCachedThreadPool(threadFactory);
+        }
+        return executor;
+    }
+
+    protected synchronized ScheduledExecutorService getRetryExecutor() {
+        if (retryExecutor == null) {
+            retryExecutor = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        }
+        return retryExecutor;
+    }
+
+    protected String getKey(String nodeId, String queue) {
+        return nodeId + "-" + queue;
+    }
+
+    protected void schedule(PendingAcks pending) {
+        synchronized (pending) {
+            if (pending.scheduled || pending.batches.isEmpty()) {
+                return;
+            }
+            pending.scheduled = true;
+        }
+        try {
+            getExecutor().execute(() -> send(pending));
+        } catch (RejectedExecutionException e) {
+            synchronized (pending) {
+                pending.scheduled = false;
+                pending.notifyAll();
+            }
+        }
+    }
+
+    protected void send(PendingAcks pending) {
+        while (true) {
+            List<IncomingBatch> batches = null;
+            Node remote = null;
+            Node local = null;
+            NodeSecurity localSecurity = null;
+            synchronized (pending) {
+                if (pending.batches.isEmpty()) {
+                    pending.scheduled = false;
+                    pending.failedCount = 0;
+                    pending.notifyAll();
+                    return;
+                }
+                batches = new ArrayList<IncomingBatch>(pending.batches.values());
+                pending.batches.clear();
+                remote = pending.remote;
+                local = pending.local;
+                localSecurity = pending.localSecurity;
+            }
+            boolean sent = false;
+            try {
+                sent = service.sendAck(remote, local, localSecurity, batches, transportManager, pending.queue);
+            } catch (Exception e) {
+                log.warn("Failed to send ack to node '{}' for queue '{}'", remote.getNodeId(), pending.queue, e);
+            }
+            if (!sent) {
+                int failedCount = 0;
+                synchronized (pending) {
+                    for (IncomingBatch batch : batches) {
+                        pending.batches.putIfAbsent(batch.getBatchId(), batch);
+                    }
+                    pending.scheduled = false;
+                    failedCount = ++pending.failedCount;
+                    pending.notifyAll();
+                }
+                if (failedCount <= service.parameterService.getInt(ParameterConstants.DATA_LOADER_NUM_OF_ACK_RETRIES)) {
+                    long delay = service.parameterService.getLong(ParameterConstants.DATA_LOADER_TIME_BETWEEN_ACK_RETRIES);
+                    log.info("Will send {} acks to node '{}' for queue '{}' again in {} ms", batches.size(), remote.getNodeId(), pending.queue, delay);
+                    getRetryExecutor().schedule(() -> schedule(pending), delay, TimeUnit.MILLISECONDS);
+                } else {
+                    log.info("Will send {} acks to node '{}' for queue '{}' with the next ack", batches.size(), remote.getNodeId(), pending.queue);
+                }
+                return;
+            }
+        }
+    }
+
+    static class PendingAcks {
+        String queue;
+        Node remote;
+        Node local;
+        NodeSecurity localSecurity;
+        Map<Long, IncomingBatch> batches = new TreeMap<Long, IncomingBatch>();
+        boolean scheduled;
+        int failedCount;
+
+        PendingAcks(String queue) {
+            this.queue = queue;
+        }
+    }
+}
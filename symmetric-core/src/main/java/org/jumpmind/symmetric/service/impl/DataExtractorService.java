@@ -26,10 +26,17 @@ import static org.jumpmind.symmetric.common.Constants.LOG_PROCESS_SUMMARY_THRESH
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Writer;
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.sql.SQLException;
 import java.sql.Types;
 import java.util.ArrayList;
@@ -64,9 +71,11 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.time.DurationFormatUtils;
 import org.jumpmind.db.model.Column;
 import org.jumpmind.db.model.Table;
+import org.jumpmind.db.platform.DatabaseInfo;
 import org.jumpmind.db.platform.DdlBuilderFactory;
 import org.jumpmind.db.platform.IDdlBuilder;
 import org.jumpmind.db.sql.ISqlRowMapper;
+import org.jumpmind.db.sql.ISqlTemplate;
 import org.jumpmind.db.sql.ISqlTransaction;
 import org.jumpmind.db.sql.Row;
 import org.jumpmind.db.sql.mapper.LongMapper;
@@ -80,7 +89,9 @@ import org.jumpmind.symmetric.common.Constants;
 import org.jumpmind.symmetric.common.ErrorConstants;
 import org.jumpmind.symmetric.common.ParameterConstants;
 import org.jumpmind.symmetric.common.TableConstants;
+import org.jumpmind.symmetric.db.ISymmetricDialect;
 import org.jumpmind.symmetric.extract.ExtractDataReaderFactory;
+import org.jumpmind.symmetric.extract.ExtractRange;
 import org.jumpmind.symmetric.extract.IExtractDataReaderFactory;
 import org.jumpmind.symmetric.extract.MultiBatchStagingWriter;
 import org.jumpmind.symmetric.extract.SelectFromSymDataSource;
@@ -159,6 +170,8 @@ import org.jumpmind.symmetric.service.impl.TransformService.TransformTableNodeGr
 import org.jumpmind.symmetric.statistic.IStatisticManager;
 import org.jumpmind.symmetric.transport.BatchBufferedWriter;
 import org.jumpmind.symmetric.transport.IOutgoingTransport;
+import org.jumpmind.symmetric.transport.StreamBufferedWriter;
+import org.jumpmind.symmetric.util.SymmetricUtils;
 import org.jumpmind.util.AppUtils;
 import org.jumpmind.util.CustomizableThreadFactory;
 import org.jumpmind.util.ExceptionUtils;
@@ -527,15 +540,19 @@ public class DataExtractorService extends AbstractService implements IDataExtrac
                 if (this.threadPoolFactory == null) {
                     this.threadPoolFactory = new CustomizableThreadFactory(String.format("%s-dataextractor", parameterService.getEngineName().toLowerCase()));
                 }
-                executor = streamToFileEnabled ? Executors.newFixedThreadPool(1, this.threadPoolFactory) : null;
+                int threadCount = Math.max(1, parameterService.getInt(ParameterConstants.EXTRACT_THREAD_COUNT_PER_REQUEST, 1));
+                executor = streamToFileEnabled ? Executors.newFixedThreadPool(threadCount, this.threadPoolFactory) : null;
                 List<Future<FutureOutgoingBatch>> futures = new ArrayList<Future<FutureOutgoingBatch>>();
+                Map<String, Future<FutureOutgoingBatch>> lastFutureByChannel = new HashMap<String, Future<FutureOutgoingBatch>>();
                 extractInfo.setTotalBatchCount(activeBatches.size());
                 for (int i = 0; i < activeBatches.size(); i++) {
                     currentBatch = activeBatches.get(i);
                     channelsProcessed.add(currentBatch.getChannelId());
                     final OutgoingBatch extractBatch = currentBatch;
+                    final Future<FutureOutgoingBatch> previousFuture = lastFutureByChannel.get(currentBatch.getChannelId());
                     Callable<FutureOutgoingBatch> callable = () -> {
                         MDC.put("engineName", engine.getParameterService().getEngineName());
+                        waitForPreviousExtract(previousFuture);
                         OutgoingBatch refreshedBatch = requeryIfEnoughTimeHasPassed(batchesSelectedAtMs, extractBatch);
                         return extractBatch(refreshedBatch, status, extractInfo, targetNode, dataWriter, mode, activeBatches);
                     };
@@ -543,7 +560,11 @@ public class DataExtractorService extends AbstractService implements IDataExtrac
                         break;
                     }
                     if (executor != null) {
-                        futures.add(executor.submit(callable));
+                        Future<FutureOutgoingBatch> future = executor.submit(callable);
+                        futures.add(future);
+                        if (threadCount > 1) {
+                            lastFutureByChannel.put(currentBatch.getChannelId(), future);
+                        }
                     } else {
                         try {
                             FutureOutgoingBatch batch = callable.call();
@@ -764,15 +785,18 @@ public class DataExtractorService extends AbstractService implements IDataExtrac
                     outgoingBatch = new FutureOutgoingBatch(
                             extractOutgoingBatch(extractInfo, targetNode, dataWriter, extractBatch, streamToFileEnabled, true, mode, null),
                             isRetry);
-                    status.batchExtractCount++;
-                    status.byteExtractCount += extractBatch.getByteCount();
-                    if (status.byteExtractCount >= maxBytesToSync && status.batchExtractCount < activeBatches.size()) {
-                        log.info(
-                                "Reached the total byte threshold after {} of {} batches were extracted for node '{}' (extracted {} bytes, the max is {}).  "
-                                        + "The remaining batches will be extracted on a subsequent sync.",
-                                new Object[] { status.batchExtractCount, activeBatches.size(), targetNode.getNodeId(), status.byteExtractCount,
-                                        maxBytesToSync });
-                        status.shouldExtractSkip = true;
+                    synchronized (status) {
+                        status.batchExtractCount++;
+                        status.byteExtractCount += extractBatch.getByteCount();
+                        if (status.byteExtractCount >= maxBytesToSync && status.batchExtractCount < activeBatches.size()
+                                && !status.shouldExtractSkip) {
+                            log.info(
+                                    "Reached the total byte threshold after {} of {} batches were extracted for node '{}' (extracted {} bytes, the max is {}).  "
+                                            + "The remaining batches will be extracted on a subsequent sync.",
+                                    new Object[] { status.batchExtractCount, activeBatches.size(), targetNode.getNodeId(), status.byteExtractCount,
+                                            maxBytesToSync });
+                            status.shouldExtractSkip = true;
+                        }
                     }
                 } catch (Exception e) {
                     status.shouldExtractSkip = outgoingBatch.isExtractSkipped = true;
@@ -785,6 +809,19 @@ public class DataExtractorService extends AbstractService implements IDataExtrac
         return outgoingBatch;
     }
 
+    /**
+     * Batches on the same channel are extracted in order, so wait for the previous batch on the channel when extracting with multiple threads. A
+     * failure of the previous batch is reported when it is transferred, and it will cause this batch to be skipped.
+     */
+    protected void waitForPreviousExtract(Future<FutureOutgoingBatch> previousFuture) throws InterruptedException {
+        if (previousFuture != null) {
+            try {
+                previousFuture.get();
+            } catch (ExecutionException | CancellationException e) {
+            }
+        }
+    }
+
     protected void writeKeepAliveAck(BufferedWriter writer, Node sourceNode, boolean streamToFileEnabled) {
         try {
             if (writer != null && streamToFileEnabled) {
@@ -860,16 +897,7 @@ public class DataExtractorService extends AbstractService implements IDataExtrac
                         if (updateBatchStatistics) {
                             changeBatchStatus(Status.QY, currentBatch, mode);
                         }
-                        DataContext ctx = new DataContext();
-                        ctx.put(Constants.DATA_CONTEXT_TARGET_NODE_ID, targetNode.getNodeId());
-                        ctx.put(Constants.DATA_CONTEXT_TARGET_NODE_EXTERNAL_ID, targetNode.getExternalId());
-                        ctx.put(Constants.DATA_CONTEXT_TARGET_NODE_GROUP_ID, targetNode.getNodeGroupId());
-                        ctx.put(Constants.DATA_CONTEXT_TARGET_NODE, targetNode);
-                        ctx.put(Constants.DATA_CONTEXT_SOURCE_NODE, sourceNode);
-                        ctx.put(Constants.DATA_CONTEXT_SOURCE_NODE_ID, sourceNode.getNodeId());
-                        ctx.put(Constants.DATA_CONTEXT_SOURCE_NODE_EXTERNAL_ID, sourceNode.getExternalId());
-                        ctx.put(Constants.DATA_CONTEXT_SOURCE_NODE_GROUP_ID, sourceNode.getNodeGroupId());
-                        ctx.put(Constants.DATA_CONTEXT_ENGINE, engine);
+                        DataContext ctx = buildExtractDataContext(sourceNode, targetNode);
                         extractInfo.setTotalDataCount(currentBatch.getDataRowCount());
                         currentBatch.resetStats();
                         IDataReader dataReader = buildExtractDataReader(sourceNode, targetNode, currentBatch, extractInfo);
@@ -968,6 +996,20 @@ public class DataExtractorService extends AbstractService implements IDataExtrac
         return currentBatch;
     }
 
+    protected DataContext buildExtractDataContext(Node sourceNode, Node targetNode) {
+        DataContext ctx = new DataContext();
+        ctx.put(Constants.DATA_CONTEXT_TARGET_NODE_ID, targetNode.getNodeId());
+        ctx.put(Constants.DATA_CONTEXT_TARGET_NODE_EXTERNAL_ID, targetNode.getExternalId());
+        ctx.put(Constants.DATA_CONTEXT_TARGET_NODE_GROUP_ID, targetNode.getNodeGroupId());
+        ctx.put(Constants.DATA_CONTEXT_TARGET_NODE, targetNode);
+        ctx.put(Constants.DATA_CONTEXT_SOURCE_NODE, sourceNode);
+        ctx.put(Constants.DATA_CONTEXT_SOURCE_NODE_ID, sourceNode.getNodeId());
+        ctx.put(Constants.DATA_CONTEXT_SOURCE_NODE_EXTERNAL_ID, sourceNode.getExternalId());
+        ctx.put(Constants.DATA_CONTEXT_SOURCE_NODE_GROUP_ID, sourceNode.getNodeGroupId());
+        ctx.put(Constants.DATA_CONTEXT_ENGINE, engine);
+        return ctx;
+    }
+
     protected String getSemaphoreKey(OutgoingBatch batch, boolean useStagingDataWriter) {
         return useStagingDataWriter ? Long.toString(batch.getBatchId()) : batch.getNodeBatchId();
     }
@@ -1086,9 +1128,21 @@ public class DataExtractorService extends AbstractService implements IDataExtrac
 
     protected ExtractDataReader buildExtractDataReader(Node sourceNode, Node targetNode, OutgoingBatch currentBatch, ProcessInfo processInfo,
             boolean containsBigLob) {
+        return buildExtractDataReader(sourceNode, targetNode, currentBatch, processInfo, containsBigLob, null);
+    }
+
+    protected ExtractDataReader buildExtractDataReader(Node sourceNode, Node targetNode, OutgoingBatch currentBatch, ProcessInfo processInfo,
+            boolean containsBigLob, String reloadRangeCondition) {
         IExtractDataReaderSource source = AppUtils.newInstance(IExtractDataReaderSource.class, SelectFromSymDataSource.class,
                 new Object[] { engine, currentBatch, sourceNode, targetNode, processInfo, containsBigLob },
                 new Class[] { ISymmetricEngine.class, OutgoingBatch.class, Node.class, Node.class, ProcessInfo.class, boolean.class });
+        if (reloadRangeCondition != null) {
+            if (source instanceof SelectFromSymDataSource) {
+                ((SelectFromSymDataSource) source).setReloadRangeCondition(reloadRangeCondition);
+            } else {
+                throw new IllegalStateException("Unable to extract a range of rows with " + source.getClass().getName());
+            }
+        }
         IExtractDataReaderFactory factory = AppUtils.newInstance(IExtractDataReaderFactory.class, ExtractDataReaderFactory.class,
                 new Object[] { engine }, new Class[] { ISymmetricEngine.class });
         return factory.getReader(platform, source, sourceNode, targetNode);
@@ -1278,11 +1332,11 @@ public class DataExtractorService extends AbstractService implements IDataExtrac
     protected void transferFromStaging(ExtractMode mode, BatchType batchType, OutgoingBatch batch, boolean isRetry, IStagedResource stagedResource,
             BufferedWriter writer, DataContext context, BigDecimal maxKBytesPerSec, ProcessInfo processInfo) {
         final int MAX_WRITE_LENGTH = 32768;
-        BufferedReader reader = stagedResource.getReader();
         try {
             // Retry means we've sent this batch before, so let's ask to
             // retry the batch from the target's staging
             if (isRetry) {
+                BufferedReader reader = stagedResource.getReader();
                 String line = null;
                 while ((line = reader.readLine()) != null) {
                     if (line.startsWith(CsvConstants.BATCH)) {
@@ -1304,7 +1358,10 @@ public class DataExtractorService extends AbstractService implements IDataExtrac
                 }
                 writer.flush();
                 processInfo.setCurrentDataCount(batch.getDataRowCount());
+            } else if (isByteTransferSupported(stagedResource, writer)) {
+                transferBytesFromStaging(mode, batch, stagedResource, (StreamBufferedWriter) writer, maxKBytesPerSec, processInfo);
             } else {
+                BufferedReader reader = stagedResource.getReader();
                 long totalBytes = stagedResource.getSize();
                 long totalCharsRead = 0, totalBytesRead = 0;
                 int numCharsRead = 0, numBytesRead = 0;
@@ -1380,6 +1437,145 @@ public class DataExtractorService extends AbstractService implements IDataExtrac
         }
     }
 
+    /**
+     * Staged files are written in UTF-8, so they can be copied to the transport as bytes when the transport encodes in UTF-8 too
+     */
+    protected boolean isByteTransferSupported(IStagedResource stagedResource, BufferedWriter writer) {
+        return writer instanceof StreamBufferedWriter && StandardCharsets.UTF_8.equals(((StreamBufferedWriter) writer).getCharset())
+                && stagedResource.isFileResource() && !stagedResource.isCompressed();
+    }
+
+    protected void transferBytesFromStaging(ExtractMode mode, OutgoingBatch batch, IStagedResource stagedResource, StreamBufferedWriter writer,
+            BigDecimal maxKBytesPerSec, ProcessInfo processInfo) throws IOException, InterruptedException {
+        final int MAX_TRANSFER_LENGTH = 1048576;
+        writer.flush();
+        OutputStream out = writer.getOutputStream();
+        try (FileChannel channel = FileChannel.open(stagedResource.getFile().toPath(), StandardOpenOption.READ)) {
+            long totalBytes = channel.size();
+            long startTime = System.currentTimeMillis(), ts = startTime, bts = startTime;
+            boolean isThrottled = maxKBytesPerSec != null && maxKBytesPerSec.compareTo(BigDecimal.ZERO) > 0;
+            long totalThrottleTime = 0;
+            int transferLength = MAX_TRANSFER_LENGTH;
+            if (isThrottled) {
+                transferLength = maxKBytesPerSec.multiply(new BigDecimal(1024)).intValue();
+            }
+            long position = 0;
+            if (nodeService.findNode(batch.getNodeId(), true).isVersionGreaterThanOrEqualTo(3, 9, 0)) {
+                position = writeBatchStats(channel, out, batch);
+            }
+            WritableByteChannel target = Channels.newChannel(out);
+            long batchStatusUpdateMillis = parameterService.getLong(ParameterConstants.OUTGOING_BATCH_UPDATE_STATUS_MILLIS);
+            while (position < totalBytes) {
+                long count = channel.transferTo(position, Math.min(transferLength, totalBytes - position), target);
+                if (count <= 0) {
+                    break;
+                }
+                position += count;
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new IoException("This thread was interrupted");
+                }
+                if (System.currentTimeMillis() - ts > batchStatusUpdateMillis && batch.getStatus() != Status.SE && batch.getStatus() != Status.RS) {
+                    changeBatchStatus(Status.SE, batch, mode);
+                }
+                if (System.currentTimeMillis() - ts > LOG_PROCESS_SUMMARY_THRESHOLD) {
+                    log.info(
+                            "Batch '{}', for node '{}', for process 'send from stage' has been processing for {} seconds.  "
+                                    + "The following stats have been gathered: {}",
+                            new Object[] { batch.getBatchId(), batch.getNodeId(), (System.currentTimeMillis() - startTime) / 1000,
+                                    "BYTES=" + position });
+                    ts = System.currentTimeMillis();
+                }
+                if (isThrottled) {
+                    long expectedMillis = (long) (((count / 1024f) / maxKBytesPerSec.floatValue()) * 1000);
+                    long actualMillis = System.currentTimeMillis() - bts;
+                    if (actualMillis < expectedMillis) {
+                        totalThrottleTime += expectedMillis - actualMillis;
+                        Thread.sleep(expectedMillis - actualMillis);
+                    }
+                    bts = System.currentTimeMillis();
+                }
+                processInfo.setCurrentDataCount((long) ((position / (double) totalBytes) * batch.getDataRowCount()));
+            }
+            if (batch.getSentCount() == 1) {
+                statisticManager.incrementDataSent(batch.getChannelId(), batch.getDataRowCount());
+                statisticManager.incrementDataBytesSent(batch.getChannelId(), position);
+            }
+            if (log.isDebugEnabled() && totalThrottleTime > 0) {
+                log.debug("Batch '{}' for node '{}' took {}ms for {} bytes and was throttled for {}ms because limit is set to {} KB/s",
+                        batch.getBatchId(), batch.getNodeId(), (System.currentTimeMillis() - startTime), position,
+                        totalThrottleTime, maxKBytesPerSec);
+            }
+        }
+    }
+
+    /**
+     * Copy the staged batch up to and including its batch line, followed by the batch stats
+     * 
+     * @return the position in the staged file after the batch line
+     */
+    protected long writeBatchStats(FileChannel channel, OutputStream out, OutgoingBatch batch) throws IOException {
+        byte[] buffer = new byte[8192];
+        ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
+        long position = 0;
+        int length = 0;
+        boolean isFirstLine = true;
+        int numBytesRead = 0;
+        while ((numBytesRead = channel.read(byteBuffer, position + length)) > 0) {
+            length += numBytesRead;
+            int lineStart = 0;
+            for (int i = 0; i < length; i++) {
+                if (buffer[i] == '\n') {
+                    if (!isFirstLine && isBatchLine(buffer, lineStart, i)) {
+                        out.write(buffer, 0, i + 1);
+                        String stats = getBatchStatsColumns() + System.lineSeparator() + getBatchStats(batch) + System.lineSeparator();
+                        out.write(stats.getBytes(StandardCharsets.UTF_8));
+                        return position + i + 1;
+                    }
+                    isFirstLine = false;
+                    lineStart = i + 1;
+                }
+            }
+            // write the complete lines and keep the partial line, unless it fills the buffer and can't be a batch line
+            int writeLength = lineStart > 0 ? lineStart : (length == buffer.length ? length : 0);
+            out.write(buffer, 0, writeLength);
+            System.arraycopy(buffer, writeLength, buffer, 0, length - writeLength);
+            position += writeLength;
+            length -= writeLength;
+            byteBuffer.clear().position(length);
+        }
+        out.write(buffer, 0, length);
+        return position + length;
+    }
+
+    protected boolean isBatchLine(byte[] buffer, int start, int end) {
+        byte[] batch = CsvConstants.BATCH.getBytes(StandardCharsets.UTF_8);
+        if (end - start < batch.length + 1) {
+            return false;
+        }
+        int i = start;
+        for (byte b : batch) {
+            if (buffer[i++] != b) {
+                return false;
+            }
+        }
+        while (i < end && Character.isWhitespace(buffer[i]) && buffer[i] != '\r') {
+            i++;
+        }
+        if (i == end || buffer[i++] != ',') {
+            return false;
+        }
+        while (i < end && Character.isWhitespace(buffer[i]) && buffer[i] != '\r') {
+            i++;
+        }
+        while (i < end && Character.isDigit(buffer[i])) {
+            i++;
+        }
+        while (i < end && buffer[i] == '\r') {
+            i++;
+        }
+        return i == end;
+    }
+
     protected int findStatsIndex(String bufferString, String prevBuffer) {
         int index = -1;
         String fullBuffer = prevBuffer + bufferString;
@@ -1809,10 +2005,16 @@ public class DataExtractorService extends AbstractService implements IDataExtrac
                     if (isRestarted) {
                         restartExtractRequest(batches, request, childRequests);
                     }
-                    MultiBatchStagingWriter multiBatchStagingWriter = buildMultiBatchStagingWriter(request, childRequests, identity, targetNode, batches,
-                            processInfo, channel, isRestarted);
-                    extractOutgoingBatch(processInfo, targetNode, multiBatchStagingWriter,
-                            firstBatch, false, false, ExtractMode.FOR_SYM_CLIENT, new ClusterLockRefreshListener(clusterService));
+                    List<ExtractRange> ranges = getExtractRanges(request, batches, channel.getMaxBatchSize());
+                    if (ranges != null) {
+                        extractRanges(request, childRequests, identity, targetNode, ranges, processInfo, channel, isRestarted,
+                                nodeCommunication.getQueue());
+                    } else {
+                        MultiBatchStagingWriter multiBatchStagingWriter = buildMultiBatchStagingWriter(request, childRequests, identity, targetNode,
+                                batches, processInfo, channel, isRestarted);
+                        extractOutgoingBatch(processInfo, targetNode, multiBatchStagingWriter,
+                                firstBatch, false, false, ExtractMode.FOR_SYM_CLIENT, new ClusterLockRefreshListener(clusterService));
+                    }
                     checkSendDeferredConstraints(request, childRequests, targetNode);
                 } else {
                     log.info("Batches already had an OK status for request {} to extract table {} for batches {} through {} for node {}.  Not extracting.",
@@ -1868,6 +2070,160 @@ public class DataExtractorService extends AbstractService implements IDataExtrac
         }
     }
 
+    /**
+     * Split a large extract request into ranges of a single numeric primary key column, so each range can be extracted on its own thread. The
+     * rows are counted in sub-ranges of the key, so ranges hold about the same number of rows and get batches in proportion to their rows,
+     * even when the key values are skewed.
+     *
+     * @return the ranges, or null if the request should be extracted by a single cursor
+     */
+    protected List<ExtractRange> getExtractRanges(ExtractRequest request, List<OutgoingBatch> batches, int maxBatchSize) {
+        int threadCount = parameterService.getInt(ParameterConstants.INITIAL_LOAD_EXTRACT_RANGE_THREAD_COUNT, 1);
+        int minBatches = Math.max(1, parameterService.getInt(ParameterConstants.INITIAL_LOAD_EXTRACT_RANGE_MIN_BATCHES, 100));
+        int rangeCount = Math.min(threadCount, batches.size() / minBatches);
+        if (rangeCount < 2 || request.getTableName().toLowerCase().startsWith(tablePrefix.toLowerCase() + "_")) {
+            return null;
+        }
+        Trigger trigger = triggerRouterService.getTriggerById(request.getTriggerId());
+        if (trigger == null) {
+            return null;
+        }
+        TriggerHistory history = null;
+        for (TriggerHistory activeHistory : triggerRouterService.getActiveTriggerHistories(trigger)) {
+            if (activeHistory.getSourceTableName().equalsIgnoreCase(request.getTableName())) {
+                history = activeHistory;
+                break;
+            }
+        }
+        if (history == null) {
+            return null;
+        }
+        ISymmetricDialect targetDialect = symmetricDialect.getTargetDialect();
+        Table table = targetDialect.getPlatform().getTableFromCache(history.getSourceCatalogName(), history.getSourceSchemaName(),
+                history.getSourceTableName(), false);
+        if (table == null || (parameterService.is(ParameterConstants.INITIAL_LOAD_RECURSION_SELF_FK)
+                && table.getSelfReferencingForeignKey() != null)) {
+            return null;
+        }
+        Column[] pkColumns = table.getPrimaryKeyColumns();
+        if (pkColumns.length != 1 || !isRangeColumn(pkColumns[0])) {
+            log.debug("Not splitting request {} for table {} into ranges because it does not have a single numeric primary key column",
+                    request.getRequestId(), request.getTableName());
+            return null;
+        }
+        String columnName = SymmetricUtils.quote(targetDialect, pkColumns[0].getName());
+        DatabaseInfo dbInfo = targetDialect.getPlatform().getDatabaseInfo();
+        String tableName = table.getQualifiedTableName(dbInfo.getDelimiterToken(), dbInfo.getCatalogSeparator(), dbInfo.getSchemaSeparator());
+        String sql = "select min(" + columnName + ") as min_value, max(" + columnName + ") as max_value from " + tableName;
+        ISqlTemplate sqlTemplate = targetDialect.getPlatform().getSqlTemplateDirty();
+        Row row = sqlTemplate.queryForRow(sql);
+        if (row == null || row.get("min_value") == null || row.get("max_value") == null) {
+            return null;
+        }
+        long min = row.getLong("min_value");
+        long max = row.getLong("max_value");
+        if (max - min < rangeCount) {
+            return null;
+        }
+        long[] rowCounts = new long[(int) Math.min(rangeCount * 10L, max - min + 1)];
+        long step = ExtractRange.getSubRangeStep(min, max, rowCounts.length);
+        String countSql = "select count(*) from " + tableName + " where " + columnName + " >= ? and " + columnName + " < ?";
+        for (int i = 0; i < rowCounts.length; i++) {
+            rowCounts[i] = sqlTemplate.queryForLong(countSql, min + step * i, min + step * (i + 1));
+        }
+        List<ExtractRange> ranges = ExtractRange.split(columnName, min, max, rowCounts, batches, rangeCount, maxBatchSize);
+        if (ranges == null) {
+            log.info("Not splitting request {} for table {} into ranges because its {} batches cannot hold the rows of each range",
+                    request.getRequestId(), request.getTableName(), batches.size());
+            return null;
+        }
+        log.info("Splitting request {} to extract table {} into {} ranges of column {} from {} to {}", request.getRequestId(),
+                request.getTableName(), ranges.size(), pkColumns[0].getName(), min, max);
+        return ranges;
+    }
+
+    protected boolean isRangeColumn(Column column) {
+        int type = column.getMappedTypeCode();
+        return type == Types.TINYINT || type == Types.SMALLINT || type == Types.INTEGER || type == Types.BIGINT
+                || ((type == Types.NUMERIC || type == Types.DECIMAL) && column.getScale() == 0);
+    }
+
+    /**
+     * Extract each range on its own thread and wait for all of them to finish. If one range fails, the others are interrupted.
+     */
+    protected void extractRanges(final ExtractRequest request, final List<ExtractRequest> childRequests, final Node sourceNode, final Node targetNode,
+            List<ExtractRange> ranges, ProcessInfo processInfo, final Channel channel, final boolean isRestarted, final String queue) {
+        processInfo.setStatus(ProcessStatus.EXTRACTING);
+        ExecutorService executor = Executors.newFixedThreadPool(ranges.size(), new CustomizableThreadFactory(
+                String.format("%s-extract-range", parameterService.getEngineName().toLowerCase())));
+        try {
+            List<Future<Long>> futures = new ArrayList<Future<Long>>(ranges.size());
+            for (final ExtractRange range : ranges) {
+                futures.add(executor.submit(() -> {
+                    MDC.put("engineName", parameterService.getEngineName());
+                    return extractRange(request, childRequests, sourceNode, targetNode, range, channel, isRestarted, queue);
+                }));
+            }
+            long rowCount = 0;
+            for (Future<Long> future : futures) {
+                rowCount += future.get();
+            }
+            processInfo.setCurrentDataCount(rowCount);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException(cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @return the number of rows extracted for the range
+     */
+    protected long extractRange(ExtractRequest request, List<ExtractRequest> childRequests, Node sourceNode, Node targetNode,
+            ExtractRange range, Channel channel, boolean isRestarted, String queue) {
+        ProcessInfo processInfo = statisticManager.newProcessInfo(new ProcessInfoKey(sourceNode.getNodeId(),
+                queue + "-range-" + range.getRangeNumber(), targetNode.getNodeId(), getProcessType()));
+        processInfo.setTotalBatchCount(range.getBatches().size());
+        processInfo.setCurrentLoadId(request.getLoadId());
+        processInfo.setStatus(ProcessStatus.QUERYING);
+        log.info("Starting range {} of {} for request {} to extract table {} where {} into batches {} through {} for node {}",
+                range.getRangeNumber(), range.getRangeCount(), request.getRequestId(), request.getTableName(), range.getCondition(),
+                range.getStartBatchId(), range.getEndBatchId(), request.getNodeId());
+        try {
+            MultiBatchStagingWriter multiBatchStagingWriter = buildMultiBatchStagingWriter(request, childRequests, sourceNode, targetNode,
+                    range.getBatches(), processInfo, channel, isRestarted);
+            /*
+             * The reload event is always in the first batch of the request, so every range reads it and then writes into its own batches
+             */
+            OutgoingBatch reloadBatch = outgoingBatchService.findOutgoingBatch(request.getStartBatchId(), request.getNodeId());
+            IDataWriter writer = wrapWithTransformWriter(sourceNode, targetNode, processInfo, multiBatchStagingWriter, false);
+            IDataReader dataReader = buildExtractDataReader(sourceNode, targetNode, reloadBatch, processInfo, channel.isContainsBigLob(),
+                    range.getCondition());
+            new DataProcessor(dataReader, writer, new ClusterLockRefreshListener(clusterService), "extract range").process(
+                    buildExtractDataContext(sourceNode, targetNode));
+            long rowCount = 0;
+            for (OutgoingBatch batch : range.getBatches()) {
+                rowCount += batch.getDataRowCount();
+            }
+            processInfo.setStatus(ProcessStatus.OK);
+            log.info("Done with range {} of {} for request {} to extract table {} into batches {} through {} for node {} with {} rows",
+                    range.getRangeNumber(), range.getRangeCount(), request.getRequestId(), request.getTableName(), range.getStartBatchId(),
+                    range.getEndBatchId(), request.getNodeId(), rowCount);
+            return rowCount;
+        } catch (RuntimeException ex) {
+            processInfo.setStatus(ex instanceof CancellationException ? ProcessStatus.OK : ProcessStatus.ERROR);
+            throw ex;
+        }
+    }
+
     protected void restartExtractRequest(List<OutgoingBatch> batches, ExtractRequest request, List<ExtractRequest> childRequests) {
         /*
          * This extract request was interrupted and must start over
@@ -2070,9 +2426,9 @@ public class DataExtractorService extends AbstractService implements IDataExtrac
     }
 
     static class FutureExtractStatus {
-        boolean shouldExtractSkip;
+        volatile boolean shouldExtractSkip;
         int batchExtractCount;
-        int byteExtractCount;
+        long byteExtractCount;
     }
 
     static class FutureOutgoingBatch {
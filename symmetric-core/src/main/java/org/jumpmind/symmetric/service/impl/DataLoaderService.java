@@ -40,16 +40,17 @@ import java.net.UnknownHostException;
 import java.nio.charset.StandardCharsets;
 import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
-import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -165,6 +166,7 @@ public class DataLoaderService extends AbstractService implements IDataLoaderSer
     private Date lastUpdateTime;
     private CustomizableThreadFactory threadFactory;
     private ICacheManager cacheManager;
+    private AsyncAckSender asyncAckSender;
 
     public DataLoaderService(ISymmetricEngine engine) {
         super(engine.getParameterService(), engine.getSymmetricDialect());
@@ -183,6 +185,12 @@ public class DataLoaderService extends AbstractService implements IDataLoaderSer
         this.nodeCommunicationService = engine.getNodeCommunicationService();
         this.cacheManager = engine.getCacheManager();
         this.engine = engine;
+        this.asyncAckSender = new AsyncAckSender(this, transportManager,
+                new CustomizableThreadFactory(parameterService.getEngineName().toLowerCase() + "-ack"));
+    }
+
+    public void stop() {
+        asyncAckSender.stop();
     }
 
     public boolean refreshFromDatabase() {
@@ -272,6 +280,10 @@ public class DataLoaderService extends AbstractService implements IDataLoaderSer
                 requestProperties.put(WebConstants.IGNORED_CHANNELS,
                         suspendIgnoreChannels.getIgnoreChannelsAsString());
                 requestProperties.put(WebConstants.CHANNEL_QUEUE, status.getQueue());
+                /*
+                 * Acks from the last pull could still be on their way, and the remote node sends batches again until they arrive
+                 */
+                asyncAckSender.awaitAcks(remote.getNodeId(), status.getQueue(), parameterService.getLong(ParameterConstants.TRANSPORT_HTTP_TIMEOUT));
                 transport = transportManager.getPullTransport(remote, local,
                         localSecurity.getNodePassword(), requestProperties,
                         parameterService.getRegistrationUrl());
@@ -316,7 +328,11 @@ public class DataLoaderService extends AbstractService implements IDataLoaderSer
                             log.info("Setting the sync url for ack to: {}", url);
                             remote.setSyncUrl(url);
                         }
-                        sendAck(remote, local, localSecurity, list, transportManager, status.getQueue());
+                        if (!isRegisterTransport && parameterService.is(ParameterConstants.PULL_ACK_ASYNC_ENABLED)) {
+                            asyncAckSender.queue(remote, local, localSecurity, list, status.getQueue());
+                        } else {
+                            sendAck(remote, local, localSecurity, list, transportManager, status.getQueue());
+                        }
                     }
                 }
                 if (containsError(list)) {
@@ -564,9 +580,11 @@ public class DataLoaderService extends AbstractService implements IDataLoaderSer
                 if (threadFactory == null) {
                     threadFactory = new CustomizableThreadFactory(parameterService.getEngineName().toLowerCase() + "-dataloader");
                 }
-                ExecutorService executor = Executors.newFixedThreadPool(1, threadFactory);
+                int loadThreadCount = Math.max(1, parameterService.getInt(ParameterConstants.STREAM_TO_FILE_LOAD_THREAD_COUNT, 1));
+                Set<String> parallelChannelIds = loadThreadCount > 1 ? getParallelLoadChannelIds() : Collections.<String> emptySet();
+                ExecutorService executor = Executors.newFixedThreadPool(parallelChannelIds.isEmpty() ? 1 : loadThreadCount, threadFactory);
                 LoadIntoDatabaseOnArrivalListener loadListener = new LoadIntoDatabaseOnArrivalListener(transferInfo,
-                        sourceNode.getNodeId(), listener, executor);
+                        sourceNode.getNodeId(), listener, executor, parallelChannelIds);
                 SimpleStagingDataWriter stageWriter = null;
                 try {
                     stageWriter = new SimpleStagingDataWriter(transferInfo, transport.openReader(), stagingManager, Constants.STAGING_CATEGORY_INCOMING,
@@ -650,6 +668,16 @@ public class DataLoaderService extends AbstractService implements IDataLoaderSer
         return batchesProcessed;
     }
 
+    protected Set<String> getParallelLoadChannelIds() {
+        Set<String> channelIds = new HashSet<String>();
+        for (String channelId : StringUtils.split(parameterService.getString(ParameterConstants.STREAM_TO_FILE_LOAD_PARALLEL_CHANNELS, ""), ",")) {
+            if (StringUtils.isNotBlank(channelId)) {
+                channelIds.add(channelId.trim());
+            }
+        }
+        return channelIds;
+    }
+
     private void awaitTermination(ExecutorService executor) throws InterruptedException {
         long hours = 1;
         while (!executor.awaitTermination(1, TimeUnit.HOURS)) {
@@ -1005,17 +1033,29 @@ public class DataLoaderService extends AbstractService implements IDataLoaderSer
         private long batchStartsToArriveTimeInMs;
         private String sourceNodeId;
         private ProcessInfo transferInfo;
-        private ProcessInfo loadInfo;
-        private ExecutorService executor;
-        private List<Future<IncomingBatch>> futures = new ArrayList<Future<IncomingBatch>>();
-        private boolean isError;
+        private volatile boolean isError;
+        private boolean isParallel;
+        private DataContext context;
+        private LoadLanes<Lane> loadLanes;
 
         public LoadIntoDatabaseOnArrivalListener(ProcessInfo transferInfo, String sourceNodeId,
                 ManageIncomingBatchListener listener, ExecutorService executor) {
+            this(transferInfo, sourceNodeId, listener, executor, Collections.<String> emptySet());
+        }
+
+        /**
+         * @param parallelChannelIds
+         *            batches on these channels are loaded at the same time as batches on other channels by the threads of the executor, each
+         *            channel with its own listener and context. Batches on all other channels are loaded in order on one shared lane. See
+         *            {@link LoadLanes} for the ordering that is kept.
+         */
+        public LoadIntoDatabaseOnArrivalListener(ProcessInfo transferInfo, String sourceNodeId,
+                ManageIncomingBatchListener listener, ExecutorService executor, Set<String> parallelChannelIds) {
             this.sourceNodeId = sourceNodeId;
             this.listener = listener;
-            this.executor = executor;
             this.transferInfo = transferInfo;
+            this.isParallel = !parallelChannelIds.isEmpty();
+            this.loadLanes = new LoadLanes<Lane>(executor, parallelChannelIds, laneId -> newLane());
         }
 
         public void start(DataContext ctx, Batch batch) {
@@ -1023,6 +1063,11 @@ public class DataLoaderService extends AbstractService implements IDataLoaderSer
         }
 
         protected ProtocolDataReader buildDataReader(final Batch batchInStaging, final IStagedResource resource) {
+            return buildDataReader(batchInStaging, resource, listener);
+        }
+
+        protected ProtocolDataReader buildDataReader(final Batch batchInStaging, final IStagedResource resource,
+                final ManageIncomingBatchListener listener) {
             return new ProtocolDataReader(BatchType.LOAD, batchInStaging.getTargetNodeId(), resource) {
                 @Override
                 public Table nextTable() {
@@ -1043,12 +1088,17 @@ public class DataLoaderService extends AbstractService implements IDataLoaderSer
             };
         }
 
-        public void end(final DataContext ctx, final Batch batchInStaging, final IStagedResource resource) {
+        public void end(final DataContext stagingCtx, final Batch batchInStaging, final IStagedResource resource) {
             final long networkMillis = System.currentTimeMillis() - batchStartsToArriveTimeInMs;
+            this.context = stagingCtx;
+            final Lane lane = isParallel && resource != null ? loadLanes.getLane(batchInStaging.getChannelId()) : null;
+            final ManageIncomingBatchListener listener = lane != null ? lane.listener : this.listener;
+            final DataContext ctx = lane != null ? lane.context : stagingCtx;
             Callable<IncomingBatch> loadBatchFromStage = new Callable<IncomingBatch>() {
                 public IncomingBatch call() throws Exception {
                     IncomingBatch incomingBatch = null;
                     DataProcessor processor = null;
+                    ProcessInfo loadInfo = null;
                     MDC.put("engineName", engine.getParameterService().getEngineName());
                     if (!isError && resource != null && resource.exists()) {
                         try {
@@ -1061,12 +1111,13 @@ public class DataLoaderService extends AbstractService implements IDataLoaderSer
                                 loadInfo.setCurrentLoadId(batchInStaging.getStatistics().get(DataReaderStatistics.LOAD_ID));
                             }
                             loadInfo.setStatus(ProcessInfo.ProcessStatus.LOADING);
-                            ProtocolDataReader reader = buildDataReader(batchInStaging, resource);
+                            ProtocolDataReader reader = buildDataReader(batchInStaging, resource, listener);
+                            final ProcessInfo processorLoadInfo = loadInfo;
                             processor = new DataProcessor(reader, null, listener, "data load from stage") {
                                 @Override
                                 protected IDataWriter chooseDataWriter(Batch batch) {
                                     boolean isRetry = ((ManageIncomingBatchListener) listener).getCurrentBatch().isRetry();
-                                    return buildDataWriter(loadInfo, sourceNodeId, batch.getChannelId(), batch.getBatchId(), isRetry);
+                                    return buildDataWriter(processorLoadInfo, sourceNodeId, batch.getChannelId(), batch.getBatchId(), isRetry);
                                 }
                             };
                             processor.process(ctx);
@@ -1081,7 +1132,7 @@ public class DataLoaderService extends AbstractService implements IDataLoaderSer
                                 ctx.put(ContextConstants.CONTEXT_BULK_WRITER_TO_USE, "default");
                                 ctx.setLastError(null);
                                 listener.currentBatch.setStatus(Status.OK);
-                                processor.setDataReader(buildDataReader(batchInStaging, resource));
+                                processor.setDataReader(buildDataReader(batchInStaging, resource, listener));
                                 try {
                                     listener.getBatchesProcessed().remove(listener.currentBatch);
                                     processor.process(ctx);
@@ -1135,25 +1186,59 @@ public class DataLoaderService extends AbstractService implements IDataLoaderSer
                 }
                 isError = true;
             } else {
-                futures.add(executor.submit(loadBatchFromStage));
+                loadLanes.submit(batchInStaging.getChannelId(), loadBatchFromStage);
             }
         }
 
+        protected Lane newLane() {
+            Lane lane = new Lane(new ManageIncomingBatchListener(transferInfo, engine), new DataContext());
+            lane.context.getContext().putAll(context.getContext());
+            return lane;
+        }
+
         public boolean isDone() throws Throwable {
-            boolean isDone = true;
-            for (Future<IncomingBatch> future : futures) {
-                if (future.isDone()) {
-                    try {
-                        future.get();
-                    } catch (ExecutionException e) {
-                        throw e.getCause() != null ? e.getCause() : e;
-                    }
-                } else {
-                    isDone = false;
-                }
+            boolean isDone = loadLanes.isDone();
+            if (isDone && isParallel) {
+                mergeLanes();
             }
+            loadLanes.rethrowError();
             return isDone;
         }
+
+        protected synchronized void mergeLanes() {
+            Lane.merge(loadLanes, listener, context);
+        }
+    }
+
+    static class Lane {
+        ManageIncomingBatchListener listener;
+        DataContext context;
+
+        Lane(ManageIncomingBatchListener listener, DataContext context) {
+            this.listener = listener;
+            this.context = context;
+        }
+
+        /**
+         * Collect the batches loaded by each lane, and the state of the batch in error, so the caller can report and resolve them as if they were
+         * loaded by one thread.
+         */
+        static void merge(LoadLanes<Lane> loadLanes, ManageIncomingBatchListener listener, DataContext context) {
+            for (Lane lane : loadLanes.getLanes()) {
+                listener.getBatchesProcessed().addAll(lane.listener.getBatchesProcessed());
+                lane.listener.getBatchesProcessed().clear();
+            }
+            Lane errorLane = loadLanes.getErrorLane();
+            if (errorLane != null) {
+                listener.currentBatch = errorLane.listener.currentBatch;
+                listener.isNewErrorForCurrentBatch = errorLane.listener.isNewErrorForCurrentBatch;
+                if (context != null) {
+                    context.setBatch(errorLane.context.getBatch());
+                    context.setTable(errorLane.context.getTable());
+                    context.setData(errorLane.context.getData());
+                }
+            }
+        }
     }
 
     public static class ConflictNodeGroupLink extends Conflict implements IModelObject {
@@ -49,6 +49,7 @@ import org.jumpmind.db.platform.DatabaseInfo;
 import org.jumpmind.db.platform.IDatabasePlatform;
 import org.jumpmind.db.sql.DmlStatement;
 import org.jumpmind.db.sql.DmlStatement.DmlType;
+import org.jumpmind.db.sql.ISqlPositionalRowMapper;
 import org.jumpmind.db.sql.ISqlReadCursor;
 import org.jumpmind.db.sql.ISqlRowMapper;
 import org.jumpmind.db.sql.ISqlTransaction;
@@ -3265,7 +3266,7 @@ public class DataService extends AbstractService implements IDataService {
         }
     }
 
-    public class DataMapper implements ISqlRowMapper<Data> {
+    public class DataMapper implements ISqlPositionalRowMapper<Data> {
         private List<TriggerRouter> triggerRouters;
         private List<TriggerHistory> activeTriggerHistories;
         private HashMap<String, TriggerHistory> mismatchedTableName;
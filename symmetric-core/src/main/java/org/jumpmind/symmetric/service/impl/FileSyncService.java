@@ -28,10 +28,15 @@ import java.nio.charset.Charset;
 import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
 import org.apache.commons.io.FileUtils;
@@ -54,11 +59,13 @@ import org.jumpmind.symmetric.common.ContextConstants;
 import org.jumpmind.symmetric.common.ParameterConstants;
 import org.jumpmind.symmetric.common.TableConstants;
 import org.jumpmind.symmetric.file.DirectorySnapshot;
+import org.jumpmind.symmetric.file.FileChecksumCalculator;
 import org.jumpmind.symmetric.file.FileConflictException;
 import org.jumpmind.symmetric.file.FileSyncZipDataWriter;
 import org.jumpmind.symmetric.file.FileTriggerFileModifiedListener;
 import org.jumpmind.symmetric.file.FileTriggerFileModifiedListener.FileModifiedCallback;
 import org.jumpmind.symmetric.file.FileTriggerTracker;
+import org.jumpmind.symmetric.file.FileTriggerWatcher;
 import org.jumpmind.symmetric.io.data.Batch;
 import org.jumpmind.symmetric.io.data.CsvData;
 import org.jumpmind.symmetric.io.data.DataEventType;
@@ -100,6 +107,7 @@ import org.jumpmind.symmetric.transport.NoContentException;
 import org.jumpmind.symmetric.transport.file.FileIncomingTransport;
 import org.jumpmind.symmetric.transport.file.FileOutgoingTransport;
 import org.jumpmind.util.AppUtils;
+import org.jumpmind.util.CustomizableThreadFactory;
 import org.jumpmind.util.ExceptionUtils;
 
 import bsh.EvalError;
@@ -111,6 +119,9 @@ public class FileSyncService extends AbstractOfflineDetectorService implements I
     private ISymmetricEngine engine;
     private Date lastUpdateTime;
     private ICacheManager cacheManager;
+    private Map<String, FileTriggerWatcher> fileTriggerWatchers = new ConcurrentHashMap<String, FileTriggerWatcher>();
+    private ExecutorService checksumExecutor;
+    private int checksumThreadCount;
 
     public FileSyncService(ISymmetricEngine engine) {
         super(engine.getParameterService(), engine.getSymmetricDialect(), engine.getExtensionService());
@@ -153,10 +164,15 @@ public class FileSyncService extends AbstractOfflineDetectorService implements I
                         ProcessInfo processInfo = engine.getStatisticManager().newProcessInfo(
                                 new ProcessInfoKey(local.getNodeId(), null, ProcessType.FILE_SYNC_TRACKER));
                         boolean useCrc = engine.getParameterService().is(ParameterConstants.FILE_SYNC_USE_CRC);
-                        if (engine.getParameterService().is(ParameterConstants.FILE_SYNC_FAST_SCAN)) {
-                            trackChangesFastScan(processInfo, useCrc);
+                        if (engine.getParameterService().is(ParameterConstants.FILE_SYNC_WATCH_ENABLED)) {
+                            trackChangesWithWatcher(processInfo, useCrc);
                         } else {
-                            trackChanges(processInfo, useCrc);
+                            closeFileTriggerWatchers();
+                            if (engine.getParameterService().is(ParameterConstants.FILE_SYNC_FAST_SCAN)) {
+                                trackChangesFastScan(processInfo, useCrc);
+                            } else {
+                                trackChanges(processInfo, useCrc);
+                            }
                         }
                         if (engine.getParameterService().is(ParameterConstants.FILE_SYNC_PREVENT_PING_BACK)) {
                             deleteFromFileIncoming();
@@ -197,10 +213,7 @@ public class FileSyncService extends AbstractOfflineDetectorService implements I
                         continue;
                     }
                     boolean ignoreFiles = shouldIgnoreInitialFiles(fileTriggerRouter, fileTrigger, ctxDate);
-                    FileTriggerTracker tracker = new FileTriggerTracker(fileTriggerRouter, getDirectorySnapshot(fileTriggerRouter),
-                            processInfo, useCrc, engine);
-                    DirectorySnapshot dirSnapshot = tracker.trackChanges();
-                    saveDirectorySnapshot(fileTriggerRouter, dirSnapshot, ignoreFiles);
+                    trackChanges(fileTriggerRouter, processInfo, useCrc, ignoreFiles);
                     engine.getContextService().save(ContextConstants.FILE_SYNC_FAST_SCAN_TRACK_TIME, String.valueOf(currentDate.getTime()));
                 } catch (Exception ex) {
                     log.error("Failed to track changes for file trigger router: "
@@ -211,6 +224,107 @@ public class FileSyncService extends AbstractOfflineDetectorService implements I
         }
     }
 
+    protected void trackChanges(FileTriggerRouter fileTriggerRouter, ProcessInfo processInfo, boolean useCrc, boolean ignoreFiles) {
+        FileTriggerTracker tracker = new FileTriggerTracker(fileTriggerRouter, getDirectorySnapshot(fileTriggerRouter),
+                processInfo, useCrc, useCrc ? createChecksumCalculator() : null, engine);
+        DirectorySnapshot dirSnapshot = tracker.trackChanges();
+        saveDirectorySnapshot(fileTriggerRouter, dirSnapshot, ignoreFiles);
+    }
+
+    protected void trackChangesWithWatcher(ProcessInfo processInfo, boolean useCrc) {
+        long ctxTime = engine.getContextService().getLong(ContextConstants.FILE_SYNC_FAST_SCAN_TRACK_TIME);
+        Date ctxDate = new Date(ctxTime);
+        if (ctxTime == 0) {
+            ctxDate = null;
+        }
+        Date currentDate = new Date();
+        int maxRowsBeforeCommit = engine.getParameterService().getInt(ParameterConstants.DATA_LOADER_MAX_ROWS_BEFORE_COMMIT);
+        Set<String> watcherKeys = new HashSet<String>();
+        List<FileTriggerRouter> fileTriggerRouters = getFileTriggerRoutersForCurrentNode(false);
+        for (final FileTriggerRouter fileTriggerRouter : fileTriggerRouters) {
+            if (fileTriggerRouter.isEnabled()) {
+                try {
+                    FileTrigger fileTrigger = fileTriggerRouter.getFileTrigger();
+                    String watcherKey = fileTrigger.getTriggerId() + "::" + fileTriggerRouter.getRouter().getRouterId();
+                    watcherKeys.add(watcherKey);
+                    boolean sourceDirReachable = checkSourceDir(fileTriggerRouter);
+                    if (!sourceDirReachable) {
+                        continue;
+                    }
+                    final boolean ignoreFiles = shouldIgnoreInitialFiles(fileTriggerRouter, fileTrigger, ctxDate);
+                    FileTriggerWatcher watcher = fileTriggerWatchers.get(watcherKey);
+                    if (watcher == null) {
+                        watcher = new FileTriggerWatcher(fileTriggerRouter, engine);
+                        fileTriggerWatchers.put(watcherKey, watcher);
+                    }
+                    boolean tracked = watcher.trackChanges(processInfo, useCrc ? createChecksumCalculator() : null,
+                            new FileModifiedCallback(maxRowsBeforeCommit) {
+                                public void commit(DirectorySnapshot dirSnapshot) {
+                                    saveDirectorySnapshot(fileTriggerRouter, dirSnapshot, ignoreFiles);
+                                }
+
+                                public DirectorySnapshot getLastDirectorySnapshot(String relativeDir) {
+                                    return getDirectorySnapshot(fileTriggerRouter, relativeDir);
+                                }
+                            });
+                    if (!tracked) {
+                        // start watching before the scan so nothing changed during the scan is missed
+                        watcher.startWatching();
+                        trackChanges(fileTriggerRouter, processInfo, useCrc, ignoreFiles);
+                    }
+                    engine.getContextService().save(ContextConstants.FILE_SYNC_FAST_SCAN_TRACK_TIME, String.valueOf(currentDate.getTime()));
+                } catch (Exception ex) {
+                    log.error("Failed to track changes for file trigger router: "
+                            + fileTriggerRouter.getFileTrigger().getTriggerId()
+                            + "::" + fileTriggerRouter.getRouter().getRouterId(), ex);
+                }
+            }
+        }
+        Iterator<Map.Entry<String, FileTriggerWatcher>> iterator = fileTriggerWatchers.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, FileTriggerWatcher> entry = iterator.next();
+            if (!watcherKeys.contains(entry.getKey())) {
+                entry.getValue().close();
+                iterator.remove();
+            }
+        }
+    }
+
+    protected FileChecksumCalculator createChecksumCalculator() {
+        int threadCount = engine.getParameterService().getInt(ParameterConstants.FILE_SYNC_CRC_THREADS, 4);
+        if (threadCount <= 1) {
+            return null;
+        }
+        synchronized (this) {
+            if (checksumExecutor == null || checksumThreadCount != threadCount) {
+                if (checksumExecutor != null) {
+                    checksumExecutor.shutdown();
+                }
+                checksumExecutor = Executors.newFixedThreadPool(threadCount, new CustomizableThreadFactory(
+                        parameterService.getEngineName().toLowerCase() + "-file-sync-crc"));
+                checksumThreadCount = threadCount;
+            }
+            return new FileChecksumCalculator(checksumExecutor, threadCount * 8);
+        }
+    }
+
+    protected void closeFileTriggerWatchers() {
+        for (FileTriggerWatcher watcher : fileTriggerWatchers.values()) {
+            watcher.close();
+        }
+        fileTriggerWatchers.clear();
+    }
+
+    public void stop() {
+        closeFileTriggerWatchers();
+        synchronized (this) {
+            if (checksumExecutor != null) {
+                checksumExecutor.shutdown();
+                checksumExecutor = null;
+            }
+        }
+    }
+
     protected void trackChangesFastScan(ProcessInfo processInfo, boolean useCrc) {
         long ctxTime = engine.getContextService().getLong(ContextConstants.FILE_SYNC_FAST_SCAN_TRACK_TIME);
         Date ctxDate = new Date(ctxTime);
@@ -348,6 +462,8 @@ public class FileSyncService extends AbstractOfflineDetectorService implements I
 
     public void clearCache() {
         cacheManager.flushFileTriggerRouters();
+        // file triggers may have changed what is watched
+        closeFileTriggerWatchers();
     }
 
     public void saveFileTrigger(FileTrigger fileTrigger) {
@@ -0,0 +1,163 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.service.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import org.jumpmind.symmetric.common.Constants;
+import org.jumpmind.symmetric.model.IncomingBatch;
+
+/**
+ * Submits the loads of incoming batches to an executor in lanes. Each parallel channel has its own lane and all other channels share one lane, so
+ * only loads on different parallel channels run at the same time. A load waits for the previous load on its lane. A config load waits for every
+ * load submitted before it, and later loads wait for the config load. Waiting can't deadlock because the executor starts tasks in the order they
+ * are submitted.
+ * <p>
+ * Order is not kept across lanes, so a row on a parallel channel can be loaded before a row it references on another channel. Only channels whose
+ * tables have no foreign keys to or from tables on other channels should be parallel.
+ *
+ * @param <L>
+ *            the state kept for each lane, like the listener and context used by its loads
+ */
+class LoadLanes<L> {
+    static final String SHARED_LANE_ID = "";
+    protected ExecutorService executor;
+    protected Set<String> parallelChannelIds;
+    protected Function<String, L> laneFactory;
+    protected Map<String, L> lanes = new LinkedHashMap<String, L>();
+    protected Map<String, Future<IncomingBatch>> lastFutureByLaneId = new HashMap<String, Future<IncomingBatch>>();
+    protected Future<IncomingBatch> lastConfigFuture;
+    protected List<Future<IncomingBatch>> futures = new ArrayList<Future<IncomingBatch>>();
+    protected String errorLaneId;
+
+    /**
+     * @param parallelChannelIds
+     *            the channels that load on their own lane, or an empty set to load everything in order on the shared lane
+     * @param laneFactory
+     *            creates the state for a lane from its id
+     */
+    LoadLanes(ExecutorService executor, Set<String> parallelChannelIds, Function<String, L> laneFactory) {
+        this.executor = executor;
+        this.parallelChannelIds = parallelChannelIds;
+        this.laneFactory = laneFactory;
+    }
+
+    public String getLaneId(String channelId) {
+        return !Constants.CHANNEL_CONFIG.equals(channelId) && parallelChannelIds.contains(channelId) ? channelId : SHARED_LANE_ID;
+    }
+
+    public L getLane(String channelId) {
+        return lanes.computeIfAbsent(getLaneId(channelId), laneFactory);
+    }
+
+    /**
+     * @return the lanes in the order they were first used
+     */
+    public Collection<L> getLanes() {
+        return lanes.values();
+    }
+
+    /**
+     * @return the lane of the first load that failed, or null when no load failed
+     */
+    public synchronized L getErrorLane() {
+        return errorLaneId != null ? lanes.get(errorLaneId) : null;
+    }
+
+    public Future<IncomingBatch> submit(String channelId, final Callable<IncomingBatch> load) {
+        final String laneId = getLaneId(channelId);
+        final List<Future<IncomingBatch>> predecessors = new ArrayList<Future<IncomingBatch>>();
+        boolean isConfig = Constants.CHANNEL_CONFIG.equals(channelId);
+        if (isConfig) {
+            predecessors.addAll(lastFutureByLaneId.values());
+        } else if (lastFutureByLaneId.containsKey(laneId)) {
+            predecessors.add(lastFutureByLaneId.get(laneId));
+        }
+        if (lastConfigFuture != null) {
+            predecessors.add(lastConfigFuture);
+        }
+        Future<IncomingBatch> future = executor.submit(new Callable<IncomingBatch>() {
+            public IncomingBatch call() throws Exception {
+                for (Future<IncomingBatch> predecessor : predecessors) {
+                    try {
+                        predecessor.get();
+                    } catch (ExecutionException e) {
+                        // the error is reported by isDone() and stops the remaining loads
+                    }
+                }
+                try {
+                    return load.call();
+                } catch (Exception e) {
+                    synchronized (LoadLanes.this) {
+                        if (errorLaneId == null) {
+                            errorLaneId = laneId;
+                        }
+                    }
+                    throw e;
+                }
+            }
+        });
+        lastFutureByLaneId.put(laneId, future);
+        if (isConfig) {
+            lastConfigFuture = future;
+        }
+        futures.add(future);
+        return future;
+    }
+
+    /**
+     * @return true when all loads have finished
+     */
+    public boolean isDone() {
+        for (Future<IncomingBatch> future : futures) {
+            if (!future.isDone()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Throw the error from the first load, in the order submitted, that has failed
+     */
+    public void rethrowError() throws Throwable {
+        for (Future<IncomingBatch> future : futures) {
+            if (future.isDone()) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    throw e.getCause() != null ? e.getCause() : e;
+                }
+            }
+        }
+    }
+}
@@ -62,10 +62,12 @@ import org.jumpmind.symmetric.service.INodeService;
 import org.jumpmind.symmetric.service.IParameterService;
 import org.jumpmind.util.AppUtils;
 import org.jumpmind.util.RandomTimeSlot;
+import org.jumpmind.util.VirtualThreadPerTaskExecutor;
 import org.slf4j.MDC;
 
 public class NodeCommunicationService extends AbstractService implements INodeCommunicationService {
-    private Map<CommunicationType, ThreadPoolExecutor> executors = new HashMap<NodeCommunication.CommunicationType, ThreadPoolExecutor>();
+    private Map<CommunicationType, ExecutorService> executors = new HashMap<NodeCommunication.CommunicationType, ExecutorService>();
+    private boolean virtualThreadsUnsupportedLogged;
     private INodeService nodeService;
     private IClusterService clusterService;
     private IConfigurationService configurationService;
@@ -399,12 +401,12 @@ public class NodeCommunicationService extends AbstractService implements INodeCo
         return filteredNodes;
     }
 
-    protected ThreadPoolExecutor getExecutor(final CommunicationType communicationType) {
+    protected ExecutorService getExecutor(final CommunicationType communicationType) {
         return getExecutor(communicationType, null);
     }
 
-    protected ThreadPoolExecutor getExecutor(final CommunicationType communicationType, final String threadChannelId) {
-        ThreadPoolExecutor service = executors.get(communicationType);
+    protected ExecutorService getExecutor(final CommunicationType communicationType, final String threadChannelId) {
+        ExecutorService service = executors.get(communicationType);
         String threadCountParameter = "";
         switch (communicationType) {
             case PULL:
@@ -441,11 +443,12 @@ public class NodeCommunicationService extends AbstractService implements INodeCo
                 break;
         }
         int threadCount = parameterService.getInt(threadCountParameter, 1);
-        if (service != null && service.getCorePoolSize() != threadCount) {
+        boolean virtualThreads = isVirtualThreads(communicationType);
+        if (service != null && (getMaximumPoolSize(service) != threadCount || service instanceof VirtualThreadPerTaskExecutor != virtualThreads)) {
             synchronized (this) {
                 if (service != null) {
-                    log.info("{} has changed from {} to {}.  Restarting thread pool for {}", threadCountParameter, service.getCorePoolSize(), threadCount,
-                            communicationType.name());
+                    log.info("{} has changed from {} to {}{}.  Restarting thread pool for {}", threadCountParameter, getMaximumPoolSize(service),
+                            threadCount, virtualThreads ? " virtual threads" : "", communicationType.name());
                     service.shutdown();
                     executors.remove(communicationType);
                     service = null;
@@ -464,10 +467,15 @@ public class NodeCommunicationService extends AbstractService implements INodeCo
                         log.info("{} will use {} threads", communicationType.name().toLowerCase(),
                                 threadCount);
                     }
-                    service = (ThreadPoolExecutor) Executors.newFixedThreadPool(threadCount,
-                            new ChannelThreadFactory(parameterService.getEngineName(), communicationType.name()));
-                    service.setKeepAliveTime(1, TimeUnit.MINUTES);
-                    service.allowCoreThreadTimeOut(true);
+                    ChannelThreadFactory threadFactory = new ChannelThreadFactory(parameterService.getEngineName(), communicationType.name());
+                    if (virtualThreads) {
+                        service = new VirtualThreadPerTaskExecutor(threadFactory.getThreadPrefix(), threadCount);
+                    } else {
+                        ThreadPoolExecutor threadPool = (ThreadPoolExecutor) Executors.newFixedThreadPool(threadCount, threadFactory);
+                        threadPool.setKeepAliveTime(1, TimeUnit.MINUTES);
+                        threadPool.allowCoreThreadTimeOut(true);
+                        service = threadPool;
+                    }
                     executors.put(communicationType, service);
                 }
             }
@@ -476,8 +484,46 @@ public class NodeCommunicationService extends AbstractService implements INodeCo
     }
 
     public int getAvailableThreads(CommunicationType communicationType) {
-        ThreadPoolExecutor service = getExecutor(communicationType);
-        return service.getMaximumPoolSize() - service.getActiveCount();
+        ExecutorService service = getExecutor(communicationType);
+        if (service instanceof VirtualThreadPerTaskExecutor) {
+            VirtualThreadPerTaskExecutor virtualService = (VirtualThreadPerTaskExecutor) service;
+            return virtualService.getMaximumPoolSize() - virtualService.getTaskCount();
+        }
+        ThreadPoolExecutor threadPool = (ThreadPoolExecutor) service;
+        return threadPool.getMaximumPoolSize() - threadPool.getActiveCount();
+    }
+
+    protected int getMaximumPoolSize(ExecutorService service) {
+        if (service instanceof VirtualThreadPerTaskExecutor) {
+            return ((VirtualThreadPerTaskExecutor) service).getMaximumPoolSize();
+        }
+        return ((ThreadPoolExecutor) service).getCorePoolSize();
+    }
+
+    /**
+     * Communication that spends most of its time waiting on the network or the database can run each task on a virtual thread, limited to the
+     * configured thread count, instead of holding a platform thread for every node
+     */
+    protected boolean isVirtualThreads(CommunicationType communicationType) {
+        switch (communicationType) {
+            case PULL:
+            case PUSH:
+            case FILE_PULL:
+            case FILE_PUSH:
+            case EXTRACT:
+                if (parameterService.is(ParameterConstants.NODE_COMMUNICATION_VIRTUAL_THREADS, false)) {
+                    if (VirtualThreadPerTaskExecutor.isSupported()) {
+                        return true;
+                    } else if (!virtualThreadsUnsupportedLogged) {
+                        virtualThreadsUnsupportedLogged = true;
+                        log.warn("The {} parameter is enabled, but virtual threads require Java 21 or later.  Using platform threads instead",
+                                ParameterConstants.NODE_COMMUNICATION_VIRTUAL_THREADS);
+                    }
+                }
+                return false;
+            default:
+                return false;
+        }
     }
 
     protected Date getLockTimeoutDate(CommunicationType communicationType) {
@@ -557,7 +603,7 @@ public class NodeCommunicationService extends AbstractService implements INodeCo
                 if (parameterService.is(ParameterConstants.SYNCHRONIZE_ALL_JOBS)) {
                     r.run();
                 } else {
-                    ThreadPoolExecutor service = getExecutor(nodeCommunication.getCommunicationType(),
+                    ExecutorService service = getExecutor(nodeCommunication.getCommunicationType(),
                             nodeCommunication.getQueue());
                     service.execute(r);
                 }
@@ -0,0 +1,207 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.service.impl;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+import org.jumpmind.symmetric.model.AbstractBatch.Status;
+import org.jumpmind.symmetric.model.OutgoingBatch;
+
+/**
+ * An in-memory index of the unsent outgoing batch ids for each node, grouped by channel. It is used to answer whether a node has anything to send
+ * on a queue without selecting from the outgoing batch table. A node is loaded from the database on first use, then kept current as batches are
+ * committed. Changes that can't be applied one batch at a time unload the node so it is loaded again on next use. A loaded node also expires after
+ * a refresh interval, so batches changed outside this service are eventually seen. Each node has a change count, so a load or a clear that raced
+ * with a commit is thrown away instead of hiding a batch.
+ */
+public class OutgoingBatchQueueIndex {
+    protected Map<String, Entry> entries = new HashMap<String, Entry>();
+
+    public static boolean isUnsent(Status status) {
+        return status == Status.RQ || status == Status.NE || status == Status.QY || status == Status.SE || status == Status.LD
+                || status == Status.ER || status == Status.IG || status == Status.RS;
+    }
+
+    /**
+     * @param channelIds
+     *            the channels to check, or null to check all channels
+     * @param refreshMs
+     *            how long a loaded node is used before it is loaded from the database again
+     * @return whether there are unsent batches, or null if the node needs to be loaded first
+     */
+    public synchronized Boolean hasUnsentBatches(String nodeId, Collection<String> channelIds, long refreshMs) {
+        Entry entry = entries.get(nodeId);
+        if (entry == null || !entry.loaded) {
+            return null;
+        }
+        if (System.currentTimeMillis() - entry.loadTime >= refreshMs) {
+            entry.loaded = false;
+            return null;
+        }
+        if (entry.overflow) {
+            return Boolean.TRUE;
+        }
+        if (channelIds == null) {
+            for (NavigableSet<Long> batchIds : entry.batchIdsByChannel.values()) {
+                if (!batchIds.isEmpty()) {
+                    return Boolean.TRUE;
+                }
+            }
+        } else {
+            for (String channelId : channelIds) {
+                NavigableSet<Long> batchIds = entry.batchIdsByChannel.get(channelId);
+                if (batchIds != null && !batchIds.isEmpty()) {
+                    return Boolean.TRUE;
+                }
+            }
+        }
+        return Boolean.FALSE;
+    }
+
+    /**
+     * @return the change count for the node, which is passed to {@link #load(String, long, List, boolean)} or
+     *         {@link #clear(String, long, Collection)} after reading from the database
+     */
+    public synchronized long getChangeCount(String nodeId) {
+        return getEntry(nodeId).changeCount;
+    }
+
+    /**
+     * Load the unsent batches for a node that were read from the database. If the node changed while they were being read, it stays unloaded.
+     *
+     * @param overflow
+     *            true if there were too many unsent batches to read, so the node is always treated as having batches until it is loaded again
+     */
+    public synchronized void load(String nodeId, long changeCount, List<OutgoingBatch> batches, boolean overflow) {
+        Entry entry = getEntry(nodeId);
+        if (entry.changeCount == changeCount) {
+            entry.batchIdsByChannel.clear();
+            if (!overflow) {
+                for (OutgoingBatch batch : batches) {
+                    entry.add(batch.getChannelId(), batch.getBatchId());
+                }
+            }
+            entry.overflow = overflow;
+            entry.loaded = true;
+            entry.loadTime = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Clear channels that the database says have no unsent batches for the node, as long as nothing was committed for the node since it was read.
+     */
+    public synchronized void clear(String nodeId, long changeCount, Collection<String> channelIds) {
+        Entry entry = entries.get(nodeId);
+        if (entry != null && entry.loaded && !entry.overflow && entry.changeCount == changeCount) {
+            for (String channelId : channelIds) {
+                entry.batchIdsByChannel.remove(channelId);
+            }
+        }
+    }
+
+    /**
+     * Apply the status of a batch that was committed to the database
+     */
+    public synchronized void committed(OutgoingBatch batch) {
+        Entry entry = getEntry(batch.getNodeId());
+        entry.changeCount++;
+        if (entry.loaded && !entry.overflow) {
+            if (isUnsent(batch.getStatus())) {
+                if (batch.getChannelId() != null) {
+                    entry.add(batch.getChannelId(), batch.getBatchId());
+                } else {
+                    entry.loaded = false;
+                }
+            } else {
+                entry.remove(batch.getBatchId());
+            }
+        }
+    }
+
+    public synchronized void invalidate(String nodeId) {
+        Entry entry = getEntry(nodeId);
+        entry.changeCount++;
+        entry.loaded = false;
+    }
+
+    public synchronized void invalidateAll() {
+        for (Entry entry : entries.values()) {
+            entry.changeCount++;
+            entry.loaded = false;
+        }
+    }
+
+    public synchronized int getUnsentCount(String nodeId) {
+        int count = 0;
+        Entry entry = entries.get(nodeId);
+        if (entry != null) {
+            for (NavigableSet<Long> batchIds : entry.batchIdsByChannel.values()) {
+                count += batchIds.size();
+            }
+        }
+        return count;
+    }
+
+    protected Entry getEntry(String nodeId) {
+        Entry entry = entries.get(nodeId);
+        if (entry == null) {
+            entry = new Entry();
+            entries.put(nodeId, entry);
+        }
+        return entry;
+    }
+
+    static class Entry {
+        Map<String, NavigableSet<Long>> batchIdsByChannel = new HashMap<String, NavigableSet<Long>>();
+        boolean loaded;
+        boolean overflow;
+        long loadTime;
+        long changeCount;
+
+        void add(String channelId, long batchId) {
+            NavigableSet<Long> batchIds = batchIdsByChannel.get(channelId);
+            if (batchIds == null) {
+                batchIds = new TreeSet<Long>();
+                batchIdsByChannel.put(channelId, batchIds);
+            }
+            batchIds.add(batchId);
+        }
+
+        void remove(long batchId) {
+            Iterator<NavigableSet<Long>> iterator = batchIdsByChannel.values().iterator();
+            while (iterator.hasNext()) {
+                NavigableSet<Long> batchIds = iterator.next();
+                if (batchIds.remove(batchId)) {
+                    if (batchIds.isEmpty()) {
+                        iterator.remove();
+                    }
+                    break;
+                }
+            }
+        }
+    }
+}
@@ -22,19 +22,23 @@ package org.jumpmind.symmetric.service.impl;
 
 import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.WeakHashMap;
 
 import org.apache.commons.lang3.StringUtils;
 import org.jumpmind.db.sql.ISqlReadCursor;
 import org.jumpmind.db.sql.ISqlRowMapper;
 import org.jumpmind.db.sql.ISqlTransaction;
 import org.jumpmind.db.sql.Row;
+import org.jumpmind.db.sql.SqlTransactionListenerAdapter;
 import org.jumpmind.db.sql.mapper.LongMapper;
 import org.jumpmind.db.sql.mapper.StringMapper;
 import org.jumpmind.symmetric.common.Constants;
@@ -71,6 +75,9 @@ public class OutgoingBatchService extends AbstractService implements IOutgoingBa
     private ISequenceService sequenceService;
     private IClusterService clusterService;
     private IExtensionService extensionService;
+    private OutgoingBatchQueueIndex queueIndex = new OutgoingBatchQueueIndex();
+    private volatile boolean queueIndexEnabled;
+    private Map<ISqlTransaction, QueueIndexListener> queueIndexListeners = new WeakHashMap<ISqlTransaction, QueueIndexListener>();
 
     public OutgoingBatchService(IParameterService parameterService, ISymmetricDialect symmetricDialect, INodeService nodeService,
             IConfigurationService configurationService, ISequenceService sequenceService, IClusterService clusterService,
@@ -90,7 +97,9 @@ public class OutgoingBatchService extends AbstractService implements IOutgoingBa
 
     @Override
     public int cancelLoadBatches(long loadId) {
-        return sqlTemplate.update(getSql("cancelLoadBatchesSql"), new Date(), loadId);
+        int count = sqlTemplate.update(getSql("cancelLoadBatchesSql"), new Date(), loadId);
+        queueIndex.invalidateAll();
+        return count;
     }
 
     public void markAllAsSentForNode(String nodeId, boolean includeConfigChannel) {
@@ -144,6 +153,7 @@ public class OutgoingBatchService extends AbstractService implements IOutgoingBa
                 new Object[] { channelId, fromNodeId, toNodeId, startBatchId });
         sqlTemplate.update(getSql("deleteOutgoingBatchesForNodeSql"), toNodeId, channelId, fromNodeId, channelId);
         int count = sqlTemplate.update(getSql("copyOutgoingBatchesSql"), toNodeId, new Date(), fromNodeId, channelId, startBatchId);
+        queueIndex.invalidate(toNodeId);
         log.info("Copied {} outgoing batches for channel '{}' from node '{}' to node '{}'",
                 new Object[] { count, channelId, fromNodeId, toNodeId });
     }
@@ -230,6 +240,7 @@ public class OutgoingBatchService extends AbstractService implements IOutgoingBa
                         Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC,
                         Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC,
                         symmetricDialect.getSqlTypeForIds(), Types.VARCHAR });
+        indexOnCommit(transaction, Collections.singletonList(outgoingBatch));
     }
 
     public void updateOutgoingBatches(ISqlTransaction transaction, List<OutgoingBatch> batches, int flushSize) {
@@ -271,6 +282,7 @@ public class OutgoingBatchService extends AbstractService implements IOutgoingBa
             }
         }
         transaction.flush();
+        indexOnCommit(transaction, batches);
     }
 
     public void updateOutgoingBatchStatus(ISqlTransaction transaction, Status status, String nodeId, long startBatchId, long endBatchId) {
@@ -278,6 +290,7 @@ public class OutgoingBatchService extends AbstractService implements IOutgoingBa
                 new Object[] { status.name(), new Date(), clusterService.getServerId(), nodeId, startBatchId, endBatchId },
                 new int[] { Types.CHAR, Types.TIMESTAMP, Types.VARCHAR, Types.VARCHAR,
                         symmetricDialect.getSqlTypeForIds(), symmetricDialect.getSqlTypeForIds() });
+        invalidateOnCommit(transaction, nodeId);
     }
 
     public void updateOutgoingSetupBatchStatusByStatus(ISqlTransaction transaction, String targetNodeId, long loadId,
@@ -290,6 +303,7 @@ public class OutgoingBatchService extends AbstractService implements IOutgoingBa
                         targetNodeId, loadId, fromStatus, maxBatchId },
                 new int[] { Types.CHAR, Types.TIMESTAMP, Types.VARCHAR,
                         Types.VARCHAR, Types.NUMERIC, Types.CHAR, Types.NUMERIC });
+        invalidateOnCommit(transaction, targetNodeId);
     }
 
     public void updateOutgoingLoadBatchStatusByStatus(ISqlTransaction transaction, String targetNodeId, long loadId,
@@ -302,6 +316,7 @@ public class OutgoingBatchService extends AbstractService implements IOutgoingBa
                         targetNodeId, loadId, fromStatus, startDataBatchId, endDataBatchId },
                 new int[] { Types.CHAR, Types.TIMESTAMP, Types.VARCHAR,
                         Types.VARCHAR, Types.NUMERIC, Types.CHAR, Types.NUMERIC, Types.NUMERIC });
+        invalidateOnCommit(transaction, targetNodeId);
     }
 
     public void updateOutgoingFinalizeBatchStatusByStatus(ISqlTransaction transaction, String targetNodeId, long loadId,
@@ -314,6 +329,7 @@ public class OutgoingBatchService extends AbstractService implements IOutgoingBa
                         targetNodeId, loadId, fromStatus, minBatchId },
                 new int[] { Types.CHAR, Types.TIMESTAMP, Types.VARCHAR,
                         Types.VARCHAR, Types.NUMERIC, Types.CHAR, Types.NUMERIC });
+        invalidateOnCommit(transaction, targetNodeId);
     }
 
     public void insertOutgoingBatch(final OutgoingBatch outgoingBatch) {
@@ -354,6 +370,7 @@ public class OutgoingBatchService extends AbstractService implements IOutgoingBa
                 outgoingBatch.getDataDeleteRowCount(), outgoingBatch.getLastUpdatedHostName(), new Date(), new Date(),
                 outgoingBatch.getCreateBy(), outgoingBatch.getSummary(), outgoingBatch.getDataRowCount());
         outgoingBatch.setBatchId(batchId);
+        indexOnCommit(transaction, Collections.singletonList(outgoingBatch));
     }
 
     public void insertOutgoingBatches(ISqlTransaction transaction, List<OutgoingBatch> batches, int flushSize, boolean isCommon) {
@@ -386,6 +403,7 @@ public class OutgoingBatchService extends AbstractService implements IOutgoingBa
             }
         }
         transaction.flush();
+        indexOnCommit(transaction, batches);
     }
 
     public OutgoingBatch findOutgoingBatch(long batchId, String nodeId) {
@@ -588,6 +606,14 @@ public class OutgoingBatchService extends AbstractService implements IOutgoingBa
     public OutgoingBatches getOutgoingBatches(String nodeId, String channelThread, NodeGroupLinkAction eventAction,
             NodeGroupLinkAction defaultEventAction, boolean includeDisabledChannels) {
         long ts = System.currentTimeMillis();
+        boolean useQueueIndex = isQueueIndexEnabled();
+        long changeCount = 0;
+        if (useQueueIndex) {
+            if (!hasUnsentBatchesInQueueIndex(nodeId, getChannelIdsForQueue(channelThread, true))) {
+                return new OutgoingBatches();
+            }
+            changeCount = queueIndex.getChangeCount(nodeId);
+        }
         final int maxNumberOfBatchesToSelect = parameterService.getInt(ParameterConstants.OUTGOING_BATCH_MAX_BATCHES_TO_SELECT, 1000);
         String sql = null;
         Object[] params = null;
@@ -620,6 +646,9 @@ public class OutgoingBatchService extends AbstractService implements IOutgoingBa
         }
         List<OutgoingBatch> list = (List<OutgoingBatch>) sqlTemplateDirty.query(sql, maxNumberOfBatchesToSelect,
                 new OutgoingBatchMapper(includeDisabledChannels), params, types);
+        if (useQueueIndex && eventAction == null && list.isEmpty()) {
+            queueIndex.clear(nodeId, changeCount, getChannelIdsForQueue(channelThread, includeDisabledChannels));
+        }
         OutgoingBatches batches = new OutgoingBatches(list);
         List<NodeChannel> channels = new ArrayList<NodeChannel>(configurationService.getNodeChannels(nodeId, true));
         batches.sortChannels(channels);
@@ -646,6 +675,82 @@ public class OutgoingBatchService extends AbstractService implements IOutgoingBa
         return batches;
     }
 
+    public void clearCache() {
+        queueIndex.invalidateAll();
+    }
+
+    protected boolean isQueueIndexEnabled() {
+        boolean enabled = parameterService.is(ParameterConstants.OUTGOING_BATCH_QUEUE_INDEX_ENABLED);
+        if (enabled != queueIndexEnabled) {
+            // changes were not tracked while it was turned off
+            queueIndex.invalidateAll();
+            queueIndexEnabled = enabled;
+        }
+        return enabled;
+    }
+
+    protected boolean hasUnsentBatchesInQueueIndex(String nodeId, Collection<String> channelIds) {
+        long refreshMs = parameterService.getLong(ParameterConstants.OUTGOING_BATCH_QUEUE_INDEX_REFRESH_MS);
+        if (clusterService.isClusteringEnabled()) {
+            refreshMs = Math.min(refreshMs, parameterService.getLong(ParameterConstants.OUTGOING_BATCH_QUEUE_INDEX_CLUSTER_REFRESH_MS));
+        }
+        Boolean unsent = queueIndex.hasUnsentBatches(nodeId, channelIds, refreshMs);
+        if (unsent == null) {
+            long changeCount = queueIndex.getChangeCount(nodeId);
+            int maxBatches = parameterService.getInt(ParameterConstants.OUTGOING_BATCH_QUEUE_INDEX_MAX_BATCHES);
+            List<OutgoingBatch> list = sqlTemplateDirty.query(getSql("selectOutgoingBatchIdsSql"), maxBatches + 1,
+                    new OutgoingBatchMapper(true, true), new Object[] { nodeId, OutgoingBatch.Status.RQ.name(), OutgoingBatch.Status.NE.name(),
+                            OutgoingBatch.Status.QY.name(), OutgoingBatch.Status.SE.name(), OutgoingBatch.Status.LD.name(),
+                            OutgoingBatch.Status.ER.name(), OutgoingBatch.Status.IG.name(), OutgoingBatch.Status.RS.name() },
+                    new int[] { Types.VARCHAR, Types.CHAR, Types.CHAR, Types.CHAR, Types.CHAR, Types.CHAR, Types.CHAR, Types.CHAR, Types.CHAR });
+            queueIndex.load(nodeId, changeCount, list, list.size() > maxBatches);
+            unsent = queueIndex.hasUnsentBatches(nodeId, channelIds, refreshMs);
+        }
+        return unsent == null || unsent;
+    }
+
+    protected List<String> getChannelIdsForQueue(String queue, boolean includeDisabledChannels) {
+        List<String> channelIds = new ArrayList<String>();
+        for (Channel channel : configurationService.getChannels(false).values()) {
+            if ((queue == null || queue.equals(channel.getQueue())) && (includeDisabledChannels || channel.isEnabled())) {
+                channelIds.add(channel.getChannelId());
+            }
+        }
+        return channelIds;
+    }
+
+    /**
+     * Apply batches to the queue index when the transaction that wrote them commits, so a push or pull never sees the index ahead of the database
+     */
+    protected void indexOnCommit(ISqlTransaction transaction, List<OutgoingBatch> batches) {
+        if (isQueueIndexEnabled()) {
+            QueueIndexListener listener = getQueueIndexListener(transaction);
+            for (OutgoingBatch batch : batches) {
+                OutgoingBatch copy = new OutgoingBatch(batch.getNodeId(), batch.getChannelId(), batch.getStatus());
+                copy.setBatchId(batch.getBatchId());
+                listener.batches.add(copy);
+            }
+        }
+    }
+
+    protected void invalidateOnCommit(ISqlTransaction transaction, String nodeId) {
+        if (isQueueIndexEnabled()) {
+            getQueueIndexListener(transaction).invalidatedNodeIds.add(nodeId);
+        }
+    }
+
+    protected QueueIndexListener getQueueIndexListener(ISqlTransaction transaction) {
+        synchronized (queueIndexListeners) {
+            QueueIndexListener listener = queueIndexListeners.get(transaction);
+            if (listener == null) {
+                listener = new QueueIndexListener(queueIndex);
+                queueIndexListeners.put(transaction, listener);
+                transaction.addSqlTransactionListener(listener);
+            }
+            return listener;
+        }
+    }
+
     public List<OutgoingBatch> getBatchesForChannelWindows(OutgoingBatches batches, String targetNodeId, NodeChannel channel,
             List<NodeGroupChannelWindow> windows) {
         List<OutgoingBatch> keeping = new ArrayList<OutgoingBatch>();
@@ -857,6 +962,37 @@ public class OutgoingBatchService extends AbstractService implements IOutgoingBa
         }
     }
 
+    /**
+     * Added once to each transaction that changes batches. Changes are held until the next commit applies them to the index or a rollback drops
+     * them, so a transaction that commits more than once keeps one listener.
+     */
+    static class QueueIndexListener extends SqlTransactionListenerAdapter {
+        OutgoingBatchQueueIndex queueIndex;
+        List<OutgoingBatch> batches = new ArrayList<OutgoingBatch>();
+        Set<String> invalidatedNodeIds = new HashSet<String>();
+
+        QueueIndexListener(OutgoingBatchQueueIndex queueIndex) {
+            this.queueIndex = queueIndex;
+        }
+
+        @Override
+        public void transactionCommitted() {
+            for (OutgoingBatch batch : batches) {
+                queueIndex.committed(batch);
+            }
+            for (String nodeId : invalidatedNodeIds) {
+                queueIndex.invalidate(nodeId);
+            }
+            transactionRolledBack();
+        }
+
+        @Override
+        public void transactionRolledBack() {
+            batches.clear();
+            invalidatedNodeIds.clear();
+        }
+    }
+
     class OutgoingBatchMapper implements ISqlRowMapper<OutgoingBatch> {
         private boolean statusOnly = false;
         private boolean includeDisabledChannels = false;
@@ -880,8 +1016,8 @@ public class OutgoingBatchService extends AbstractService implements IOutgoingBa
                 batch.setNodeId(rs.getString("node_id"));
                 batch.setStatusFromString(rs.getString("status"));
                 batch.setBatchId(rs.getLong("batch_id"));
+                batch.setChannelId(channelId);
                 if (!statusOnly) {
-                    batch.setChannelId(channelId);
                     batch.setByteCount(rs.getLong("byte_count"));
                     batch.setExtractCount(rs.getLong("extract_count"));
                     batch.setSentCount(rs.getLong("sent_count"));
@@ -68,6 +68,8 @@ public class OutgoingBatchServiceSqlMap extends AbstractSqlMap {
         putSql("findOutgoingBatchByIdOnlySql", "where batch_id=? ");
         putSql("selectOutgoingBatchSql",
                 "where node_id = ? and status in (?, ?, ?, ?, ?, ?, ?, ?) order by batch_id asc   ");
+        putSql("selectOutgoingBatchIdsSql",
+                "select node_id, channel_id, status, batch_id from $(outgoing_batch) where node_id = ? and status in (?, ?, ?, ?, ?, ?, ?, ?)");
         putSql("selectOutgoingBatchChannelSql",
                 " join $(channel) c on c.channel_id = b.channel_id where node_id = ? and c.queue = ? and status in (?, ?, ?, ?, ?, ?, ?, ?) order by batch_id asc   ");
         putSql("selectOutgoingBatchChannelActionSql",
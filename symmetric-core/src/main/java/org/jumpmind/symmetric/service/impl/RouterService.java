@@ -28,11 +28,16 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -113,6 +118,11 @@ import org.jumpmind.util.FormatUtils;
  * @see IRouterService
  */
 public class RouterService extends AbstractService implements IRouterService, INodeCommunicationExecutor {
+    /**
+     * Router types that only keep per-context parsing state and can be evaluated by router workers with their own context
+     */
+    protected static final Set<String> PARALLEL_ROUTER_TYPES = new HashSet<String>(Arrays.asList("default", "column", "lookuptable", "subselect",
+            "bsh", "java"));
     final int MAX_LOGGING_LENGTH = 512;
     protected Map<Integer, CounterStat> missingTriggerRouter = new HashMap<Integer, CounterStat>();
     protected Map<String, CounterStat> invalidRouterType = new HashMap<String, CounterStat>();
@@ -123,6 +133,8 @@ public class RouterService extends AbstractService implements IRouterService, IN
     protected Map<String, Boolean> defaultRouterOnlyLastKnownState = new HashMap<String, Boolean>();
     protected long defaultRoutersCacheTime;
     protected transient ExecutorService readThread = null;
+    protected transient ExecutorService[] routerWorkers = null;
+    protected final Object routerWorkersLock = new Object();
     protected ISymmetricEngine engine;
     protected IExtensionService extensionService;
     protected DataGapDetector gapDetector;
@@ -142,7 +154,7 @@ public class RouterService extends AbstractService implements IRouterService, IN
         extensionService.addExtensionPoint("java", new JavaDataRouter(engine));
         extensionService.addExtensionPoint("bsh", new BshDataRouter(engine));
         extensionService.addExtensionPoint("subselect", new SubSelectDataRouter(symmetricDialect));
-        extensionService.addExtensionPoint("lookuptable", new LookupTableDataRouter(symmetricDialect));
+        extensionService.addExtensionPoint("lookuptable", new LookupTableDataRouter(engine));
         extensionService.addExtensionPoint("default", new DefaultDataRouter());
         extensionService.addExtensionPoint("audit", new AuditTableDataRouter(engine));
         extensionService.addExtensionPoint("column", new ColumnMatchDataRouter(engine));
@@ -171,6 +183,7 @@ public class RouterService extends AbstractService implements IRouterService, IN
     }
 
     public synchronized void stop() {
+        shutdownRouterWorkers();
         if (readThread != null) {
             try {
                 log.info("RouterService is shutting down");
@@ -214,6 +227,7 @@ public class RouterService extends AbstractService implements IRouterService, IN
                         ts = System.currentTimeMillis() - ts;
                         if (dataCount > 0 || ts > Constants.LONG_OPERATION_THRESHOLD) {
                             log.info("Routed {} data events in {} ms", dataCount, ts);
+                            log.debug("{}", engine.getCacheManager().getRouterCache());
                         }
                         if (dataCount > 0) {
                             gapDetector.afterRouting();
@@ -544,6 +558,7 @@ public class RouterService extends AbstractService implements IRouterService, IN
             context.setNonCommonForIncoming(parameterService.is(ParameterConstants.ROUTING_USE_NON_COMMON_FOR_INCOMING));
             context.setOnlyDefaultRoutersAssigned(onlyDefaultRoutersAssigned);
             context.setDataGaps(gapDetector.getDataGaps());
+            context.setDataGapIndex(gapDetector.getDataGapIndex());
             context.setMaxBatchesJdbcFlushSize(parameterService.getInt(ParameterConstants.ROUTING_FLUSH_BATCHES_JDBC_BATCH_SIZE, 5000));
             int maxBatchSizeExceedPercent = parameterService.getInt(ParameterConstants.ROUTING_MAX_BATCH_SIZE_EXCEED_PERCENT);
             if (maxBatchSizeExceedPercent > 0) {
@@ -682,8 +697,12 @@ public class RouterService extends AbstractService implements IRouterService, IN
     }
 
     protected Set<Node> findAvailableNodes(TriggerRouter triggerRouter, ChannelRouterContext context) {
+        return findAvailableNodes(triggerRouter, context.getAvailableNodes(), context);
+    }
+
+    protected Set<Node> findAvailableNodes(TriggerRouter triggerRouter, Map<TriggerRouter, Set<Node>> availableNodes, SimpleRouterContext context) {
         long ts = System.currentTimeMillis();
-        Set<Node> nodes = context.getAvailableNodes().get(triggerRouter);
+        Set<Node> nodes = availableNodes.get(triggerRouter);
         if (nodes == null) {
             nodes = new HashSet<Node>();
             Router router = triggerRouter.getRouter();
@@ -697,7 +716,7 @@ public class RouterService extends AbstractService implements IRouterService, IN
                 log.error("The router {} has no node group link configured from {} to {}", new Object[] { router.getRouterId(),
                         router.getNodeGroupLink().getSourceNodeGroupId(), router.getNodeGroupLink().getTargetNodeGroupId() });
             }
-            context.getAvailableNodes().put(triggerRouter, nodes);
+            availableNodes.put(triggerRouter, nodes);
         }
         nodes = engine.getGroupletService().getTargetEnabled(triggerRouter, nodes);
         context.incrementStat(System.currentTimeMillis() - ts, ChannelRouterContext.STAT_LOOKUP_AVAILABLE_NODES_MS);
@@ -710,28 +729,105 @@ public class RouterService extends AbstractService implements IRouterService, IN
             reader.run();
         } else {
             if (readThread == null) {
-                readThread = Executors.newCachedThreadPool(new ThreadFactory() {
-                    final AtomicInteger threadNumber = new AtomicInteger(1);
-                    final String namePrefix = parameterService.getEngineName().toLowerCase() + "-router-reader-";
-
-                    public Thread newThread(Runnable r) {
-                        Thread t = new Thread(r);
-                        t.setName(namePrefix + threadNumber.getAndIncrement());
-                        if (t.isDaemon()) {
-                            t.setDaemon(false);
-                        }
-                        if (t.getPriority() != Thread.NORM_PRIORITY) {
-                            t.setPriority(Thread.NORM_PRIORITY);
-                        }
-                        return t;
-                    }
-                });
+                readThread = Executors.newCachedThreadPool(newRouterThreadFactory("-router-reader-"));
             }
             readThread.execute(reader);
         }
+        int workerCount = parameterService.getInt(ParameterConstants.ROUTING_PARALLEL_ROUTER_THREADS, 0);
+        if (workerCount > 1) {
+            int queueSize = parameterService.getInt(ParameterConstants.ROUTING_PARALLEL_ROUTER_QUEUE_SIZE, 1000);
+            reader = new ParallelRouteReader(reader, context, getRouterWorkers(workerCount), Math.max(queueSize, 1));
+        }
         return reader;
     }
 
+    protected ThreadFactory newRouterThreadFactory(String nameSuffix) {
+        return new ThreadFactory() {
+            final AtomicInteger threadNumber = new AtomicInteger(1);
+            final String namePrefix = parameterService.getEngineName().toLowerCase() + nameSuffix;
+
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r);
+                t.setName(namePrefix + threadNumber.getAndIncrement());
+                if (t.isDaemon()) {
+                    t.setDaemon(false);
+                }
+                if (t.getPriority() != Thread.NORM_PRIORITY) {
+                    t.setPriority(Thread.NORM_PRIORITY);
+                }
+                return t;
+            }
+        };
+    }
+
+    /**
+     * Each worker is a single thread so that all data for a transaction, which is always assigned to the same worker, is evaluated in order.
+     */
+    protected ExecutorService[] getRouterWorkers(int workerCount) {
+        synchronized (routerWorkersLock) {
+            if (routerWorkers == null || routerWorkers.length != workerCount) {
+                shutdownRouterWorkers();
+                ThreadFactory threadFactory = newRouterThreadFactory("-router-worker-");
+                routerWorkers = new ExecutorService[workerCount];
+                for (int i = 0; i < workerCount; i++) {
+                    routerWorkers[i] = Executors.newSingleThreadExecutor(threadFactory);
+                }
+            }
+            return routerWorkers;
+        }
+    }
+
+    protected void shutdownRouterWorkers() {
+        synchronized (routerWorkersLock) {
+            if (routerWorkers != null) {
+                for (ExecutorService worker : routerWorkers) {
+                    worker.shutdown();
+                }
+                routerWorkers = null;
+            }
+        }
+    }
+
+    /**
+     * Evaluate the routers that are safe to run off of the routing thread for one {@link Data}. The routing thread still inserts data events and builds
+     * batches in order. Anything that can't be evaluated here (missing columns, node_list, stateful routers, errors) is left out of the result and is
+     * evaluated again by the routing thread with the channel's context.
+     */
+    protected Map<TriggerRouter, Collection<String>> evaluateRouters(Data data, SimpleRouterContext workerContext,
+            Map<TriggerRouter, Set<Node>> availableNodes) {
+        Map<TriggerRouter, Collection<String>> routedNodeIds = new IdentityHashMap<TriggerRouter, Collection<String>>();
+        NodeChannel channel = workerContext.getChannel();
+        List<TriggerRouter> triggerRouters = getTriggerRoutersForData(data, workerContext);
+        if (triggerRouters != null && !channel.isIgnoreEnabled() && StringUtils.isBlank(data.getNodeList())) {
+            Table table = lookupTable(data);
+            for (TriggerRouter triggerRouter : triggerRouters) {
+                Router router = triggerRouter.getRouter();
+                IDataRouter dataRouter = router != null ? getRouters().get(router.getRouterType()) : null;
+                if (dataRouter == null || !PARALLEL_ROUTER_TYPES.contains(router.getRouterType()) || !triggerRouter.isRouted(data.getDataEventType())
+                        || (dataRouter.isDmlOnly() && !data.getDataEventType().isDml())) {
+                    continue;
+                }
+                DataMetaData dataMetaData = new DataMetaData(data, table, router, channel);
+                if (data.getTriggerHistory().getLastTriggerBuildReason() == TriggerReBuildReason.TRIGGER_HIST_MISSING
+                        && !doesColumnCountMatchValues(dataMetaData, data)) {
+                    continue;
+                }
+                try {
+                    long ts = System.currentTimeMillis();
+                    Collection<String> nodeIds = dataRouter.routeToNodes(workerContext, dataMetaData,
+                            findAvailableNodes(triggerRouter, availableNodes, workerContext), false, false, triggerRouter);
+                    ts = System.currentTimeMillis() - ts;
+                    workerContext.incrementStat(ts, ChannelRouterContext.STAT_DATA_ROUTER_MS);
+                    workerContext.addTimesByRouter(triggerRouter.getRouterId(), ts);
+                    routedNodeIds.put(triggerRouter, nodeIds);
+                } catch (RuntimeException ex) {
+                    log.debug("Deferring routing of data {} to the routing thread because of: {}", data.getDataId(), ex.getMessage());
+                }
+            }
+        }
+        return routedNodeIds;
+    }
+
     /**
      * Pre-read data and fill up a queue so we can peek ahead to see if we have crossed a database transaction boundary. Then route each {@link Data} while
      * continuing to keep the queue filled until the result set is entirely read.
@@ -776,7 +872,8 @@ public class RouterService extends AbstractService implements IRouterService, IN
                             context.setEncountedTransactionBoundary(atTransactionBoundary);
                             statsDataCount++;
                             totalDataCount++;
-                            int dataEventsInserted = routeData(processInfo, data, context);
+                            int dataEventsInserted = routeData(processInfo, data, context,
+                                    reader instanceof ParallelRouteReader ? ((ParallelRouteReader) reader).getRoutedNodeIds(data) : null);
                             statsDataEventCount += dataEventsInserted;
                             totalDataEventCount += dataEventsInserted;
                         }
@@ -836,6 +933,7 @@ public class RouterService extends AbstractService implements IRouterService, IN
                     }
                     log.info("Router times for channel '{}': {}", context.getChannel().getChannelId(), sb);
                 }
+                log.info("{}", engine.getCacheManager().getRouterCache());
                 ts = System.currentTimeMillis();
             }
         } finally {
@@ -854,16 +952,17 @@ public class RouterService extends AbstractService implements IRouterService, IN
     }
 
     protected int routeData(ProcessInfo processInfo, Data data, ChannelRouterContext context) {
+        return routeData(processInfo, data, context, null);
+    }
+
+    /**
+     * @param routedNodeIds
+     *            node ids already evaluated by a router worker for some of the trigger routers, or null if everything should be evaluated here
+     */
+    protected int routeData(ProcessInfo processInfo, Data data, ChannelRouterContext context, Map<TriggerRouter, Collection<String>> routedNodeIds) {
         int numberOfDataEventsInserted = 0;
         List<TriggerRouter> triggerRouters = getTriggerRoutersForData(data, context);
-        Table table = null;
-        if (!isUsingTargetExternalId && data.getTriggerHistory() != null) {
-            table = platform.getTableFromCache(data.getTriggerHistory().getSourceCatalogName(), data.getTriggerHistory().getSourceSchemaName(),
-                    data.getTriggerHistory().getSourceTableName(), false);
-        }
-        if (table == null) {
-            table = buildTableFromTriggerHistory(data.getTriggerHistory());
-        }
+        Table table = lookupTable(data);
         if (triggerRouters != null && triggerRouters.size() > 0) {
             boolean isUnrouted = false;
             boolean alreadyInsertedUnrouted = false;
@@ -882,6 +981,9 @@ public class RouterService extends AbstractService implements IRouterService, IN
                                     "None of the target nodes specified in the data.node_list field ({}) were qualified nodes. Data id {} for table '{}' will not be routed using the {} router",
                                     new Object[] { targetNodeIds, data.getDataId(), data.getTableName(), triggerRouter.getRouter().getRouterId() });
                         }
+                    } else if (routedNodeIds != null && routedNodeIds.containsKey(triggerRouter)) {
+                        nodeIds = routedNodeIds.get(triggerRouter);
+                        context.addUsedDataRouter(getDataRouter(triggerRouter.getRouter(), dataMetaData));
                     } else if (data.getTriggerHistory().getLastTriggerBuildReason() == TriggerReBuildReason.TRIGGER_HIST_MISSING && !doesColumnCountMatchValues(
                             dataMetaData, data)) {
                         Integer triggerHistId = data.getTriggerHistory().getTriggerHistoryId();
@@ -955,6 +1057,18 @@ public class RouterService extends AbstractService implements IRouterService, IN
         return numberOfDataEventsInserted;
     }
 
+    protected Table lookupTable(Data data) {
+        Table table = null;
+        if (!isUsingTargetExternalId && data.getTriggerHistory() != null) {
+            table = platform.getTableFromCache(data.getTriggerHistory().getSourceCatalogName(), data.getTriggerHistory().getSourceSchemaName(),
+                    data.getTriggerHistory().getSourceTableName(), false);
+        }
+        if (table == null) {
+            table = buildTableFromTriggerHistory(data.getTriggerHistory());
+        }
+        return table;
+    }
+
     protected int insertDataEvents(ProcessInfo processInfo, ChannelRouterContext context, DataMetaData dataMetaData,
             Collection<String> nodeIds) {
         final long ts = System.currentTimeMillis();
@@ -1102,7 +1216,7 @@ public class RouterService extends AbstractService implements IRouterService, IN
         return dataRouter;
     }
 
-    protected List<TriggerRouter> getTriggerRoutersForData(Data data, ChannelRouterContext context) {
+    protected List<TriggerRouter> getTriggerRoutersForData(Data data, SimpleRouterContext context) {
         long ts = System.currentTimeMillis();
         List<TriggerRouter> triggerRouters = null;
         if (data != null) {
@@ -1188,4 +1302,115 @@ public class RouterService extends AbstractService implements IRouterService, IN
         }
         return true;
     }
+
+    /**
+     * Reads ahead of the routing thread and hands each {@link Data} to a router worker. Data is assigned to workers by transaction id so the data for
+     * a transaction is evaluated in order by one worker. The routing thread takes data in the original order and picks up the evaluated node ids, so
+     * batching, transaction boundaries and data event inserts are unchanged.
+     */
+    protected class ParallelRouteReader implements IDataToRouteReader {
+        protected IDataToRouteReader reader;
+        protected ExecutorService[] workers;
+        protected SimpleRouterContext[] workerContexts;
+        protected List<Map<TriggerRouter, Set<Node>>> workerAvailableNodes;
+        protected ChannelRouterContext context;
+        protected int queueSize;
+        protected LinkedList<Data> queue = new LinkedList<Data>();
+        protected Map<Data, Future<Map<TriggerRouter, Collection<String>>>> routedNodeIds = new IdentityHashMap<Data, Future<Map<TriggerRouter, Collection<String>>>>();
+        protected boolean endOfData = false;
+        protected boolean statsTransferred = false;
+
+        public ParallelRouteReader(IDataToRouteReader reader, ChannelRouterContext context, ExecutorService[] workers, int queueSize) {
+            this.reader = reader;
+            this.context = context;
+            this.workers = workers;
+            this.queueSize = queueSize;
+            this.workerContexts = new SimpleRouterContext[workers.length];
+            this.workerAvailableNodes = new ArrayList<Map<TriggerRouter, Set<Node>>>(workers.length);
+            for (int i = 0; i < workers.length; i++) {
+                workerContexts[i] = new SimpleRouterContext(context.getSourceNodeId(), context.getChannel());
+                workerAvailableNodes.add(new HashMap<TriggerRouter, Set<Node>>());
+            }
+        }
+
+        public void run() {
+            reader.run();
+        }
+
+        public Data take() throws InterruptedException {
+            while (!endOfData && queue.size() < queueSize) {
+                Data data = reader.take();
+                if (data == null) {
+                    endOfData = true;
+                } else {
+                    queue.add(data);
+                    if (!data.isPreRouted()) {
+                        submit(data);
+                    }
+                }
+            }
+            Data data = queue.poll();
+            transferStatsIfDone();
+            return data;
+        }
+
+        protected void submit(final Data data) {
+            String transactionId = data.getTransactionId();
+            int hash = transactionId != null ? transactionId.hashCode() : Long.hashCode(data.getDataId());
+            final int index = Math.floorMod(hash, workers.length);
+            try {
+                routedNodeIds.put(data, workers[index].submit(() -> evaluateRouters(data, workerContexts[index], workerAvailableNodes.get(index))));
+            } catch (RejectedExecutionException e) {
+                log.debug("Router worker is shut down, so data {} will be routed by the routing thread", data.getDataId());
+            }
+        }
+
+        public Map<TriggerRouter, Collection<String>> getRoutedNodeIds(Data data) throws InterruptedException {
+            Future<Map<TriggerRouter, Collection<String>>> future = routedNodeIds.remove(data);
+            if (future != null) {
+                try {
+                    return future.get();
+                } catch (ExecutionException e) {
+                    log.debug("Router worker failed for data {}.  It will be routed by the routing thread", data.getDataId(), e.getCause());
+                } finally {
+                    transferStatsIfDone();
+                }
+            }
+            return null;
+        }
+
+        public boolean isReading() {
+            return reader.isReading();
+        }
+
+        public void setReading(boolean reading) {
+            reader.setReading(reading);
+            if (!reading) {
+                for (Future<Map<TriggerRouter, Collection<String>>> future : routedNodeIds.values()) {
+                    future.cancel(false);
+                }
+                routedNodeIds.clear();
+                transferStats();
+            }
+        }
+
+        /**
+         * Once all data is read and every worker result is picked up, the worker stats are complete, so transfer them before the routing thread
+         * logs them
+         */
+        protected void transferStatsIfDone() {
+            if (endOfData && queue.isEmpty() && routedNodeIds.isEmpty()) {
+                transferStats();
+            }
+        }
+
+        protected void transferStats() {
+            if (!statsTransferred) {
+                statsTransferred = true;
+                for (SimpleRouterContext workerContext : workerContexts) {
+                    context.transferStats(workerContext);
+                }
+            }
+        }
+    }
 }
@@ -25,7 +25,7 @@ import java.util.Date;
 abstract public class AbstractNodeHostStats {
     private String nodeId;
     private String hostName;
-    private Date startTime;
+    private volatile Date startTime;
     private Date endTime;
 
     public AbstractNodeHostStats() {
@@ -21,27 +21,28 @@
 package org.jumpmind.symmetric.statistic;
 
 import java.util.Date;
+import java.util.concurrent.atomic.LongAdder;
 
 public class HostStats extends AbstractNodeHostStats {
-    private long restarted;
-    private long nodesPulled;
-    private long totalNodesPullTime;
-    private long nodesPushed;
-    private long totalNodesPushTime;
-    private long nodesRejected;
-    private long nodesRegistered;
-    private long nodesLoaded;
-    private long nodesDisabled;
-    private long purgedDataRows;
-    private long purgedDataEventRows;
-    private long purgedBatchOutgoingRows;
-    private long purgedBatchIncomingRows;
-    private long purgedStrandedDataRows;
-    private long purgedStrandedDataEventRows;
-    private long purgedExpiredDataRows;
-    private long triggersCreatedCount;
-    private long triggersRebuiltCount;
-    private long triggersRemovedCount;
+    private final LongAdder restarted = new LongAdder();
+    private final LongAdder nodesPulled = new LongAdder();
+    private final LongAdder totalNodesPullTime = new LongAdder();
+    private final LongAdder nodesPushed = new LongAdder();
+    private final LongAdder totalNodesPushTime = new LongAdder();
+    private final LongAdder nodesRejected = new LongAdder();
+    private final LongAdder nodesRegistered = new LongAdder();
+    private final LongAdder nodesLoaded = new LongAdder();
+    private final LongAdder nodesDisabled = new LongAdder();
+    private final LongAdder purgedDataRows = new LongAdder();
+    private final LongAdder purgedDataEventRows = new LongAdder();
+    private final LongAdder purgedBatchOutgoingRows = new LongAdder();
+    private final LongAdder purgedBatchIncomingRows = new LongAdder();
+    private final LongAdder purgedStrandedDataRows = new LongAdder();
+    private final LongAdder purgedStrandedDataEventRows = new LongAdder();
+    private final LongAdder purgedExpiredDataRows = new LongAdder();
+    private final LongAdder triggersCreatedCount = new LongAdder();
+    private final LongAdder triggersRebuiltCount = new LongAdder();
+    private final LongAdder triggersRemovedCount = new LongAdder();
 
     public HostStats() {
     }
@@ -56,259 +57,309 @@ public class HostStats extends AbstractNodeHostStats {
     }
 
     public void add(HostStats stats) {
-        restarted += stats.getRestarted();
-        nodesPulled += stats.getNodesPulled();
-        totalNodesPullTime += stats.getTotalNodesPullTime();
-        nodesPushed += stats.getNodesPushed();
-        totalNodesPushTime += stats.getTotalNodesPushTime();
-        nodesRejected += stats.getNodesRejected();
-        nodesRegistered += stats.getNodesRegistered();
-        nodesLoaded += stats.getNodesLoaded();
-        nodesDisabled += stats.getNodesDisabled();
-        purgedDataRows += stats.getPurgedDataRows();
-        purgedDataEventRows += stats.getPurgedDataEventRows();
-        purgedBatchOutgoingRows += stats.getPurgedBatchOutgoingRows();
-        purgedBatchIncomingRows += stats.getPurgedBatchIncomingRows();
-        purgedStrandedDataRows += stats.getPurgedStrandedDataRows();
-        purgedStrandedDataEventRows += stats.getPurgedStrandedDataEventRows();
-        purgedExpiredDataRows += stats.getPurgedExpiredDataRows();
-        triggersCreatedCount += stats.getTriggersCreatedCount();
-        triggersRebuiltCount += stats.getTriggersRebuiltCount();
-        triggersRemovedCount += stats.getTriggersRemovedCount();
+        restarted.add(stats.getRestarted());
+        nodesPulled.add(stats.getNodesPulled());
+        totalNodesPullTime.add(stats.getTotalNodesPullTime());
+        nodesPushed.add(stats.getNodesPushed());
+        totalNodesPushTime.add(stats.getTotalNodesPushTime());
+        nodesRejected.add(stats.getNodesRejected());
+        nodesRegistered.add(stats.getNodesRegistered());
+        nodesLoaded.add(stats.getNodesLoaded());
+        nodesDisabled.add(stats.getNodesDisabled());
+        purgedDataRows.add(stats.getPurgedDataRows());
+        purgedDataEventRows.add(stats.getPurgedDataEventRows());
+        purgedBatchOutgoingRows.add(stats.getPurgedBatchOutgoingRows());
+        purgedBatchIncomingRows.add(stats.getPurgedBatchIncomingRows());
+        purgedStrandedDataRows.add(stats.getPurgedStrandedDataRows());
+        purgedStrandedDataEventRows.add(stats.getPurgedStrandedDataEventRows());
+        purgedExpiredDataRows.add(stats.getPurgedExpiredDataRows());
+        triggersCreatedCount.add(stats.getTriggersCreatedCount());
+        triggersRebuiltCount.add(stats.getTriggersRebuiltCount());
+        triggersRemovedCount.add(stats.getTriggersRemovedCount());
+    }
+
+    /**
+     * Move the current counts into a new instance that ends at the given time and start counting again from zero. Counts added concurrently are
+     * either included in the snapshot or left for the next one, so writers never have to wait on a lock.
+     */
+    public HostStats snapshotAndReset(Date endTime) {
+        HostStats snapshot = new HostStats(getNodeId(), getHostName(), getStartTime(), endTime);
+        snapshot.restarted.add(restarted.sumThenReset());
+        snapshot.nodesPulled.add(nodesPulled.sumThenReset());
+        snapshot.totalNodesPullTime.add(totalNodesPullTime.sumThenReset());
+        snapshot.nodesPushed.add(nodesPushed.sumThenReset());
+        snapshot.totalNodesPushTime.add(totalNodesPushTime.sumThenReset());
+        snapshot.nodesRejected.add(nodesRejected.sumThenReset());
+        snapshot.nodesRegistered.add(nodesRegistered.sumThenReset());
+        snapshot.nodesLoaded.add(nodesLoaded.sumThenReset());
+        snapshot.nodesDisabled.add(nodesDisabled.sumThenReset());
+        snapshot.purgedDataRows.add(purgedDataRows.sumThenReset());
+        snapshot.purgedDataEventRows.add(purgedDataEventRows.sumThenReset());
+        snapshot.purgedBatchOutgoingRows.add(purgedBatchOutgoingRows.sumThenReset());
+        snapshot.purgedBatchIncomingRows.add(purgedBatchIncomingRows.sumThenReset());
+        snapshot.purgedStrandedDataRows.add(purgedStrandedDataRows.sumThenReset());
+        snapshot.purgedStrandedDataEventRows.add(purgedStrandedDataEventRows.sumThenReset());
+        snapshot.purgedExpiredDataRows.add(purgedExpiredDataRows.sumThenReset());
+        snapshot.triggersCreatedCount.add(triggersCreatedCount.sumThenReset());
+        snapshot.triggersRebuiltCount.add(triggersRebuiltCount.sumThenReset());
+        snapshot.triggersRemovedCount.add(triggersRemovedCount.sumThenReset());
+        setStartTime(endTime);
+        return snapshot;
     }
 
     public boolean isNonZero() {
-        return restarted > 0 || nodesPulled > 0 || totalNodesPullTime > 0 || nodesPushed > 0 || totalNodesPushTime > 0 || nodesRejected > 0
-                || nodesRegistered > 0 || nodesLoaded > 0 || nodesDisabled > 0 || purgedDataRows > 0 || purgedDataEventRows > 0 || purgedBatchOutgoingRows > 0
-                || purgedBatchIncomingRows > 0 || purgedStrandedDataRows > 0 || purgedStrandedDataEventRows > 0 || purgedExpiredDataRows > 0
-                || triggersCreatedCount > 0 || triggersRebuiltCount > 0 || triggersRemovedCount > 0;
+        return restarted.sum() > 0 || nodesPulled.sum() > 0 || totalNodesPullTime.sum() > 0 || nodesPushed.sum() > 0 || totalNodesPushTime.sum() > 0
+                || nodesRejected.sum() > 0 || nodesRegistered.sum() > 0 || nodesLoaded.sum() > 0 || nodesDisabled.sum() > 0
+                || purgedDataRows.sum() > 0 || purgedDataEventRows.sum() > 0 || purgedBatchOutgoingRows.sum() > 0
+                || purgedBatchIncomingRows.sum() > 0 || purgedStrandedDataRows.sum() > 0 || purgedStrandedDataEventRows.sum() > 0
+                || purgedExpiredDataRows.sum() > 0 || triggersCreatedCount.sum() > 0 || triggersRebuiltCount.sum() > 0
+                || triggersRemovedCount.sum() > 0;
     }
 
     public long getRestarted() {
-        return restarted;
+        return restarted.sum();
     }
 
     public void incrementRestarted(long value) {
-        restarted += value;
+        restarted.add(value);
     }
 
     public long getTotalNodesPullTime() {
-        return totalNodesPullTime;
+        return totalNodesPullTime.sum();
     }
 
     public void setTotalNodesPullTime(long totalNodesPullTime) {
-        this.totalNodesPullTime = totalNodesPullTime;
+        this.totalNodesPullTime.reset();
+        this.totalNodesPullTime.add(totalNodesPullTime);
     }
 
     public void incrementTotalNodesPullTime(long value) {
-        totalNodesPullTime += value;
+        totalNodesPullTime.add(value);
     }
 
     public long getTotalNodesPushTime() {
-        return totalNodesPushTime;
+        return totalNodesPushTime.sum();
     }
 
     public void setTotalNodesPushTime(long totalNodesPushTime) {
-        this.totalNodesPushTime = totalNodesPushTime;
+        this.totalNodesPushTime.reset();
+        this.totalNodesPushTime.add(totalNodesPushTime);
     }
 
     public void incrementTotalNodesPushTime(long value) {
-        totalNodesPushTime += value;
+        totalNodesPushTime.add(value);
     }
 
     public long getNodesPulled() {
-        return nodesPulled;
+        return nodesPulled.sum();
     }
 
     public void incrementNodesPulled(long value) {
-        nodesPulled += value;
+        nodesPulled.add(value);
     }
 
     public long getNodesPushed() {
-        return nodesPushed;
+        return nodesPushed.sum();
     }
 
     public void incrementNodesPushed(long value) {
-        nodesPushed += value;
+        nodesPushed.add(value);
     }
 
     public long getNodesRejected() {
-        return nodesRejected;
+        return nodesRejected.sum();
     }
 
     public void incrementNodesRejected(long value) {
-        nodesRejected += value;
+        nodesRejected.add(value);
     }
 
     public long getNodesRegistered() {
-        return nodesRegistered;
+        return nodesRegistered.sum();
     }
 
     public void incrementNodesRegistered(long value) {
-        nodesRegistered += value;
+        nodesRegistered.add(value);
     }
 
     public long getNodesLoaded() {
-        return nodesLoaded;
+        return nodesLoaded.sum();
     }
 
     public void incrementNodesLoaded(long value) {
-        nodesLoaded += value;
+        nodesLoaded.add(value);
     }
 
     public long getNodesDisabled() {
-        return nodesDisabled;
+        return nodesDisabled.sum();
     }
 
     public void incrementNodesDisabled(long value) {
-        nodesDisabled += value;
+        nodesDisabled.add(value);
     }
 
     public long getPurgedDataRows() {
-        return purgedDataRows;
+        return purgedDataRows.sum();
     }
 
     public void incrementPurgedDataRows(long value) {
-        purgedDataRows += value;
+        purgedDataRows.add(value);
     }
 
     public long getPurgedDataEventRows() {
-        return purgedDataEventRows;
+        return purgedDataEventRows.sum();
     }
 
     public void incrementPurgedDataEventRows(long value) {
-        purgedDataEventRows += value;
+        purgedDataEventRows.add(value);
     }
 
     public long getPurgedBatchOutgoingRows() {
-        return purgedBatchOutgoingRows;
+        return purgedBatchOutgoingRows.sum();
     }
 
     public void incrementPurgedBatchOutgoingRows(long value) {
-        purgedBatchOutgoingRows += value;
+        purgedBatchOutgoingRows.add(value);
     }
 
     public long getPurgedBatchIncomingRows() {
-        return purgedBatchIncomingRows;
+        return purgedBatchIncomingRows.sum();
     }
 
     public void incrementPurgedBatchIncomingRows(long value) {
-        purgedBatchIncomingRows += value;
+        purgedBatchIncomingRows.add(value);
     }
 
     public long getTriggersCreatedCount() {
-        return triggersCreatedCount;
+        return triggersCreatedCount.sum();
     }
 
     public void incrementTriggersCreatedCount(long count) {
-        triggersCreatedCount += count;
+        triggersCreatedCount.add(count);
     }
 
     public void incrementTriggersRebuiltCount(long count) {
-        triggersRebuiltCount += count;
+        triggersRebuiltCount.add(count);
     }
 
     public void incrementTriggersRemovedCount(long count) {
-        triggersRemovedCount += count;
+        triggersRemovedCount.add(count);
     }
 
     public long getTriggersRebuiltCount() {
-        return triggersRebuiltCount;
+        return triggersRebuiltCount.sum();
     }
 
     public long getTriggersRemovedCount() {
-        return triggersRemovedCount;
+        return triggersRemovedCount.sum();
     }
 
     public void setRestarted(long restarted) {
-        this.restarted = restarted;
+        this.restarted.reset();
+        this.restarted.add(restarted);
     }
 
     public void setNodesPulled(long nodesPulled) {
-        this.nodesPulled = nodesPulled;
+        this.nodesPulled.reset();
+        this.nodesPulled.add(nodesPulled);
     }
 
     public void setNodesPushed(long nodesPushed) {
-        this.nodesPushed = nodesPushed;
+        this.nodesPushed.reset();
+        this.nodesPushed.add(nodesPushed);
     }
 
     public void setNodesRejected(long nodesRejected) {
-        this.nodesRejected = nodesRejected;
+        this.nodesRejected.reset();
+        this.nodesRejected.add(nodesRejected);
     }
 
     public void setNodesRegistered(long nodesRegistered) {
-        this.nodesRegistered = nodesRegistered;
+        this.nodesRegistered.reset();
+        this.nodesRegistered.add(nodesRegistered);
     }
 
     public void setNodesLoaded(long nodesLoaded) {
-        this.nodesLoaded = nodesLoaded;
+        this.nodesLoaded.reset();
+        this.nodesLoaded.add(nodesLoaded);
     }
 
     public void setNodesDisabled(long nodesDisabled) {
-        this.nodesDisabled = nodesDisabled;
+        this.nodesDisabled.reset();
+        this.nodesDisabled.add(nodesDisabled);
     }
 
     public void setPurgedDataRows(long purgedDataRows) {
-        this.purgedDataRows = purgedDataRows;
+        this.purgedDataRows.reset();
+        this.purgedDataRows.add(purgedDataRows);
     }
 
     public void setPurgedDataEventRows(long purgedDataEventRows) {
-        this.purgedDataEventRows = purgedDataEventRows;
+        this.purgedDataEventRows.reset();
+        this.purgedDataEventRows.add(purgedDataEventRows);
     }
 
     public void setPurgedBatchOutgoingRows(long purgedBatchOutgoingRows) {
-        this.purgedBatchOutgoingRows = purgedBatchOutgoingRows;
+        this.purgedBatchOutgoingRows.reset();
+        this.purgedBatchOutgoingRows.add(purgedBatchOutgoingRows);
     }
 
     public void setPurgedBatchIncomingRows(long purgedBatchIncomingRows) {
-        this.purgedBatchIncomingRows = purgedBatchIncomingRows;
+        this.purgedBatchIncomingRows.reset();
+        this.purgedBatchIncomingRows.add(purgedBatchIncomingRows);
     }
 
     public void setTriggersCreatedCount(long triggersCreatedCount) {
-        this.triggersCreatedCount = triggersCreatedCount;
+        this.triggersCreatedCount.reset();
+        this.triggersCreatedCount.add(triggersCreatedCount);
     }
 
     public void setTriggersRebuiltCount(long triggersRebuiltCount) {
-        this.triggersRebuiltCount = triggersRebuiltCount;
+        this.triggersRebuiltCount.reset();
+        this.triggersRebuiltCount.add(triggersRebuiltCount);
     }
 
     public void setTriggersRemovedCount(long triggersRemovedCount) {
-        this.triggersRemovedCount = triggersRemovedCount;
+        this.triggersRemovedCount.reset();
+        this.triggersRemovedCount.add(triggersRemovedCount);
     }
 
     public long getPurgedStrandedDataRows() {
-        return purgedStrandedDataRows;
+        return purgedStrandedDataRows.sum();
     }
 
     public void setPurgedStrandedDataRows(long purgedStrandedDataRows) {
-        this.purgedStrandedDataRows = purgedStrandedDataRows;
+        this.purgedStrandedDataRows.reset();
+        this.purgedStrandedDataRows.add(purgedStrandedDataRows);
     }
 
     public void incrementPurgedStrandedDataRows(long value) {
-        this.purgedStrandedDataRows += value;
+        purgedStrandedDataRows.add(value);
     }
 
     public long getPurgedStrandedDataEventRows() {
-        return purgedStrandedDataEventRows;
+        return purgedStrandedDataEventRows.sum();
     }
 
     public void setPurgedStrandedDataEventRows(long purgedStrandedDataEventRows) {
-        this.purgedStrandedDataEventRows = purgedStrandedDataEventRows;
+        this.purgedStrandedDataEventRows.reset();
+        this.purgedStrandedDataEventRows.add(purgedStrandedDataEventRows);
     }
 
     public void incrementPurgedStrandedDataEventRows(long value) {
-        this.purgedStrandedDataEventRows += value;
+        purgedStrandedDataEventRows.add(value);
     }
 
     public long getPurgedExpiredDataRows() {
-        return purgedExpiredDataRows;
+        return purgedExpiredDataRows.sum();
     }
 
     public void setPurgedExpiredDataRows(long purgedExpiredDataRows) {
-        this.purgedExpiredDataRows = purgedExpiredDataRows;
+        this.purgedExpiredDataRows.reset();
+        this.purgedExpiredDataRows.add(purgedExpiredDataRows);
     }
 
     public void incrementPurgedExpiredDataRows(long value) {
-        this.purgedExpiredDataRows += value;
+        purgedExpiredDataRows.add(value);
     }
 }
\ No newline at end of file
@@ -30,10 +30,11 @@ import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Semaphore;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.jumpmind.symmetric.common.Constants;
 import org.jumpmind.symmetric.common.ParameterConstants;
@@ -58,20 +59,16 @@ import org.slf4j.LoggerFactory;
 public class StatisticManager implements IStatisticManager {
     protected Logger log = LoggerFactory.getLogger(getClass());
     private static final String UNKNOWN = "Unknown";
-    private static final int NUMBER_OF_PERMITS = 1000;
     private Map<String, ChannelStats> channelStats = new ConcurrentHashMap<String, ChannelStats>();
-    private List<JobStats> jobStats = new ArrayList<JobStats>();
-    private HostStats hostStats;
+    private volatile boolean channelStatsInitialized;
+    private Queue<JobStats> jobStats = new ConcurrentLinkedQueue<JobStats>();
+    private volatile HostStats hostStats;
     private ConcurrentHashMap<Long, RouterStats> routerStatsByBatch = new ConcurrentHashMap<Long, RouterStats>();
     protected INodeService nodeService;
     protected IStatisticService statisticService;
     protected IParameterService parameterService;
     protected IConfigurationService configurationService;
     protected IClusterService clusterService;
-    protected Semaphore channelStatsLock = new Semaphore(NUMBER_OF_PERMITS, true);
-    protected Semaphore hostStatsLock = new Semaphore(NUMBER_OF_PERMITS, true);
-    protected Semaphore jobStatsLock = new Semaphore(NUMBER_OF_PERMITS, true);
-    protected Semaphore tableStatsLock = new Semaphore(NUMBER_OF_PERMITS, true);
     protected Map<ProcessInfoKey, ProcessInfo> processInfos = new ConcurrentHashMap<ProcessInfoKey, ProcessInfo>();
     protected Map<ProcessInfoKey, ProcessInfo> processInfosThatHaveDoneWork = new ConcurrentHashMap<ProcessInfoKey, ProcessInfo>();
     private Map<Date, Map<String, ChannelStats>> baseChannelStatsInMemory = new LinkedHashMap<Date, Map<String, ChannelStats>>();
@@ -148,33 +145,18 @@ public class StatisticManager implements IStatisticManager {
     }
 
     public void addJobStats(String jobName, long startTime, long endTime, long processedCount) {
-        jobStatsLock.acquireUninterruptibly();
-        try {
-            JobStats stats = new JobStats(jobName, startTime, endTime, processedCount);
-            jobStats.add(stats);
-        } finally {
-            jobStatsLock.release();
-        }
+        JobStats stats = new JobStats(jobName, startTime, endTime, processedCount);
+        jobStats.add(stats);
     }
 
     public void addJobStats(String jobName, long startTime, long endTime, long processedCount, Exception e) {
-        jobStatsLock.acquireUninterruptibly();
-        try {
-            JobStats stats = new JobStats(jobName, startTime, endTime, processedCount, e);
-            jobStats.add(stats);
-        } finally {
-            jobStatsLock.release();
-        }
+        JobStats stats = new JobStats(jobName, startTime, endTime, processedCount, e);
+        jobStats.add(stats);
     }
 
     public void addJobStats(String targetNodeId, int targetNodeCount, String jobName, long startTime, long endTime, long processedCount) {
-        jobStatsLock.acquireUninterruptibly();
-        try {
-            JobStats stats = new JobStats(targetNodeId, targetNodeCount, startTime, endTime, jobName, processedCount);
-            jobStats.add(stats);
-        } finally {
-            jobStatsLock.release();
-        }
+        JobStats stats = new JobStats(targetNodeId, targetNodeCount, startTime, endTime, jobName, processedCount);
+        jobStats.add(stats);
     }
 
     public RouterStats getRouterStatsByBatch(Long batchId) {
@@ -198,309 +180,139 @@ public class StatisticManager implements IStatisticManager {
     }
 
     public void incrementDataRouted(String channelId, long count) {
-        channelStatsLock.acquireUninterruptibly();
-        try {
-            getChannelStats(channelId).incrementDataRouted(count);
-        } finally {
-            channelStatsLock.release();
-        }
+        getChannelStats(channelId).incrementDataRouted(count);
     }
 
     public void setDataUnRouted(String channelId, long count) {
-        channelStatsLock.acquireUninterruptibly();
-        try {
-            getChannelStats(channelId).setDataUnRouted(count);
-        } finally {
-            channelStatsLock.release();
-        }
+        getChannelStats(channelId).setDataUnRouted(count);
     }
 
     public void incrementDataExtracted(String channelId, long count) {
-        channelStatsLock.acquireUninterruptibly();
-        try {
-            getChannelStats(channelId).incrementDataExtracted(count);
-        } finally {
-            channelStatsLock.release();
-        }
+        getChannelStats(channelId).incrementDataExtracted(count);
     }
 
     public void incrementDataBytesExtracted(String channelId, long count) {
-        channelStatsLock.acquireUninterruptibly();
-        try {
-            getChannelStats(channelId).incrementDataBytesExtracted(count);
-        } finally {
-            channelStatsLock.release();
-        }
+        getChannelStats(channelId).incrementDataBytesExtracted(count);
     }
 
     public void incrementDataExtractedErrors(String channelId, long count) {
-        channelStatsLock.acquireUninterruptibly();
-        try {
-            getChannelStats(channelId).incrementDataExtractedErrors(count);
-        } finally {
-            channelStatsLock.release();
-        }
+        getChannelStats(channelId).incrementDataExtractedErrors(count);
     }
 
     public void incrementDataEventInserted(String channelId, long count) {
-        channelStatsLock.acquireUninterruptibly();
-        try {
-            getChannelStats(channelId).incrementDataEventInserted(count);
-        } finally {
-            channelStatsLock.release();
-        }
+        getChannelStats(channelId).incrementDataEventInserted(count);
     }
 
     public void incrementDataSent(String channelId, long count) {
-        channelStatsLock.acquireUninterruptibly();
-        try {
-            getChannelStats(channelId).incrementDataSent(count);
-        } finally {
-            channelStatsLock.release();
-        }
+        getChannelStats(channelId).incrementDataSent(count);
     }
 
     public void incrementDataBytesSent(String channelId, long count) {
-        channelStatsLock.acquireUninterruptibly();
-        try {
-            getChannelStats(channelId).incrementDataBytesSent(count);
-        } finally {
-            channelStatsLock.release();
-        }
+        getChannelStats(channelId).incrementDataBytesSent(count);
     }
 
     public void incrementDataSentErrors(String channelId, long count) {
-        channelStatsLock.acquireUninterruptibly();
-        try {
-            getChannelStats(channelId).incrementDataSentErrors(count);
-        } finally {
-            channelStatsLock.release();
-        }
+        getChannelStats(channelId).incrementDataSentErrors(count);
     }
 
     public void incrementDataLoaded(String channelId, long count) {
-        channelStatsLock.acquireUninterruptibly();
-        try {
-            getChannelStats(channelId).incrementDataLoaded(count);
-        } finally {
-            channelStatsLock.release();
-        }
+        getChannelStats(channelId).incrementDataLoaded(count);
     }
 
     public void incrementDataBytesLoaded(String channelId, long count) {
-        channelStatsLock.acquireUninterruptibly();
-        try {
-            getChannelStats(channelId).incrementDataBytesLoaded(count);
-        } finally {
-            channelStatsLock.release();
-        }
+        getChannelStats(channelId).incrementDataBytesLoaded(count);
     }
 
     public void incrementDataLoadedErrors(String channelId, long count) {
-        channelStatsLock.acquireUninterruptibly();
-        try {
-            getChannelStats(channelId).incrementDataLoadedErrors(count);
-        } finally {
-            channelStatsLock.release();
-        }
+        getChannelStats(channelId).incrementDataLoadedErrors(count);
     }
 
     public void incrementDataLoadedOutgoing(String channelId, long count) {
-        channelStatsLock.acquireUninterruptibly();
-        try {
-            getChannelStats(channelId).incrementDataLoadedOutgoing(count);
-        } finally {
-            channelStatsLock.release();
-        }
+        getChannelStats(channelId).incrementDataLoadedOutgoing(count);
     }
 
     public void incrementDataBytesLoadedOutgoing(String channelId, long count) {
-        channelStatsLock.acquireUninterruptibly();
-        try {
-            getChannelStats(channelId).incrementDataBytesLoadedOutgoing(count);
-        } finally {
-            channelStatsLock.release();
-        }
+        getChannelStats(channelId).incrementDataBytesLoadedOutgoing(count);
     }
 
     public void incrementDataLoadedOutgoingErrors(String channelId, long count) {
-        channelStatsLock.acquireUninterruptibly();
-        try {
-            getChannelStats(channelId).incrementDataLoadedOutgoingErrors(count);
-        } finally {
-            channelStatsLock.release();
-        }
+        getChannelStats(channelId).incrementDataLoadedOutgoingErrors(count);
     }
 
     public void incrementRestart() {
-        hostStatsLock.acquireUninterruptibly();
-        try {
-            getHostStats().incrementRestarted(1);
-        } finally {
-            hostStatsLock.release();
-        }
+        getHostStats().incrementRestarted(1);
     }
 
     public void incrementNodesPulled(long count) {
-        hostStatsLock.acquireUninterruptibly();
-        try {
-            getHostStats().incrementNodesPulled(count);
-        } finally {
-            hostStatsLock.release();
-        }
+        getHostStats().incrementNodesPulled(count);
     }
 
     public void incrementNodesPushed(long count) {
-        hostStatsLock.acquireUninterruptibly();
-        try {
-            getHostStats().incrementNodesPushed(count);
-        } finally {
-            hostStatsLock.release();
-        }
+        getHostStats().incrementNodesPushed(count);
     }
 
     public void incrementTotalNodesPulledTime(long count) {
-        hostStatsLock.acquireUninterruptibly();
-        try {
-            getHostStats().incrementTotalNodesPullTime(count);
-        } finally {
-            hostStatsLock.release();
-        }
+        getHostStats().incrementTotalNodesPullTime(count);
     }
 
     public void incrementTotalNodesPushedTime(long count) {
-        hostStatsLock.acquireUninterruptibly();
-        try {
-            getHostStats().incrementTotalNodesPushTime(count);
-        } finally {
-            hostStatsLock.release();
-        }
+        getHostStats().incrementTotalNodesPushTime(count);
     }
 
     public void incrementNodesRejected(long count) {
-        hostStatsLock.acquireUninterruptibly();
-        try {
-            getHostStats().incrementNodesRejected(count);
-        } finally {
-            hostStatsLock.release();
-        }
+        getHostStats().incrementNodesRejected(count);
     }
 
     public void incrementNodesRegistered(long count) {
-        hostStatsLock.acquireUninterruptibly();
-        try {
-            getHostStats().incrementNodesRegistered(count);
-        } finally {
-            hostStatsLock.release();
-        }
+        getHostStats().incrementNodesRegistered(count);
     }
 
     public void incrementNodesLoaded(long count) {
-        hostStatsLock.acquireUninterruptibly();
-        try {
-            getHostStats().incrementNodesLoaded(count);
-        } finally {
-            hostStatsLock.release();
-        }
+        getHostStats().incrementNodesLoaded(count);
     }
 
     public void incrementNodesDisabled(long count) {
-        hostStatsLock.acquireUninterruptibly();
-        try {
-            getHostStats().incrementNodesDisabled(count);
-        } finally {
-            hostStatsLock.release();
-        }
+        getHostStats().incrementNodesDisabled(count);
     }
 
     public void incrementPurgedBatchIncomingRows(long count) {
-        hostStatsLock.acquireUninterruptibly();
-        try {
-            getHostStats().incrementPurgedBatchIncomingRows(count);
-        } finally {
-            hostStatsLock.release();
-        }
+        getHostStats().incrementPurgedBatchIncomingRows(count);
     }
 
     public void incrementPurgedBatchOutgoingRows(long count) {
-        hostStatsLock.acquireUninterruptibly();
-        try {
-            getHostStats().incrementPurgedBatchOutgoingRows(count);
-        } finally {
-            hostStatsLock.release();
-        }
+        getHostStats().incrementPurgedBatchOutgoingRows(count);
     }
 
     public void incrementPurgedDataRows(long count) {
-        hostStatsLock.acquireUninterruptibly();
-        try {
-            getHostStats().incrementPurgedDataRows(count);
-        } finally {
-            hostStatsLock.release();
-        }
+        getHostStats().incrementPurgedDataRows(count);
     }
 
     public void incrementPurgedDataEventRows(long count) {
-        hostStatsLock.acquireUninterruptibly();
-        try {
-            getHostStats().incrementPurgedDataEventRows(count);
-        } finally {
-            hostStatsLock.release();
-        }
+        getHostStats().incrementPurgedDataEventRows(count);
     }
 
     public void incrementPurgedStrandedDataRows(long count) {
-        hostStatsLock.acquireUninterruptibly();
-        try {
-            getHostStats().incrementPurgedStrandedDataRows(count);
-        } finally {
-            hostStatsLock.release();
-        }
+        getHostStats().incrementPurgedStrandedDataRows(count);
     }
 
     public void incrementPurgedStrandedDataEventRows(long count) {
-        hostStatsLock.acquireUninterruptibly();
-        try {
-            getHostStats().incrementPurgedStrandedDataEventRows(count);
-        } finally {
-            hostStatsLock.release();
-        }
+        getHostStats().incrementPurgedStrandedDataEventRows(count);
     }
 
     public void incrementPurgedExpiredDataRows(long count) {
-        hostStatsLock.acquireUninterruptibly();
-        try {
-            getHostStats().incrementPurgedExpiredDataRows(count);
-        } finally {
-            hostStatsLock.release();
-        }
+        getHostStats().incrementPurgedExpiredDataRows(count);
     }
 
     public void incrementTriggersRemovedCount(long count) {
-        hostStatsLock.acquireUninterruptibly();
-        try {
-            getHostStats().incrementTriggersRemovedCount(count);
-        } finally {
-            hostStatsLock.release();
-        }
+        getHostStats().incrementTriggersRemovedCount(count);
     }
 
     public void incrementTriggersRebuiltCount(long count) {
-        hostStatsLock.acquireUninterruptibly();
-        try {
-            getHostStats().incrementTriggersRebuiltCount(count);
-        } finally {
-            hostStatsLock.release();
-        }
+        getHostStats().incrementTriggersRebuiltCount(count);
     }
 
     public void incrementTriggersCreatedCount(long count) {
-        hostStatsLock.acquireUninterruptibly();
-        try {
-            getHostStats().incrementTriggersCreatedCount(count);
-        } finally {
-            hostStatsLock.release();
-        }
+        getHostStats().incrementTriggersCreatedCount(count);
     }
 
     protected void saveAdditionalStats(Date endTime, ChannelStats stats) {
@@ -514,28 +326,16 @@ public class StatisticManager implements IStatisticManager {
         boolean recordStatistics = parameterService.is(ParameterConstants.STATISTIC_RECORD_ENABLE,
                 false);
         long recordStatisticsCountThreshold = parameterService.getLong(ParameterConstants.STATISTIC_RECORD_COUNT_THRESHOLD, -1);
-        if (channelStats != null) {
-            channelStatsLock.acquireUninterruptibly(NUMBER_OF_PERMITS);
-            try {
-                if (recordStatistics) {
-                    Date endTime = new Date();
-                    for (ChannelStats stats : channelStats.values()) {
-                        if (stats.getNodeId().equals(UNKNOWN)) {
-                            Node node = nodeService.getCachedIdentity();
-                            if (node != null) {
-                                stats.setNodeId(node.getNodeId());
-                            }
-                        }
-                        stats.setEndTime(endTime);
-                        saveAdditionalStats(endTime, stats);
-                        if (stats.isNonZero()) {
-                            statisticService.save(stats);
-                        }
-                    }
+        resetChannelStats(false);
+        Date endTime = new Date();
+        for (ChannelStats stats : channelStats.values()) {
+            resolveUnknownNodeId(stats);
+            ChannelStats snapshot = stats.snapshotAndReset(endTime);
+            if (recordStatistics) {
+                saveAdditionalStats(endTime, snapshot);
+                if (snapshot.isNonZero()) {
+                    statisticService.save(snapshot);
                 }
-                resetChannelStats(true);
-            } finally {
-                channelStatsLock.release(NUMBER_OF_PERMITS);
             }
         }
         int rowsLoaded = 0;
@@ -555,34 +355,21 @@ public class StatisticManager implements IStatisticManager {
                 log.debug("===================================");
             }
         }
-        if (hostStats != null) {
-            hostStatsLock.acquireUninterruptibly(NUMBER_OF_PERMITS);
-            try {
-                if (recordStatistics && hostStats.isNonZero()) {
-                    if (hostStats.getNodeId().equals(UNKNOWN)) {
-                        Node node = nodeService.getCachedIdentity();
-                        if (node != null) {
-                            hostStats.setNodeId(node.getNodeId());
-                        }
-                    }
-                    hostStats.setEndTime(new Date());
-                    statisticService.save(hostStats);
-                }
-                hostStats = null;
-            } finally {
-                hostStatsLock.release(NUMBER_OF_PERMITS);
+        HostStats currentHostStats = hostStats;
+        if (currentHostStats != null) {
+            resolveUnknownNodeId(currentHostStats);
+            HostStats snapshot = currentHostStats.snapshotAndReset(new Date());
+            if (recordStatistics && snapshot.isNonZero()) {
+                statisticService.save(snapshot);
             }
         }
         if (jobStats != null) {
-            List<JobStats> toFlush = null;
-            jobStatsLock.acquireUninterruptibly(NUMBER_OF_PERMITS);
-            try {
-                toFlush = jobStats;
-                jobStats = new ArrayList<JobStats>();
-            } finally {
-                jobStatsLock.release(NUMBER_OF_PERMITS);
+            List<JobStats> toFlush = new ArrayList<JobStats>();
+            JobStats polled = null;
+            while ((polled = jobStats.poll()) != null) {
+                toFlush.add(polled);
             }
-            if (toFlush != null && recordStatistics) {
+            if (recordStatistics) {
                 Node node = nodeService.getCachedIdentity();
                 if (node != null) {
                     String nodeId = node.getNodeId();
@@ -599,6 +386,15 @@ public class StatisticManager implements IStatisticManager {
         }
     }
 
+    protected void resolveUnknownNodeId(AbstractNodeHostStats stats) {
+        if (stats.getNodeId().equals(UNKNOWN)) {
+            Node node = nodeService.getCachedIdentity();
+            if (node != null) {
+                stats.setNodeId(node.getNodeId());
+            }
+        }
+    }
+
     public TreeMap<Date, Map<String, ChannelStats>> getNodeStatsForPeriod(Date start, Date end, String nodeId, int periodSizeInMinutes) {
         Map<String, ChannelStats> currentStats = getWorkingChannelStats();
         NodeStatsByPeriodMap savedStatsPeriodMap = (NodeStatsByPeriodMap) statisticService.getNodeStatsForPeriod(start, end, nodeId,
@@ -638,20 +434,18 @@ public class StatisticManager implements IStatisticManager {
     }
 
     public HostStats getWorkingHostStats() {
-        if (this.hostStats != null) {
-            return new HostStats(this.hostStats);
+        HostStats currentHostStats = hostStats;
+        if (currentHostStats != null) {
+            return new HostStats(currentHostStats);
         } else {
             return new HostStats();
         }
     }
 
     protected void resetChannelStats(boolean force) {
-        if (force) {
-            channelStats = null;
-        }
-        if (channelStats == null) {
+        if (force || !channelStatsInitialized) {
+            channelStatsInitialized = true;
             List<NodeChannel> channels = configurationService.getNodeChannels(false);
-            channelStats = new HashMap<String, ChannelStats>(channels.size());
             for (NodeChannel nodeChannel : channels) {
                 getChannelStats(nodeChannel.getChannelId());
             }
@@ -659,14 +453,15 @@ public class StatisticManager implements IStatisticManager {
     }
 
     protected ChannelStats getChannelStats(String channelId) {
-        resetChannelStats(false);
+        if (!channelStatsInitialized) {
+            resetChannelStats(false);
+        }
         ChannelStats stats = channelStats.get(channelId);
         if (stats == null) {
             Node node = nodeService.getCachedIdentity();
             if (node != null) {
-                stats = new ChannelStats(node.getNodeId(), clusterService.getServerId(),
-                        new Date(), null, channelId);
-                channelStats.put(channelId, stats);
+                stats = channelStats.computeIfAbsent(channelId, (id) -> new ChannelStats(node.getNodeId(), clusterService.getServerId(),
+                        new Date(), null, id));
             } else {
                 stats = new ChannelStats(UNKNOWN, clusterService.getServerId(), new Date(), null,
                         channelId);
@@ -676,16 +471,23 @@ public class StatisticManager implements IStatisticManager {
     }
 
     protected HostStats getHostStats() {
-        if (hostStats == null) {
-            Node node = nodeService.getCachedIdentity();
-            if (node != null) {
-                hostStats = new HostStats(node.getNodeId(), clusterService.getServerId(),
-                        new Date(), null);
-            } else {
-                hostStats = new HostStats(UNKNOWN, clusterService.getServerId(), new Date(), null);
+        HostStats stats = hostStats;
+        if (stats == null) {
+            synchronized (this) {
+                stats = hostStats;
+                if (stats == null) {
+                    Node node = nodeService.getCachedIdentity();
+                    if (node != null) {
+                        stats = new HostStats(node.getNodeId(), clusterService.getServerId(),
+                                new Date(), null);
+                    } else {
+                        stats = new HostStats(UNKNOWN, clusterService.getServerId(), new Date(), null);
+                    }
+                    hostStats = stats;
+                }
             }
         }
-        return hostStats;
+        return stats;
     }
 
     @Override
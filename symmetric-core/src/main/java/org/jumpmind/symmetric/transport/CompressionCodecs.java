@@ -0,0 +1,214 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.transport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import org.apache.commons.lang3.StringUtils;
+import org.jumpmind.symmetric.common.ParameterConstants;
+import org.jumpmind.symmetric.service.IParameterService;
+
+/**
+ * Registry of the compression codecs that can be negotiated for HTTP synchronization requests. The gzip, deflate and identity codecs are always
+ * available. Extensions can {@link #register(ICompressionCodec)} other codecs, like LZ4 or Zstandard, when their libraries are on the classpath.
+ * <p>
+ * A codec is configured with a spec of <code>name[:level]</code>, like <code>deflate:1</code>, where the level overrides
+ * {@link ParameterConstants#TRANSPORT_HTTP_COMPRESSION_LEVEL}.
+ */
+public class CompressionCodecs {
+    public static final String GZIP = "gzip";
+    public static final String DEFLATE = "deflate";
+    public static final String IDENTITY = "identity";
+    private static final Map<String, ICompressionCodec> codecs = new ConcurrentSkipListMap<String, ICompressionCodec>(String.CASE_INSENSITIVE_ORDER);
+    static {
+        register(new GzipCodec());
+        register(new DeflateCodec());
+        register(new IdentityCodec());
+    }
+
+    private CompressionCodecs() {
+    }
+
+    public static void register(ICompressionCodec codec) {
+        codecs.put(codec.getName(), codec);
+    }
+
+    /**
+     * @return the registered codec with the name, or null if the name is blank or not registered
+     */
+    public static ICompressionCodec getCodec(String name) {
+        return StringUtils.isBlank(name) ? null : codecs.get(name.trim());
+    }
+
+    /**
+     * @return the names of all registered codecs, formatted for an Accept-Encoding header
+     */
+    public static String getAcceptEncoding() {
+        return StringUtils.join(codecs.keySet(), ", ");
+    }
+
+    /**
+     * Get the codec spec configured for requests on a channel queue. The
+     * {@link ParameterConstants#TRANSPORT_HTTP_COMPRESSION_CODEC}.queue.&lt;queue&gt; parameter is checked first, then
+     * {@link ParameterConstants#TRANSPORT_HTTP_COMPRESSION_CODEC}.
+     */
+    public static String getCodecSpec(IParameterService parameterService, String queue) {
+        String spec = null;
+        if (StringUtils.isNotBlank(queue)) {
+            spec = parameterService.getString(ParameterConstants.TRANSPORT_HTTP_COMPRESSION_CODEC + ".queue." + queue);
+        }
+        if (StringUtils.isBlank(spec)) {
+            spec = parameterService.getString(ParameterConstants.TRANSPORT_HTTP_COMPRESSION_CODEC, GZIP);
+        }
+        return spec;
+    }
+
+    public static String getCodecName(String spec) {
+        return spec == null ? null : StringUtils.substringBefore(spec, ":").trim();
+    }
+
+    /**
+     * @return the level in the spec, or the default level if the spec does not have one
+     */
+    public static int getLevel(String spec, int defaultLevel) {
+        String level = spec == null ? null : StringUtils.substringAfter(spec, ":").trim();
+        if (StringUtils.isNotBlank(level)) {
+            try {
+                return Integer.parseInt(level);
+            } catch (NumberFormatException e) {
+            }
+        }
+        return defaultLevel;
+    }
+
+    /**
+     * Choose the codec to use for a request. The configured codec is used when the other side accepts it. Otherwise gzip is used when it is
+     * accepted, since every version understands it.
+     *
+     * @param acceptEncoding
+     *            the Accept-Encoding header sent by the other side
+     * @return the codec to use, or null if the other side does not accept compression
+     */
+    public static ICompressionCodec negotiate(String spec, String acceptEncoding) {
+        Set<String> accepted = parseAcceptEncoding(acceptEncoding);
+        ICompressionCodec codec = getCodec(getCodecName(spec));
+        if (codec != null && accepted.contains(codec.getName().toLowerCase())) {
+            return codec;
+        } else if (accepted.contains(GZIP)) {
+            return getCodec(GZIP);
+        }
+        return null;
+    }
+
+    protected static Set<String> parseAcceptEncoding(String acceptEncoding) {
+        Set<String> accepted = new LinkedHashSet<String>();
+        if (acceptEncoding != null) {
+            for (String token : acceptEncoding.split(",")) {
+                String name = StringUtils.substringBefore(token, ";").trim().toLowerCase();
+                String quality = StringUtils.substringAfter(token, ";").replace(" ", "");
+                if (name.length() > 0 && !quality.matches("q=0(\\.0*)?")) {
+                    accepted.add(name);
+                }
+            }
+        }
+        return accepted;
+    }
+
+    static class GzipCodec implements ICompressionCodec {
+        public String getName() {
+            return GZIP;
+        }
+
+        public OutputStream compress(OutputStream out, final int level, final int strategy) throws IOException {
+            return new GZIPOutputStream(out, 128, true) {
+                {
+                    this.def.setLevel(level);
+                    this.def.setStrategy(strategy);
+                }
+            };
+        }
+
+        public InputStream decompress(InputStream in) throws IOException {
+            return new GZIPInputStream(in);
+        }
+    }
+
+    static class DeflateCodec implements ICompressionCodec {
+        public String getName() {
+            return DEFLATE;
+        }
+
+        public OutputStream compress(OutputStream out, int level, int strategy) throws IOException {
+            final Deflater deflater = new Deflater(level);
+            deflater.setStrategy(strategy);
+            return new DeflaterOutputStream(out, deflater, 512, true) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        deflater.end();
+                    }
+                }
+            };
+        }
+
+        public InputStream decompress(InputStream in) throws IOException {
+            final Inflater inflater = new Inflater();
+            return new InflaterInputStream(in, inflater, 512) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        inflater.end();
+                    }
+                }
+            };
+        }
+    }
+
+    static class IdentityCodec implements ICompressionCodec {
+        public String getName() {
+            return IDENTITY;
+        }
+
+        public OutputStream compress(OutputStream out, int level, int strategy) {
+            return out;
+        }
+
+        public InputStream decompress(InputStream in) {
+            return in;
+        }
+    }
+}
@@ -22,13 +22,20 @@ package org.jumpmind.symmetric.transport;
 
 import java.util.Date;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.jumpmind.symmetric.common.ParameterConstants;
 import org.jumpmind.symmetric.service.IParameterService;
 import org.jumpmind.symmetric.statistic.IStatisticManager;
+import org.jumpmind.util.CustomizableThreadFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -37,11 +44,13 @@ import org.slf4j.LoggerFactory;
  */
 public class ConcurrentConnectionManager implements IConcurrentConnectionManager {
     private static final Logger log = LoggerFactory.getLogger(ConcurrentConnectionManager.class);
+    private static final long EXPIRE_PERIOD_MS = 1000;
     protected IParameterService parameterService;
-    protected Map<String, Map<String, Reservation>> activeReservationsByNodeByPool = new HashMap<String, Map<String, Reservation>>();
-    protected Map<String, Map<String, NodeConnectionStatistics>> nodeConnectionStatistics = new HashMap<String, Map<String, NodeConnectionStatistics>>();
-    protected Set<String> whiteList = new HashSet<String>();
-    protected Map<String, Long> transportErrorTimeByNode = new HashMap<String, Long>();
+    protected Map<String, ReservationPool> reservationPools = new ConcurrentHashMap<String, ReservationPool>();
+    protected Map<String, Map<String, NodeConnectionStatistics>> nodeConnectionStatistics = new ConcurrentHashMap<String, Map<String, NodeConnectionStatistics>>();
+    protected Set<String> whiteList = ConcurrentHashMap.newKeySet();
+    protected Map<String, Long> transportErrorTimeByNode = new ConcurrentHashMap<String, Long>();
+    protected volatile ScheduledExecutorService expireService;
 
     public ConcurrentConnectionManager(IParameterService parameterService,
             IStatisticManager statisticManager) {
@@ -49,36 +58,27 @@ public class ConcurrentConnectionManager implements IConcurrentConnectionManager
     }
 
     protected void logTooBusyRejection(String nodeId, String poolId) {
-        getNodeConnectionStatistics(nodeId, poolId).numOfRejections++;
+        getNodeConnectionStatistics(nodeId, poolId).numOfRejections.increment();
     }
 
     protected void logConnectedTimePeriod(String nodeId, long startMs, long endMs, String poolId) {
         NodeConnectionStatistics stats = getNodeConnectionStatistics(nodeId, poolId);
-        stats.totalConnectionCount++;
-        stats.totalConnectionTimeMs += endMs - startMs;
+        stats.totalConnectionCount.increment();
+        stats.totalConnectionTimeMs.add(endMs - startMs);
         stats.lastConnectionTimeMs = startMs;
     }
 
-    private synchronized NodeConnectionStatistics getNodeConnectionStatistics(String nodeId,
+    private NodeConnectionStatistics getNodeConnectionStatistics(String nodeId,
             String poolId) {
-        Map<String, NodeConnectionStatistics> statsMap = nodeConnectionStatistics.get(poolId);
-        if (statsMap == null) {
-            statsMap = new HashMap<String, NodeConnectionStatistics>();
-            nodeConnectionStatistics.put(poolId, statsMap);
-        }
-        NodeConnectionStatistics stats = statsMap.get(nodeId);
-        if (stats == null) {
-            stats = new NodeConnectionStatistics();
-            statsMap.put(nodeId, stats);
-        }
-        return stats;
+        Map<String, NodeConnectionStatistics> statsMap = nodeConnectionStatistics.computeIfAbsent(poolId,
+                (id) -> new ConcurrentHashMap<String, NodeConnectionStatistics>());
+        return statsMap.computeIfAbsent(nodeId, (id) -> new NodeConnectionStatistics());
     }
 
-    public synchronized boolean releaseConnection(String nodeId, String channelId, String poolId) {
+    public boolean releaseConnection(String nodeId, String channelId, String poolId) {
         String reservationId = getReservationIdentifier(nodeId, channelId);
         log.debug("Releasing connection for {} {}", poolId, reservationId);
-        Map<String, Reservation> reservations = getReservationMap(poolId);
-        Reservation reservation = reservations.remove(reservationId);
+        Reservation reservation = getReservationPool(poolId).remove(reservationId);
         if (reservation != null) {
             logConnectedTimePeriod(reservationId, reservation.createTime, System.currentTimeMillis(),
                     poolId);
@@ -89,9 +89,8 @@ public class ConcurrentConnectionManager implements IConcurrentConnectionManager
         }
     }
 
-    public synchronized boolean releaseConnection(String nodeId, String poolId) {
-        Map<String, Reservation> reservations = getReservationMap(poolId);
-        Reservation reservation = reservations.remove(nodeId);
+    public boolean releaseConnection(String nodeId, String poolId) {
+        Reservation reservation = getReservationPool(poolId).remove(nodeId);
         if (reservation != null) {
             logConnectedTimePeriod(nodeId, reservation.createTime, System.currentTimeMillis(),
                     poolId);
@@ -101,46 +100,74 @@ public class ConcurrentConnectionManager implements IConcurrentConnectionManager
         }
     }
 
-    public synchronized void addToWhitelist(String nodeId) {
+    public void addToWhitelist(String nodeId) {
         whiteList.add(nodeId);
     }
 
-    public synchronized void removeFromWhiteList(String nodeId) {
+    public void removeFromWhiteList(String nodeId) {
         whiteList.remove(nodeId);
     }
 
-    public synchronized String[] getWhiteList() {
-        return whiteList.toArray(new String[whiteList.size()]);
+    public String[] getWhiteList() {
+        return whiteList.toArray(new String[0]);
+    }
+
+    public int getReservationCount(String poolId) {
+        return getReservationPool(poolId).getReservationCount();
     }
 
-    public synchronized int getReservationCount(String poolId) {
-        return getReservationMap(poolId).size();
+    public ReservationStatus reserveConnection(String nodeId, String channelId, String poolId,
+            ReservationType reservationRequest, boolean requiresExistingReservation) {
+        long startTime = System.nanoTime();
+        ReservationPool pool = getReservationPool(poolId);
+        try {
+            return reserveConnection(pool, nodeId, channelId, poolId, reservationRequest, requiresExistingReservation);
+        } finally {
+            pool.logReserveTime(System.nanoTime() - startTime);
+        }
     }
 
-    public synchronized ReservationStatus reserveConnection(String nodeId, String channelId, String poolId,
+    protected ReservationStatus reserveConnection(ReservationPool pool, String nodeId, String channelId, String poolId,
             ReservationType reservationRequest, boolean requiresExistingReservation) {
         String reservationId = getReservationIdentifier(nodeId, channelId);
         log.debug("Reserving connection for {} {}", poolId, reservationId);
-        Map<String, Reservation> reservations = getReservationMap(poolId);
         int maxPoolSize = parameterService.getInt(ParameterConstants.CONCURRENT_WORKERS);
         long timeout = parameterService.getLong(ParameterConstants.CONCURRENT_RESERVATION_TIMEOUT);
-        removeTimedOutReservations(reservations);
-        Reservation existingReservation = reservations.get(reservationId);
-        if (requiresExistingReservation && existingReservation == null) {
-            String message = "Node '{}' Channel '{}' requested a {} connection, but was rejected because it was missing a reservation";
-            if (shouldLogTransportError(nodeId)) {
-                log.warn(message, nodeId, channelId, poolId);
-            } else {
-                log.info(message, nodeId, channelId, poolId);
+        Reservation newReservation = new Reservation(reservationId,
+                reservationRequest == ReservationType.SOFT ? System.currentTimeMillis() + timeout : Long.MAX_VALUE, reservationRequest);
+        while (true) {
+            Reservation existingReservation = pool.reservations.get(reservationId);
+            if (existingReservation != null && existingReservation.timeToLiveInMs < System.currentTimeMillis()) {
+                if (!pool.remove(reservationId, existingReservation)) {
+                    pool.retryCount.increment();
+                    continue;
+                }
+                existingReservation = null;
             }
-            return ReservationStatus.NOT_FOUND;
-        } else if (reservations.size() < maxPoolSize || existingReservation != null || whiteList.contains(nodeId)) {
-            if (existingReservation == null || existingReservation.getType() == ReservationType.SOFT) {
-                reservations.put(reservationId, new Reservation(reservationId,
-                        reservationRequest == ReservationType.SOFT ? System.currentTimeMillis()
-                                + timeout : Long.MAX_VALUE, reservationRequest));
-                transportErrorTimeByNode.remove(nodeId);
-                return ReservationStatus.ACCEPTED;
+            if (requiresExistingReservation && existingReservation == null) {
+                String message = "Node '{}' Channel '{}' requested a {} connection, but was rejected because it was missing a reservation";
+                if (shouldLogTransportError(nodeId)) {
+                    log.warn(message, nodeId, channelId, poolId);
+                } else {
+                    log.info(message, nodeId, channelId, poolId);
+                }
+                return ReservationStatus.NOT_FOUND;
+            } else if (existingReservation == null) {
+                if (!pool.tryAcquire(whiteList.contains(nodeId) ? Integer.MAX_VALUE : maxPoolSize)) {
+                    return ReservationStatus.BUSY;
+                }
+                if (pool.reservations.putIfAbsent(reservationId, newReservation) == null) {
+                    transportErrorTimeByNode.remove(nodeId);
+                    return ReservationStatus.ACCEPTED;
+                }
+                pool.count.decrementAndGet();
+                pool.retryCount.increment();
+            } else if (existingReservation.getType() == ReservationType.SOFT) {
+                if (replaceIfSame(pool.reservations, reservationId, existingReservation, newReservation)) {
+                    transportErrorTimeByNode.remove(nodeId);
+                    return ReservationStatus.ACCEPTED;
+                }
+                pool.retryCount.increment();
             } else {
                 String message = "Node '{}' Channel '{}' requested a {} connection, but was rejected because it already has one";
                 if (shouldLogTransportError(nodeId)) {
@@ -150,8 +177,6 @@ public class ConcurrentConnectionManager implements IConcurrentConnectionManager
                 }
                 return ReservationStatus.DUPLICATE;
             }
-        } else {
-            return ReservationStatus.BUSY;
         }
     }
 
@@ -165,15 +190,11 @@ public class ConcurrentConnectionManager implements IConcurrentConnectionManager
 
     protected Map<String, Date> getReservationsByNodeId(String urlPath) {
         Map<String, Date> byNodeId = new HashMap<String, Date>();
-        Set<String> poolIds = activeReservationsByNodeByPool.keySet();
-        for (String poolId : poolIds) {
-            if (poolId.endsWith(urlPath)) {
-                Map<String, Reservation> reservations = activeReservationsByNodeByPool.get(poolId);
-                Set<String> nodeIds = new HashSet<String>(reservations.keySet());
-                for (String nodeId : nodeIds) {
-                    Reservation reservation = reservations.get(nodeId);
-                    if (reservation != null && reservation.getType() == ReservationType.HARD) {
-                        byNodeId.put(nodeId, new Date(reservation.getCreateTime()));
+        for (Map.Entry<String, ReservationPool> entry : reservationPools.entrySet()) {
+            if (entry.getKey().endsWith(urlPath)) {
+                for (Reservation reservation : entry.getValue().reservations.values()) {
+                    if (reservation.getType() == ReservationType.HARD) {
+                        byNodeId.put(reservation.getNodeId(), new Date(reservation.getCreateTime()));
                     }
                 }
             }
@@ -181,26 +202,89 @@ public class ConcurrentConnectionManager implements IConcurrentConnectionManager
         return byNodeId;
     }
 
-    protected void removeTimedOutReservations(Map<String, Reservation> reservations) {
+    /**
+     * Runs on a timer so that soft reservations that were never used do not have to be searched for while handling requests
+     */
+    protected void removeTimedOutReservations() {
+        try {
+            for (ReservationPool pool : reservationPools.values()) {
+                pool.count.addAndGet(-removeTimedOutReservations(pool.reservations));
+            }
+        } catch (Exception e) {
+            log.warn("Failed to remove timed out reservations", e);
+        }
+    }
+
+    protected int removeTimedOutReservations(Map<String, Reservation> reservations) {
         long currentTime = System.currentTimeMillis();
-        String[] keys = reservations.keySet().toArray(new String[reservations.size()]);
-        if (keys != null) {
-            for (String key : keys) {
-                Reservation reservation = reservations.get(key);
-                if (reservation.timeToLiveInMs < currentTime) {
-                    reservations.remove(key);
-                }
+        String[] keys = reservations.keySet().toArray(new String[0]);
+        int removedCount = 0;
+        for (String key : keys) {
+            Reservation reservation = reservations.get(key);
+            if (reservation != null && reservation.timeToLiveInMs < currentTime && removeIfSame(reservations, key, reservation)) {
+                removedCount++;
+            }
+        }
+        return removedCount;
+    }
+
+    /**
+     * Remove the reservation only if it is the same instance that was read earlier. {@link Reservation#equals(Object)} only compares the node, so
+     * {@link Map#remove(Object, Object)} would also remove a newer reservation for the same node.
+     */
+    protected static boolean removeIfSame(Map<String, Reservation> reservations, String reservationId, Reservation expected) {
+        boolean[] removed = new boolean[1];
+        reservations.computeIfPresent(reservationId, (id, current) -> {
+            if (current == expected) {
+                removed[0] = true;
+                return null;
+            }
+            return current;
+        });
+        return removed[0];
+    }
+
+    /**
+     * Replace the reservation only if it is the same instance that was read earlier
+     */
+    protected static boolean replaceIfSame(Map<String, Reservation> reservations, String reservationId, Reservation expected,
+            Reservation replacement) {
+        boolean[] replaced = new boolean[1];
+        reservations.computeIfPresent(reservationId, (id, current) -> {
+            if (current == expected) {
+                replaced[0] = true;
+                return replacement;
             }
+            return current;
+        });
+        return replaced[0];
+    }
+
+    protected ReservationPool getReservationPool(String poolId) {
+        ReservationPool pool = reservationPools.get(poolId);
+        if (pool == null) {
+            pool = reservationPools.computeIfAbsent(poolId, (id) -> new ReservationPool());
+        }
+        if (expireService == null) {
+            startExpireService();
         }
+        return pool;
     }
 
-    private Map<String, Reservation> getReservationMap(String poolId) {
-        Map<String, Reservation> reservations = activeReservationsByNodeByPool.get(poolId);
-        if (reservations == null) {
-            reservations = new HashMap<String, Reservation>();
-            activeReservationsByNodeByPool.put(poolId, reservations);
+    protected synchronized void startExpireService() {
+        if (expireService == null) {
+            expireService = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory(
+                    parameterService.getEngineName().toLowerCase() + "-connection-expire"));
+            expireService.scheduleWithFixedDelay(() -> removeTimedOutReservations(), EXPIRE_PERIOD_MS, EXPIRE_PERIOD_MS,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public synchronized void stop() {
+        if (expireService != null) {
+            expireService.shutdownNow();
+            expireService = null;
         }
-        return reservations;
     }
 
     public static class Reservation {
@@ -271,30 +355,26 @@ public class ConcurrentConnectionManager implements IConcurrentConnectionManager
 
     protected boolean shouldLogTransportError(String nodeId) {
         long maxErrorMillis = parameterService.getLong(ParameterConstants.TRANSPORT_MAX_ERROR_MILLIS, 300000);
-        Long errorTime = transportErrorTimeByNode.get(nodeId);
-        if (errorTime == null) {
-            errorTime = System.currentTimeMillis();
-            transportErrorTimeByNode.put(nodeId, errorTime);
-        }
+        Long errorTime = transportErrorTimeByNode.computeIfAbsent(nodeId, (id) -> System.currentTimeMillis());
         return System.currentTimeMillis() - errorTime >= maxErrorMillis;
     }
 
     public static class NodeConnectionStatistics {
-        int numOfRejections;
-        long totalConnectionCount;
-        long totalConnectionTimeMs;
-        long lastConnectionTimeMs;
+        LongAdder numOfRejections = new LongAdder();
+        LongAdder totalConnectionCount = new LongAdder();
+        LongAdder totalConnectionTimeMs = new LongAdder();
+        volatile long lastConnectionTimeMs;
 
         public int getNumOfRejections() {
-            return numOfRejections;
+            return numOfRejections.intValue();
         }
 
         public long getTotalConnectionCount() {
-            return totalConnectionCount;
+            return totalConnectionCount.sum();
         }
 
         public long getTotalConnectionTimeMs() {
-            return totalConnectionTimeMs;
+            return totalConnectionTimeMs.sum();
         }
 
         public long getLastConnectionTimeMs() {
@@ -302,7 +382,83 @@ public class ConcurrentConnectionManager implements IConcurrentConnectionManager
         }
     }
 
+    /**
+     * Reservations for one pool and a count of them that is changed atomically, so the pool size can be checked without a lock
+     */
+    public static class ReservationPool {
+        Map<String, Reservation> reservations = new ConcurrentHashMap<String, Reservation>();
+        AtomicInteger count = new AtomicInteger();
+        LongAdder reserveCount = new LongAdder();
+        LongAdder totalReserveTimeNanos = new LongAdder();
+        LongAccumulator maxReserveTimeNanos = new LongAccumulator(Long::max, 0);
+        LongAdder retryCount = new LongAdder();
+
+        protected boolean tryAcquire(int maxPoolSize) {
+            int current;
+            do {
+                current = count.get();
+                if (current >= maxPoolSize) {
+                    return false;
+                }
+            } while (!count.compareAndSet(current, current + 1));
+            return true;
+        }
+
+        protected Reservation remove(String reservationId) {
+            Reservation reservation = reservations.remove(reservationId);
+            if (reservation != null) {
+                count.decrementAndGet();
+            }
+            return reservation;
+        }
+
+        protected boolean remove(String reservationId, Reservation reservation) {
+            if (removeIfSame(reservations, reservationId, reservation)) {
+                count.decrementAndGet();
+                return true;
+            }
+            return false;
+        }
+
+        protected void logReserveTime(long nanos) {
+            reserveCount.increment();
+            totalReserveTimeNanos.add(nanos);
+            maxReserveTimeNanos.accumulate(nanos);
+        }
+
+        public int getReservationCount() {
+            return count.get();
+        }
+
+        public long getReserveCount() {
+            return reserveCount.sum();
+        }
+
+        public long getTotalReserveTimeNanos() {
+            return totalReserveTimeNanos.sum();
+        }
+
+        public long getMaxReserveTimeNanos() {
+            return maxReserveTimeNanos.get();
+        }
+
+        /**
+         * @return the number of times a reservation had to be attempted again because another request changed it at the same time
+         */
+        public long getRetryCount() {
+            return retryCount.sum();
+        }
+    }
+
     public Map<String, Map<String, Reservation>> getActiveReservationsByNodeByPool() {
-        return activeReservationsByNodeByPool;
+        Map<String, Map<String, Reservation>> reservationsByPool = new HashMap<String, Map<String, Reservation>>();
+        for (Map.Entry<String, ReservationPool> entry : reservationPools.entrySet()) {
+            reservationsByPool.put(entry.getKey(), entry.getValue().reservations);
+        }
+        return reservationsByPool;
+    }
+
+    public Map<String, ReservationPool> getReservationPoolsById() {
+        return reservationPools;
     }
 }
\ No newline at end of file
@@ -0,0 +1,45 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.transport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * A content coding used to compress synchronization payloads sent over HTTP. The name is sent in the Content-Encoding and Accept-Encoding
+ * headers, so a codec is only used when both sides have it registered with {@link CompressionCodecs}.
+ */
+public interface ICompressionCodec {
+    public String getName();
+
+    /**
+     * Wrap a stream so data written to it is compressed. Flushing the returned stream must push all written data through to the wrapped stream.
+     *
+     * @param level
+     *            the compression level, where -1 is the default for the codec
+     * @param strategy
+     *            the {@link java.util.zip.Deflater} strategy, which codecs that are not based on deflate may ignore
+     */
+    public OutputStream compress(OutputStream out, int level, int strategy) throws IOException;
+
+    public InputStream decompress(InputStream in) throws IOException;
+}
@@ -25,6 +25,7 @@ import java.util.Map;
 
 import org.jumpmind.symmetric.transport.ConcurrentConnectionManager.NodeConnectionStatistics;
 import org.jumpmind.symmetric.transport.ConcurrentConnectionManager.Reservation;
+import org.jumpmind.symmetric.transport.ConcurrentConnectionManager.ReservationPool;
 
 public interface IConcurrentConnectionManager {
     public static enum ReservationType {
@@ -77,6 +78,11 @@ public interface IConcurrentConnectionManager {
 
     public Map<String, Map<String, Reservation>> getActiveReservationsByNodeByPool();
 
+    /**
+     * @return reservation counts and the time spent reserving connections, by pool
+     */
+    public Map<String, ReservationPool> getReservationPoolsById();
+
     public void addToWhitelist(String nodeId);
 
     public String[] getWhiteList();
@@ -86,4 +92,9 @@ public interface IConcurrentConnectionManager {
     public Map<String, Date> getPullReservationsByNodeId();
 
     public Map<String, Date> getPushReservationsByNodeId();
+
+    /**
+     * Stop the thread that expires soft reservations. It starts again when a reservation is next requested.
+     */
+    public void stop();
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.transport;
+
+import java.io.BufferedWriter;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
+
+/**
+ * A writer for a transport that keeps a reference to the stream it encodes to, so staged batches that are already encoded in the same character set
+ * can be copied to the stream as bytes. Callers must flush the writer before writing to the stream directly.
+ */
+public class StreamBufferedWriter extends BufferedWriter {
+    protected OutputStream outputStream;
+    protected Charset charset;
+
+    public StreamBufferedWriter(OutputStream outputStream, Charset charset) {
+        super(new OutputStreamWriter(outputStream, charset));
+        this.outputStream = outputStream;
+        this.charset = charset;
+    }
+
+    public OutputStream getOutputStream() {
+        return outputStream;
+    }
+
+    public Charset getCharset() {
+        return charset;
+    }
+}
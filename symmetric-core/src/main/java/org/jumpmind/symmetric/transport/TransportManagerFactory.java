@@ -34,6 +34,7 @@ import javax.net.ssl.KeyManager;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLSocketFactory;
 import javax.net.ssl.TrustManager;
+import javax.net.ssl.TrustManagerFactory;
 import javax.net.ssl.X509TrustManager;
 
 import org.apache.commons.lang3.ClassUtils;
@@ -47,6 +48,8 @@ import org.jumpmind.symmetric.common.Constants;
 import org.jumpmind.symmetric.common.ParameterConstants;
 import org.jumpmind.symmetric.common.ServerConstants;
 import org.jumpmind.symmetric.transport.file.FileTransportManager;
+import org.jumpmind.symmetric.transport.http.HostnameVerifierTrustManager;
+import org.jumpmind.symmetric.transport.http.HttpClientTransportManager;
 import org.jumpmind.symmetric.transport.http.HttpTransportManager;
 import org.jumpmind.symmetric.transport.http.SelfSignedX509TrustManager;
 import org.jumpmind.symmetric.transport.http.SimpleHostnameVerifier;
@@ -57,6 +60,9 @@ import org.slf4j.LoggerFactory;
 public class TransportManagerFactory {
     private static final Logger log = LoggerFactory.getLogger(TransportManagerFactory.class);
     private static boolean isStaticInitialized;
+    private static SSLContext sslContext;
+    private static X509TrustManager sslTrustManager;
+    private static KeyManager[] sslKeyManagers;
     private ISymmetricEngine symmetricEngine;
 
     public TransportManagerFactory(ISymmetricEngine symmetricEngine) {
@@ -109,6 +115,9 @@ public class TransportManagerFactory {
     protected HttpTransportManager createHttpTransportManager(ISymmetricEngine symmetricEngine) {
         String impl = symmetricEngine.getParameterService().getString(ServerConstants.HTTP_TRANSPORT_MANAGER_CLASS);
         if (StringUtils.isEmpty(impl)) {
+            if (symmetricEngine.getParameterService().is(ParameterConstants.TRANSPORT_HTTP_CLIENT_ENABLED, false)) {
+                return new HttpClientTransportManager(symmetricEngine);
+            }
             return new HttpTransportManager(symmetricEngine);
         } else {
             String className = impl.trim();
@@ -159,5 +168,52 @@ public class TransportManagerFactory {
         context.init(keyManagers, new TrustManager[] { trustManager }, new SecureRandom());
         SSLSocketFactory sslSocketFactory = context.getSocketFactory();
         HttpsURLConnection.setDefaultSSLSocketFactory(sslSocketFactory);
+        sslContext = context;
+        sslTrustManager = trustManager;
+        sslKeyManagers = keyManagers;
+    }
+
+    /**
+     * @return the context that accepts self signed certificates, or null if they are not allowed
+     */
+    public static SSLContext getSslContext() {
+        return sslContext;
+    }
+
+    /**
+     * Get a context for clients that cannot use a {@link HostnameVerifier}, like {@link java.net.http.HttpClient}, which always check that the
+     * server name matches its certificate. The verified server names are checked by the trust manager instead, so they are honored the same way
+     * as they are for {@link HttpsURLConnection}.
+     * 
+     * @return the context to use, or null to use the default context
+     */
+    public static synchronized SSLContext getSslContext(String httpSslVerifiedServerNames) throws GeneralSecurityException {
+        if (StringUtils.isBlank(httpSslVerifiedServerNames)) {
+            return sslContext;
+        }
+        X509TrustManager trustManager = sslTrustManager;
+        KeyManager[] keyManagers = sslKeyManagers;
+        if (trustManager == null) {
+            TrustManagerFactory factory = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+            factory.init((KeyStore) null);
+            for (TrustManager manager : factory.getTrustManagers()) {
+                if (manager instanceof X509TrustManager) {
+                    trustManager = (X509TrustManager) manager;
+                    break;
+                }
+            }
+            if (trustManager == null) {
+                throw new NoSuchAlgorithmException("No trust manager found");
+            }
+            try {
+                keyManagers = SecurityServiceFactory.create().getKeyManagerFactory().getKeyManagers();
+            } catch (Exception e) {
+                log.warn("No key managers found: " + e.getMessage());
+            }
+        }
+        SSLContext context = SSLContext.getInstance("TLS");
+        context.init(keyManagers, new TrustManager[] { new HostnameVerifierTrustManager(trustManager,
+                new SimpleHostnameVerifier(httpSslVerifiedServerNames)) }, new SecureRandom());
+        return context;
     }
 }
\ No newline at end of file
@@ -0,0 +1,116 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.transport.http;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.TrustManagerFactory;
+import javax.net.ssl.X509ExtendedTrustManager;
+import javax.net.ssl.X509TrustManager;
+
+/**
+ * A trust manager that checks the server name with a {@link HostnameVerifier}, the way {@link javax.net.ssl.HttpsURLConnection} does. The
+ * certificate chain is checked by the wrapped trust manager. If the verifier does not accept the host, the server name must match the certificate.
+ * {@link java.net.http.HttpClient} always asks the trust manager to check the server name, so this is how it honors the verified server names.
+ */
+public class HostnameVerifierTrustManager extends X509ExtendedTrustManager {
+    private X509TrustManager trustManager;
+    private HostnameVerifier hostnameVerifier;
+
+    public HostnameVerifierTrustManager(X509TrustManager trustManager, HostnameVerifier hostnameVerifier) {
+        this.trustManager = trustManager;
+        this.hostnameVerifier = hostnameVerifier;
+    }
+
+    @Override
+    public void checkClientTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+        trustManager.checkClientTrusted(chain, authType);
+    }
+
+    @Override
+    public void checkClientTrusted(X509Certificate[] chain, String authType, Socket socket) throws CertificateException {
+        trustManager.checkClientTrusted(chain, authType);
+    }
+
+    @Override
+    public void checkClientTrusted(X509Certificate[] chain, String authType, SSLEngine engine) throws CertificateException {
+        trustManager.checkClientTrusted(chain, authType);
+    }
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+        trustManager.checkServerTrusted(chain, authType);
+    }
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] chain, String authType, Socket socket) throws CertificateException {
+        trustManager.checkServerTrusted(chain, authType);
+        SSLSession session = socket instanceof SSLSocket ? ((SSLSocket) socket).getHandshakeSession() : null;
+        if (session == null || !hostnameVerifier.verify(session.getPeerHost(), session)) {
+            getServerNameTrustManager(chain).checkServerTrusted(chain, authType, socket);
+        }
+    }
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] chain, String authType, SSLEngine engine) throws CertificateException {
+        trustManager.checkServerTrusted(chain, authType);
+        SSLSession session = engine != null ? engine.getHandshakeSession() : null;
+        if (session == null || !hostnameVerifier.verify(engine.getPeerHost(), session)) {
+            getServerNameTrustManager(chain).checkServerTrusted(chain, authType, engine);
+        }
+    }
+
+    @Override
+    public X509Certificate[] getAcceptedIssuers() {
+        return trustManager.getAcceptedIssuers();
+    }
+
+    /**
+     * @return a trust manager that trusts the chain that was already checked, so it only checks that the server name matches the certificate
+     */
+    protected X509ExtendedTrustManager getServerNameTrustManager(X509Certificate[] chain) throws CertificateException {
+        try {
+            KeyStore keyStore = KeyStore.getInstance(KeyStore.getDefaultType());
+            keyStore.load(null, null);
+            keyStore.setCertificateEntry("server", chain[chain.length - 1]);
+            TrustManagerFactory factory = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+            factory.init(keyStore);
+            for (TrustManager manager : factory.getTrustManagers()) {
+                if (manager instanceof X509ExtendedTrustManager) {
+                    return (X509ExtendedTrustManager) manager;
+                }
+            }
+        } catch (GeneralSecurityException | IOException e) {
+            throw new CertificateException(e);
+        }
+        throw new CertificateException("No trust manager found to check the server name");
+    }
+}
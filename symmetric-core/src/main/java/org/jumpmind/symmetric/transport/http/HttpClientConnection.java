@@ -0,0 +1,404 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.transport.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.net.ProtocolException;
+import java.net.SocketTimeoutException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublisher;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.ByteBuffer;
+import java.security.cert.Certificate;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLPeerUnverifiedException;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSocketFactory;
+
+/**
+ * A connection that sends its request with a shared {@link HttpClient}, which keeps connections open between requests and uses HTTP/2 when the
+ * server supports it, so requests to the same node can share one connection. The request is not sent until the response or the output stream is
+ * asked for. Data written to the output stream is piped to the client while it is being sent, so the request body is never buffered in memory.
+ */
+public class HttpClientConnection extends HttpConnection {
+    private static final int PIPE_BUFFER_SIZE = 65536;
+    private static final Set<String> RESTRICTED_HEADERS = new HashSet<String>(Arrays.asList("connection", "content-length", "expect", "host",
+            "upgrade"));
+    protected HttpClient httpClient;
+    protected HttpClient redirectingHttpClient;
+    protected String method = "GET";
+    protected Map<String, List<String>> requestProperties = new TreeMap<String, List<String>>(String.CASE_INSENSITIVE_ORDER);
+    protected int readTimeout;
+    protected boolean followRedirects = true;
+    protected PipedOutputStream requestBody;
+    protected CompletableFuture<HttpResponse<Flow.Publisher<List<ByteBuffer>>>> responseFuture;
+    protected HttpResponse<Flow.Publisher<List<ByteBuffer>>> response;
+    protected BodyInputStream responseBody;
+
+    public HttpClientConnection(URL url, HttpClient httpClient, HttpClient redirectingHttpClient) {
+        super(url, null);
+        this.httpClient = httpClient;
+        this.redirectingHttpClient = redirectingHttpClient;
+    }
+
+    @Override
+    public void disconnect() {
+        if (requestBody != null) {
+            try {
+                requestBody.close();
+            } catch (IOException e) {
+            }
+        }
+        if (response != null) {
+            getResponseBody().close();
+        } else if (responseFuture != null) {
+            responseFuture.cancel(true);
+        }
+    }
+
+    @Override
+    public String getContentEncoding() {
+        return getHeaderField("Content-Encoding");
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        HttpResponse<Flow.Publisher<List<ByteBuffer>>> response = getResponse();
+        if (response.statusCode() >= 400) {
+            throw new IOException("Server returned HTTP response code: " + response.statusCode() + " for URL: " + url);
+        }
+        return getResponseBody();
+    }
+
+    @Override
+    public OutputStream getOutputStream() throws IOException {
+        if (requestBody == null) {
+            if (responseFuture != null) {
+                throw new ProtocolException("Cannot write output after reading input");
+            }
+            PipedInputStream in = new PipedInputStream(PIPE_BUFFER_SIZE);
+            requestBody = new PipedOutputStream(in);
+            responseFuture = send(BodyPublishers.ofInputStream(() -> in));
+        }
+        return requestBody;
+    }
+
+    @Override
+    public void setConnectTimeout(int timeout) {
+        // the connect timeout is set on the shared client
+    }
+
+    @Override
+    public void setReadTimeout(int timeout) {
+        this.readTimeout = timeout;
+    }
+
+    @Override
+    public void setDoInput(boolean doinput) {
+    }
+
+    @Override
+    public void setDoOutput(boolean dooutput) {
+    }
+
+    @Override
+    public void setAllowUserInteraction(boolean allowuserinteraction) {
+    }
+
+    @Override
+    public void setUseCaches(boolean usecaches) {
+    }
+
+    @Override
+    public void setRequestProperty(String key, String value) {
+        List<String> values = new ArrayList<String>();
+        values.add(value);
+        requestProperties.put(key, values);
+    }
+
+    @Override
+    public void addRequestProperty(String key, String value) {
+        requestProperties.computeIfAbsent(key, (k) -> new ArrayList<String>()).add(value);
+    }
+
+    @Override
+    public void setChunkedStreamingMode(int chunklen) {
+        // the request body is always streamed
+    }
+
+    @Override
+    public String getHeaderField(String name) {
+        try {
+            return getResponse().headers().firstValue(name).orElse(null);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public Map<String, List<String>> getHeaderFields() {
+        try {
+            return getResponse().headers().map();
+        } catch (IOException e) {
+            return new TreeMap<String, List<String>>();
+        }
+    }
+
+    @Override
+    public void setInstanceFollowRedirects(boolean followRedirects) {
+        this.followRedirects = followRedirects;
+    }
+
+    @Override
+    public void setRequestMethod(String method) throws ProtocolException {
+        if (responseFuture != null) {
+            throw new ProtocolException("Cannot set the method after the request was sent");
+        }
+        this.method = method;
+    }
+
+    @Override
+    public int getResponseCode() throws IOException {
+        return getResponse().statusCode();
+    }
+
+    @Override
+    public void setHostnameVerifier(HostnameVerifier hostnameVerifier) {
+        // the verified server names are checked by the trust manager of the shared client
+    }
+
+    @Override
+    public void setSslSocketFactory(SSLSocketFactory sslSocketFactory) {
+        // the SSL context is set on the shared client
+    }
+
+    @Override
+    public Certificate[] getServerCertificates() {
+        try {
+            SSLSession session = getResponse().sslSession().orElse(null);
+            if (session != null) {
+                return session.getPeerCertificates();
+            }
+        } catch (SSLPeerUnverifiedException e) {
+        } catch (IOException e) {
+        }
+        return new Certificate[] {};
+    }
+
+    protected synchronized BodyInputStream getResponseBody() {
+        if (responseBody == null) {
+            responseBody = new BodyInputStream(readTimeout, url);
+            response.body().subscribe(responseBody);
+        }
+        return responseBody;
+    }
+
+    protected HttpResponse<Flow.Publisher<List<ByteBuffer>>> getResponse() throws IOException {
+        if (response == null) {
+            if (requestBody != null) {
+                requestBody.close();
+            } else if (responseFuture == null) {
+                responseFuture = send(BodyPublishers.noBody());
+            }
+            try {
+                response = responseFuture.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for a response from " + url);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw new IOException(e.getCause());
+            }
+        }
+        return response;
+    }
+
+    protected CompletableFuture<HttpResponse<Flow.Publisher<List<ByteBuffer>>>> send(BodyPublisher bodyPublisher) throws IOException {
+        HttpRequest.Builder builder;
+        try {
+            builder = HttpRequest.newBuilder(url.toURI());
+        } catch (URISyntaxException e) {
+            throw new IOException(e);
+        }
+        builder.method(method, bodyPublisher);
+        if (readTimeout > 0) {
+            builder.timeout(Duration.ofMillis(readTimeout));
+        }
+        for (Map.Entry<String, List<String>> entry : requestProperties.entrySet()) {
+            if (!RESTRICTED_HEADERS.contains(entry.getKey().toLowerCase())) {
+                for (String value : entry.getValue()) {
+                    builder.header(entry.getKey(), value);
+                }
+            }
+        }
+        HttpClient client = followRedirects ? redirectingHttpClient : httpClient;
+        return client.sendAsync(builder.build(), BodyHandlers.ofPublisher());
+    }
+
+    /**
+     * The response body as a stream. The request timeout only covers the wait for the response headers, so each read waits at most the read
+     * timeout for more of the body to arrive, like the read timeout of {@link java.net.HttpURLConnection}.
+     */
+    static class BodyInputStream extends InputStream implements Flow.Subscriber<List<ByteBuffer>> {
+        private static final List<ByteBuffer> END = new ArrayList<ByteBuffer>();
+        private BlockingQueue<List<ByteBuffer>> buffers = new LinkedBlockingQueue<List<ByteBuffer>>();
+        private volatile Flow.Subscription subscription;
+        private volatile boolean closed;
+        private volatile IOException error;
+        private Iterator<ByteBuffer> currentList;
+        private ByteBuffer currentBuffer;
+        private boolean ended;
+        private int readTimeout;
+        private URL url;
+
+        BodyInputStream(int readTimeout, URL url) {
+            this.readTimeout = readTimeout;
+            this.url = url;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (closed) {
+                subscription.cancel();
+            } else {
+                subscription.request(1);
+            }
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> item) {
+            buffers.offer(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable instanceof IOException ? (IOException) throwable : new IOException(throwable);
+            buffers.offer(END);
+        }
+
+        @Override
+        public void onComplete() {
+            buffers.offer(END);
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            ByteBuffer buffer = nextBuffer();
+            if (buffer == null) {
+                return -1;
+            }
+            int count = Math.min(len, buffer.remaining());
+            buffer.get(b, off, count);
+            return count;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return currentBuffer != null ? currentBuffer.remaining() : 0;
+        }
+
+        protected ByteBuffer nextBuffer() throws IOException {
+            while (currentBuffer == null || !currentBuffer.hasRemaining()) {
+                if (currentList != null && currentList.hasNext()) {
+                    currentBuffer = currentList.next();
+                    continue;
+                }
+                if (closed) {
+                    throw new IOException("Stream closed");
+                }
+                if (ended) {
+                    return null;
+                }
+                List<ByteBuffer> list = null;
+                try {
+                    list = readTimeout > 0 ? buffers.poll(readTimeout, TimeUnit.MILLISECONDS) : buffers.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    close();
+                    throw new InterruptedIOException("Interrupted while reading the response from " + url);
+                }
+                if (list == null) {
+                    close();
+                    throw new SocketTimeoutException("Read timed out after " + readTimeout + " ms waiting for the response from " + url);
+                } else if (list == END) {
+                    ended = true;
+                    if (error != null) {
+                        throw error;
+                    }
+                    return null;
+                }
+                currentList = list.iterator();
+                subscription.request(1);
+            }
+            return currentBuffer;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                Flow.Subscription subscription = this.subscription;
+                if (subscription != null && !ended) {
+                    subscription.cancel();
+                }
+                buffers.clear();
+            }
+        }
+    }
+}
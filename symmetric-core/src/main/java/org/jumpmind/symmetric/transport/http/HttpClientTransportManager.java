@@ -0,0 +1,103 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.transport.http;
+
+import java.io.IOException;
+import java.net.Authenticator;
+import java.net.ProxySelector;
+import java.net.URL;
+import java.security.GeneralSecurityException;
+import java.net.http.HttpClient;
+import java.net.http.HttpClient.Redirect;
+import java.time.Duration;
+
+import javax.net.ssl.SSLContext;
+
+import org.jumpmind.exception.SecurityException;
+import org.jumpmind.symmetric.ISymmetricEngine;
+import org.jumpmind.symmetric.common.ServerConstants;
+import org.jumpmind.symmetric.transport.TransportManagerFactory;
+
+/**
+ * An {@link HttpTransportManager} that sends requests with {@link HttpClient} instead of opening a new {@link java.net.HttpURLConnection} for each
+ * one. The client keeps connections to each node open, uses HTTP/2 when the server offers it, and lets pushes, pulls and acknowledgements to the same
+ * node share one connection instead of paying for a new TLS handshake each time.
+ */
+public class HttpClientTransportManager extends HttpTransportManager {
+    protected HttpClient httpClient;
+    protected HttpClient redirectingHttpClient;
+
+    public HttpClientTransportManager() {
+    }
+
+    public HttpClientTransportManager(ISymmetricEngine engine) {
+        super(engine);
+    }
+
+    @Override
+    protected HttpConnection createConnection(URL url) throws IOException {
+        return new HttpClientConnection(url, getHttpClient(false), getHttpClient(true));
+    }
+
+    protected synchronized HttpClient getHttpClient(boolean followRedirects) {
+        if (followRedirects) {
+            if (redirectingHttpClient == null) {
+                redirectingHttpClient = buildHttpClient(Redirect.NORMAL);
+            }
+            return redirectingHttpClient;
+        } else {
+            if (httpClient == null) {
+                httpClient = buildHttpClient(Redirect.NEVER);
+            }
+            return httpClient;
+        }
+    }
+
+    protected HttpClient buildHttpClient(Redirect redirect) {
+        HttpClient.Builder builder = HttpClient.newBuilder().version(HttpClient.Version.HTTP_2).followRedirects(redirect)
+                .proxy(ProxySelector.getDefault());
+        if (engine != null && getHttpConnectTimeOutInMs() > 0) {
+            builder.connectTimeout(Duration.ofMillis(getHttpConnectTimeOutInMs()));
+        }
+        SSLContext sslContext = getSslContext();
+        if (sslContext != null) {
+            builder.sslContext(sslContext);
+        }
+        Authenticator authenticator = Authenticator.getDefault();
+        if (authenticator != null) {
+            builder.authenticator(authenticator);
+        }
+        return builder.build();
+    }
+
+    /**
+     * @return the context that checks the server certificate and name, or null to use the default context
+     */
+    protected SSLContext getSslContext() {
+        String httpSslVerifiedServerNames = engine != null ? engine.getParameterService().getString(ServerConstants.HTTPS_VERIFIED_SERVERS)
+                : null;
+        try {
+            return TransportManagerFactory.getSslContext(httpSslVerifiedServerNames);
+        } catch (GeneralSecurityException e) {
+            throw new SecurityException(e);
+        }
+    }
+}
@@ -24,13 +24,11 @@ import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
 import java.net.URL;
 import java.net.URLConnection;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.Map;
-import java.util.zip.GZIPOutputStream;
 
 import org.apache.commons.io.IOUtils;
 import org.jumpmind.exception.HttpException;
@@ -44,12 +42,15 @@ import org.jumpmind.symmetric.service.RegistrationPendingException;
 import org.jumpmind.symmetric.service.RegistrationRequiredException;
 import org.jumpmind.symmetric.transport.AuthenticationException;
 import org.jumpmind.symmetric.transport.AuthenticationExpiredException;
+import org.jumpmind.symmetric.transport.CompressionCodecs;
 import org.jumpmind.symmetric.transport.ConnectionDuplicateException;
 import org.jumpmind.symmetric.transport.ConnectionRejectedException;
+import org.jumpmind.symmetric.transport.ICompressionCodec;
 import org.jumpmind.symmetric.transport.IOutgoingWithResponseTransport;
 import org.jumpmind.symmetric.transport.NoReservationException;
 import org.jumpmind.symmetric.transport.ServiceNotReadyException;
 import org.jumpmind.symmetric.transport.ServiceUnavailableException;
+import org.jumpmind.symmetric.transport.StreamBufferedWriter;
 import org.jumpmind.symmetric.transport.SyncDisabledException;
 import org.jumpmind.symmetric.web.WebConstants;
 
@@ -73,6 +74,8 @@ public class HttpOutgoingTransport implements IOutgoingWithResponseTransport {
     private int streamOutputChunkSize = 30720;
     private boolean fileUpload = false;
     private Map<String, String> requestProperties;
+    private String queue;
+    private String remoteAcceptEncoding;
 
     public HttpOutgoingTransport(HttpTransportManager httpTransportManager, URL url, int httpTimeout, int httpConnectTimeout, boolean useCompression,
             int compressionStrategy, int compressionLevel, String nodeId,
@@ -186,6 +189,8 @@ public class HttpOutgoingTransport implements IOutgoingWithResponseTransport {
             connection.setRequestProperty(WebConstants.CHANNEL_QUEUE, queue);
             analyzeResponseCode(connection.getResponseCode());
             httpTransportManager.updateSession(connection);
+            this.queue = queue;
+            this.remoteAcceptEncoding = connection.getHeaderField("Accept-Encoding");
         } catch (IOException ex) {
             throw new IoException(ex);
         }
@@ -208,11 +213,23 @@ public class HttpOutgoingTransport implements IOutgoingWithResponseTransport {
                     connection.setRequestProperty(requestProperty.getKey(), requestProperty.getValue());
                 }
             }
+            ICompressionCodec codec = null;
+            int level = compressionLevel;
             if (!fileUpload) {
                 connection.setRequestMethod("PUT");
                 connection.setRequestProperty("Accept-Encoding", "gzip");
                 if (useCompression) {
-                    connection.addRequestProperty("Content-Type", "gzip"); // application/x-gzip?
+                    String spec = httpTransportManager.getCompressionCodecSpec(getQueue());
+                    level = CompressionCodecs.getLevel(spec, compressionLevel);
+                    // servers that do not advertise codecs during the reservation only understand gzip
+                    codec = CompressionCodecs.negotiate(spec, remoteAcceptEncoding != null ? remoteAcceptEncoding : CompressionCodecs.GZIP);
+                    if (codec != null && codec.getName().equals(CompressionCodecs.IDENTITY)) {
+                        codec = null;
+                    } else if (codec != null && codec.getName().equals(CompressionCodecs.GZIP)) {
+                        connection.addRequestProperty("Content-Type", "gzip"); // application/x-gzip?
+                    } else if (codec != null) {
+                        connection.addRequestProperty("Content-Encoding", codec.getName());
+                    }
                 }
             } else {
                 connection.setRequestMethod("POST");
@@ -220,13 +237,8 @@ public class HttpOutgoingTransport implements IOutgoingWithResponseTransport {
                 connection.setRequestProperty("Content-Type", "multipart/form-data; boundary=" + boundary);
             }
             os = connection.getOutputStream();
-            if (!fileUpload && useCompression) {
-                os = new GZIPOutputStream(os, 128, true) {
-                    {
-                        this.def.setLevel(compressionLevel);
-                        this.def.setStrategy(compressionStrategy);
-                    }
-                };
+            if (codec != null) {
+                os = codec.compress(os, level, compressionStrategy);
             }
             if (fileUpload) {
                 final String fileName = "file.zip";
@@ -245,8 +257,7 @@ public class HttpOutgoingTransport implements IOutgoingWithResponseTransport {
     }
 
     public BufferedWriter openWriter() {
-        OutputStreamWriter wout = new OutputStreamWriter(openStream(), StandardCharsets.UTF_8);
-        writer = new BufferedWriter(wout);
+        writer = new StreamBufferedWriter(openStream(), StandardCharsets.UTF_8);
         return writer;
     }
 
@@ -316,6 +327,13 @@ public class HttpOutgoingTransport implements IOutgoingWithResponseTransport {
         return suspendIgnoreChannelsList;
     }
 
+    protected String getQueue() {
+        if (queue == null && requestProperties != null) {
+            return requestProperties.get(WebConstants.CHANNEL_QUEUE);
+        }
+        return queue;
+    }
+
     public HttpConnection getConnection() {
         return connection;
     }
@@ -33,9 +33,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.zip.GZIPInputStream;
 
-import org.apache.commons.lang3.StringUtils;
 import org.jumpmind.exception.IoException;
 import org.jumpmind.symmetric.AbstractSymmetricEngine;
 import org.jumpmind.symmetric.ISymmetricEngine;
@@ -46,6 +44,8 @@ import org.jumpmind.symmetric.model.BatchId;
 import org.jumpmind.symmetric.model.IncomingBatch;
 import org.jumpmind.symmetric.model.Node;
 import org.jumpmind.symmetric.transport.AbstractTransportManager;
+import org.jumpmind.symmetric.transport.CompressionCodecs;
+import org.jumpmind.symmetric.transport.ICompressionCodec;
 import org.jumpmind.symmetric.transport.IIncomingTransport;
 import org.jumpmind.symmetric.transport.IOutgoingWithResponseTransport;
 import org.jumpmind.symmetric.transport.ITransportManager;
@@ -167,7 +167,7 @@ public class HttpTransportManager extends AbstractTransportManager implements IT
 
     public HttpConnection openConnection(URL url, String nodeId, String securityToken)
             throws IOException {
-        HttpConnection conn = new HttpConnection(url);
+        HttpConnection conn = createConnection(url);
         conn.setRequestProperty(WebConstants.HEADER_ACCEPT_CHARSET, StandardCharsets.UTF_8.name());
         boolean hasSession = false;
         if (useSessionAuth) {
@@ -183,6 +183,10 @@ public class HttpTransportManager extends AbstractTransportManager implements IT
         return conn;
     }
 
+    protected HttpConnection createConnection(URL url) throws IOException {
+        return new HttpConnection(url);
+    }
+
     public void updateSession(HttpConnection conn) {
         if (useSessionAuth) {
             String sessionId = conn.getHeaderField(WebConstants.HEADER_SET_SESSION_ID);
@@ -234,6 +238,10 @@ public class HttpTransportManager extends AbstractTransportManager implements IT
         return engine.getParameterService().getInt(ParameterConstants.TRANSPORT_HTTP_COMPRESSION_STRATEGY);
     }
 
+    public String getCompressionCodecSpec(String queue) {
+        return CompressionCodecs.getCodecSpec(engine.getParameterService(), queue);
+    }
+
     public void writeMessage(OutputStream out, String data) throws IOException {
         PrintWriter pw = new PrintWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), true);
         pw.println(data);
@@ -373,7 +381,7 @@ public class HttpTransportManager extends AbstractTransportManager implements IT
 
     protected HttpConnection createGetConnectionFor(URL url, String nodeId, String securityToken) throws IOException {
         HttpConnection conn = openConnection(url, nodeId, securityToken);
-        conn.setRequestProperty("accept-encoding", "gzip");
+        conn.setRequestProperty("accept-encoding", CompressionCodecs.getAcceptEncoding());
         conn.setConnectTimeout(getHttpConnectTimeOutInMs());
         conn.setReadTimeout(getHttpTimeOutInMs());
         conn.setRequestMethod("GET");
@@ -384,25 +392,21 @@ public class HttpTransportManager extends AbstractTransportManager implements IT
         return createGetConnectionFor(url, null, null);
     }
 
+    /**
+     * If the content is compressed with a known codec, then uncompress.
+     */
     protected static InputStream getInputStreamFrom(HttpConnection connection) throws IOException {
         String type = connection.getContentEncoding();
         InputStream in = connection.getInputStream();
-        if (!StringUtils.isBlank(type) && type.equals("gzip")) {
-            in = new GZIPInputStream(in);
+        ICompressionCodec codec = CompressionCodecs.getCodec(type);
+        if (codec != null) {
+            in = codec.decompress(in);
         }
         return in;
     }
 
-    /**
-     * If the content is gzip'd, then uncompress.
-     */
     protected static BufferedReader getReaderFrom(HttpConnection connection) throws IOException {
-        String type = connection.getContentEncoding();
-        InputStream in = connection.getInputStream();
-        if (!StringUtils.isBlank(type) && type.equals("gzip")) {
-            in = new GZIPInputStream(in);
-        }
-        return TransportUtils.toReader(in);
+        return TransportUtils.toReader(getInputStreamFrom(connection));
     }
 
     /**
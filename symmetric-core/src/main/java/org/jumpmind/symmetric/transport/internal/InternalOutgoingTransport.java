@@ -23,7 +23,6 @@ package org.jumpmind.symmetric.transport.internal;
 import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
 import java.io.UnsupportedEncodingException;
 import java.nio.charset.Charset;
 
@@ -31,6 +30,7 @@ import org.jumpmind.symmetric.model.ChannelMap;
 import org.jumpmind.symmetric.model.Node;
 import org.jumpmind.symmetric.service.IConfigurationService;
 import org.jumpmind.symmetric.transport.IOutgoingTransport;
+import org.jumpmind.symmetric.transport.StreamBufferedWriter;
 
 public class InternalOutgoingTransport implements IOutgoingTransport {
     BufferedWriter writer = null;
@@ -44,7 +44,14 @@ public class InternalOutgoingTransport implements IOutgoingTransport {
 
     public InternalOutgoingTransport(OutputStream os, ChannelMap map, String encoding) throws UnsupportedEncodingException {
         this.os = os;
-        this.writer = new BufferedWriter(new OutputStreamWriter(os, encoding == null ? Charset.defaultCharset().name() : encoding));
+        Charset charset = Charset.defaultCharset();
+        if (encoding != null) {
+            if (!Charset.isSupported(encoding)) {
+                throw new UnsupportedEncodingException(encoding);
+            }
+            charset = Charset.forName(encoding);
+        }
+        this.writer = new StreamBufferedWriter(os, charset);
         this.map = map;
     }
 
@@ -27,9 +27,11 @@ import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.jumpmind.symmetric.AbstractSymmetricEngine;
 import org.jumpmind.symmetric.ISymmetricEngine;
@@ -101,6 +103,22 @@ public class CacheManagerTest {
         when(engine.getTransformService()).thenReturn(transformService);
     }
 
+    @Test
+    public void routerCacheExpressionTest() {
+        when(parameterService.getInt(ParameterConstants.CACHE_ROUTER_MAX_ENTRIES, 1000)).thenReturn(1000);
+        CacheManager cacheManager = new CacheManager(engine);
+        Router router = new Router();
+        router.setRouterId("router1");
+        router.setLastUpdateTime(new Date(1000l));
+        router.setRouterExpression("Aa");
+        assertEquals("Aa", cacheManager.getRouterCache().get(router, "expression", () -> router.getRouterExpression()));
+        // "BB" has the same hash code as "Aa", so the key must include the whole expression
+        router.setRouterExpression("BB");
+        assertEquals("BB", cacheManager.getRouterCache().get(router, "expression", () -> router.getRouterExpression()));
+        assertEquals("BB", cacheManager.getRouterCache().get(router, "expression", () -> "reloaded"));
+        assertEquals(2, cacheManager.getRouterCache().size());
+    }
+
     @Test
     public void triggerRoutersCacheTest() {
         List<TriggerRouter> triggerRoutersList = Arrays.asList(new TriggerRouter());
@@ -689,4 +707,34 @@ public class CacheManagerTest {
         assertEquals(1, cache.get(nodeGroupLink1).get(transformTable1.getTransformPoint()).size());
         assertEquals(transformTable2.getTransformId(), cache.get(nodeGroupLink1).get(transformTable1.getTransformPoint()).get(0).getTransformId());
     }
+
+    @Test
+    public void routerCacheTest() {
+        when(parameterService.getInt(ParameterConstants.CACHE_ROUTER_MAX_ENTRIES, 1000)).thenReturn(2);
+        CacheManager cacheManager = new CacheManager(engine);
+        RouterCache cache = cacheManager.getRouterCache();
+        Router router = new Router();
+        router.setRouterId("router1");
+        router.setRouterExpression("STATUS=OK");
+        router.setLastUpdateTime(new Date(1000l));
+        AtomicInteger loads = new AtomicInteger();
+        assertEquals("STATUS=OK", cache.get(router, "expression", () -> loads.incrementAndGet() > 0 ? router.getRouterExpression() : null));
+        assertEquals("STATUS=OK", cache.get(router, "expression", () -> loads.incrementAndGet() > 0 ? router.getRouterExpression() : null));
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        router.setLastUpdateTime(new Date(2000l));
+        cache.get(router, "expression", () -> loads.incrementAndGet());
+        assertEquals(2, loads.get());
+        router.setRouterExpression("STATUS=NOT_OK");
+        cache.get(router, "expression", () -> loads.incrementAndGet());
+        assertEquals(3, loads.get());
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals("RouterCache [size=2, hits=1, misses=3, evictions=1]", cache.toString());
+        cacheManager.flushRouters();
+        assertEquals(0, cache.size());
+        cache.get(router, "expression", () -> loads.incrementAndGet());
+        assertEquals(4, loads.get());
+    }
 }
@@ -0,0 +1,116 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.extract;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jumpmind.symmetric.model.AbstractBatch.Status;
+import org.jumpmind.symmetric.model.OutgoingBatch;
+import org.junit.jupiter.api.Test;
+
+public class ExtractRangeTest {
+    @Test
+    public void testSplit() {
+        long[] rowCounts = new long[30];
+        Arrays.fill(rowCounts, 10);
+        List<ExtractRange> ranges = ExtractRange.split("\"id\"", 1, 300, rowCounts, getBatches(10), 3, 40);
+        assertEquals(3, ranges.size());
+        assertEquals("\"id\" < 101", ranges.get(0).getCondition());
+        assertEquals("\"id\" >= 101 and \"id\" < 201", ranges.get(1).getCondition());
+        assertEquals("\"id\" >= 201", ranges.get(2).getCondition());
+        assertEquals(100, ranges.get(0).getStartBatchId());
+        assertEquals(103, ranges.get(0).getEndBatchId());
+        assertEquals(104, ranges.get(1).getStartBatchId());
+        assertEquals(106, ranges.get(1).getEndBatchId());
+        assertEquals(107, ranges.get(2).getStartBatchId());
+        assertEquals(109, ranges.get(2).getEndBatchId());
+        assertEquals(3, ranges.get(2).getRangeNumber());
+    }
+
+    @Test
+    public void testSplitSkewed() {
+        long[] rowCounts = new long[30];
+        Arrays.fill(rowCounts, 1);
+        rowCounts[0] = 100;
+        rowCounts[1] = 100;
+        List<ExtractRange> ranges = ExtractRange.split("\"id\"", 1, 3000, rowCounts, getBatches(12), 3, 25);
+        assertEquals(3, ranges.size());
+        assertEquals("\"id\" < 101", ranges.get(0).getCondition());
+        assertEquals("\"id\" >= 101 and \"id\" < 201", ranges.get(1).getCondition());
+        assertEquals("\"id\" >= 201", ranges.get(2).getCondition());
+        assertEquals(5, ranges.get(0).getBatches().size());
+        assertEquals(5, ranges.get(1).getBatches().size());
+        assertEquals(2, ranges.get(2).getBatches().size());
+        assertEquals(100, ranges.get(0).getStartBatchId());
+        assertEquals(105, ranges.get(1).getStartBatchId());
+        assertEquals(111, ranges.get(2).getEndBatchId());
+        for (int i = 0; i < ranges.size(); i++) {
+            long rows = i == 0 ? 100 : i == 1 ? 100 : 28;
+            assertTrue(rows <= ranges.get(i).getBatches().size() * 25L);
+        }
+    }
+
+    @Test
+    public void testSplitNotEnoughBatches() {
+        long[] rowCounts = new long[30];
+        Arrays.fill(rowCounts, 1);
+        rowCounts[0] = 100;
+        rowCounts[1] = 100;
+        assertNull(ExtractRange.split("\"id\"", 1, 3000, rowCounts, getBatches(9), 3, 25));
+    }
+
+    @Test
+    public void testSplitAllRowsInOneSubRange() {
+        long[] rowCounts = new long[30];
+        rowCounts[5] = 500;
+        List<ExtractRange> ranges = ExtractRange.split("\"id\"", 1, 3000, rowCounts, getBatches(30), 3, 25);
+        assertEquals(2, ranges.size());
+        assertEquals("\"id\" < 601", ranges.get(0).getCondition());
+        assertEquals("\"id\" >= 601", ranges.get(1).getCondition());
+        assertEquals(29, ranges.get(0).getBatches().size());
+        assertEquals(1, ranges.get(1).getBatches().size());
+        assertEquals(2, ranges.get(1).getRangeCount());
+    }
+
+    @Test
+    public void testAddCondition() {
+        assertEquals("id < 10", ExtractRange.addCondition(null, "id < 10"));
+        assertEquals("(1=1) and id < 10", ExtractRange.addCondition("1=1", "id < 10"));
+        assertEquals("(status = 'A' or x = 1) and id < 10", ExtractRange.addCondition(" where status = 'A' or x = 1", "id < 10"));
+        assertEquals("(1=1) and id < 10 order by id", ExtractRange.addCondition("1=1 order by id", "id < 10"));
+    }
+
+    protected List<OutgoingBatch> getBatches(int count) {
+        List<OutgoingBatch> batches = new ArrayList<OutgoingBatch>();
+        for (int i = 0; i < count; i++) {
+            OutgoingBatch batch = new OutgoingBatch("00001", "reload", Status.RQ);
+            batch.setBatchId(100 + i);
+            batches.add(batch);
+        }
+        return batches;
+    }
+}
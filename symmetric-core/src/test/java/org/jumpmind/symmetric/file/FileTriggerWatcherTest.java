@@ -0,0 +1,154 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.file;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.jumpmind.symmetric.file.FileTriggerFileModifiedListener.FileModifiedCallback;
+import org.jumpmind.symmetric.model.FileSnapshot;
+import org.jumpmind.symmetric.model.FileSnapshot.LastEventType;
+import org.jumpmind.symmetric.model.FileTrigger;
+import org.jumpmind.symmetric.model.FileTriggerRouter;
+import org.jumpmind.symmetric.model.Router;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class FileTriggerWatcherTest {
+    File directory = new File("target/watch");
+    File subdirectory = new File(directory, "a");
+    File fileInDirectory = new File(directory, "1.txt");
+    File fileInSubDirectory = new File(subdirectory, "2.doc");
+    FileTriggerRouter fileTriggerRouter;
+    FileTriggerWatcher watcher;
+    Map<String, DirectorySnapshot> lastSnapshots;
+    DirectorySnapshot changes;
+
+    @BeforeEach
+    public void setupTest() throws Exception {
+        FileUtils.deleteQuietly(directory);
+        subdirectory.mkdirs();
+        FileUtils.write(fileInDirectory, "abc", Charset.defaultCharset(), false);
+        FileUtils.write(fileInSubDirectory, "abc", Charset.defaultCharset(), false);
+        fileTriggerRouter = new FileTriggerRouter(new FileTrigger(directory.getPath(), true, null, null), new Router());
+        DirectorySnapshot fullSnapshot = new DirectorySnapshot(fileTriggerRouter);
+        new FileTriggerTracker(fileTriggerRouter, null, null, true, null).takeFullSnapshot(fullSnapshot);
+        lastSnapshots = new HashMap<String, DirectorySnapshot>();
+        for (FileSnapshot fileSnapshot : fullSnapshot) {
+            getLastSnapshot(fileSnapshot.getRelativeDir()).add(fileSnapshot);
+        }
+        changes = new DirectorySnapshot(fileTriggerRouter);
+        watcher = new FileTriggerWatcher(fileTriggerRouter, null);
+    }
+
+    @AfterEach
+    public void teardownTest() {
+        watcher.close();
+        FileUtils.deleteQuietly(directory);
+    }
+
+    @Test
+    public void testFullScanNeededBeforeWatching() throws Exception {
+        assertTrue(watcher.isFullScanNeeded());
+        assertFalse(watcher.trackChanges(null, null, createCallback()));
+        watcher.startWatching();
+        assertFalse(watcher.isFullScanNeeded());
+        assertTrue(watcher.trackChanges(null, null, createCallback()));
+        assertEquals(0, changes.size());
+    }
+
+    @Test
+    public void testTrackCreateAndModify() throws Exception {
+        watcher.startWatching();
+        File newDirectory = new File(subdirectory, "b");
+        newDirectory.mkdirs();
+        FileUtils.write(new File(newDirectory, "3.csv"), "1,2,3", Charset.defaultCharset(), false);
+        FileUtils.write(fileInSubDirectory, "abcdef", Charset.defaultCharset(), false);
+        waitForChanges(3);
+        assertEquals(LastEventType.CREATE, getChange("b").getLastEventType());
+        assertEquals(LastEventType.CREATE, getChange("3.csv").getLastEventType());
+        assertEquals("a/b", getChange("3.csv").getRelativeDir());
+        FileSnapshot modified = getChange("2.doc");
+        assertEquals(LastEventType.MODIFY, modified.getLastEventType());
+        assertEquals(6, modified.getFileSize());
+        assertTrue(modified.getCrc32Checksum() != getLastSnapshot("a").get(0).getCrc32Checksum());
+    }
+
+    @Test
+    public void testTrackDeletedDirectory() throws Exception {
+        watcher.startWatching();
+        FileUtils.deleteDirectory(subdirectory);
+        waitForChanges(2);
+        assertEquals(LastEventType.DELETE, getChange("a").getLastEventType());
+        assertEquals(LastEventType.DELETE, getChange("2.doc").getLastEventType());
+        assertNull(getChange("1.txt"));
+    }
+
+    protected void waitForChanges(int count) throws Exception {
+        long start = System.currentTimeMillis();
+        while (changes.size() < count && System.currentTimeMillis() - start < 10000) {
+            assertTrue(watcher.trackChanges(null, new FileChecksumCalculator(null, 1), createCallback()));
+            Thread.sleep(50);
+        }
+        assertEquals(count, changes.size());
+    }
+
+    protected FileSnapshot getChange(String fileName) {
+        for (FileSnapshot change : changes) {
+            if (change.getFileName().equals(fileName)) {
+                return change;
+            }
+        }
+        return null;
+    }
+
+    protected DirectorySnapshot getLastSnapshot(String relativeDir) {
+        DirectorySnapshot snapshot = lastSnapshots.get(relativeDir);
+        if (snapshot == null) {
+            snapshot = new DirectorySnapshot(fileTriggerRouter);
+            lastSnapshots.put(relativeDir, snapshot);
+        }
+        return snapshot;
+    }
+
+    protected FileModifiedCallback createCallback() {
+        return new FileModifiedCallback(1000) {
+            public void commit(DirectorySnapshot dirSnapshot) {
+                for (FileSnapshot change : dirSnapshot) {
+                    DirectorySnapshot lastSnapshot = getLastSnapshot(change.getRelativeDir());
+                    lastSnapshot.removeIf(lastFile -> lastFile.sameFile(change));
+                    lastSnapshot.add(change);
+                }
+                changes.addAll(dirSnapshot);
+            }
+
+            public DirectorySnapshot getLastDirectorySnapshot(String relativeDir) {
+                return new DirectorySnapshot(fileTriggerRouter, getLastSnapshot(relativeDir));
+            }
+        };
+    }
+}
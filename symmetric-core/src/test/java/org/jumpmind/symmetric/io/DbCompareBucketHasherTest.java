@@ -0,0 +1,84 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.sql.Types;
+import java.util.Arrays;
+
+import org.jumpmind.db.model.Column;
+import org.jumpmind.db.model.Table;
+import org.jumpmind.db.platform.DatabaseInfo;
+import org.jumpmind.db.platform.IDatabasePlatform;
+import org.jumpmind.symmetric.io.DbCompareBucketHasher.Digest;
+import org.junit.jupiter.api.Test;
+
+public class DbCompareBucketHasherTest {
+    @Test
+    public void testIsSupported() {
+        assertTrue(DbCompareBucketHasher.isSupported("postgres"));
+        assertTrue(DbCompareBucketHasher.isSupported("mssql2016"));
+        assertFalse(DbCompareBucketHasher.isSupported("sqlite"));
+        assertTrue(DbCompareBucketHasher.isSupported(new Table("item", new Column("id", true, Types.BIGINT, 0, 0),
+                new Column("name", false, Types.VARCHAR, 50, 0))));
+        assertFalse(DbCompareBucketHasher.isSupported(new Table("item", new Column("id", true, Types.VARCHAR, 50, 0))));
+        assertFalse(DbCompareBucketHasher.isSupported(new Table("item", new Column("id", true, Types.INTEGER, 0, 0),
+                new Column("photo", false, Types.BLOB, 0, 0))));
+    }
+
+    @Test
+    public void testBucketSql() {
+        Column id = new Column("id", true, Types.INTEGER, 0, 0);
+        Column name = new Column("name", false, Types.VARCHAR, 50, 0);
+        Table table = new Table("item", id, name);
+        DbCompareBucketHasher hasher = new DbCompareBucketHasher(getPlatform("postgres"), table, Arrays.asList(id, name), id, "1=1");
+        assertEquals("select floor((t.\"id\" - 10) / 5) as bucket_id, count(*) as row_count, "
+                + "sum(('x' || substr(md5(coalesce(cast(t.\"id\" as varchar), '~') || '|' || coalesce(cast(t.\"name\" as varchar), '~')), 1, 8))"
+                + "::bit(32)::bigint) as row_hash from \"item\" t where (1=1) and t.\"id\" between 10 and 59 group by floor((t.\"id\" - 10) / 5)",
+                hasher.getBucketSql(10, 59, 5));
+        hasher = new DbCompareBucketHasher(getPlatform("mysql"), table, Arrays.asList(id, name), id, "1=1");
+        assertEquals("crc32(concat_ws('|', coalesce(cast(t.\"id\" as char), '~'), coalesce(cast(t.\"name\" as char), '~')))",
+                hasher.getRowHashSql());
+    }
+
+    @Test
+    public void testDigestMatches() {
+        assertTrue(new Digest(2, new BigDecimal("100")).matches(new Digest(2, new BigDecimal("100.0"))));
+        assertFalse(new Digest(2, new BigDecimal("100")).matches(new Digest(3, new BigDecimal("100"))));
+        assertFalse(new Digest(2, new BigDecimal("100")).matches(new Digest(2, new BigDecimal("101"))));
+        assertFalse(new Digest(2, new BigDecimal("100")).matches(null));
+    }
+
+    protected IDatabasePlatform getPlatform(String name) {
+        DatabaseInfo databaseInfo = new DatabaseInfo();
+        databaseInfo.setDelimiterToken("\"");
+        IDatabasePlatform platform = mock(IDatabasePlatform.class);
+        when(platform.getName()).thenReturn(name);
+        when(platform.getDatabaseInfo()).thenReturn(databaseInfo);
+        return platform;
+    }
+}
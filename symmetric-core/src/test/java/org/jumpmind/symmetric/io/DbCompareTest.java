@@ -0,0 +1,90 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.jumpmind.db.DbTestUtils;
+import org.jumpmind.db.model.Table;
+import org.jumpmind.db.platform.IDatabasePlatform;
+import org.jumpmind.db.sql.ISqlTemplate;
+import org.jumpmind.symmetric.ISymmetricEngine;
+import org.jumpmind.symmetric.db.ISymmetricDialect;
+import org.jumpmind.symmetric.io.DbCompareReport.TableReport;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class DbCompareTest {
+    private static final String TABLE = "DBCOMPARE_ITEM";
+    private static IDatabasePlatform sourcePlatform;
+    private static IDatabasePlatform targetPlatform;
+
+    @BeforeAll
+    public static void setup() throws Exception {
+        sourcePlatform = DbTestUtils.createDatabasePlatform(DbTestUtils.ROOT);
+        targetPlatform = DbTestUtils.createDatabasePlatform(DbTestUtils.CLIENT);
+    }
+
+    @Test
+    public void testCompareBuckets() throws Exception {
+        createTable(sourcePlatform);
+        createTable(targetPlatform);
+        ISqlTemplate targetTemplate = targetPlatform.getSqlTemplate();
+        targetTemplate.update("update " + TABLE + " set name = 'changed' where id = 50");
+        targetTemplate.update("delete from " + TABLE + " where id = 120");
+        targetTemplate.update("insert into " + TABLE + " (id, name) values (250, 'extra')");
+        DbCompareConfig config = new DbCompareConfig();
+        config.setBucketCompare(true);
+        config.setBucketCount(10);
+        config.setBucketRows(5);
+        DbCompare dbCompare = new DbCompare(getEngine(sourcePlatform), getEngine(targetPlatform), config);
+        Table sourceTable = sourcePlatform.readTableFromDatabase(null, null, TABLE);
+        Table targetTable = targetPlatform.readTableFromDatabase(null, null, TABLE);
+        DbCompareTables tables = new DbCompareTables(sourceTable, targetTable);
+        tables.applyColumnMappings();
+        TableReport report = dbCompare.compareTables(tables, null);
+        assertEquals(198, report.getMatchedRows());
+        assertEquals(1, report.getDifferentRows());
+        assertEquals(1, report.getMissingRows());
+        assertEquals(1, report.getExtraRows());
+        assertEquals(0, report.getErrorRows());
+    }
+
+    protected void createTable(IDatabasePlatform platform) {
+        ISqlTemplate template = platform.getSqlTemplate();
+        template.update("drop table if exists " + TABLE);
+        template.update("create table " + TABLE + " (id integer not null primary key, name varchar(50))");
+        for (int i = 1; i <= 200; i++) {
+            template.update("insert into " + TABLE + " (id, name) values (?, ?)", i, "name " + i);
+        }
+    }
+
+    protected ISymmetricEngine getEngine(IDatabasePlatform platform) {
+        ISymmetricDialect dialect = mock(ISymmetricDialect.class);
+        when(dialect.getTargetPlatform()).thenReturn(platform);
+        ISymmetricEngine engine = mock(ISymmetricEngine.class);
+        when(engine.getTargetDialect()).thenReturn(dialect);
+        when(engine.getDatabasePlatform()).thenReturn(platform);
+        return engine;
+    }
+}
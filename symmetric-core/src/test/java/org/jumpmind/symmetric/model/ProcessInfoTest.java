@@ -0,0 +1,73 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.model;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.jumpmind.symmetric.model.ProcessInfo.ProcessStatus;
+import org.junit.jupiter.api.Test;
+
+public class ProcessInfoTest {
+    @Test
+    public void testConcurrentUpdates() throws Exception {
+        ProcessInfo info = new ProcessInfo(new ProcessInfoKey("00000", "00001", ProcessType.PUSH_JOB_EXTRACT));
+        int threadCount = 8;
+        int rowCount = 100000;
+        CountDownLatch start = new CountDownLatch(threadCount);
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            List<Callable<Object>> workers = new ArrayList<Callable<Object>>();
+            for (int i = 0; i < threadCount; i++) {
+                final long batchId = i;
+                workers.add(() -> {
+                    start.countDown();
+                    start.await();
+                    info.setStatus(ProcessStatus.EXTRACTING);
+                    info.setCurrentBatchId(batchId);
+                    info.incrementBatchCount();
+                    for (int j = 0; j < rowCount; j++) {
+                        info.incrementCurrentDataCount();
+                    }
+                    info.incrementCurrentBatchCount();
+                    return null;
+                });
+            }
+            for (Future<Object> future : executor.invokeAll(workers)) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(threadCount * rowCount, info.getCurrentDataCount());
+        assertEquals(threadCount * rowCount, info.getTotalDataCount());
+        assertEquals(threadCount, info.getTotalBatchCount());
+        assertEquals(threadCount, info.getCurrentBatchCount());
+        assertEquals(ProcessStatus.EXTRACTING, info.getStatus());
+    }
+}
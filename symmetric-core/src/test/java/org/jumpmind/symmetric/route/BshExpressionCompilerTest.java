@@ -0,0 +1,70 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.route;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+public class BshExpressionCompilerTest {
+    @Test
+    public void testSimpleExpressions() {
+        BshExpressionCompiler compiler = new BshExpressionCompiler();
+        assertEquals("eq(get(variables, \"STATUS\"), \"A\")", compiler.toJavaExpression("STATUS.equals(\"A\")"));
+        assertEquals("eq(get(variables, \"STATUS\"), \"A\")", compiler.toJavaExpression("return STATUS.equals(\"A\");"));
+        assertEquals("(eq(\"A\", get(variables, \"STATUS\")) || !initialLoad)", compiler.toJavaExpression("\"A\".equals(STATUS) || !initialLoad"));
+        assertEquals("((get(variables, \"OLD_STATUS\") != null) && str(get(variables, \"NAME\")).trim().startsWith(identityNodeId))",
+                compiler.toJavaExpression("(OLD_STATUS != null) && NAME.trim().startsWith(identityNodeId)"));
+        assertEquals("eq(get(variables, \"ID\"), 10)", compiler.toJavaExpression("ID.equals(10)"));
+        assertNotNull(compiler.toJavaCode("FLAG"));
+    }
+
+    @Test
+    public void testExpressionsLeftForInterpreter() {
+        BshExpressionCompiler compiler = new BshExpressionCompiler();
+        assertNull(compiler.toJavaExpression(null));
+        assertNull(compiler.toJavaExpression(""));
+        assertNull(compiler.toJavaExpression("targetNodes.add(identityNodeId);"));
+        assertNull(compiler.toJavaExpression("STATUS.equals(\"A\"); return true;"));
+        assertNull(compiler.toJavaExpression("status.equals(\"A\")"));
+        assertNull(compiler.toJavaExpression("STATUS == \"A\""));
+        assertNull(compiler.toJavaExpression("ID == 10"));
+        assertNull(compiler.toJavaExpression("STATUS.equals(null)"));
+        assertNull(compiler.toJavaExpression("STATUS.substring(1)"));
+        assertNull(compiler.toJavaExpression("STATUS.equals(\"A\\u0041\")"));
+        assertNull(compiler.toJavaExpression("ID.equals(010)"));
+        assertNull(compiler.toJavaExpression("(STATUS.equals(\"A\")"));
+    }
+
+    @Test
+    public void testNotPrecedence() {
+        BshExpressionCompiler compiler = new BshExpressionCompiler();
+        assertEquals("!eq(get(variables, \"STATUS\"), \"A\")", compiler.toJavaExpression("!STATUS.equals(\"A\")"));
+        assertEquals("(!bool(get(variables, \"FLAG\")) && initialLoad)", compiler.toJavaExpression("!FLAG && initialLoad"));
+        assertEquals("!(get(variables, \"STATUS\") == null)", compiler.toJavaExpression("!(STATUS == null)"));
+        assertEquals("(get(variables, \"STATUS\") != null)", compiler.toJavaExpression("STATUS != null"));
+        // ! applies to STATUS only, and comparing a boolean with == is left for the interpreter
+        assertNull(compiler.toJavaExpression("!STATUS == null"));
+        assertNull(compiler.toJavaExpression("STATUS == !FLAG"));
+    }
+}
@@ -179,6 +179,58 @@ public class DataGapDetectorTest {
 		verifyNoMoreInteractions(dataService);
 	}
 
+	@Test
+	public void testGapWalkSplitsGaps() throws Exception {
+		List<DataGap> dataGaps = new ArrayList<DataGap>();
+		dataGaps.add(new DataGap(5, 10));
+		dataGaps.add(new DataGap(20, 30));
+		dataGaps.add(new DataGap(31, 50000031));
+		// unsorted, with a duplicate and with IDs before and between the gaps
+		List<Long> dataIds = new ArrayList<Long>();
+		for (long dataId : new long[] { 25, 7, 2, 22, 7, 9, 15, 40 }) {
+			dataIds.add(dataId);
+		}
+		runGapDetector(dataGaps, dataIds, true);
+		Set<DataGap> deleted = new HashSet<DataGap>();
+		deleted.add(new DataGap(5, 10));
+		deleted.add(new DataGap(20, 30));
+		deleted.add(new DataGap(31, 50000031));
+		Set<DataGap> inserted = new HashSet<DataGap>();
+		inserted.add(new DataGap(5, 6));
+		inserted.add(new DataGap(8, 8));
+		inserted.add(new DataGap(10, 10));
+		inserted.add(new DataGap(20, 21));
+		inserted.add(new DataGap(23, 24));
+		inserted.add(new DataGap(26, 30));
+		inserted.add(new DataGap(31, 39));
+		inserted.add(new DataGap(41, 50000040));
+		verify(dataService).findDataGaps();
+		verify(dataService).deleteDataGaps(sqlTransaction, deleted);
+		verify(dataService).insertDataGaps(sqlTransaction, inserted);
+		verify(dataService).expireDataGaps(sqlTransaction, new HashSet<DataGap>());
+		verifyNoMoreInteractions(dataService);
+	}
+
+	@Test
+	public void testGapWalkDataAtGapBoundaries() throws Exception {
+		List<DataGap> dataGaps = new ArrayList<DataGap>();
+		dataGaps.add(new DataGap(5, 10));
+		dataGaps.add(new DataGap(11, 50000011));
+		List<Long> dataIds = new ArrayList<Long>();
+		dataIds.add(10L);
+		dataIds.add(5L);
+		runGapDetector(dataGaps, dataIds, true);
+		Set<DataGap> deleted = new HashSet<DataGap>();
+		deleted.add(new DataGap(5, 10));
+		Set<DataGap> inserted = new HashSet<DataGap>();
+		inserted.add(new DataGap(6, 9));
+		verify(dataService).findDataGaps();
+		verify(dataService).deleteDataGaps(sqlTransaction, deleted);
+		verify(dataService).insertDataGaps(sqlTransaction, inserted);
+		verify(dataService).expireDataGaps(sqlTransaction, new HashSet<DataGap>());
+		verifyNoMoreInteractions(dataService);
+	}
+
 	@Test
 	public void testNewGapFull() throws Exception {
 		detector.setFullGapAnalysis(true);
@@ -355,6 +407,32 @@ public class DataGapDetectorTest {
 		verifyNoMoreInteractions(dataService);
 	}
 
+	@Test
+	public void testGapExpireEdges() throws Exception {
+		Date oldDate = new Date(System.currentTimeMillis() - 70000000L);
+		List<DataGap> dataGaps = new ArrayList<DataGap>();
+		dataGaps.add(new DataGap(3, 3, null));
+		dataGaps.add(new DataGap(5, 6, oldDate));
+		dataGaps.add(new DataGap(8, 9, new Date()));
+		dataGaps.add(new DataGap(11, 12, oldDate));
+		dataGaps.add(new DataGap(13, 50000013, oldDate));
+		List<Long> dataIds = new ArrayList<Long>();
+		dataIds.add(11L);
+		runGapDetector(dataGaps, dataIds, true);
+		// gaps without a create time, recent gaps, gaps with data and the last gap are not expired
+		Set<DataGap> expiredGaps = new HashSet<DataGap>();
+		expiredGaps.add(new DataGap(5, 6));
+		Set<DataGap> deleted = new HashSet<DataGap>();
+		deleted.add(new DataGap(11, 12));
+		Set<DataGap> inserted = new HashSet<DataGap>();
+		inserted.add(new DataGap(12, 12));
+		verify(dataService).findDataGaps();
+		verify(dataService).deleteDataGaps(sqlTransaction, deleted);
+		verify(dataService).insertDataGaps(sqlTransaction, inserted);
+		verify(dataService).expireDataGaps(sqlTransaction, expiredGaps);
+		verifyNoMoreInteractions(dataService);
+	}
+
 	@Test
 	public void testGapExpireBusyChannel() throws Exception {
 		List<DataGap> dataGaps = new ArrayList<DataGap>();
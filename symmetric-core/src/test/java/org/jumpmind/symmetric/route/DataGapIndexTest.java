@@ -0,0 +1,86 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.route;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jumpmind.symmetric.model.DataGap;
+import org.junit.jupiter.api.Test;
+
+public class DataGapIndexTest {
+    @Test
+    public void testContains() {
+        List<DataGap> gaps = new ArrayList<DataGap>();
+        gaps.add(new DataGap(10, 20));
+        gaps.add(new DataGap(25, 25));
+        gaps.add(new DataGap(30, Long.MAX_VALUE));
+        DataGapIndex index = new DataGapIndex(gaps);
+        assertEquals(3, index.size());
+        assertFalse(index.contains(9));
+        assertTrue(index.contains(10));
+        assertTrue(index.contains(20));
+        assertFalse(index.contains(21));
+        assertTrue(index.contains(25));
+        assertFalse(index.contains(29));
+        assertTrue(index.contains(1000000));
+        assertEquals(1, index.indexOf(25));
+        assertEquals(-1, index.indexOf(26));
+    }
+
+    @Test
+    public void testNextIndex() {
+        List<DataGap> gaps = new ArrayList<DataGap>();
+        for (int i = 0; i < 10000; i++) {
+            gaps.add(new DataGap(i * 10, i * 10 + 4));
+        }
+        DataGapIndex index = new DataGapIndex(gaps);
+        int gapIndex = 0;
+        int inGapCount = 0;
+        for (long dataId = 0; dataId < 100000; dataId++) {
+            gapIndex = index.nextIndex(dataId, gapIndex);
+            if (gapIndex < index.size() && dataId >= index.getStartId(gapIndex)) {
+                inGapCount++;
+                assertTrue(dataId % 10 < 5);
+            }
+        }
+        assertEquals(50000, inGapCount);
+        assertEquals(index.size(), index.nextIndex(100000, 0));
+    }
+
+    @Test
+    public void testUnsortedAndOverlappingGaps() {
+        List<DataGap> gaps = new ArrayList<DataGap>();
+        gaps.add(new DataGap(50, 60));
+        gaps.add(new DataGap(1, 100));
+        gaps.add(new DataGap(70, 80));
+        DataGapIndex index = new DataGapIndex(gaps);
+        assertEquals(1, index.getStartId(0));
+        assertTrue(index.contains(65));
+        assertTrue(index.contains(100));
+        assertFalse(index.contains(101));
+        assertFalse(new DataGapIndex(new ArrayList<DataGap>()).contains(1));
+    }
+}
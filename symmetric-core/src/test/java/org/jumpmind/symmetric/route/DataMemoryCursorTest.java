@@ -0,0 +1,85 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.route;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.jumpmind.db.sql.ISqlTransaction;
+import org.jumpmind.symmetric.io.stage.StagingManager;
+import org.jumpmind.symmetric.model.Data;
+import org.jumpmind.symmetric.model.NodeChannel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class DataMemoryCursorTest {
+    static final File DIR = new File("target/tmp/memorycursor");
+    StagingManager stagingManager;
+    ChannelRouterContext context;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        FileUtils.deleteDirectory(DIR);
+        stagingManager = new StagingManager(DIR.getAbsolutePath(), false);
+        context = new ChannelRouterContext("00000", new NodeChannel("testchannel"), mock(ISqlTransaction.class), null);
+    }
+
+    @Test
+    public void testSortInMemory() throws Exception {
+        DataMemoryCursor cursor = new DataMemoryCursor(new ListReadCursor(buildData(49)), context, DataMemoryCursor.SORT_BY_ID);
+        assertSorted(cursor, 49);
+    }
+
+    @Test
+    public void testSortWithSpill() throws Exception {
+        DataMemoryCursor cursor = new DataMemoryCursor(new ListReadCursor(buildData(49)), context, DataMemoryCursor.SORT_BY_ID, 200,
+                stagingManager);
+        assertSorted(cursor, 49);
+    }
+
+    protected void assertSorted(DataMemoryCursor cursor, int count) {
+        for (int i = 0; i < count; i++) {
+            Data data = cursor.next();
+            assertEquals(i, data.getDataId());
+            assertEquals("row " + i, data.getRowData());
+        }
+        assertNull(cursor.next());
+        cursor.close();
+    }
+
+    protected List<Data> buildData(int count) {
+        List<Data> list = new ArrayList<Data>();
+        for (int i = 0; i < count; i++) {
+            // reverse every group of seven so each spilled run needs sorting
+            int id = (i / 7) * 7 + (6 - i % 7);
+            if (id < count) {
+                list.add(new Data(id, null, "row " + id, null, "table1", null, null, "testchannel", "1", null));
+            }
+        }
+        return list;
+    }
+}
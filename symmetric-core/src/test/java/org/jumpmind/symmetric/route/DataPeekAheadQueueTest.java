@@ -0,0 +1,86 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.route;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.sql.Timestamp;
+import java.util.Iterator;
+
+import org.apache.commons.io.FileUtils;
+import org.jumpmind.symmetric.io.data.DataEventType;
+import org.jumpmind.symmetric.io.stage.StagingManager;
+import org.jumpmind.symmetric.model.Data;
+import org.jumpmind.symmetric.model.TriggerHistory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class DataPeekAheadQueueTest {
+    static final File DIR = new File("target/tmp/peekahead");
+    StagingManager stagingManager;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        FileUtils.deleteDirectory(DIR);
+        stagingManager = new StagingManager(DIR.getAbsolutePath(), false);
+    }
+
+    @Test
+    public void testSpillKeepsOrder() throws Exception {
+        TriggerHistory triggerHistory = new TriggerHistory("table1", "id", "id,name");
+        DataPeekAheadQueue queue = new DataPeekAheadQueue(10, 100, stagingManager, "testchannel");
+        for (int i = 0; i < 20; i++) {
+            Data data = new Data(i, Integer.toString(i), i + ",\"name " + i + "\"", DataEventType.INSERT, "table1",
+                    new Timestamp(1000 + i), triggerHistory, "testchannel", Integer.toString(i % 2), "00000");
+            queue.add(data);
+        }
+        assertTrue(queue.getSpilledCount() > 0);
+        assertTrue(queue.getMemorySizeInBytes() <= 100);
+        Iterator<DataPeekAheadQueue.Entry> entries = queue.iterator();
+        while (entries.hasNext()) {
+            DataPeekAheadQueue.Entry entry = entries.next();
+            if ("1".equals(entry.getTransactionId())) {
+                Data data = queue.load(entry);
+                entries.remove();
+                assertEquals(1, data.getDataId() % 2);
+            }
+        }
+        assertEquals(10, queue.size());
+        for (int i = 0; i < 20; i += 2) {
+            Data data = queue.removeFirst();
+            assertEquals(i, data.getDataId());
+            assertEquals("0", data.getTransactionId());
+            assertEquals(i + ",\"name " + i + "\"", data.getRowData());
+            assertEquals(Integer.toString(i), data.getPkData());
+            assertNull(data.getOldData());
+            assertEquals(DataEventType.INSERT, data.getDataEventType());
+            assertEquals(new Timestamp(1000 + i), data.getCreateTime());
+            assertSame(triggerHistory, data.getTriggerHistory());
+        }
+        assertEquals(0, queue.size());
+        assertEquals(0, queue.getSpilledCount());
+        queue.close();
+    }
+}
@@ -30,8 +30,10 @@ import java.util.List;
 
 import org.apache.commons.lang3.StringUtils;
 import org.jumpmind.symmetric.TestConstants;
+import org.jumpmind.symmetric.common.ParameterConstants;
 import org.jumpmind.symmetric.model.OutgoingBatch;
 import org.jumpmind.symmetric.model.ProcessInfo;
+import org.jumpmind.symmetric.model.ProcessInfo.ProcessStatus;
 import org.jumpmind.symmetric.model.Router;
 import org.jumpmind.symmetric.model.Trigger;
 import org.jumpmind.symmetric.model.TriggerRouter;
@@ -108,12 +110,44 @@ public abstract class AbstractDataExtractorServiceTest extends AbstractServiceTe
         assertNumberOfLinesThatStartWith(1, "commit," + batchId, results.getCsv());
     }
 
+    @Test
+    public void testExtractBatchesOnMultipleThreads() {
+        int batchCount = 5;
+        for (int i = 0; i < batchCount; i++) {
+            save(new TestExtract(id++, "abc " + i, "abcdefghijklmnopqrstuvwxyz", new Timestamp(
+                    System.currentTimeMillis()), new Date(System.currentTimeMillis()), true,
+                    i, new BigDecimal(Double.toString(Math.PI))));
+            routeAndCreateGaps();
+        }
+        getParameterService().saveParameter(ParameterConstants.EXTRACT_THREAD_COUNT_PER_REQUEST, 4, "test");
+        try {
+            ProcessInfo extractInfo = new ProcessInfo();
+            ExtractResults results = extract(extractInfo);
+            assertEquals(batchCount, results.getBatches().size());
+            assertNumberOfLinesThatStartWith(batchCount, "insert,", results.getCsv());
+            long lastBatchId = 0;
+            for (OutgoingBatch batch : results.getBatches()) {
+                assertTrue(batch.getBatchId() > lastBatchId);
+                lastBatchId = batch.getBatchId();
+                assertNumberOfLinesThatStartWith(1, "commit," + batch.getBatchId(), results.getCsv());
+            }
+            assertEquals(batchCount, extractInfo.getTotalBatchCount());
+            assertEquals(ProcessStatus.OK, extractInfo.getStatus());
+        } finally {
+            getParameterService().saveParameter(ParameterConstants.EXTRACT_THREAD_COUNT_PER_REQUEST, 1, "test");
+        }
+    }
+
     protected ExtractResults extract() {
+        return extract(new ProcessInfo());
+    }
+
+    protected ExtractResults extract(ProcessInfo extractInfo) {
         IDataExtractorService service = getDataExtractorService();
         StringWriter writer = new StringWriter();
         InternalOutgoingTransport transport = new InternalOutgoingTransport(new BufferedWriter(
                 writer));
-        List<OutgoingBatch> batches = service.extract(new ProcessInfo(), TestConstants.TEST_CLIENT_NODE, transport);
+        List<OutgoingBatch> batches = service.extract(extractInfo, TestConstants.TEST_CLIENT_NODE, transport);
         transport.close();
         return new ExtractResults(batches, writer.getBuffer().toString());
     }
@@ -0,0 +1,188 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.service.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jumpmind.symmetric.common.ParameterConstants;
+import org.jumpmind.symmetric.model.IncomingBatch;
+import org.jumpmind.symmetric.model.Node;
+import org.jumpmind.symmetric.model.NodeSecurity;
+import org.jumpmind.symmetric.service.IParameterService;
+import org.jumpmind.symmetric.transport.ITransportManager;
+import org.jumpmind.util.CustomizableThreadFactory;
+import org.junit.jupiter.api.Test;
+
+public class AsyncAckSenderTest {
+    @Test
+    public void testAcksAreCoalesced() throws Exception {
+        final CountDownLatch firstAckStarted = new CountDownLatch(1);
+        final CountDownLatch releaseFirstAck = new CountDownLatch(1);
+        final List<List<Long>> acks = new ArrayList<List<Long>>();
+        AbstractService service = new AbstractService() {
+            @Override
+            protected boolean sendAck(Node remote, Node local, NodeSecurity localSecurity, List<IncomingBatch> list,
+                    ITransportManager transportManager, String queue) {
+                firstAckStarted.countDown();
+                try {
+                    releaseFirstAck.await();
+                } catch (InterruptedException e) {
+                }
+                synchronized (acks) {
+                    acks.add(getBatchIds(list));
+                }
+                return true;
+            }
+        };
+        AsyncAckSender sender = new AsyncAckSender(service, null, new CustomizableThreadFactory("test-ack"));
+        Node remote = new Node("00001", "corp");
+        sender.queue(remote, null, null, batches(1, 2), "default");
+        assertTrue(firstAckStarted.await(10, TimeUnit.SECONDS));
+        sender.queue(remote, null, null, batches(4), "default");
+        sender.queue(remote, null, null, batches(3), "default");
+        releaseFirstAck.countDown();
+        sender.stop();
+        assertEquals(2, acks.size());
+        assertEquals(Arrays.asList(1l, 2l), acks.get(0));
+        assertEquals(Arrays.asList(3l, 4l), acks.get(1));
+        assertEquals(0, sender.getPendingCount());
+    }
+
+    @Test
+    public void testFailedAckIsSentWithNextAck() throws Exception {
+        final AtomicInteger attempts = new AtomicInteger();
+        final List<List<Long>> acks = new ArrayList<List<Long>>();
+        AbstractService service = new AbstractService() {
+            @Override
+            protected boolean sendAck(Node remote, Node local, NodeSecurity localSecurity, List<IncomingBatch> list,
+                    ITransportManager transportManager, String queue) {
+                synchronized (acks) {
+                    acks.add(getBatchIds(list));
+                }
+                return attempts.incrementAndGet() > 1;
+            }
+        };
+        service.parameterService = getParameterService(0, 0);
+        AsyncAckSender sender = new AsyncAckSender(service, null, new CustomizableThreadFactory("test-ack"));
+        Node remote = new Node("00001", "corp");
+        sender.queue(remote, null, null, batches(1), "default");
+        sender.stop();
+        assertEquals(1, sender.getPendingCount());
+        sender.queue(remote, null, null, batches(2), "default");
+        sender.stop();
+        assertEquals(0, sender.getPendingCount());
+        assertEquals(Arrays.asList(1l), acks.get(0));
+        assertEquals(Arrays.asList(1l, 2l), acks.get(1));
+    }
+
+    @Test
+    public void testFailedAckIsRetried() throws Exception {
+        final AtomicInteger attempts = new AtomicInteger();
+        AbstractService service = new AbstractService() {
+            @Override
+            protected boolean sendAck(Node remote, Node local, NodeSecurity localSecurity, List<IncomingBatch> list,
+                    ITransportManager transportManager, String queue) {
+                return attempts.incrementAndGet() > 2;
+            }
+        };
+        service.parameterService = getParameterService(5, 10);
+        AsyncAckSender sender = new AsyncAckSender(service, null, new CustomizableThreadFactory("test-ack"));
+        sender.queue(new Node("00001", "corp"), null, null, batches(1), "default");
+        long endTime = System.currentTimeMillis() + 10000;
+        while (sender.getPendingCount() > 0 && System.currentTimeMillis() < endTime) {
+            Thread.sleep(10);
+        }
+        sender.stop();
+        assertEquals(0, sender.getPendingCount());
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    public void testAwaitAcks() throws Exception {
+        final CountDownLatch releaseAck = new CountDownLatch(1);
+        final AtomicInteger attempts = new AtomicInteger();
+        AbstractService service = new AbstractService() {
+            @Override
+            protected boolean sendAck(Node remote, Node local, NodeSecurity localSecurity, List<IncomingBatch> list,
+                    ITransportManager transportManager, String queue) {
+                try {
+                    releaseAck.await();
+                } catch (InterruptedException e) {
+                }
+                return attempts.incrementAndGet() > 1;
+            }
+        };
+        service.parameterService = getParameterService(0, 0);
+        AsyncAckSender sender = new AsyncAckSender(service, null, new CustomizableThreadFactory("test-ack"));
+        assertTrue(sender.awaitAcks("00001", "default", 10));
+        sender.queue(new Node("00001", "corp"), null, null, batches(1), "default");
+        assertFalse(sender.awaitAcks("00001", "default", 50));
+        assertTrue(sender.awaitAcks("00002", "default", 10));
+        releaseAck.countDown();
+        long endTime = System.currentTimeMillis() + 10000;
+        while (sender.getPendingCount() == 0 && System.currentTimeMillis() < endTime) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, attempts.get());
+        // the failed ack is sent again before the next pull
+        assertTrue(sender.awaitAcks("00001", "default", 10000));
+        assertEquals(0, sender.getPendingCount());
+        assertEquals(2, attempts.get());
+        sender.stop();
+    }
+
+    protected static IParameterService getParameterService(int retries, long retryDelayMs) {
+        IParameterService parameterService = mock(IParameterService.class);
+        when(parameterService.getInt(ParameterConstants.DATA_LOADER_NUM_OF_ACK_RETRIES)).thenReturn(retries);
+        when(parameterService.getLong(ParameterConstants.DATA_LOADER_TIME_BETWEEN_ACK_RETRIES)).thenReturn(retryDelayMs);
+        return parameterService;
+    }
+
+    protected static List<IncomingBatch> batches(long... batchIds) {
+        List<IncomingBatch> batches = new ArrayList<IncomingBatch>();
+        for (long batchId : batchIds) {
+            IncomingBatch batch = new IncomingBatch();
+            batch.setBatchId(batchId);
+            batch.setNodeId("00001");
+            batches.add(batch);
+        }
+        return batches;
+    }
+
+    protected static List<Long> getBatchIds(List<IncomingBatch> batches) {
+        List<Long> batchIds = new ArrayList<Long>();
+        for (IncomingBatch batch : batches) {
+            batchIds.add(batch.getBatchId());
+        }
+        return batchIds;
+    }
+}
@@ -0,0 +1,111 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.service.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.jumpmind.symmetric.ISymmetricEngine;
+import org.jumpmind.symmetric.io.data.Batch;
+import org.jumpmind.symmetric.io.data.DataContext;
+import org.jumpmind.symmetric.model.IncomingBatch;
+import org.jumpmind.symmetric.service.impl.DataLoaderService.Lane;
+import org.junit.jupiter.api.Test;
+
+public class DataLoaderServiceLaneTest {
+    ISymmetricEngine engine = mock(ISymmetricEngine.class);
+
+    @Test
+    public void testMergeLanes() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        LoadLanes<Lane> loadLanes = newLoadLanes(executor);
+        final Lane laneA = loadLanes.getLane("a");
+        final Lane laneB = loadLanes.getLane("b");
+        final Lane sharedLane = loadLanes.getLane("c");
+        loadLanes.submit("a", () -> load(laneA, 1));
+        loadLanes.submit("b", () -> load(laneB, 2));
+        loadLanes.submit("c", () -> load(sharedLane, 3));
+        loadLanes.submit("a", () -> load(laneA, 4));
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        ManageIncomingBatchListener listener = new ManageIncomingBatchListener(null, engine);
+        DataContext context = new DataContext();
+        Lane.merge(loadLanes, listener, context);
+        assertEquals(4, listener.getBatchesProcessed().size());
+        assertEquals(Arrays.asList(1l, 4l, 2l, 3l), Arrays.asList(listener.getBatchesProcessed().get(0).getBatchId(),
+                listener.getBatchesProcessed().get(1).getBatchId(), listener.getBatchesProcessed().get(2).getBatchId(),
+                listener.getBatchesProcessed().get(3).getBatchId()));
+        assertTrue(laneA.listener.getBatchesProcessed().isEmpty());
+        assertNull(listener.getCurrentBatch());
+        assertNull(context.getBatch());
+    }
+
+    @Test
+    public void testMergeLanesWithError() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        LoadLanes<Lane> loadLanes = newLoadLanes(executor);
+        final Lane laneA = loadLanes.getLane("a");
+        final Lane laneB = loadLanes.getLane("b");
+        final Batch failedBatch = new Batch();
+        failedBatch.setBatchId(2);
+        loadLanes.submit("a", () -> load(laneA, 1));
+        loadLanes.submit("b", () -> {
+            load(laneB, 2);
+            laneB.listener.isNewErrorForCurrentBatch = true;
+            laneB.context.setBatch(failedBatch);
+            throw new IOException("batch 2 failed");
+        });
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        ManageIncomingBatchListener listener = new ManageIncomingBatchListener(null, engine);
+        DataContext context = new DataContext();
+        Lane.merge(loadLanes, listener, context);
+        assertEquals(2, listener.getBatchesProcessed().size());
+        assertEquals(2, listener.getCurrentBatch().getBatchId());
+        assertTrue(listener.isNewErrorForCurrentBatch());
+        assertSame(failedBatch, context.getBatch());
+        assertFalse(laneA.listener.isNewErrorForCurrentBatch());
+    }
+
+    protected LoadLanes<Lane> newLoadLanes(ExecutorService executor) {
+        return new LoadLanes<Lane>(executor, new HashSet<String>(Arrays.asList("a", "b")),
+                laneId -> new Lane(new ManageIncomingBatchListener(null, engine), new DataContext()));
+    }
+
+    protected IncomingBatch load(Lane lane, long batchId) {
+        IncomingBatch batch = new IncomingBatch();
+        batch.setBatchId(batchId);
+        lane.listener.getBatchesProcessed().add(batch);
+        lane.listener.currentBatch = batch;
+        return batch;
+    }
+}
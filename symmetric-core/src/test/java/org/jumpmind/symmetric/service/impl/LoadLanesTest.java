@@ -0,0 +1,161 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.service.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.jumpmind.symmetric.common.Constants;
+import org.jumpmind.symmetric.model.IncomingBatch;
+import org.junit.jupiter.api.Test;
+
+public class LoadLanesTest {
+    @Test
+    public void testOrderWithinLane() throws Throwable {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        final LoadLanes<List<String>> lanes = newLoadLanes(executor, "a", "b");
+        final Random random = new Random();
+        String[] channelIds = { "a", "b", "c", "d" };
+        for (int i = 0; i < 40; i++) {
+            final String load = channelIds[i % channelIds.length] + i;
+            final List<String> lane = lanes.getLane(channelIds[i % channelIds.length]);
+            lanes.submit(channelIds[i % channelIds.length], () -> {
+                Thread.sleep(random.nextInt(5));
+                lane.add(load);
+                return new IncomingBatch();
+            });
+        }
+        awaitDone(executor, lanes);
+        List<List<String>> laneList = new ArrayList<List<String>>(lanes.getLanes());
+        assertEquals(3, laneList.size());
+        List<String> expectedA = new ArrayList<String>();
+        List<String> expectedB = new ArrayList<String>();
+        List<String> expectedShared = new ArrayList<String>();
+        for (int i = 0; i < 40; i += 4) {
+            expectedA.add("a" + i);
+            expectedB.add("b" + (i + 1));
+            expectedShared.add("c" + (i + 2));
+            expectedShared.add("d" + (i + 3));
+        }
+        assertEquals(expectedA, laneList.get(0));
+        assertEquals(expectedB, laneList.get(1));
+        assertEquals(expectedShared, laneList.get(2));
+        assertNull(lanes.getErrorLane());
+        lanes.rethrowError();
+    }
+
+    @Test
+    public void testConfigLoadsAlone() throws Throwable {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        LoadLanes<List<String>> lanes = newLoadLanes(executor, "a", "b", Constants.CHANNEL_CONFIG);
+        assertEquals(LoadLanes.SHARED_LANE_ID, lanes.getLaneId(Constants.CHANNEL_CONFIG));
+        final CountDownLatch releaseA = new CountDownLatch(1);
+        final AtomicBoolean aDone = new AtomicBoolean();
+        final AtomicBoolean configDone = new AtomicBoolean();
+        final AtomicBoolean configSawA = new AtomicBoolean();
+        final AtomicBoolean bSawConfig = new AtomicBoolean();
+        lanes.submit("a", () -> {
+            releaseA.await();
+            aDone.set(true);
+            return new IncomingBatch();
+        });
+        lanes.submit(Constants.CHANNEL_CONFIG, () -> {
+            configSawA.set(aDone.get());
+            Thread.sleep(20);
+            configDone.set(true);
+            return new IncomingBatch();
+        });
+        lanes.submit("b", () -> {
+            bSawConfig.set(configDone.get());
+            return new IncomingBatch();
+        });
+        Thread.sleep(20);
+        releaseA.countDown();
+        awaitDone(executor, lanes);
+        assertTrue(configSawA.get());
+        assertTrue(bSawConfig.get());
+    }
+
+    @Test
+    public void testErrorIsRethrown() throws Throwable {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        LoadLanes<List<String>> lanes = newLoadLanes(executor, "a", "b");
+        final List<String> laneA = lanes.getLane("a");
+        final List<String> laneB = lanes.getLane("b");
+        lanes.submit("a", () -> {
+            laneA.add("a1");
+            return new IncomingBatch();
+        });
+        lanes.submit("b", () -> {
+            throw new IllegalStateException("b1 failed");
+        });
+        lanes.submit("b", () -> {
+            laneB.add("b2");
+            return new IncomingBatch();
+        });
+        awaitDone(executor, lanes);
+        assertSame(laneB, lanes.getErrorLane());
+        assertEquals(Arrays.asList("a1"), laneA);
+        // later loads on the failed lane still run and are expected to skip their batch
+        assertEquals(Arrays.asList("b2"), laneB);
+        try {
+            lanes.rethrowError();
+            fail("Expected the error from the failed load");
+        } catch (IllegalStateException e) {
+            assertEquals("b1 failed", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testNoParallelChannels() throws Throwable {
+        ExecutorService executor = Executors.newFixedThreadPool(1);
+        LoadLanes<List<String>> lanes = newLoadLanes(executor);
+        assertEquals(LoadLanes.SHARED_LANE_ID, lanes.getLaneId("a"));
+        assertSame(lanes.getLane("a"), lanes.getLane("b"));
+        assertEquals(1, lanes.getLanes().size());
+    }
+
+    protected LoadLanes<List<String>> newLoadLanes(ExecutorService executor, String... parallelChannelIds) {
+        return new LoadLanes<List<String>>(executor, new HashSet<String>(Arrays.asList(parallelChannelIds)),
+                laneId -> Collections.synchronizedList(new ArrayList<String>()));
+    }
+
+    protected void awaitDone(ExecutorService executor, LoadLanes<?> lanes) throws InterruptedException {
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertTrue(lanes.isDone());
+    }
+}
@@ -0,0 +1,123 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.service.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jumpmind.symmetric.model.AbstractBatch.Status;
+import org.jumpmind.symmetric.model.OutgoingBatch;
+import org.junit.jupiter.api.Test;
+
+public class OutgoingBatchQueueIndexTest {
+    @Test
+    public void testUnloadedNodeNeedsLoad() {
+        OutgoingBatchQueueIndex index = new OutgoingBatchQueueIndex();
+        assertNull(index.hasUnsentBatches("00001", null, 60000));
+        index.load("00001", index.getChangeCount("00001"), new ArrayList<OutgoingBatch>(), false);
+        assertEquals(Boolean.FALSE, index.hasUnsentBatches("00001", null, 60000));
+        assertNull(index.hasUnsentBatches("00002", null, 60000));
+    }
+
+    @Test
+    public void testCommittedBatchesByChannel() {
+        OutgoingBatchQueueIndex index = new OutgoingBatchQueueIndex();
+        index.load("00001", index.getChangeCount("00001"), Arrays.asList(batch(1, "default", Status.NE)), false);
+        assertEquals(Boolean.TRUE, index.hasUnsentBatches("00001", Arrays.asList("default"), 60000));
+        assertEquals(Boolean.FALSE, index.hasUnsentBatches("00001", Arrays.asList("reload"), 60000));
+
+        index.committed(batch(2, "reload", Status.NE));
+        index.committed(batch(3, "reload", Status.RT));
+        assertEquals(Boolean.TRUE, index.hasUnsentBatches("00001", Arrays.asList("reload"), 60000));
+        assertEquals(2, index.getUnsentCount("00001"));
+
+        index.committed(batch(1, "default", Status.OK));
+        index.committed(batch(2, "reload", Status.OK));
+        assertEquals(Boolean.FALSE, index.hasUnsentBatches("00001", null, 60000));
+        assertEquals(0, index.getUnsentCount("00001"));
+    }
+
+    @Test
+    public void testChangeDuringLoadIsNotLost() {
+        OutgoingBatchQueueIndex index = new OutgoingBatchQueueIndex();
+        long changeCount = index.getChangeCount("00001");
+        index.committed(batch(5, "default", Status.NE));
+        index.load("00001", changeCount, new ArrayList<OutgoingBatch>(), false);
+        assertNull(index.hasUnsentBatches("00001", null, 60000));
+
+        index.load("00001", index.getChangeCount("00001"), Arrays.asList(batch(5, "default", Status.NE)), false);
+        changeCount = index.getChangeCount("00001");
+        index.committed(batch(6, "default", Status.NE));
+        index.clear("00001", changeCount, Arrays.asList("default"));
+        assertEquals(Boolean.TRUE, index.hasUnsentBatches("00001", null, 60000));
+
+        index.clear("00001", index.getChangeCount("00001"), Arrays.asList("default"));
+        assertEquals(Boolean.FALSE, index.hasUnsentBatches("00001", null, 60000));
+    }
+
+    @Test
+    public void testOverflowAndExpire() {
+        OutgoingBatchQueueIndex index = new OutgoingBatchQueueIndex();
+        index.load("00001", index.getChangeCount("00001"), new ArrayList<OutgoingBatch>(), true);
+        assertEquals(Boolean.TRUE, index.hasUnsentBatches("00001", Arrays.asList("default"), 60000));
+        assertNull(index.hasUnsentBatches("00001", Arrays.asList("default"), 0));
+
+        index.load("00001", index.getChangeCount("00001"), new ArrayList<OutgoingBatch>(), false);
+        assertEquals(Boolean.FALSE, index.hasUnsentBatches("00001", null, 60000));
+        assertNull(index.hasUnsentBatches("00001", null, 0));
+
+        index.load("00001", index.getChangeCount("00001"), new ArrayList<OutgoingBatch>(), false);
+        index.invalidateAll();
+        assertNull(index.hasUnsentBatches("00001", null, 60000));
+    }
+
+    @Test
+    public void testListenerAppliesEachCommitOnce() {
+        OutgoingBatchQueueIndex index = new OutgoingBatchQueueIndex();
+        index.load("00001", index.getChangeCount("00001"), new ArrayList<OutgoingBatch>(), false);
+        OutgoingBatchService.QueueIndexListener listener = new OutgoingBatchService.QueueIndexListener(index);
+        listener.batches.add(batch(1, "default", Status.NE));
+        listener.transactionRolledBack();
+        listener.transactionCommitted();
+        assertEquals(Boolean.FALSE, index.hasUnsentBatches("00001", null, 60000));
+
+        listener.batches.add(batch(2, "default", Status.NE));
+        listener.transactionCommitted();
+        assertEquals(1, index.getUnsentCount("00001"));
+        index.committed(batch(2, "default", Status.OK));
+        listener.transactionCommitted();
+        assertEquals(Boolean.FALSE, index.hasUnsentBatches("00001", null, 60000));
+
+        listener.invalidatedNodeIds.add("00001");
+        listener.transactionCommitted();
+        assertNull(index.hasUnsentBatches("00001", null, 60000));
+    }
+
+    protected OutgoingBatch batch(long batchId, String channelId, Status status) {
+        OutgoingBatch batch = new OutgoingBatch("00001", channelId, status);
+        batch.setBatchId(batchId);
+        return batch;
+    }
+}
@@ -20,21 +20,37 @@
  */
 package org.jumpmind.symmetric.service.impl;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.jumpmind.db.platform.DatabaseInfo;
 import org.jumpmind.db.platform.IDatabasePlatform;
+import org.jumpmind.db.sql.ISqlTransaction;
 import org.jumpmind.symmetric.ISymmetricEngine;
 import org.jumpmind.symmetric.db.ISymmetricDialect;
+import org.jumpmind.symmetric.io.data.DataEventType;
 import org.jumpmind.symmetric.model.Channel;
+import org.jumpmind.symmetric.model.Data;
+import org.jumpmind.symmetric.model.Node;
+import org.jumpmind.symmetric.model.NodeChannel;
 import org.jumpmind.symmetric.model.Router;
 import org.jumpmind.symmetric.model.Trigger;
 import org.jumpmind.symmetric.model.TriggerRouter;
+import org.jumpmind.symmetric.route.ChannelRouterContext;
+import org.jumpmind.symmetric.route.IDataToRouteReader;
+import org.jumpmind.symmetric.route.SimpleRouterContext;
 import org.jumpmind.symmetric.service.IExtensionService;
 import org.jumpmind.symmetric.service.IParameterService;
 import org.junit.jupiter.api.BeforeEach;
@@ -44,11 +60,12 @@ public class RouterServiceTest {
     final static Channel CHANNEL_2_TEST = new Channel("test", 1);
     final static String SOURCE_NODE_GROUP = "source";
     final static String TARGET_NODE_GROUP = "target";
+    ISymmetricEngine engine;
     RouterService routerService;
 
     @BeforeEach
     public void setup() {
-        ISymmetricEngine engine = mock(ISymmetricEngine.class);
+        engine = mock(ISymmetricEngine.class);
         IParameterService parameterService = mock(IParameterService.class);
         ISymmetricDialect symmetricDialect = mock(ISymmetricDialect.class);
         IDatabasePlatform databasePlatform = mock(IDatabasePlatform.class);
@@ -59,6 +76,7 @@ public class RouterServiceTest {
         when(engine.getParameterService()).thenReturn(parameterService);
         when(engine.getSymmetricDialect()).thenReturn(symmetricDialect);
         when(engine.getExtensionService()).thenReturn(extensionService);
+        when(parameterService.getEngineName()).thenReturn("test");
         routerService = new RouterService(engine);
     }
 
@@ -134,4 +152,61 @@ public class RouterServiceTest {
         triggerRouters.add(new TriggerRouter(tableTrigger3, new Router("test", TARGET_NODE_GROUP, SOURCE_NODE_GROUP, "default")));
         assertTrue(routerService.producesCommonBatches(CHANNEL_2_TEST, SOURCE_NODE_GROUP, triggerRouters));
     }
+
+    @Test
+    public void testParallelRouteReaderKeepsDataOrder() throws Exception {
+        final TriggerRouter triggerRouter = new TriggerRouter(new Trigger("a", CHANNEL_2_TEST.getChannelId()), new Router("test", SOURCE_NODE_GROUP,
+                TARGET_NODE_GROUP, "column"));
+        final List<Data> dataList = new ArrayList<Data>();
+        for (int i = 1; i <= 100; i++) {
+            Data data = new Data(i, null, null, DataEventType.INSERT, "a", null, null, CHANNEL_2_TEST.getChannelId(), "tx" + (i % 7), null);
+            data.setPreRouted(i % 10 == 0);
+            dataList.add(data);
+        }
+        RouterService parallelRouterService = new RouterService(engine) {
+            @Override
+            protected Map<TriggerRouter, Collection<String>> evaluateRouters(Data data, SimpleRouterContext workerContext,
+                    Map<TriggerRouter, Set<Node>> availableNodes) {
+                Map<TriggerRouter, Collection<String>> routedNodeIds = new IdentityHashMap<TriggerRouter, Collection<String>>();
+                routedNodeIds.put(triggerRouter, Collections.singleton(Long.toString(data.getDataId())));
+                return routedNodeIds;
+            }
+        };
+        IDataToRouteReader listReader = new IDataToRouteReader() {
+            Iterator<Data> iterator = dataList.iterator();
+
+            public void run() {
+            }
+
+            public Data take() {
+                return iterator.hasNext() ? iterator.next() : null;
+            }
+
+            public boolean isReading() {
+                return iterator.hasNext();
+            }
+
+            public void setReading(boolean reading) {
+            }
+        };
+        ChannelRouterContext context = new ChannelRouterContext("00000", new NodeChannel(CHANNEL_2_TEST), mock(ISqlTransaction.class), null);
+        RouterService.ParallelRouteReader reader = parallelRouterService.new ParallelRouteReader(listReader, context,
+                parallelRouterService.getRouterWorkers(4), 10);
+        try {
+            for (Data expected : dataList) {
+                Data data = reader.take();
+                assertEquals(expected.getDataId(), data.getDataId());
+                Map<TriggerRouter, Collection<String>> routedNodeIds = reader.getRoutedNodeIds(data);
+                if (data.isPreRouted()) {
+                    assertNull(routedNodeIds);
+                } else {
+                    assertEquals(Collections.singleton(Long.toString(data.getDataId())), routedNodeIds.get(triggerRouter));
+                }
+            }
+            assertNull(reader.take());
+        } finally {
+            reader.setReading(false);
+            parallelRouterService.stop();
+        }
+    }
 }
@@ -0,0 +1,79 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.statistic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Date;
+
+import org.junit.jupiter.api.Test;
+
+public class ChannelStatsTest {
+    @Test
+    public void testSnapshotAndReset() throws Exception {
+        Date startTime = new Date(1000);
+        Date endTime = new Date(2000);
+        ChannelStats stats = new ChannelStats("00000", "host", startTime, null, "default");
+        stats.incrementDataRouted(3);
+        stats.incrementDataRouted(2);
+        stats.incrementDataBytesSent(100);
+        stats.setDataUnRouted(7);
+        ChannelStats snapshot = stats.snapshotAndReset(endTime);
+        assertEquals("00000", snapshot.getNodeId());
+        assertEquals("default", snapshot.getChannelId());
+        assertEquals(startTime, snapshot.getStartTime());
+        assertEquals(endTime, snapshot.getEndTime());
+        assertEquals(5, snapshot.getDataRouted());
+        assertEquals(100, snapshot.getDataBytesSent());
+        assertEquals(7, snapshot.getDataUnRouted());
+        assertTrue(snapshot.isNonZero());
+        assertFalse(stats.isNonZero());
+        assertEquals(endTime, stats.getStartTime());
+        stats.incrementDataRouted(1);
+        assertEquals(1, stats.getDataRouted());
+        assertEquals(5, snapshot.getDataRouted());
+    }
+
+    @Test
+    public void testConcurrentIncrementsAreNotLost() throws Exception {
+        ChannelStats stats = new ChannelStats("00000", "host", new Date(), null, "default");
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 10000; j++) {
+                    stats.incrementDataLoaded(1);
+                }
+            });
+            threads[i].start();
+        }
+        long total = 0;
+        for (Thread thread : threads) {
+            while (thread.isAlive()) {
+                total += stats.snapshotAndReset(new Date()).getDataLoaded();
+            }
+            thread.join();
+        }
+        total += stats.snapshotAndReset(new Date()).getDataLoaded();
+        assertEquals(40000, total);
+    }
+}
@@ -0,0 +1,89 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.transport;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.io.IOUtils;
+import org.jumpmind.symmetric.common.ParameterConstants;
+import org.jumpmind.symmetric.service.IParameterService;
+import org.junit.jupiter.api.Test;
+
+public class CompressionCodecsUnitTest {
+    @Test
+    public void testRoundTrip() throws Exception {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            text.append("insert,\"").append(i).append("\",\"some row data\"\n");
+        }
+        byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+        for (String name : new String[] { CompressionCodecs.GZIP, CompressionCodecs.DEFLATE, CompressionCodecs.IDENTITY }) {
+            ICompressionCodec codec = CompressionCodecs.getCodec(name);
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            OutputStream out = codec.compress(compressed, 1, 0);
+            out.write(bytes, 0, 100);
+            out.flush();
+            int flushedSize = compressed.size();
+            assertTrue(name, flushedSize > 0);
+            out.write(bytes, 100, bytes.length - 100);
+            out.close();
+            if (!name.equals(CompressionCodecs.IDENTITY)) {
+                assertTrue(name, compressed.size() < bytes.length);
+            }
+            InputStream in = codec.decompress(new ByteArrayInputStream(compressed.toByteArray()));
+            assertArrayEquals(name, bytes, IOUtils.toByteArray(in));
+            in.close();
+        }
+    }
+
+    @Test
+    public void testNegotiate() {
+        assertEquals(CompressionCodecs.DEFLATE, CompressionCodecs.negotiate("deflate:1", "deflate, gzip, identity").getName());
+        assertEquals(CompressionCodecs.DEFLATE, CompressionCodecs.negotiate("DEFLATE", "gzip;q=0.5, Deflate").getName());
+        assertEquals(CompressionCodecs.GZIP, CompressionCodecs.negotiate("deflate", "gzip").getName());
+        assertEquals(CompressionCodecs.GZIP, CompressionCodecs.negotiate("deflate", "deflate;q=0, gzip").getName());
+        assertEquals(CompressionCodecs.GZIP, CompressionCodecs.negotiate("unknown", "deflate, gzip").getName());
+        assertNull(CompressionCodecs.negotiate("gzip", "br"));
+        assertNull(CompressionCodecs.negotiate("gzip", null));
+    }
+
+    @Test
+    public void testCodecSpec() {
+        IParameterService parameterService = mock(IParameterService.class);
+        when(parameterService.getString(ParameterConstants.TRANSPORT_HTTP_COMPRESSION_CODEC, CompressionCodecs.GZIP)).thenReturn("gzip");
+        when(parameterService.getString(ParameterConstants.TRANSPORT_HTTP_COMPRESSION_CODEC + ".queue.reload")).thenReturn("deflate:1");
+        assertEquals("deflate:1", CompressionCodecs.getCodecSpec(parameterService, "reload"));
+        assertEquals("gzip", CompressionCodecs.getCodecSpec(parameterService, "default"));
+        assertEquals("gzip", CompressionCodecs.getCodecSpec(parameterService, null));
+        assertEquals("deflate", CompressionCodecs.getCodecName("deflate:1"));
+        assertEquals(1, CompressionCodecs.getLevel("deflate:1", -1));
+        assertEquals(-1, CompressionCodecs.getLevel("deflate", -1));
+        assertEquals(-1, CompressionCodecs.getLevel("deflate:x", -1));
+    }
+}
@@ -22,11 +22,20 @@ package org.jumpmind.symmetric.transport;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
 
 import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
+import org.jumpmind.symmetric.common.ParameterConstants;
+import org.jumpmind.symmetric.service.IParameterService;
 import org.jumpmind.symmetric.statistic.MockStatisticManager;
 import org.jumpmind.symmetric.transport.ConcurrentConnectionManager.Reservation;
+import org.jumpmind.symmetric.transport.ConcurrentConnectionManager.ReservationPool;
+import org.jumpmind.symmetric.transport.IConcurrentConnectionManager.ReservationStatus;
 import org.jumpmind.symmetric.transport.IConcurrentConnectionManager.ReservationType;
 import org.junit.jupiter.api.Test;
 
@@ -48,4 +57,112 @@ public class ConcurrentConnectionManagerUnitTest {
         mgr.removeTimedOutReservations(reservations);
         assertEquals(1, reservations.size());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testReserveAndRelease() {
+        ConcurrentConnectionManager mgr = new ConcurrentConnectionManager(mockParameterService(2, 10000), new MockStatisticManager());
+        assertEquals(ReservationStatus.ACCEPTED, mgr.reserveConnection("1", null, "push", ReservationType.HARD, false));
+        assertEquals(ReservationStatus.DUPLICATE, mgr.reserveConnection("1", null, "push", ReservationType.HARD, false));
+        assertEquals(ReservationStatus.ACCEPTED, mgr.reserveConnection("2", null, "push", ReservationType.SOFT, false));
+        assertEquals(ReservationStatus.BUSY, mgr.reserveConnection("3", null, "push", ReservationType.HARD, false));
+        assertEquals(ReservationStatus.NOT_FOUND, mgr.reserveConnection("3", null, "push", ReservationType.HARD, true));
+        assertEquals(ReservationStatus.ACCEPTED, mgr.reserveConnection("2", null, "push", ReservationType.HARD, true));
+        assertEquals(2, mgr.getReservationCount("push"));
+        mgr.addToWhitelist("3");
+        assertEquals(ReservationStatus.ACCEPTED, mgr.reserveConnection("3", null, "push", ReservationType.HARD, false));
+        assertEquals(3, mgr.getReservationCount("push"));
+        assertTrue(mgr.releaseConnection("1", "push"));
+        assertFalse(mgr.releaseConnection("1", "push"));
+        assertEquals(2, mgr.getReservationCount("push"));
+        assertEquals(0, mgr.getReservationCount("pull"));
+        assertEquals(2, mgr.getPushReservationsByNodeId().size());
+        assertEquals(7, mgr.getReservationPoolsById().get("push").getReserveCount());
+        mgr.stop();
+    }
+
+    @Test
+    public void testTimedOutReservationIsReplaced() {
+        ConcurrentConnectionManager mgr = new ConcurrentConnectionManager(mockParameterService(1, -1), new MockStatisticManager());
+        assertEquals(ReservationStatus.ACCEPTED, mgr.reserveConnection("1", null, "pull", ReservationType.SOFT, false));
+        assertEquals(ReservationStatus.NOT_FOUND, mgr.reserveConnection("1", null, "pull", ReservationType.HARD, true));
+        assertEquals(0, mgr.getReservationCount("pull"));
+        assertEquals(ReservationStatus.ACCEPTED, mgr.reserveConnection("2", null, "pull", ReservationType.SOFT, false));
+        mgr.removeTimedOutReservations();
+        assertEquals(0, mgr.getReservationCount("pull"));
+        assertEquals(ReservationStatus.ACCEPTED, mgr.reserveConnection("3", null, "pull", ReservationType.HARD, false));
+        assertEquals(1, mgr.getReservationCount("pull"));
+        mgr.stop();
+    }
+
+    @Test
+    public void testTimedOutReservationDoesNotRemoveNewerReservation() {
+        ConcurrentConnectionManager mgr = new ConcurrentConnectionManager(mockParameterService(2, 10000), new MockStatisticManager());
+        assertEquals(ReservationStatus.ACCEPTED, mgr.reserveConnection("1", null, "pull", ReservationType.SOFT, false));
+        ReservationPool pool = mgr.getReservationPool("pull");
+        Reservation expired = pool.reservations.get("1");
+        expired.timeToLiveInMs = System.currentTimeMillis() - 10000;
+        Reservation newer = new Reservation("1", System.currentTimeMillis() + 10000, ReservationType.SOFT);
+        pool.reservations.put("1", newer);
+        assertFalse(pool.remove("1", expired));
+        assertSame(newer, pool.reservations.get("1"));
+        assertEquals(1, mgr.getReservationCount("pull"));
+        assertFalse(ConcurrentConnectionManager.replaceIfSame(pool.reservations, "1", expired,
+                new Reservation("1", Long.MAX_VALUE, ReservationType.HARD)));
+        assertSame(newer, pool.reservations.get("1"));
+        assertTrue(pool.remove("1", newer));
+        assertEquals(0, mgr.getReservationCount("pull"));
+        mgr.stop();
+    }
+
+    @Test
+    public void testConcurrentReservationsDoNotExceedPoolSize() throws Exception {
+        ConcurrentConnectionManager mgr = new ConcurrentConnectionManager(mockParameterService(5, 10000), new MockStatisticManager());
+        Queue<String> failures = new ConcurrentLinkedQueue<String>();
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            String nodeId = Integer.toString(i);
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    if (mgr.reserveConnection(nodeId, null, "push", ReservationType.HARD, false) == ReservationStatus.ACCEPTED) {
+                        int count = mgr.getReservationCount("push");
+                        if (count > 5) {
+                            failures.add("Node " + nodeId + " saw " + count + " reservations");
+                        }
+                        mgr.releaseConnection(nodeId, "push");
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(failures.toString(), failures.isEmpty());
+        assertEquals(0, mgr.getReservationCount("push"));
+        mgr.stop();
+    }
+
+    @Test
+    public void testStopShutsDownExpireService() {
+        ConcurrentConnectionManager mgr = new ConcurrentConnectionManager(mockParameterService(1, 10000), new MockStatisticManager());
+        assertNull(mgr.expireService);
+        assertEquals(ReservationStatus.ACCEPTED, mgr.reserveConnection("1", null, "pull", ReservationType.SOFT, false));
+        ScheduledExecutorService expireService = mgr.expireService;
+        assertNotNull(expireService);
+        mgr.stop();
+        assertTrue(expireService.isShutdown());
+        assertNull(mgr.expireService);
+        assertEquals(ReservationStatus.ACCEPTED, mgr.reserveConnection("1", null, "pull", ReservationType.SOFT, false));
+        assertNotNull(mgr.expireService);
+        mgr.stop();
+    }
+
+    protected IParameterService mockParameterService(int maxPoolSize, long reservationTimeout) {
+        IParameterService parameterService = mock(IParameterService.class);
+        when(parameterService.getEngineName()).thenReturn("test");
+        when(parameterService.getInt(ParameterConstants.CONCURRENT_WORKERS)).thenReturn(maxPoolSize);
+        when(parameterService.getLong(ParameterConstants.CONCURRENT_RESERVATION_TIMEOUT)).thenReturn(reservationTimeout);
+        when(parameterService.getLong(ParameterConstants.TRANSPORT_MAX_ERROR_MILLIS, 300000)).thenReturn(300000L);
+        return parameterService;
+    }
+}
@@ -144,6 +144,15 @@ public class CassandraSqlTransaction implements ISqlTransaction {
         return null;
     }
 
+    @Override
+    public void setBatchSize(int batchSize) {
+    }
+
+    @Override
+    public int getBatchSize() {
+        return 0;
+    }
+
     @Override
     public void allowInsertIntoAutoIncrementColumns(boolean value, Table table, String quote, String catalogSeparator,
             String schemaSeparator) {
@@ -69,6 +69,13 @@ public interface ISqlTransaction {
 
     public <T> List<T> getUnflushedMarkers(boolean clear);
 
+    /**
+     * The number of rows added in batch mode before the batch is automatically flushed
+     */
+    public void setBatchSize(int batchSize);
+
+    public int getBatchSize();
+
     /**
      * Indicate that the current session is to allow updates to columns that have been marked as auto increment. This is specific to SQL Server.
      */
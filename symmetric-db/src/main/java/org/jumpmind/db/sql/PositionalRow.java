@@ -0,0 +1,289 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.db.sql;
+
+import java.io.Serializable;
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+import org.jumpmind.util.FormatUtils;
+
+/**
+ * A {@link Row} that holds its values in an array instead of a hash map. The column names and their positions are kept in a {@link Columns}
+ * dictionary that is built once per query and shared by every row read from it. Values can be read and replaced by column name, case
+ * insensitive, but columns cannot be added or removed.
+ */
+public class PositionalRow extends Row {
+    private static final long serialVersionUID = 1L;
+    protected Columns columns;
+    protected Object[] values;
+
+    public PositionalRow(Columns columns) {
+        this(columns, new Object[columns.size()]);
+    }
+
+    public PositionalRow(Columns columns, Object[] values) {
+        super(0);
+        this.columns = columns;
+        this.values = values;
+    }
+
+    public Columns getColumns() {
+        return columns;
+    }
+
+    public Object getValue(int index) {
+        return values[index];
+    }
+
+    public void setValue(int index, Object value) {
+        values[index] = value;
+    }
+
+    @Override
+    public Object get(Object key) {
+        int index = columns.indexOf(key);
+        return index >= 0 ? values[index] : null;
+    }
+
+    @Override
+    public Object getOrDefault(Object key, Object defaultValue) {
+        int index = columns.indexOf(key);
+        return index >= 0 ? values[index] : defaultValue;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return columns.indexOf(key) >= 0;
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        for (Object obj : values) {
+            if (value == null ? obj == null : value.equals(obj)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        int index = columns.indexOf(key);
+        if (index < 0) {
+            throw new UnsupportedOperationException("Cannot add column " + key + " to a positional row");
+        }
+        Object oldValue = values[index];
+        values[index] = value;
+        return oldValue;
+    }
+
+    @Override
+    public Object remove(Object key) {
+        throw new UnsupportedOperationException("Cannot remove a column from a positional row");
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException("Cannot remove a column from a positional row");
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return values.length == 0;
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super String, ? super Object> action) {
+        for (int i = 0; i < values.length; i++) {
+            action.accept(columns.names[i], values[i]);
+        }
+    }
+
+    @Override
+    public void replaceAll(BiFunction<? super String, ? super Object, ? extends Object> function) {
+        for (int i = 0; i < values.length; i++) {
+            values[i] = function.apply(columns.names[i], values[i]);
+        }
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return new AbstractSet<String>() {
+            @Override
+            public Iterator<String> iterator() {
+                return new PositionIterator<String>() {
+                    @Override
+                    protected String get(int index) {
+                        return columns.names[index];
+                    }
+                };
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return containsKey(o);
+            }
+
+            @Override
+            public int size() {
+                return values.length;
+            }
+        };
+    }
+
+    @Override
+    public Collection<Object> values() {
+        return new AbstractCollection<Object>() {
+            @Override
+            public Iterator<Object> iterator() {
+                return new PositionIterator<Object>() {
+                    @Override
+                    protected Object get(int index) {
+                        return values[index];
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return values.length;
+            }
+        };
+    }
+
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+        return new AbstractSet<Map.Entry<String, Object>>() {
+            @Override
+            public Iterator<Map.Entry<String, Object>> iterator() {
+                return new PositionIterator<Map.Entry<String, Object>>() {
+                    @Override
+                    protected Map.Entry<String, Object> get(final int index) {
+                        return new AbstractMap.SimpleEntry<String, Object>(columns.names[index], values[index]) {
+                            private static final long serialVersionUID = 1L;
+
+                            @Override
+                            public Object setValue(Object value) {
+                                values[index] = value;
+                                return super.setValue(value);
+                            }
+                        };
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return values.length;
+            }
+        };
+    }
+
+    abstract class PositionIterator<E> implements Iterator<E> {
+        int index;
+
+        @Override
+        public boolean hasNext() {
+            return index < values.length;
+        }
+
+        @Override
+        public E next() {
+            if (index >= values.length) {
+                throw new NoSuchElementException();
+            }
+            return get(index++);
+        }
+
+        protected abstract E get(int index);
+    }
+
+    /**
+     * The column names of a query and their positions. Lookups try the name as given first and then fall back to a case insensitive match, so
+     * the upper case and lower case names used by most callers are found without converting the name on every call.
+     */
+    public static class Columns implements Serializable {
+        private static final long serialVersionUID = 1L;
+        protected String[] names;
+        protected Map<String, Integer> indexes;
+        protected Map<String, Integer> caseInsensitiveIndexes;
+
+        public Columns(String[] names) {
+            this.names = names;
+            this.indexes = new HashMap<String, Integer>(names.length * 4);
+            this.caseInsensitiveIndexes = new HashMap<String, Integer>(names.length * 2);
+            for (int i = 0; i < names.length; i++) {
+                Integer index = i;
+                String lowerName = convertKey(names[i]);
+                caseInsensitiveIndexes.put(lowerName, index);
+                if (FormatUtils.isInfamousTurkey()) {
+                    caseInsensitiveIndexes.put(FormatUtils.stripTurkeyDottedI(lowerName), index);
+                }
+                indexes.put(names[i], index);
+                indexes.put(FormatUtils.upper(names[i]), index);
+                indexes.put(FormatUtils.lower(names[i]), index);
+            }
+        }
+
+        public int indexOf(Object key) {
+            if (key instanceof String) {
+                Integer index = indexes.get(key);
+                if (index == null) {
+                    index = caseInsensitiveIndexes.get(convertKey((String) key));
+                }
+                return index != null ? index : -1;
+            }
+            return -1;
+        }
+
+        public String getName(int index) {
+            return names[index];
+        }
+
+        public String[] getNames() {
+            return names;
+        }
+
+        public int size() {
+            return names.length;
+        }
+
+        protected String convertKey(String key) {
+            return key.toLowerCase(Locale.getDefault());
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.db.sql;
+
+import static org.junit.Assert.*;
+
+import org.junit.jupiter.api.Test;
+
+public class PositionalRowTest {
+    @Test
+    public void testAccessorsMatchRow() throws Exception {
+        PositionalRow.Columns columns = new PositionalRow.Columns(new String[] { "data_id", "Table_Name", "ROW_DATA" });
+        PositionalRow positionalRow = new PositionalRow(columns, new Object[] { 10L, "sym_node", "\"1\",\"2\"" });
+        Row row = new Row(3);
+        row.put("data_id", 10L);
+        row.put("Table_Name", "sym_node");
+        row.put("ROW_DATA", "\"1\",\"2\"");
+        assertEquals(10L, positionalRow.getLong("DATA_ID"));
+        assertEquals("sym_node", positionalRow.getString("table_name"));
+        assertEquals("sym_node", positionalRow.getString("TABLE_NAME"));
+        assertTrue(positionalRow.containsKey("Row_Data"));
+        assertFalse(positionalRow.containsKey("missing"));
+        assertNull(positionalRow.get("missing"));
+        assertEquals(row.csvValue(), positionalRow.csvValue());
+        assertEquals(row.stringValue(), positionalRow.stringValue());
+        assertEquals(row.getLength(), positionalRow.getLength());
+        assertEquals(row, positionalRow);
+        assertEquals(3, positionalRow.size());
+    }
+
+    @Test
+    public void testRowsShareColumns() throws Exception {
+        PositionalRow.Columns columns = new PositionalRow.Columns(new String[] { "id", "name" });
+        PositionalRow row1 = new PositionalRow(columns, new Object[] { 1, "one" });
+        PositionalRow row2 = new PositionalRow(columns, new Object[] { 2, "two" });
+        assertEquals("one", row1.getString("NAME"));
+        assertEquals("two", row2.getString("NAME"));
+        assertEquals("one", row1.put("name", "uno"));
+        assertEquals("uno", row1.getString("name"));
+        assertEquals("two", row2.getString("name"));
+        try {
+            row1.put("other", "value");
+            fail("Expected columns to be fixed");
+        } catch (UnsupportedOperationException e) {
+        }
+    }
+}
@@ -21,7 +21,6 @@
 package org.jumpmind.symmetric.io.data;
 
 import java.nio.charset.Charset;
-import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -31,7 +30,9 @@ import org.jumpmind.db.model.Table;
 import org.jumpmind.util.LinkedCaseInsensitiveMap;
 
 /**
- * Holder for references to both parsed and unparsed CSV data.
+ * Holder for references to both parsed and unparsed CSV data. Row, old, pk and resolve data are kept in fixed slots that hold either the unparsed CSV
+ * line or its parsed values, so a row only pays for the representation that was last asked for. A line is tokenized the first time its values are
+ * accessed.
  */
 public class CsvData {
     public static final int MAX_DATA_SIZE_TO_PRINT_TO_LOG = 32768;
@@ -48,8 +49,16 @@ public class CsvData {
     public static final String ATTRIBUTE_NODE_LIST = "nodeList";
     public static final String ATTRIBUTE_DATA_ID = "dataId";
     public static final String ATTRIBUTE_CREATE_TIME = "createTime";
-    private Map<String, String[]> parsedCsvData = null;
-    private Map<String, String> csvData = null;
+    private static final int ROW_DATA_SLOT = 0;
+    private static final int OLD_DATA_SLOT = 1;
+    private static final int PK_DATA_SLOT = 2;
+    private static final int RESOLVE_DATA_SLOT = 3;
+    private static final int SLOT_COUNT = 4;
+    /**
+     * Each slot holds either a String of unparsed CSV data or a String[] of parsed data
+     */
+    private Object[] data;
+    private Map<String, Object> otherData;
     private Map<String, Object> attributes;
     private boolean noBinaryOldData = false;
     protected DataEventType dataEventType;
@@ -82,8 +91,7 @@ public class CsvData {
     }
 
     public boolean contains(String key) {
-        return (parsedCsvData != null && parsedCsvData.get(key) != null)
-                || (csvData != null && csvData.get(key) != null);
+        return getData(key) != null;
     }
 
     public void setDataEventType(DataEventType dataEventType) {
@@ -107,46 +115,36 @@ public class CsvData {
     }
 
     public void removeCsvData(String key) {
-        if (csvData != null) {
-            csvData.remove(key);
+        if (getData(key) instanceof String) {
+            setData(key, null);
         }
     }
 
     public void removeParsedData(String key) {
-        if (parsedCsvData != null) {
-            parsedCsvData.remove(key);
+        if (getData(key) instanceof String[]) {
+            setData(key, null);
         }
     }
 
     public void removeAllData(String key) {
-        removeParsedData(key);
-        removeCsvData(key);
+        setData(key, null);
     }
 
     public void putCsvData(String key, String data) {
-        removeAllData(key);
-        if (csvData == null) {
-            csvData = new HashMap<String, String>(2);
-        }
         changedDataIndicators = null;
-        csvData.put(key, data);
+        setData(key, data);
     }
 
     public String getCsvData(String key) {
-        String data = null;
-        if (csvData != null) {
-            data = csvData.get(key);
-        }
-        if (data == null && parsedCsvData != null) {
-            String[] parsedData = parsedCsvData.get(key);
-            if (parsedData != null) {
-                data = CsvUtils.escapeCsvData(parsedData);
-                // swap out data for parsed data so we don't
-                // don't double the amount of memory being used
-                putCsvData(key, data);
-            }
+        Object value = getData(key);
+        if (value instanceof String[]) {
+            String csv = CsvUtils.escapeCsvData((String[]) value);
+            // swap out data for parsed data so we don't
+            // don't double the amount of memory being used
+            putCsvData(key, csv);
+            return csv;
         }
-        return data;
+        return (String) value;
     }
 
     public boolean[] getChangedDataIndicators() {
@@ -173,26 +171,61 @@ public class CsvData {
     }
 
     public final void putParsedData(String key, String[] data) {
-        removeAllData(key);
-        if (parsedCsvData == null) {
-            parsedCsvData = new HashMap<String, String[]>(2);
-        }
         changedDataIndicators = null;
-        parsedCsvData.put(key, data);
+        setData(key, data);
     }
 
     public String[] getParsedData(String key) {
-        String[] values = null;
-        if (parsedCsvData != null && parsedCsvData.containsKey(key)) {
-            values = parsedCsvData.get(key);
-        } else if (csvData != null && csvData.containsKey(key)) {
-            String data = csvData.get(key);
-            if (data != null) {
-                values = CsvUtils.tokenizeCsvData(data);
-                putParsedData(key, values);
+        Object value = getData(key);
+        if (value instanceof String) {
+            String[] values = CsvUtils.tokenizeCsvData((String) value);
+            putParsedData(key, values);
+            return values;
+        }
+        return (String[]) value;
+    }
+
+    protected static int getSlot(String key) {
+        switch (key) {
+            case ROW_DATA:
+                return ROW_DATA_SLOT;
+            case OLD_DATA:
+                return OLD_DATA_SLOT;
+            case PK_DATA:
+                return PK_DATA_SLOT;
+            case RESOLVE_DATA:
+                return RESOLVE_DATA_SLOT;
+            default:
+                return -1;
+        }
+    }
+
+    private Object getData(String key) {
+        int slot = getSlot(key);
+        if (slot >= 0) {
+            return data != null ? data[slot] : null;
+        }
+        return otherData != null ? otherData.get(key) : null;
+    }
+
+    private void setData(String key, Object value) {
+        int slot = getSlot(key);
+        if (slot >= 0) {
+            if (data == null) {
+                if (value == null) {
+                    return;
+                }
+                data = new Object[SLOT_COUNT];
+            }
+            data[slot] = value;
+        } else if (value != null) {
+            if (otherData == null) {
+                otherData = new HashMap<String, Object>(2);
             }
+            otherData.put(key, value);
+        } else if (otherData != null) {
+            otherData.remove(key);
         }
-        return values;
     }
 
     public Map<String, String> toKeyColumnValuePairs(Table table) {
@@ -288,17 +321,26 @@ public class CsvData {
 
     public long getSizeInBytes() {
         long size = 0;
-        if (csvData != null) {
-            Collection<String> values = csvData.values();
-            for (String string : values) {
-                if (string != null) {
-                    size += string.getBytes(Charset.defaultCharset()).length;
-                }
+        if (data != null) {
+            for (Object value : data) {
+                size += getSizeInBytes(value);
+            }
+        }
+        if (otherData != null) {
+            for (Object value : otherData.values()) {
+                size += getSizeInBytes(value);
             }
         }
         return size;
     }
 
+    private static long getSizeInBytes(Object value) {
+        if (value instanceof String) {
+            return ((String) value).getBytes(Charset.defaultCharset()).length;
+        }
+        return 0;
+    }
+
     public Map<String, Object> getAttributes() {
         return attributes;
     }
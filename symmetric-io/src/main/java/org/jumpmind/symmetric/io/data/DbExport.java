@@ -29,10 +29,19 @@ import java.io.OutputStreamWriter;
 import java.io.UnsupportedEncodingException;
 import java.io.Writer;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.sql.Types;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -40,7 +49,9 @@ import org.apache.commons.text.StringEscapeUtils;
 import org.jumpmind.db.io.DatabaseXmlUtil;
 import org.jumpmind.db.model.Column;
 import org.jumpmind.db.model.Database;
+import org.jumpmind.db.model.ForeignKey;
 import org.jumpmind.db.model.Table;
+import org.jumpmind.db.platform.DatabaseInfo;
 import org.jumpmind.db.platform.DdlBuilderFactory;
 import org.jumpmind.db.platform.DmlStatementFactory;
 import org.jumpmind.db.platform.IDatabasePlatform;
@@ -51,14 +62,22 @@ import org.jumpmind.db.sql.DmlStatementOptions;
 import org.jumpmind.db.sql.ISqlRowMapper;
 import org.jumpmind.db.sql.Row;
 import org.jumpmind.db.util.BinaryEncoding;
+import org.jumpmind.exception.InterruptedException;
 import org.jumpmind.exception.IoException;
 import org.jumpmind.symmetric.csv.CsvWriter;
 import org.jumpmind.symmetric.io.IoVersion;
+import org.jumpmind.util.CustomizableThreadFactory;
 
 /**
  * Export the structure and data from database tables to file.
  */
 public class DbExport {
+    /**
+     * The file written with a directory export that lists each table and its foreign key level, so {@link DbImport} can import parent tables
+     * before their children
+     */
+    public static final String MANIFEST_FILE_NAME = "dbexport.manifest";
+
     public enum Format {
         SQL, CSV, XML, SYM_XML, CSV_DQUOTE
     };
@@ -67,6 +86,7 @@ public class DbExport {
         DB2, DB2AS400, DB2ZOS, DERBY, FIREBIRD, FIREBIRD_DIALECT1, GREENPLUM, H2, HSQLDB, HSQLDB2, INFORMIX, INGRES, INTERBASE, MSSQL, MSSQL2000, MSSQL2005, MSSQL2008, MSSQL2016, MYSQL, ORACLE, ORACLE122, POSTGRES, POSTGRES95, RAIMA, SYBASE, SQLITE, MARIADB, ASE, SQLANYWHERE, REDSHIFT, VOLTDB, NUODB, TIBERO, SINGLESTORE, OPENEDGE, GENERIC
     };
 
+    private static final Pattern ORDER_BY = Pattern.compile("(?i)order\\s+by\\b");
     private Format format = Format.SQL;
     private Compatible compatible;
     private boolean addDropTable;
@@ -85,6 +105,8 @@ public class DbExport {
     private int maxRows = Integer.MAX_VALUE;
     private boolean useQuotedIdentifiers = true;
     private boolean useJdbcTimestampFormat = true;
+    private int threadCount = 1;
+    private long chunkRows;
     private IDatabasePlatform platform;
 
     public DbExport(IDatabasePlatform platform) {
@@ -155,6 +177,13 @@ public class DbExport {
             /* make a copy so if we zero out catalog and schema we don't effect the original */
             tables[i] = tables[i].copy();
         }
+        if (StringUtils.isNotBlank(dir)) {
+            writeManifest(tables);
+        }
+        if (threadCount > 1 && StringUtils.isNotBlank(dir)) {
+            exportTablesInParallel(tables, sql);
+            return;
+        }
         WriterWrapper writerWrapper = null;
         try {
             writerWrapper = new WriterWrapper(output);
@@ -169,6 +198,164 @@ public class DbExport {
         }
     }
 
+    /**
+     * Write the manifest for a directory export. Each line has the foreign key level of a table and its name, in foreign key order. A table
+     * with no foreign keys to the other exported tables is at level 0, and any other table is one level above the highest of its parents.
+     */
+    protected void writeManifest(Table[] tables) throws IOException {
+        Map<String, Integer> levels = new HashMap<String, Integer>();
+        StringBuilder manifest = new StringBuilder();
+        for (Table table : Database.sortByForeignKeys(tables)) {
+            int level = 0;
+            for (ForeignKey fk : table.getForeignKeys()) {
+                Integer parentLevel = levels.get(fk.getForeignTableName());
+                if (parentLevel != null && !fk.getForeignTableName().equals(table.getName())) {
+                    level = Math.max(level, parentLevel + 1);
+                }
+            }
+            levels.put(table.getName(), level);
+            manifest.append(level).append("\t").append(table.getName()).append(System.lineSeparator());
+        }
+        File directory = new File(dir);
+        if (!directory.exists()) {
+            directory.mkdirs();
+        }
+        FileUtils.write(new File(directory, MANIFEST_FILE_NAME), manifest, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Export each table, or each key range of a table, to its own file in the directory on a pool of threads. Key ranges after the first
+     * are written to files named table.partN with data only, so they can be imported at the same time as the first part.
+     */
+    protected void exportTablesInParallel(Table[] tables, String sql) throws IOException {
+        List<TablePart> parts = new ArrayList<TablePart>();
+        for (Table table : Database.sortByForeignKeys(tables)) {
+            parts.addAll(getTableParts(table, sql));
+        }
+        if (parts.size() == 0) {
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threadCount, parts.size()),
+                new CustomizableThreadFactory("dbexport"));
+        List<Future<Object>> futures = new ArrayList<Future<Object>>(parts.size());
+        for (final TablePart part : parts) {
+            futures.add(executor.submit(() -> {
+                WriterWrapper writerWrapper = new WriterWrapper(null);
+                writerWrapper.part = part.part;
+                writeTable(writerWrapper, part.table, part.sql, part.rangeClause);
+                return null;
+            }));
+        }
+        try {
+            for (Future<Object> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException(cause);
+        } catch (java.lang.InterruptedException e) {
+            throw new InterruptedException(e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Split a table into key ranges of about chunkRows rows when it has a single integer primary key, otherwise export it as one part
+     */
+    protected List<TablePart> getTableParts(Table table, String sql) {
+        List<TablePart> parts = new ArrayList<TablePart>();
+        Column[] pkColumns = table.getPrimaryKeyColumns();
+        if (chunkRows > 0 && sql == null && !noData && maxRows == Integer.MAX_VALUE && format != Format.XML && pkColumns.length == 1
+                && isIntegerColumn(pkColumns[0])) {
+            DatabaseInfo databaseInfo = platform.getDatabaseInfo();
+            String quote = platform.getDdlBuilder().isDelimitedIdentifierModeOn() ? databaseInfo.getDelimiterToken() : "";
+            String pkName = quote + pkColumns[0].getName() + quote;
+            String rangeSql = "select count(*) as row_count, min(" + pkName + ") as min_id, max(" + pkName + ") as max_id from "
+                    + table.getQualifiedTableName(quote, databaseInfo.getCatalogSeparator(), databaseInfo.getSchemaSeparator())
+                    + getWhereClause(null, false);
+            Row row = platform.getSqlTemplate().queryForRow(rangeSql);
+            long rowCount = row == null ? 0 : row.getLong("row_count");
+            if (rowCount > chunkRows) {
+                long minId = row.getLong("min_id");
+                long maxId = row.getLong("max_id");
+                long chunkCount = (rowCount + chunkRows - 1) / chunkRows;
+                long width = Math.max((maxId - minId) / chunkCount + 1, 1);
+                int part = 1;
+                for (long start = minId; start <= maxId && start >= minId; start += width) {
+                    long end = Math.min(start + width - 1, maxId);
+                    parts.add(new TablePart(part == 1 ? table : table.copy(), part++, sql, pkName + " between " + start + " and " + end));
+                }
+                return parts;
+            }
+        }
+        parts.add(new TablePart(table, 0, sql, null));
+        return parts;
+    }
+
+    /**
+     * Build a where clause from the user's where clause and a key range. The user's condition is wrapped in parentheses so an "or" in it does
+     * not escape the range, and an "order by" at the end is kept at the end or dropped.
+     */
+    protected String getWhereClause(String rangeClause, boolean includeOrderBy) {
+        String condition = whereClause == null ? "" : whereClause.trim();
+        if (condition.toLowerCase().matches("(?s)where\\s.*") || condition.equalsIgnoreCase("where")) {
+            condition = condition.substring(5).trim();
+        }
+        String orderBy = "";
+        int orderByIndex = getTrailingOrderByIndex(condition);
+        if (orderByIndex >= 0) {
+            orderBy = " " + condition.substring(orderByIndex);
+            condition = condition.substring(0, orderByIndex).trim();
+        }
+        if (condition.length() > 0 && rangeClause != null) {
+            condition = "(" + condition + ") and " + rangeClause;
+        } else if (rangeClause != null) {
+            condition = rangeClause;
+        }
+        return (condition.length() > 0 ? " where " + condition : "") + (includeOrderBy ? orderBy : "");
+    }
+
+    /**
+     * Find an "order by" that ends the condition, outside of quotes and parentheses, so one inside a string literal or a subquery is left alone
+     *
+     * @return the index of the "order by", or -1 if the condition does not end with one
+     */
+    protected static int getTrailingOrderByIndex(String condition) {
+        int orderByIndex = -1;
+        int depth = 0;
+        char quote = 0;
+        for (int i = 0; i < condition.length(); i++) {
+            char c = condition.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"') {
+                quote = c;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (depth == 0 && (c == 'o' || c == 'O') && ORDER_BY.matcher(condition).region(i, condition.length()).lookingAt()
+                    && (i == 0 || !Character.isLetterOrDigit(condition.charAt(i - 1)) && condition.charAt(i - 1) != '_')) {
+                orderByIndex = i;
+            }
+        }
+        return quote == 0 && depth == 0 ? orderByIndex : -1;
+    }
+
+    protected boolean isIntegerColumn(Column column) {
+        int type = column.getMappedTypeCode();
+        return type == Types.TINYINT || type == Types.SMALLINT || type == Types.INTEGER || type == Types.BIGINT
+                || ((type == Types.NUMERIC || type == Types.DECIMAL) && column.getScale() == 0);
+    }
+
     protected String getSchemaToUse() {
         if (StringUtils.isBlank(schema)) {
             return platform.getDefaultSchema();
@@ -198,6 +385,11 @@ public class DbExport {
 
     protected void writeTable(final WriterWrapper writerWrapper, Table table, String sql)
             throws IOException {
+        writeTable(writerWrapper, table, sql, null);
+    }
+
+    protected void writeTable(final WriterWrapper writerWrapper, Table table, String sql, String rangeClause)
+            throws IOException {
         removeExcludedColumns(table);
         writerWrapper.startTable(table);
         if (!noData) {
@@ -211,7 +403,9 @@ public class DbExport {
                 }
             }
             if (table.getColumnCount() > 0) {
-                if (StringUtils.isNotBlank(whereClause)) {
+                if (rangeClause != null) {
+                    sql = sql + getWhereClause(rangeClause, true);
+                } else if (StringUtils.isNotBlank(whereClause)) {
                     sql = String.format("%s %s", sql, whereClause);
                 }
                 platform.getSqlTemplate().query(sql, new ISqlRowMapper<Object>() {
@@ -427,6 +621,29 @@ public class DbExport {
         return maxRows;
     }
 
+    /**
+     * Export tables on this many threads at the same time. Only used when exporting to a directory.
+     */
+    public void setThreadCount(int threadCount) {
+        this.threadCount = threadCount;
+    }
+
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    /**
+     * Split tables with more rows than this into key ranges that are exported at the same time. Only used when exporting on more than one
+     * thread.
+     */
+    public void setChunkRows(long chunkRows) {
+        this.chunkRows = chunkRows;
+    }
+
+    public long getChunkRows() {
+        return chunkRows;
+    }
+
     protected String getDatabaseName() {
         Compatible mappedCompatible = compatible;
         if (mappedCompatible == Compatible.MSSQL) {
@@ -435,6 +652,20 @@ public class DbExport {
         return mappedCompatible.toString().toLowerCase();
     }
 
+    static class TablePart {
+        Table table;
+        int part;
+        String sql;
+        String rangeClause;
+
+        TablePart(Table table, int part, String sql, String rangeClause) {
+            this.table = table;
+            this.part = part;
+            this.sql = sql;
+            this.rangeClause = rangeClause;
+        }
+    }
+
     class WriterWrapper {
         final private SimpleDateFormat df = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
         private CsvWriter csvWriter;
@@ -442,6 +673,7 @@ public class DbExport {
         private Table table;
         private DmlStatement insertSql;
         private boolean startedWriting = false;
+        private int part;
 
         public WriterWrapper(OutputStream os) {
             if (StringUtils.isBlank(dir) && os != null) {
@@ -462,8 +694,9 @@ public class DbExport {
                     if (!directory.exists()) {
                         directory.mkdirs();
                     }
-                    File file = new File(dir, String.format("%s.%s", table.getName(), format
-                            .toString().replace('_', '.').toLowerCase()));
+                    String extension = format.toString().replace('_', '.').toLowerCase();
+                    File file = new File(dir, part > 1 ? String.format("%s.part%d.%s", table.getName(), part, extension)
+                            : String.format("%s.%s", table.getName(), extension));
                     FileUtils.deleteQuietly(file);
                     try {
                         writer = new FileWriter(file);
@@ -517,7 +750,8 @@ public class DbExport {
                         insertSql = DmlStatementFactory.getInstance().create(databaseName, options.columns(columnsToExport).quotedIdentifiers(startedWriting));
                     }
                 }
-                if (!noCreateInfo) {
+                // only the first part of a table creates it
+                if (!noCreateInfo && part <= 1) {
                     if (format == Format.SQL) {
                         IDdlBuilder target = DdlBuilderFactory.getInstance().create(databaseName);
                         target.setDelimitedIdentifierModeOn(useQuotedIdentifiers);
@@ -531,7 +765,7 @@ public class DbExport {
                         }
                         DatabaseXmlUtil.write(table, writer);
                     }
-                } else if (addDropTable) {
+                } else if (addDropTable && part <= 1) {
                     if (format == Format.SQL) {
                         IDdlBuilder target = DdlBuilderFactory.getInstance().create(databaseName);
                         write(target.dropTables(getDatabase(table)));
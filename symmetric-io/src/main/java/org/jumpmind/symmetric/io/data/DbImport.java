@@ -40,17 +40,33 @@ O * Licensed to JumpMind Inc under one or more contributor
  */
 package org.jumpmind.symmetric.io.data;
 
+import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.jumpmind.db.model.Table;
 import org.jumpmind.db.platform.IDatabasePlatform;
 import org.jumpmind.db.util.BinaryEncoding;
+import org.jumpmind.exception.InterruptedException;
 import org.jumpmind.exception.IoException;
 import org.jumpmind.symmetric.io.data.reader.CsvDquoteDataReader;
 import org.jumpmind.symmetric.io.data.reader.CsvTableDataReader;
@@ -64,6 +80,7 @@ import org.jumpmind.symmetric.io.data.writer.DatabaseWriterErrorIgnorer;
 import org.jumpmind.symmetric.io.data.writer.DatabaseWriterSettings;
 import org.jumpmind.symmetric.io.data.writer.DefaultDatabaseWriter;
 import org.jumpmind.symmetric.io.data.writer.IDatabaseWriterFilter;
+import org.jumpmind.util.CustomizableThreadFactory;
 
 /**
  * Import data from file to database tables.
@@ -73,6 +90,7 @@ public class DbImport {
         SQL, CSV, XML, SYM_XML, CSV_DQUOTE
     };
 
+    private static final Pattern PART_FILE_NAME = Pattern.compile("(.+)\\.part(\\d+)\\..+");
     private Format format = Format.SQL;
     private String catalog;
     private String schema;
@@ -95,6 +113,7 @@ public class DbImport {
     private boolean alterTables = false;
     private boolean dropIfExists = false;
     private boolean ignoreMissingTables = true;
+    private int threadCount = 1;
     protected IDatabasePlatform symmetricPlatform;
     protected List<IDatabaseWriterFilter> databaseWriterFilters;
 
@@ -154,6 +173,148 @@ public class DbImport {
         }
     }
 
+    /**
+     * Import files, on more than one thread when the thread count is set. When importing CSV without a table name, the table name is
+     * taken from the file name. Files written to a directory by {@link DbExport} are imported in the foreign key levels from its manifest,
+     * so a table is created and loaded after the tables it references. Within a level, files written for key ranges of a table are imported
+     * after the first file of every table, because the first file is the one that creates the table. Files that are not in a manifest are
+     * imported one at a time in the order given, after the files that are.
+     */
+    public void importTables(List<File> files, String tableName) throws IOException {
+        for (List<File> level : getImportLevels(files)) {
+            List<File> firstParts = new ArrayList<File>();
+            List<File> otherParts = new ArrayList<File>();
+            for (File file : level) {
+                if (isOtherPart(file)) {
+                    otherParts.add(file);
+                } else {
+                    firstParts.add(file);
+                }
+            }
+            importTablesInParallel(firstParts, tableName);
+            importTablesInParallel(otherParts, tableName);
+        }
+    }
+
+    /**
+     * Group files by the foreign key level in the manifest of their directory. Each file without a manifest entry is a level of its own, with
+     * first files ahead of key range files.
+     */
+    protected List<List<File>> getImportLevels(List<File> files) throws IOException {
+        Map<File, Map<String, Integer>> manifests = new HashMap<File, Map<String, Integer>>();
+        Map<Integer, List<File>> filesByLevel = new TreeMap<Integer, List<File>>();
+        List<File> unlisted = new ArrayList<File>();
+        List<File> unlistedOtherParts = new ArrayList<File>();
+        for (File file : files) {
+            if (file.getName().equals(DbExport.MANIFEST_FILE_NAME)) {
+                continue;
+            }
+            File dir = file.getAbsoluteFile().getParentFile();
+            Map<String, Integer> levels = manifests.get(dir);
+            if (levels == null) {
+                levels = readManifest(new File(dir, DbExport.MANIFEST_FILE_NAME));
+                manifests.put(dir, levels);
+            }
+            Integer level = levels.get(getTableName(file));
+            if (level != null) {
+                filesByLevel.computeIfAbsent(level, (l) -> new ArrayList<File>()).add(file);
+            } else if (isOtherPart(file)) {
+                unlistedOtherParts.add(file);
+            } else {
+                unlisted.add(file);
+            }
+        }
+        unlisted.addAll(unlistedOtherParts);
+        List<List<File>> levels = new ArrayList<List<File>>(filesByLevel.values());
+        for (File file : unlisted) {
+            levels.add(Collections.singletonList(file));
+        }
+        return levels;
+    }
+
+    protected Map<String, Integer> readManifest(File manifest) throws IOException {
+        Map<String, Integer> levels = new HashMap<String, Integer>();
+        if (manifest.isFile()) {
+            for (String line : FileUtils.readLines(manifest, StandardCharsets.UTF_8)) {
+                int tab = line.indexOf('\t');
+                if (tab > 0) {
+                    levels.put(line.substring(tab + 1), Integer.parseInt(line.substring(0, tab)));
+                }
+            }
+        }
+        return levels;
+    }
+
+    protected boolean isOtherPart(File file) {
+        Matcher matcher = PART_FILE_NAME.matcher(file.getName());
+        return matcher.matches() && Integer.parseInt(matcher.group(2)) > 1;
+    }
+
+    protected void importTablesInParallel(List<File> files, String tableName) throws IOException {
+        if (files.size() == 0) {
+            return;
+        } else if (threadCount <= 1 || files.size() == 1) {
+            for (File file : files) {
+                importTables(file, tableName);
+            }
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threadCount, files.size()),
+                new CustomizableThreadFactory("dbimport"));
+        List<Future<Object>> futures = new ArrayList<Future<Object>>(files.size());
+        for (final File file : files) {
+            futures.add(executor.submit(() -> {
+                importTables(file, tableName);
+                return null;
+            }));
+        }
+        try {
+            for (Future<Object> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException(cause);
+        } catch (java.lang.InterruptedException e) {
+            throw new InterruptedException(e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    protected void importTables(File file, String tableName) throws IOException {
+        if (StringUtils.isBlank(tableName) && (format == Format.CSV || format == Format.CSV_DQUOTE)) {
+            tableName = getTableName(file);
+        }
+        InputStream in = new BufferedInputStream(new FileInputStream(file));
+        try {
+            importTables(in, tableName);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * @return the table name from a file named by {@link DbExport} when it exports to a directory
+     */
+    protected String getTableName(File file) {
+        String name = file.getName();
+        Matcher matcher = PART_FILE_NAME.matcher(name);
+        if (matcher.matches()) {
+            return matcher.group(1);
+        }
+        String extension = "." + format.toString().replace('_', '.').toLowerCase();
+        if (name.toLowerCase().endsWith(extension)) {
+            return name.substring(0, name.length() - extension.length());
+        }
+        return name.indexOf('.') > 0 ? name.substring(0, name.lastIndexOf('.')) : name;
+    }
+
     protected Conflict buildConflictSettings() {
         Conflict conflict = new Conflict();
         conflict.setDetectType(DetectConflict.USE_PK_DATA);
@@ -336,6 +497,14 @@ public class DbImport {
         databaseWriterFilters.remove(filter);
     }
 
+    public void setThreadCount(int threadCount) {
+        this.threadCount = threadCount;
+    }
+
+    public int getThreadCount() {
+        return threadCount;
+    }
+
     public int getInterval() {
         return interval;
     }
@@ -199,15 +199,7 @@ abstract public class AbstractDatabaseWriter implements IDataWriter {
                             default:
                                 break;
                         }
-                        if (loadStatus == LoadStatus.CONFLICT) {
-                            if (conflictResolver != null) {
-                                conflictResolver.needsResolved(this, data, loadStatus);
-                            } else {
-                                throw new ConflictException(data, targetTable, false,
-                                        writerSettings.pickConflict(targetTable, batch),
-                                        (Exception) context.get(AbstractDatabaseWriter.CONFLICT_ERROR));
-                            }
-                        }
+                        resolveConflict(data, loadStatus);
                         uncommittedCount++;
                         lastData = data;
                         filterAfter(data);
@@ -217,35 +209,7 @@ abstract public class AbstractDatabaseWriter implements IDataWriter {
                     rollback();
                     throw ex;
                 } catch (RuntimeException ex) {
-                    Statistics batchStatistics = getStatistics().get(getBatch());
-                    long statementCount = batchStatistics.get(DataWriterStatisticConstants.ROWCOUNT);
-                    ResolvedData resolvedData = getWriterSettings().getResolvedData(statementCount);
-                    if (conflictResolver != null && conflictResolver.isIgnoreRow(this, data)) {
-                        statistics.get(batch).increment(DataWriterStatisticConstants.IGNOREROWCOUNT);
-                    } else if (conflictResolver != null && resolvedData != null) {
-                        Conflict conflict = new Conflict();
-                        conflict.setDetectType(DetectConflict.USE_PK_DATA);
-                        conflict.setResolveType(ResolveConflict.FALLBACK);
-                        conflictResolver.attemptToResolve(resolvedData, data, this, conflict);
-                    } else {
-                        if (filterError(data, ex)) {
-                            if (!(ex instanceof SqlException)) {
-                                /*
-                                 * SQL exceptions should have already been logged
-                                 */
-                                logFailureDetails(ex, data, false);
-                            }
-                            throw ex;
-                        } else {
-                            uncommittedCount++;
-                            statistics.get(batch).increment(DataWriterStatisticConstants.IGNOREROWCOUNT);
-                            checkForEarlyCommit();
-                            if (Boolean.TRUE.equals(context.get(AbstractDatabaseWriter.TRANSACTION_ABORTED))) {
-                                context.put(CONFLICT_IGNORE, true);
-                                throw ex;
-                            }
-                        }
-                    }
+                    handleWriteError(data, ex);
                 }
             } else {
                 if (sourceTable != null) {
@@ -260,6 +224,50 @@ abstract public class AbstractDatabaseWriter implements IDataWriter {
         }
     }
 
+    protected void resolveConflict(CsvData data, LoadStatus loadStatus) {
+        if (loadStatus == LoadStatus.CONFLICT) {
+            if (conflictResolver != null) {
+                conflictResolver.needsResolved(this, data, loadStatus);
+            } else {
+                throw new ConflictException(data, targetTable, false,
+                        writerSettings.pickConflict(targetTable, batch),
+                        (Exception) context.get(AbstractDatabaseWriter.CONFLICT_ERROR));
+            }
+        }
+    }
+
+    protected void handleWriteError(CsvData data, RuntimeException ex) {
+        Statistics batchStatistics = getStatistics().get(getBatch());
+        long statementCount = batchStatistics.get(DataWriterStatisticConstants.ROWCOUNT);
+        ResolvedData resolvedData = getWriterSettings().getResolvedData(statementCount);
+        if (conflictResolver != null && conflictResolver.isIgnoreRow(this, data)) {
+            statistics.get(batch).increment(DataWriterStatisticConstants.IGNOREROWCOUNT);
+        } else if (conflictResolver != null && resolvedData != null) {
+            Conflict conflict = new Conflict();
+            conflict.setDetectType(DetectConflict.USE_PK_DATA);
+            conflict.setResolveType(ResolveConflict.FALLBACK);
+            conflictResolver.attemptToResolve(resolvedData, data, this, conflict);
+        } else {
+            if (filterError(data, ex)) {
+                if (!(ex instanceof SqlException)) {
+                    /*
+                     * SQL exceptions should have already been logged
+                     */
+                    logFailureDetails(ex, data, false);
+                }
+                throw ex;
+            } else {
+                uncommittedCount++;
+                statistics.get(batch).increment(DataWriterStatisticConstants.IGNOREROWCOUNT);
+                checkForEarlyCommit();
+                if (Boolean.TRUE.equals(context.get(AbstractDatabaseWriter.TRANSACTION_ABORTED))) {
+                    context.put(CONFLICT_IGNORE, true);
+                    throw ex;
+                }
+            }
+        }
+    }
+
     protected void checkForEarlyCommit() {
         if (uncommittedCount >= writerSettings.getMaxRowsBeforeCommit()) {
             commit(true);
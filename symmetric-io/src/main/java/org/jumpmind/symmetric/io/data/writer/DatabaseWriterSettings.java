@@ -58,6 +58,7 @@ public class DatabaseWriterSettings {
     protected IAlterDatabaseInterceptor[] alterDatabaseInterceptors;
     protected Set<String> conflictLosingParentRows;
     protected boolean ignoreSqlDataEventFailures = false;
+    protected boolean useBatchInserts = false;
 
     public void setAlterDatabaseInterceptors(IAlterDatabaseInterceptor[] alterDatabaseInterceptors) {
         this.alterDatabaseInterceptors = alterDatabaseInterceptors;
@@ -321,4 +322,12 @@ public class DatabaseWriterSettings {
     public void setIgnoreSqlDataEventFailures(boolean ignoreSqlDataEventFailures) {
         this.ignoreSqlDataEventFailures = ignoreSqlDataEventFailures;
     }
+
+    public boolean isUseBatchInserts() {
+        return useBatchInserts;
+    }
+
+    public void setUseBatchInserts(boolean useBatchInserts) {
+        this.useBatchInserts = useBatchInserts;
+    }
 }
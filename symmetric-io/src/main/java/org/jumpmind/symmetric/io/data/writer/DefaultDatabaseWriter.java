@@ -27,9 +27,12 @@ import java.sql.SQLException;
 import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -63,6 +66,7 @@ import org.jumpmind.symmetric.io.data.writer.Conflict.DetectConflict;
 import org.jumpmind.symmetric.io.data.writer.Conflict.DetectExpressionKey;
 import org.jumpmind.util.CollectionUtils;
 import org.jumpmind.util.FormatUtils;
+import org.jumpmind.util.Statistics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -72,12 +76,20 @@ public class DefaultDatabaseWriter extends AbstractDatabaseWriter {
     private final String ATTRIBUTE_CHANNEL_ID_RELOAD = "reload";
     private final String TRUNCATE_PATTERN = "^(truncate)( table)?.*";
     private final String DELETE_PATTERN = "^(delete from).*";
+    private final String INSERT_BATCH_SAVEPOINT = "sym_insert_batch";
     protected IDatabasePlatform platform;
     protected ISqlTransaction transaction;
     protected DmlStatement currentDmlStatement;
     protected Object[] currentDmlValues;
     protected LogSqlBuilder logSqlBuilder = new LogSqlBuilder();
     protected Boolean isCteExpression;
+    protected List<BatchedInsert> insertBatch = new ArrayList<BatchedInsert>();
+    protected List<BatchedInsert> failedInserts = new ArrayList<BatchedInsert>();
+    protected ISqlTransaction insertBatchTransaction;
+    protected Table insertBatchTargetTable;
+    protected int insertBatchSize;
+    protected boolean isInsertBatchReplay;
+    protected BatchedInsert lastBatchedInsert;
 
     public DefaultDatabaseWriter(IDatabasePlatform platform) {
         this(platform, null, null);
@@ -132,8 +144,20 @@ public class DefaultDatabaseWriter extends AbstractDatabaseWriter {
         transaction = platform.getSqlTemplate().startSqlTransaction();
     }
 
+    @Override
+    public void write(CsvData data) {
+        if (insertBatch.size() > 0 && data.getDataEventType() != DataEventType.INSERT) {
+            flushInsertBatch();
+        }
+        super.write(data);
+        if (failedInserts.size() > 0) {
+            flushInsertBatch();
+        }
+    }
+
     @Override
     public boolean start(Table table) {
+        flushInsertBatch();
         currentDmlStatement = null;
         boolean process = super.start(table);
         if (process && targetTable != null) {
@@ -144,6 +168,7 @@ public class DefaultDatabaseWriter extends AbstractDatabaseWriter {
 
     @Override
     public void end(Table table) {
+        flushInsertBatch();
         super.end(table);
         if (transaction.isAllowInsertIntoAutoIncrement()) {
             // SQL Server using JDBC Batch loading requires a flush before turning off the identity insert.
@@ -154,6 +179,9 @@ public class DefaultDatabaseWriter extends AbstractDatabaseWriter {
 
     @Override
     public void end(Batch batch, boolean inError) {
+        if (!inError) {
+            flushInsertBatch();
+        }
         currentDmlStatement = null;
         if (inError) {
             allowInsertIntoAutoIncrementColumns(false, targetTable);
@@ -171,6 +199,7 @@ public class DefaultDatabaseWriter extends AbstractDatabaseWriter {
 
     @Override
     protected void commit(boolean earlyCommit) {
+        flushInsertBatch();
         if (transaction != null) {
             try {
                 statistics.get(batch).startTimer(DataWriterStatisticConstants.LOADMILLIS);
@@ -206,6 +235,7 @@ public class DefaultDatabaseWriter extends AbstractDatabaseWriter {
 
     @Override
     protected void rollback() {
+        discardInsertBatch();
         if (transaction != null) {
             try {
                 statistics.get(batch).startTimer(DataWriterStatisticConstants.LOADMILLIS);
@@ -233,6 +263,9 @@ public class DefaultDatabaseWriter extends AbstractDatabaseWriter {
 
     @Override
     protected LoadStatus insert(CsvData data) {
+        if (insertBatch.size() > 0 && (targetTable != insertBatchTargetTable || requireNewStatement(DmlType.INSERT, data, false, true, null))) {
+            flushInsertBatch();
+        }
         try {
             if (isRequiresSavePointsInTransaction && conflictResolver != null && conflictResolver.isIgnoreRow(this, data)) {
                 statistics.get(batch).increment(DataWriterStatisticConstants.IGNOREROWCOUNT);
@@ -254,6 +287,9 @@ public class DefaultDatabaseWriter extends AbstractDatabaseWriter {
                 Conflict conflict = writerSettings.pickConflict(targetTable, batch);
                 String[] values = (String[]) ArrayUtils.addAll(getRowData(data, CsvData.ROW_DATA),
                         currentDmlStatement.getLookupKeyData(getLookupDataMap(data, conflict)));
+                if (isInsertBatchEnabled(data) && addToInsertBatch(data, values)) {
+                    return LoadStatus.SUCCESS;
+                }
                 long count = execute(data, values);
                 statistics.get(batch).increment(DataWriterStatisticConstants.INSERTCOUNT, count);
                 statistics.get(batch).incrementTableStats(targetTable.getName(), DataEventType.INSERT.getCode(), count);
@@ -285,6 +321,218 @@ public class DefaultDatabaseWriter extends AbstractDatabaseWriter {
         }
     }
 
+    protected boolean isInsertBatchEnabled(CsvData data) {
+        return writerSettings.isUseBatchInserts() && !isInsertBatchReplay && data.getDataEventType() == DataEventType.INSERT
+                && (insertBatch.size() > 0 || !getTransaction().isInBatchMode());
+    }
+
+    /**
+     * Add an insert to a JDBC batch. The batch is sent when it is full, and before any other statement, commit, or change of table.
+     *
+     * @return false if the transaction does not support batching and the row still needs to be inserted
+     */
+    protected boolean addToInsertBatch(CsvData data, String[] values) {
+        if (insertBatch.size() == 0) {
+            ISqlTransaction transaction = getTransaction();
+            transaction.setInBatchMode(true);
+            if (!transaction.isInBatchMode()) {
+                return false;
+            }
+            insertBatchTransaction = transaction;
+            insertBatchTargetTable = targetTable;
+            insertBatchSize = transaction.getBatchSize();
+            // the batch is sent by the writer instead of the transaction so a failure can be traced back to the rows in it
+            transaction.setBatchSize(Integer.MAX_VALUE);
+            if (isRequiresSavePointsInTransaction) {
+                transaction.execute("savepoint " + INSERT_BATCH_SAVEPOINT);
+            }
+        }
+        try {
+            execute(data, values);
+        } catch (RuntimeException ex) {
+            if (insertBatch.size() == 0) {
+                if (isRequiresSavePointsInTransaction) {
+                    insertBatchTransaction.execute("release savepoint " + INSERT_BATCH_SAVEPOINT);
+                }
+                resetInsertBatch();
+            }
+            throw ex;
+        }
+        Statistics batchStatistics = statistics.get(batch);
+        lastBatchedInsert = new BatchedInsert(data, sourceTable, targetTable, batchStatistics.get(DataWriterStatisticConstants.ROWCOUNT),
+                batchStatistics.get(DataWriterStatisticConstants.LINENUMBER));
+        insertBatch.add(lastBatchedInsert);
+        if (insertBatch.size() >= insertBatchSize) {
+            executeInsertBatch();
+        }
+        return true;
+    }
+
+    /**
+     * Send any inserts that are waiting in a JDBC batch to the database, and insert the rows from a failed batch one at a time
+     */
+    protected void flushInsertBatch() {
+        if (insertBatch.size() > 0) {
+            try {
+                statistics.get(batch).startTimer(DataWriterStatisticConstants.LOADMILLIS);
+                executeInsertBatch();
+            } finally {
+                statistics.get(batch).stopTimer(DataWriterStatisticConstants.LOADMILLIS);
+            }
+        }
+        if (failedInserts.size() > 0) {
+            List<BatchedInsert> inserts = new ArrayList<BatchedInsert>(failedInserts);
+            failedInserts.clear();
+            replayInserts(inserts);
+        }
+    }
+
+    /**
+     * Send the JDBC batch. Rows that were not inserted are added to the failed inserts, which are inserted one at a time by
+     * {@link #flushInsertBatch()}.
+     */
+    protected void executeInsertBatch() {
+        int count = 0;
+        SqlException error = null;
+        try {
+            count = insertBatchTransaction.flush();
+        } catch (SqlException ex) {
+            error = ex;
+        }
+        List<Object> unflushed = insertBatchTransaction.getUnflushedMarkers(true);
+        List<BatchedInsert> flushed = new ArrayList<BatchedInsert>(insertBatch.size());
+        if (error == null && isRequiresSavePointsInTransaction && count < insertBatch.size()) {
+            // some rows were not inserted, so undo the batch and find out which ones conflicted one row at a time
+            error = new SqlException("Only " + count + " of " + insertBatch.size() + " rows were inserted");
+        }
+        if (error == null) {
+            if (isRequiresSavePointsInTransaction) {
+                insertBatchTransaction.execute("release savepoint " + INSERT_BATCH_SAVEPOINT);
+            }
+            incrementInsertStats(count);
+            flushed.addAll(insertBatch);
+        } else {
+            insertBatchTransaction.clearBatch();
+            int failedCount = 0;
+            if (isRequiresSavePointsInTransaction) {
+                insertBatchTransaction.execute("rollback to savepoint " + INSERT_BATCH_SAVEPOINT);
+                insertBatchTransaction.execute("release savepoint " + INSERT_BATCH_SAVEPOINT);
+                failedInserts.addAll(insertBatch);
+                failedCount = insertBatch.size();
+            } else {
+                Set<Object> unflushedData = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+                unflushedData.addAll(unflushed);
+                for (BatchedInsert insert : insertBatch) {
+                    if (unflushedData.contains(insert.data)) {
+                        failedInserts.add(insert);
+                        failedCount++;
+                    } else {
+                        flushed.add(insert);
+                    }
+                }
+                incrementInsertStats(insertBatch.size() - failedCount);
+            }
+            log.debug("A batch of {} inserts into {} failed, so {} rows will be inserted one at a time: {}", insertBatch.size(),
+                    insertBatchTargetTable.getFullyQualifiedTableName(), failedCount, error.getMessage());
+        }
+        resetInsertBatch();
+        for (BatchedInsert insert : flushed) {
+            insert.flushed = true;
+            if (insert.written) {
+                filterAfter(insert);
+            }
+        }
+    }
+
+    /**
+     * Insert rows from a failed batch one at a time, using the normal conflict detection and resolution for each row
+     */
+    protected void replayInserts(List<BatchedInsert> inserts) {
+        Table currentSourceTable = sourceTable;
+        Table currentTargetTable = targetTable;
+        Statistics batchStatistics = statistics.get(batch);
+        long rowCount = batchStatistics.get(DataWriterStatisticConstants.ROWCOUNT);
+        long lineNumber = batchStatistics.get(DataWriterStatisticConstants.LINENUMBER);
+        isInsertBatchReplay = true;
+        try {
+            for (BatchedInsert insert : inserts) {
+                if (targetTable != insert.targetTable) {
+                    sourceTable = insert.sourceTable;
+                    targetTable = insert.targetTable;
+                    currentDmlStatement = null;
+                }
+                // row numbers are used to look up resolved data and to report the failed row
+                batchStatistics.set(DataWriterStatisticConstants.ROWCOUNT, insert.rowNumber);
+                batchStatistics.set(DataWriterStatisticConstants.LINENUMBER, insert.lineNumber);
+                try {
+                    resolveConflict(insert.data, insert(insert.data));
+                    filterAfter(insert);
+                } catch (RuntimeException ex) {
+                    handleWriteError(insert.data, ex);
+                }
+            }
+            batchStatistics.set(DataWriterStatisticConstants.ROWCOUNT, rowCount);
+            batchStatistics.set(DataWriterStatisticConstants.LINENUMBER, lineNumber);
+        } finally {
+            isInsertBatchReplay = false;
+            if (targetTable != currentTargetTable) {
+                sourceTable = currentSourceTable;
+                targetTable = currentTargetTable;
+                currentDmlStatement = null;
+            }
+        }
+    }
+
+    /**
+     * Filters run after a row is written, so a batched insert waits for its batch to be sent. Rows in a failed batch are filtered when they are
+     * inserted again one at a time, and rows that are rolled back are never filtered.
+     */
+    @Override
+    protected void filterAfter(CsvData data) {
+        BatchedInsert insert = lastBatchedInsert;
+        if (insert != null && insert.data == data) {
+            lastBatchedInsert = null;
+            insert.written = true;
+            if (!insert.flushed) {
+                return;
+            }
+        }
+        super.filterAfter(data);
+    }
+
+    protected void filterAfter(BatchedInsert insert) {
+        Table currentSourceTable = sourceTable;
+        sourceTable = insert.sourceTable;
+        try {
+            super.filterAfter(insert.data);
+        } finally {
+            sourceTable = currentSourceTable;
+        }
+    }
+
+    protected void discardInsertBatch() {
+        lastBatchedInsert = null;
+        if (insertBatch.size() > 0) {
+            insertBatchTransaction.getUnflushedMarkers(true);
+            insertBatchTransaction.clearBatch();
+            resetInsertBatch();
+        }
+        failedInserts.clear();
+    }
+
+    protected void incrementInsertStats(long count) {
+        if (count > 0) {
+            statistics.get(batch).increment(DataWriterStatisticConstants.INSERTCOUNT, count);
+            statistics.get(batch).incrementTableStats(insertBatchTargetTable.getName(), DataEventType.INSERT.getCode(), count);
+        }
+    }
+
+    protected void resetInsertBatch() {
+        insertBatchTransaction.setBatchSize(insertBatchSize);
+        insertBatchTransaction.setInBatchMode(false);
+        insertBatch.clear();
+    }
+
     private void findAndThrowInsertException(CsvData data, String[] values) throws SqlException {
         if (isRequiresSavePointsInTransaction && !getTransaction().isInBatchMode()) {
             try {
@@ -1273,4 +1521,22 @@ public class DefaultDatabaseWriter extends AbstractDatabaseWriter {
         String schemaSeparator = dbInfo.getSchemaSeparator();
         getTransaction(table).allowInsertIntoAutoIncrementColumns(value, table, quote, catalogSeparator, schemaSeparator);
     }
+
+    static class BatchedInsert {
+        CsvData data;
+        Table sourceTable;
+        Table targetTable;
+        long rowNumber;
+        long lineNumber;
+        boolean written;
+        boolean flushed;
+
+        BatchedInsert(CsvData data, Table sourceTable, Table targetTable, long rowNumber, long lineNumber) {
+            this.data = data;
+            this.sourceTable = sourceTable;
+            this.targetTable = targetTable;
+            this.rowNumber = rowNumber;
+            this.lineNumber = lineNumber;
+        }
+    }
 }
@@ -25,6 +25,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -32,11 +33,15 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.avro.Schema;
 import org.apache.avro.generic.GenericData;
 import org.apache.avro.generic.GenericDatumWriter;
 import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryEncoder;
 import org.apache.avro.io.Encoder;
 import org.apache.avro.io.EncoderFactory;
 import org.apache.commons.beanutils.BeanUtils;
@@ -44,6 +49,7 @@ import org.apache.commons.beanutils.PropertyUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.time.DateUtils;
 import org.apache.commons.text.StringEscapeUtils;
+import org.apache.kafka.clients.producer.Callback;
 import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.clients.producer.ProducerRecord;
@@ -52,6 +58,7 @@ import org.jumpmind.db.model.Table;
 import org.jumpmind.db.platform.DatabaseInfo;
 import org.jumpmind.db.platform.IDatabasePlatform;
 import org.jumpmind.db.sql.ISqlTransaction;
+import org.jumpmind.exception.InterruptedException;
 import org.jumpmind.properties.TypedProperties;
 import org.jumpmind.symmetric.io.data.Batch;
 import org.jumpmind.symmetric.io.data.CsvData;
@@ -113,14 +120,30 @@ public class KafkaWriter extends DynamicDefaultDatabaseWriter {
     public final static String KAFKA_SECURITY_PROTOCOL_SASL_PLAINTEXT = "SASL_PLAINTEXT";
     public final static String KAFKA_SECURITY_PROTOCOL_SASL_SSL = "SASL_SSL";
     public final static String KAFKA_SECURITY_PROTOCOL_SSL = "SSL";
+    public final static String KAFKA_MAX_IN_FLIGHT_MESSAGES = "kafka.max.in.flight.messages";
     Schema.Parser parser = new Schema.Parser();
     Schema schema = null;
+    Schema columnSchema = null;
+    GenericDatumWriter<GenericRecord> datumWriter;
+    ByteArrayOutputStream datumStream = new ByteArrayOutputStream();
+    BinaryEncoder datumEncoder;
+    Gson gson = new Gson();
     Map<String, Object> configs = new HashMap<String, Object>();
     Map<String, Class<?>> tableClassCache = new HashMap<String, Class<?>>();
     Map<String, String> tableNameCache = new HashMap<String, String>();
     Map<String, Map<String, String>> tableColumnCache = new HashMap<String, Map<String, String>>();
     public KafkaProducer<String, Object> kafkaProducer;
     protected static Map<String, KafkaProducer<String, Object>> producerMap = new HashMap<String, KafkaProducer<String, Object>>();
+    protected static Map<Class<?>, PojoAccessor> pojoAccessorCache = new ConcurrentHashMap<Class<?>, PojoAccessor>();
+    protected int maxInFlightMessages;
+    protected Semaphore inFlightMessages;
+    protected AtomicReference<Exception> sendError = new AtomicReference<Exception>();
+    protected Callback sendCallback = (metadata, exception) -> {
+        if (exception != null) {
+            sendError.compareAndSet(null, exception);
+        }
+        inFlightMessages.release();
+    };
 
     public KafkaWriter(IDatabasePlatform symmetricPlatform, IDatabasePlatform targetPlatform, String prefix,
             IDatabaseWriterConflictResolver conflictResolver, DatabaseWriterSettings settings, String producer, String outputFormat,
@@ -128,6 +151,8 @@ public class KafkaWriter extends DynamicDefaultDatabaseWriter {
             String loadOnlyPrefix, TypedProperties props, String runtimeConfigTablePrefix, String channelReload) {
         super(symmetricPlatform, targetPlatform, prefix, conflictResolver, settings);
         schema = parser.parse(AVRO_CDC_SCHEMA);
+        columnSchema = schema.getField("data").schema().getElementType();
+        datumWriter = new GenericDatumWriter<GenericRecord>(schema);
         this.url = url;
         this.producer = producer;
         this.outputFormat = outputFormat;
@@ -144,6 +169,8 @@ public class KafkaWriter extends DynamicDefaultDatabaseWriter {
                     "Kakfa not configured properly, verify you have set the endpoint to kafka with the following property : " + loadOnlyPrefix
                             + "db.url");
         }
+        maxInFlightMessages = Math.max(1, props.getInt(KAFKA_MAX_IN_FLIGHT_MESSAGES, 1000));
+        inFlightMessages = new Semaphore(maxInFlightMessages);
         String clientID = this.producer + "-" + this.externalNodeID;
         if (producerMap.get(clientID) != null) {
             kafkaProducer = producerMap.get(clientID);
@@ -227,7 +254,6 @@ public class KafkaWriter extends DynamicDefaultDatabaseWriter {
             kafkaText.append("{\"").append(table.getName()).append("\": {").append("\"eventType\": \"" + data.getDataEventType() + "\",")
                     .append("\"data\": { ");
             // Let Gson escape the json values
-            Gson gson = new Gson();
             for (int i = 0; i < table.getColumnNames().length; i++) {
                 kafkaText.append("\"").append(table.getColumnNames()[i]).append("\": ");
                 kafkaText.append(gson.toJson(rowData[i]));
@@ -264,27 +290,8 @@ public class KafkaWriter extends DynamicDefaultDatabaseWriter {
                 try {
                     Class<?> curClass = getClassByTableName(tableName);
                     if (curClass != null) {
-                        Constructor<?> defaultConstructor = curClass.getConstructor();
-                        Object pojo = defaultConstructor.newInstance();
-                        for (int i = 0; i < table.getColumnNames().length; i++) {
-                            String colName = getColumnName(table.getName(), table.getColumnNames()[i], pojo);
-                            if (colName != null) {
-                                Class<?> propertyTypeClass = PropertyUtils.getPropertyType(pojo, colName);
-                                if (CharSequence.class.equals(propertyTypeClass)) {
-                                    PropertyUtils.setSimpleProperty(pojo, colName, rowData[i]);
-                                } else if (Long.class.equals(propertyTypeClass)) {
-                                    Date date = null;
-                                    try {
-                                        date = DateUtils.parseDate(rowData[i], parseDatePatterns);
-                                    } catch (Exception e) {
-                                        log.debug(rowData[i] + " was not a recognized date format so treating it as a long.");
-                                    }
-                                    BeanUtils.setProperty(pojo, colName, date != null ? date.getTime() : rowData[i]);
-                                } else {
-                                    BeanUtils.setProperty(pojo, colName, rowData[i]);
-                                }
-                            }
-                        }
+                        Object pojo = getPojoAccessor(curClass).getConstructor().newInstance();
+                        setPojoProperties(pojo, table.getName(), table.getColumnNames(), rowData);
                         sendKafkaMessage(new ProducerRecord<String, Object>(kafkaDataKey, kafkaKey, pojo));
                     } else {
                         throw new RuntimeException(
@@ -309,14 +316,14 @@ public class KafkaWriter extends DynamicDefaultDatabaseWriter {
                 avroRecord.put("eventType", data.getDataEventType().toString());
                 Collection<GenericRecord> dataCollection = new ArrayList<GenericRecord>();
                 for (int i = 0; i < table.getColumnNames().length; i++) {
-                    GenericRecord columnRecord = new GenericData.Record(schema.getField("data").schema().getElementType());
+                    GenericRecord columnRecord = new GenericData.Record(columnSchema);
                     columnRecord.put("name", table.getColumnNames()[i]);
                     columnRecord.put("value", rowData[i]);
                     dataCollection.add(columnRecord);
                 }
                 avroRecord.put("data", dataCollection);
                 try {
-                    kafkaDataList.add(new ProducerRecord<String, Object>(kafkaDataKey, kafkaKey, datumToByteArray(schema, avroRecord)));
+                    kafkaDataList.add(new ProducerRecord<String, Object>(kafkaDataKey, kafkaKey, datumToByteArray(avroRecord)));
                     return 1;
                 } catch (IOException ioe) {
                     throw new RuntimeException("Unable to convert row data to an Avro record", ioe);
@@ -457,6 +464,10 @@ public class KafkaWriter extends DynamicDefaultDatabaseWriter {
             batchComplete(context);
             commit(false);
         } else {
+            Exception e = awaitSends();
+            if (e != null) {
+                log.debug("Kafka send failed for batch in error", e);
+            }
             rollback();
         }
     }
@@ -538,32 +549,110 @@ public class KafkaWriter extends DynamicDefaultDatabaseWriter {
     }
 
     public String getColumnName(String dbTableName, String dbColumnName, Object bean) {
-        if (tableColumnCache.containsKey(dbColumnName) && tableColumnCache.get(dbTableName).containsKey(dbColumnName)) {
-            return tableColumnCache.get(dbTableName).get(dbColumnName);
-        } else {
-            String columnName = null;
-            if (!tableColumnCache.containsKey(dbColumnName)) {
-                tableColumnCache.put(dbTableName, new HashMap<String, String>());
+        Map<String, String> columnNames = tableColumnCache.get(dbTableName);
+        if (columnNames == null) {
+            columnNames = new HashMap<String, String>();
+            tableColumnCache.put(dbTableName, columnNames);
+        } else if (columnNames.containsKey(dbColumnName)) {
+            return columnNames.get(dbColumnName);
+        }
+        String columnName = null;
+        String dbColumnNameSimple = dbColumnName.toLowerCase().replaceAll("[^a-z0-9]", "");
+        for (String propertyName : getPojoAccessor(bean.getClass()).getProperties().keySet()) {
+            if (propertyName.toLowerCase().equals(dbColumnNameSimple)) {
+                columnName = propertyName;
+                break;
             }
-            String dbColumnNameSimple = dbColumnName.toLowerCase().replaceAll("[^a-z0-9]", "");
-            for (PropertyDescriptor pd : PropertyUtils.getPropertyDescriptors(bean)) {
-                if (pd.getName().toLowerCase().equals(dbColumnNameSimple)) {
-                    columnName = pd.getName();
-                    break;
+        }
+        columnNames.put(dbColumnName, columnName);
+        return columnName;
+    }
+
+    protected PojoAccessor getPojoAccessor(Class<?> pojoClass) {
+        PojoAccessor accessor = pojoAccessorCache.get(pojoClass);
+        if (accessor == null) {
+            accessor = new PojoAccessor(pojoClass);
+            pojoAccessorCache.put(pojoClass, accessor);
+        }
+        return accessor;
+    }
+
+    protected void setPojoProperties(Object pojo, String dbTableName, String[] columnNames, String[] rowData)
+            throws NoSuchMethodException, InvocationTargetException, IllegalAccessException {
+        Map<String, PropertyDescriptor> properties = getPojoAccessor(pojo.getClass()).getProperties();
+        for (int i = 0; i < columnNames.length; i++) {
+            String colName = getColumnName(dbTableName, columnNames[i], pojo);
+            if (colName != null) {
+                PropertyDescriptor descriptor = properties.get(colName);
+                Class<?> propertyTypeClass = descriptor.getPropertyType();
+                if (CharSequence.class.equals(propertyTypeClass)) {
+                    Method writeMethod = descriptor.getWriteMethod();
+                    if (writeMethod == null) {
+                        throw new NoSuchMethodException("Property '" + colName + "' has no setter method in class '" + pojo.getClass() + "'");
+                    }
+                    writeMethod.invoke(pojo, rowData[i]);
+                } else if (Long.class.equals(propertyTypeClass)) {
+                    Date date = null;
+                    try {
+                        date = DateUtils.parseDate(rowData[i], parseDatePatterns);
+                    } catch (Exception e) {
+                        log.debug(rowData[i] + " was not a recognized date format so treating it as a long.");
+                    }
+                    BeanUtils.setProperty(pojo, colName, date != null ? date.getTime() : rowData[i]);
+                } else {
+                    BeanUtils.setProperty(pojo, colName, rowData[i]);
                 }
             }
-            if (columnName != null) {
-                tableColumnCache.get(dbTableName).put(dbColumnName, columnName);
-                return columnName;
-            } else {
-                return null;
-            }
         }
     }
 
+    /**
+     * Send a message without waiting for it to be acknowledged. The number of unacknowledged messages is limited by the
+     * {@value #KAFKA_MAX_IN_FLIGHT_MESSAGES} property. Any send failure is reported when the batch completes.
+     */
     public void sendKafkaMessage(ProducerRecord<String, Object> record) {
+        Exception error = sendError.get();
+        if (error != null) {
+            throw new RuntimeException("Unable to send message to Kafka", error);
+        }
         log.debug("Sending message (topic={}) (key={}) {}", record.topic(), record.key(), record.value());
-        kafkaProducer.send(record);
+        try {
+            inFlightMessages.acquire();
+        } catch (java.lang.InterruptedException e) {
+            throw new InterruptedException(e);
+        }
+        try {
+            kafkaProducer.send(record, sendCallback);
+        } catch (RuntimeException e) {
+            inFlightMessages.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Wait for all messages sent by this writer to be acknowledged
+     *
+     * @return the first send failure since the last call, or null if all messages were sent
+     */
+    protected Exception awaitSends() {
+        if (inFlightMessages.availablePermits() < maxInFlightMessages) {
+            kafkaProducer.flush();
+            try {
+                inFlightMessages.acquire(maxInFlightMessages);
+            } catch (java.lang.InterruptedException e) {
+                throw new InterruptedException(e);
+            }
+            inFlightMessages.release(maxInFlightMessages);
+        }
+        return sendError.getAndSet(null);
+    }
+
+    protected byte[] datumToByteArray(GenericRecord datum) throws IOException {
+        datumStream.reset();
+        datumEncoder = EncoderFactory.get().binaryEncoder(datumStream, datumEncoder);
+        datumWriter.write(datum, datumEncoder);
+        datumEncoder.flush();
+        return datumStream.toByteArray();
     }
 
     public static byte[] datumToByteArray(Schema schema, GenericRecord datum) throws IOException {
@@ -603,6 +692,10 @@ public class KafkaWriter extends DynamicDefaultDatabaseWriter {
                     }
                     kafkaDataMap = new HashMap<String, List<ProducerRecord<String, Object>>>();
                 }
+                Exception sendException = awaitSends();
+                if (sendException != null) {
+                    throw sendException;
+                }
             } catch (Exception e) {
                 log.warn("Unable to write batch to Kafka " + batchFileName, e);
                 throw new RuntimeException(e);
@@ -654,7 +747,6 @@ public class KafkaWriter extends DynamicDefaultDatabaseWriter {
             kafkaText.append("{\"").append(table.getName()).append("\": {").append("\"eventType\": \"" + data.getDataEventType() + "\",")
                     .append("\"data\": { ");
             // Let Gson escape the json values
-            Gson gson = new Gson();
             if (oldData != null) {
                 for (int i = 0; i < table.getColumnCount(); i++) {
                     kafkaText.append("\"").append(table.getColumnNames()[i]).append("\": ");
@@ -720,48 +812,11 @@ public class KafkaWriter extends DynamicDefaultDatabaseWriter {
                 try {
                     Class<?> curClass = getClassByTableName(tableName);
                     if (curClass != null) {
-                        Constructor<?> defaultConstructor = curClass.getConstructor();
-                        Object pojo = defaultConstructor.newInstance();
+                        Object pojo = getPojoAccessor(curClass).getConstructor().newInstance();
                         if (oldData != null) {
-                            for (int i = 0; i < table.getColumnNames().length; i++) {
-                                String colName = getColumnName(table.getName(), table.getColumnNames()[i], pojo);
-                                if (colName != null) {
-                                    Class<?> propertyTypeClass = PropertyUtils.getPropertyType(pojo, colName);
-                                    if (CharSequence.class.equals(propertyTypeClass)) {
-                                        PropertyUtils.setSimpleProperty(pojo, colName, rowData[i]);
-                                    } else if (Long.class.equals(propertyTypeClass)) {
-                                        Date date = null;
-                                        try {
-                                            date = DateUtils.parseDate(rowData[i], parseDatePatterns);
-                                        } catch (Exception e) {
-                                            log.debug(rowData[i] + " was not a recognized date format so treating it as a long.");
-                                        }
-                                        BeanUtils.setProperty(pojo, colName, date != null ? date.getTime() : rowData[i]);
-                                    } else {
-                                        BeanUtils.setProperty(pojo, colName, rowData[i]);
-                                    }
-                                }
-                            }
+                            setPojoProperties(pojo, table.getName(), table.getColumnNames(), rowData);
                         } else {
-                            for (int i = 0; i < table.getPrimaryKeyColumnCount(); i++) {
-                                String colName = getColumnName(table.getName(), table.getPrimaryKeyColumnNames()[i], pojo);
-                                if (colName != null) {
-                                    Class<?> propertyTypeClass = PropertyUtils.getPropertyType(pojo, colName);
-                                    if (CharSequence.class.equals(propertyTypeClass)) {
-                                        PropertyUtils.setSimpleProperty(pojo, colName, rowData[i]);
-                                    } else if (Long.class.equals(propertyTypeClass)) {
-                                        Date date = null;
-                                        try {
-                                            date = DateUtils.parseDate(rowData[i], parseDatePatterns);
-                                        } catch (Exception e) {
-                                            log.debug(rowData[i] + " was not a recognized date format so treating it as a long.");
-                                        }
-                                        BeanUtils.setProperty(pojo, colName, date != null ? date.getTime() : rowData[i]);
-                                    } else {
-                                        BeanUtils.setProperty(pojo, colName, rowData[i]);
-                                    }
-                                }
-                            }
+                            setPojoProperties(pojo, table.getName(), table.getPrimaryKeyColumnNames(), rowData);
                         }
                         sendKafkaMessage(new ProducerRecord<String, Object>(kafkaDataKey, kafkaKey, pojo));
                     } else {
@@ -787,14 +842,14 @@ public class KafkaWriter extends DynamicDefaultDatabaseWriter {
                 avroRecord.put("eventType", data.getDataEventType().toString());
                 Collection<GenericRecord> dataCollection = new ArrayList<GenericRecord>();
                 for (int i = 0; i < table.getColumnNames().length; i++) {
-                    GenericRecord columnRecord = new GenericData.Record(schema.getField("data").schema().getElementType());
+                    GenericRecord columnRecord = new GenericData.Record(columnSchema);
                     columnRecord.put("name", table.getColumnNames()[i]);
                     columnRecord.put("value", rowData[i]);
                     dataCollection.add(columnRecord);
                 }
                 avroRecord.put("data", dataCollection);
                 try {
-                    kafkaDataList.add(new ProducerRecord<String, Object>(kafkaDataKey, kafkaKey, datumToByteArray(schema, avroRecord)));
+                    kafkaDataList.add(new ProducerRecord<String, Object>(kafkaDataKey, kafkaKey, datumToByteArray(avroRecord)));
                     return 1;
                 } catch (IOException ioe) {
                     throw new RuntimeException("Unable to convert row data to an Avro record", ioe);
@@ -804,4 +859,32 @@ public class KafkaWriter extends DynamicDefaultDatabaseWriter {
         kafkaDataList.add(new ProducerRecord<String, Object>(kafkaDataKey, kafkaKey, kafkaText.toString()));
         return 1;
     }
+
+    protected static class PojoAccessor {
+        private Class<?> pojoClass;
+        private Constructor<?> constructor;
+        private Map<String, PropertyDescriptor> properties = new HashMap<String, PropertyDescriptor>();
+
+        PojoAccessor(Class<?> pojoClass) {
+            this.pojoClass = pojoClass;
+            try {
+                constructor = pojoClass.getConstructor();
+            } catch (NoSuchMethodException e) {
+            }
+            for (PropertyDescriptor descriptor : PropertyUtils.getPropertyDescriptors(pojoClass)) {
+                properties.put(descriptor.getName(), descriptor);
+            }
+        }
+
+        Constructor<?> getConstructor() throws NoSuchMethodException {
+            if (constructor == null) {
+                throw new NoSuchMethodException("No default constructor found for " + pojoClass.getName());
+            }
+            return constructor;
+        }
+
+        Map<String, PropertyDescriptor> getProperties() {
+            return properties;
+        }
+    }
 }
@@ -67,6 +67,12 @@ public interface IStagedResource {
 
     public boolean isMemoryResource();
 
+    /**
+     * @return true if the file was written with a staging codec, so its content must be read through {@link #getReader()} or
+     *         {@link #getInputStream()}
+     */
+    public boolean isCompressed();
+
     public boolean delete();
 
     public boolean exists();
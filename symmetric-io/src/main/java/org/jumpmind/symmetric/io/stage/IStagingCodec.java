@@ -0,0 +1,44 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.io.stage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Encodes the content of staged files as they are written and decodes it as they are read. The codec used to read a file is detected from its
+ * first bytes, so files written before the codec was changed can still be read.
+ */
+public interface IStagingCodec {
+    public String getName();
+
+    /**
+     * @return the number of bytes needed from the start of a file to detect this codec
+     */
+    public int getHeaderLength();
+
+    public boolean isEncoded(byte[] header, int length);
+
+    public OutputStream encode(OutputStream out) throws IOException;
+
+    public InputStream decode(InputStream in) throws IOException;
+}
@@ -37,4 +37,9 @@ public interface IStagingManager {
     public StagingFileLock acquireFileLock(String serverInfo, Object... path);
 
     public File getStagingDirectory();
+
+    /**
+     * @return the codec used to write new staged files, or null if they are written as plain text
+     */
+    public IStagingCodec getStagingCodec();
 }
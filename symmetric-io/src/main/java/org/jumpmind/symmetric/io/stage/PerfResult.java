@@ -24,6 +24,8 @@ public class PerfResult {
     private String name;
     private long count;
     private long millis;
+    private long bytes;
+    private long storedBytes;
     private float rating;
 
     public PerfResult(String name, long count, long millis, float rating) {
@@ -64,7 +66,12 @@ public class PerfResult {
 
     @Override
     public String toString() {
-        return getClass().getSimpleName() + " { name=" + name + ", count=" + count + ", millis=" + millis + ", ops=" + getOperationsPerSecond() + " }";
+        StringBuilder sb = new StringBuilder(getClass().getSimpleName()).append(" { name=").append(name).append(", count=").append(count)
+                .append(", millis=").append(millis).append(", ops=").append(getOperationsPerSecond());
+        if (bytes > 0) {
+            sb.append(", bytes/sec=").append(getBytesPerSecond()).append(", ratio=").append(String.format("%.2f", getCompressionRatio()));
+        }
+        return sb.append(" }").toString();
     }
 
     public String getName() {
@@ -99,6 +106,50 @@ public class PerfResult {
         this.millis = millis;
     }
 
+    public long getBytes() {
+        return bytes;
+    }
+
+    public void incrementBytes(long inc) {
+        bytes += inc;
+    }
+
+    public void setBytes(long bytes) {
+        this.bytes = bytes;
+    }
+
+    public long getStoredBytes() {
+        return storedBytes;
+    }
+
+    public void incrementStoredBytes(long inc) {
+        storedBytes += inc;
+    }
+
+    public void setStoredBytes(long storedBytes) {
+        this.storedBytes = storedBytes;
+    }
+
+    /**
+     * @return the number of uncompressed bytes processed per second
+     */
+    public long getBytesPerSecond() {
+        if (millis > 0) {
+            return (long) (bytes / (millis / 1000f));
+        }
+        return bytes;
+    }
+
+    /**
+     * @return the uncompressed size divided by the size stored on disk
+     */
+    public float getCompressionRatio() {
+        if (storedBytes > 0) {
+            return bytes / (float) storedBytes;
+        }
+        return 1f;
+    }
+
     public long getOperationsPerSecond() {
         if (millis > 0) {
             return (long) (count / (millis / 1000f));
@@ -231,7 +231,7 @@ public class StagedResource implements IStagedResource {
     }
 
     protected BufferedReader createReader() throws IOException {
-        return new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8.name()));
+        return new BufferedReader(new InputStreamReader(createInputStream(), StandardCharsets.UTF_8.name()));
     }
 
     private synchronized final void createReadersMap() {
@@ -328,13 +328,25 @@ public class StagedResource implements IStagedResource {
                 outputStream = createOutputStream(append);
             }
             return outputStream;
-        } catch (FileNotFoundException e) {
+        } catch (IOException e) {
             throw new IoException(e);
         }
     }
 
-    protected OutputStream createOutputStream(boolean append) throws FileNotFoundException {
-        return new BufferedOutputStream(new FileOutputStream(file, append));
+    protected OutputStream createOutputStream(boolean append) throws IOException {
+        IStagingCodec codec = null;
+        if (append && file.length() > 0) {
+            try (InputStream is = new BufferedInputStream(new FileInputStream(file))) {
+                codec = stagingManager.detectStagingCodec(is);
+            }
+        } else {
+            codec = stagingManager.getStagingCodec(path);
+        }
+        OutputStream os = new FileOutputStream(file, append);
+        if (codec != null) {
+            os = codec.encode(os);
+        }
+        return new BufferedOutputStream(os);
     }
 
     public synchronized InputStream getInputStream() {
@@ -362,8 +374,31 @@ public class StagedResource implements IStagedResource {
         return reader;
     }
 
-    protected InputStream createInputStream() throws FileNotFoundException {
-        return new BufferedInputStream(new FileInputStream(file));
+    protected InputStream createInputStream() throws IOException {
+        InputStream is = new BufferedInputStream(new FileInputStream(file));
+        try {
+            IStagingCodec codec = stagingManager.detectStagingCodec(is);
+            if (codec != null) {
+                is = new BufferedInputStream(codec.decode(is));
+            }
+        } catch (IOException e) {
+            is.close();
+            throw e;
+        }
+        return is;
+    }
+
+    public boolean isCompressed() {
+        if (file != null && file.exists()) {
+            try (InputStream is = new BufferedInputStream(new FileInputStream(file))) {
+                return stagingManager.detectStagingCodec(is) != null;
+            } catch (FileNotFoundException e) {
+                return false;
+            } catch (IOException e) {
+                throw new IoException(e);
+            }
+        }
+        return false;
     }
 
     public BufferedWriter getWriter(long threshold) {
@@ -383,7 +418,7 @@ public class StagedResource implements IStagedResource {
     }
 
     protected BufferedWriter createWriter(long threshold) {
-        return new BufferedWriter(new ThresholdFileWriter(threshold, this.memoryBuffer, file));
+        return new BufferedWriter(new ThresholdFileWriter(threshold, this.memoryBuffer, file, stagingManager.getStagingCodec(path)));
     }
 
     public long getSize() {
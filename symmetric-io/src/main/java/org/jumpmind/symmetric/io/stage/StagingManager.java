@@ -22,16 +22,19 @@ package org.jumpmind.symmetric.io.stage;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.nio.file.DirectoryStream;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -48,6 +51,8 @@ public class StagingManager implements IStagingManager {
     protected Map<String, IStagedResource> inUse = new ConcurrentHashMap<String, IStagedResource>();
     protected boolean clusterEnabled;
     protected long lowFreeSpaceThresholdMegabytes;
+    protected IStagingCodec stagingCodec;
+    protected List<IStagingCodec> stagingCodecs = new CopyOnWriteArrayList<IStagingCodec>(new IStagingCodec[] { new DeflateStagingCodec() });
 
     public StagingManager(String directory, boolean clusterEnabled, long lowFreeSpaceThresholdMegabytes) {
         log.info("The staging directory was initialized at the following location: " + directory);
@@ -298,6 +303,65 @@ public class StagingManager implements IStagingManager {
         return stagingFileLock;
     }
 
+    @Override
+    public IStagingCodec getStagingCodec() {
+        return stagingCodec;
+    }
+
+    /**
+     * Set the codec used to write new staged files, or null to write them as plain text. Files are always read with the codec detected from their
+     * content.
+     */
+    public void setStagingCodec(IStagingCodec stagingCodec) {
+        if (stagingCodec != null) {
+            boolean known = false;
+            for (IStagingCodec codec : stagingCodecs) {
+                known |= codec.getClass().equals(stagingCodec.getClass());
+            }
+            if (!known) {
+                stagingCodecs.add(stagingCodec);
+            }
+            log.info("Staged files will be written with the {} codec", stagingCodec.getName());
+        }
+        this.stagingCodec = stagingCodec;
+    }
+
+    /**
+     * @return the codec to use when writing the resource at the path
+     */
+    protected IStagingCodec getStagingCodec(String path) {
+        return stagingCodec;
+    }
+
+    /**
+     * Detect the codec that was used to write a stream. The stream must support mark and reset.
+     * 
+     * @return the codec, or null if the stream is plain text
+     */
+    protected IStagingCodec detectStagingCodec(InputStream in) throws IOException {
+        int headerLength = 0;
+        for (IStagingCodec codec : stagingCodecs) {
+            headerLength = Math.max(headerLength, codec.getHeaderLength());
+        }
+        byte[] header = new byte[headerLength];
+        int length = 0;
+        in.mark(headerLength);
+        try {
+            int count = 0;
+            while (length < headerLength && (count = in.read(header, length, headerLength - length)) > 0) {
+                length += count;
+            }
+        } finally {
+            in.reset();
+        }
+        for (IStagingCodec codec : stagingCodecs) {
+            if (codec.isEncoded(header, length)) {
+                return codec;
+            }
+        }
+        return null;
+    }
+
     @Override
     public File getStagingDirectory() {
         return directory;
@@ -62,7 +62,8 @@ public class StagingPerf {
         long startTime = System.currentTimeMillis();
         long lastCallbackTime = startTime;
         long totalSeconds = 0;
-        log.info("Starting staging test, duration of {} seconds", seconds);
+        IStagingCodec codec = stagingMgr.getStagingCodec();
+        log.info("Starting staging test, duration of {} seconds, using codec {}", seconds, codec != null ? codec.getName() : "none");
         try {
             SecureRandom random = new SecureRandom();
             long startBatchId = random.nextInt(999999) + 1;
@@ -116,15 +117,18 @@ public class StagingPerf {
         if (resource != null) {
             increment(results, STAT_BATCH_CREATE, System.currentTimeMillis() - ts);
             ts = System.currentTimeMillis();
+            long bytes = 0;
             try (BufferedWriter writer = resource.getWriter(0l)) {
                 for (int i = 0; i < 100; i++) {
-                    writer.write(RandomStringUtils.random(1000));
+                    String row = buildRow(i);
+                    writer.write(row);
+                    bytes += row.length();
                 }
             } catch (IOException e) {
                 throw new RuntimeException(e);
             } finally {
                 resource.close();
-                increment(results, STAT_BATCH_WRITE, System.currentTimeMillis() - ts);
+                increment(results, STAT_BATCH_WRITE, System.currentTimeMillis() - ts, bytes, resource.getSize());
             }
             ts = System.currentTimeMillis();
             resource.setState(State.DONE);
@@ -137,14 +141,18 @@ public class StagingPerf {
         if (resource != null) {
             increment(results, STAT_BATCH_FIND, System.currentTimeMillis() - ts);
             ts = System.currentTimeMillis();
+            long bytes = 0;
+            long storedBytes = resource.getSize();
             try (BufferedReader reader = resource.getReader()) {
-                while (reader.readLine() != null) {
+                String line = null;
+                while ((line = reader.readLine()) != null) {
+                    bytes += line.length() + 1;
                 }
             } catch (IOException e) {
                 throw new RuntimeException(e);
             } finally {
                 resource.close();
-                increment(results, STAT_BATCH_READ, System.currentTimeMillis() - ts);
+                increment(results, STAT_BATCH_READ, System.currentTimeMillis() - ts, bytes, storedBytes);
             }
             resource.delete();
         } else {
@@ -152,7 +160,24 @@ public class StagingPerf {
         }
     }
 
+    /**
+     * Build a row of about 1000 characters that looks like an insert in a batch, so the compression ratio is close to that of real data
+     */
+    protected String buildRow(int rowNumber) {
+        StringBuilder sb = new StringBuilder(1024);
+        sb.append("insert,\"").append(rowNumber).append("\"");
+        while (sb.length() < 980) {
+            sb.append(",\"").append(RandomStringUtils.randomAlphanumeric(8)).append("\",\"").append(RandomStringUtils.randomNumeric(6))
+                    .append("\",\"2024-01-01 00:00:00.000\"");
+        }
+        return sb.append("\n").toString();
+    }
+
     protected void increment(Map<String, PerfResult> results, String statName, long millis) {
+        increment(results, statName, millis, 0, 0);
+    }
+
+    protected void increment(Map<String, PerfResult> results, String statName, long millis, long bytes, long storedBytes) {
         PerfResult result = results.get(statName);
         if (result == null) {
             result = new PerfResult(statName);
@@ -160,6 +185,8 @@ public class StagingPerf {
         }
         result.incrementCount(1);
         result.incrementMillis(millis);
+        result.incrementBytes(bytes);
+        result.incrementStoredBytes(storedBytes);
     }
 
     public static List<PerfResult> getEmptyResults() {
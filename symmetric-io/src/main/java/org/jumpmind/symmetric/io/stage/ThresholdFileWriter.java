@@ -26,7 +26,9 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.StringReader;
 import java.io.Writer;
@@ -41,6 +43,7 @@ public class ThresholdFileWriter extends Writer {
     protected BufferedWriter fileWriter;
     protected StringBuilder buffer;
     protected long threshhold;
+    protected IStagingCodec codec;
 
     /**
      * @param threshold
@@ -49,9 +52,18 @@ public class ThresholdFileWriter extends Writer {
      *            The file to write to after the threshold has been reached
      */
     public ThresholdFileWriter(long threshold, StringBuilder buffer, File file) {
+        this(threshold, buffer, file, null);
+    }
+
+    /**
+     * @param codec
+     *            The codec used to encode the file, or null to write plain text
+     */
+    public ThresholdFileWriter(long threshold, StringBuilder buffer, File file, IStagingCodec codec) {
         this.file = file;
         this.buffer = buffer;
         this.threshhold = threshold;
+        this.codec = codec;
     }
 
     public File getFile() {
@@ -97,12 +109,20 @@ public class ThresholdFileWriter extends Writer {
     }
 
     protected BufferedWriter getWriter() throws IOException {
-        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8.name()));
+        OutputStream os = new FileOutputStream(file);
+        if (codec != null) {
+            os = codec.encode(os);
+        }
+        return new BufferedWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8.name()));
     }
 
     public BufferedReader getReader() throws IOException {
         if (file != null && file.exists()) {
-            return new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8.name()));
+            InputStream is = new FileInputStream(file);
+            if (codec != null) {
+                is = codec.decode(is);
+            }
+            return new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8.name()));
         } else {
             return new BufferedReader(new StringReader(buffer.toString()));
         }
@@ -0,0 +1,78 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.io.data;
+
+import static org.junit.Assert.*;
+
+import org.junit.jupiter.api.Test;
+
+public class CsvDataTest {
+    @Test
+    public void testParseCsvDataOnAccess() {
+        CsvData data = new CsvData(DataEventType.UPDATE);
+        data.putCsvData(CsvData.ROW_DATA, "\"1\",\"two\",");
+        assertTrue(data.contains(CsvData.ROW_DATA));
+        assertFalse(data.contains(CsvData.OLD_DATA));
+        String[] values = data.getParsedData(CsvData.ROW_DATA);
+        assertArrayEquals(new String[] { "1", "two", null }, values);
+        assertSame(values, data.getParsedData(CsvData.ROW_DATA));
+    }
+
+    @Test
+    public void testSwapParsedDataForCsvData() {
+        CsvData data = new CsvData(DataEventType.INSERT, new String[] { "1" }, new String[] { "1", "a\"b" });
+        String csv = data.getCsvData(CsvData.ROW_DATA);
+        assertEquals(CsvUtils.escapeCsvData(new String[] { "1", "a\"b" }), csv);
+        assertArrayEquals(new String[] { "1", "a\"b" }, data.getParsedData(CsvData.ROW_DATA));
+        assertArrayEquals(new String[] { "1" }, data.getParsedData(CsvData.PK_DATA));
+    }
+
+    @Test
+    public void testRemoveData() {
+        CsvData data = new CsvData(DataEventType.UPDATE, new String[] { "1" }, new String[] { "0" }, null);
+        data.removeCsvData(CsvData.OLD_DATA);
+        assertTrue(data.contains(CsvData.OLD_DATA));
+        data.removeParsedData(CsvData.OLD_DATA);
+        assertFalse(data.contains(CsvData.OLD_DATA));
+        assertNull(data.getParsedData(CsvData.OLD_DATA));
+        assertNull(data.getCsvData(CsvData.RESOLVE_DATA));
+        assertEquals(0, data.getSizeInBytes());
+        data.getCsvData(CsvData.ROW_DATA);
+        assertEquals(3, data.getSizeInBytes());
+    }
+
+    @Test
+    public void testOtherKeys() {
+        CsvData data = new CsvData();
+        data.putCsvData("customData", "\"x\"");
+        assertArrayEquals(new String[] { "x" }, data.getParsedData("customData"));
+        data.removeAllData("customData");
+        assertFalse(data.contains("customData"));
+    }
+
+    @Test
+    public void testChangedDataIndicators() {
+        CsvData data = new CsvData(DataEventType.UPDATE, new String[] { "1", "b", null }, new String[] { "1", "a", null }, null);
+        assertArrayEquals(new boolean[] { false, true, false }, data.getChangedDataIndicators());
+        data.putParsedData(CsvData.ROW_DATA, new String[] { "2", "a", "c" });
+        assertArrayEquals(new boolean[] { true, false, true }, data.getChangedDataIndicators());
+    }
+}
@@ -0,0 +1,45 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.io.data;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+public class DbExportTest {
+    @Test
+    public void testTrailingOrderBy() {
+        assertEquals(8, DbExport.getTrailingOrderByIndex("id > 10 order by id"));
+        assertEquals(8, DbExport.getTrailingOrderByIndex("id > 10 ORDER  BY id desc, name"));
+        assertEquals(18, DbExport.getTrailingOrderByIndex("(a = 1 or b = 2)  order by coalesce(a, b)"));
+        assertEquals(-1, DbExport.getTrailingOrderByIndex("id > 10"));
+    }
+
+    @Test
+    public void testOrderByInsideConditionIsKept() {
+        assertEquals(-1, DbExport.getTrailingOrderByIndex("name = 'sort order by date'"));
+        assertEquals(-1, DbExport.getTrailingOrderByIndex("id in (select id from t order by id limit 5)"));
+        assertEquals(-1, DbExport.getTrailingOrderByIndex("\"border by\" = 1"));
+        assertEquals(-1, DbExport.getTrailingOrderByIndex("border by = 1"));
+        assertEquals(-1, DbExport.getTrailingOrderByIndex("name = 'it''s' and note = 'order by x'"));
+        assertEquals(29, DbExport.getTrailingOrderByIndex("name = 'order by' and id > 1 order by id"));
+    }
+}
@@ -0,0 +1,137 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.io.data.stage;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.jumpmind.symmetric.io.stage.DeflateStagingCodec;
+import org.jumpmind.symmetric.io.stage.IStagedResource;
+import org.jumpmind.symmetric.io.stage.IStagedResource.State;
+import org.jumpmind.symmetric.io.stage.StagingManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class StagingCodecTest {
+    final static File DIR = new File("target/tmp/staging-codec");
+    final static String TEST_STR = "insert,\"1\",\"The quick brown fox jumped over the lazy dog\"\n";
+    StagingManager stagingManager;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        FileUtils.deleteDirectory(DIR);
+        DIR.mkdirs();
+        stagingManager = new StagingManager(DIR.getAbsolutePath(), false);
+    }
+
+    @Test
+    public void testWriteAndReadCompressed() throws Exception {
+        stagingManager.setStagingCodec(new DeflateStagingCodec());
+        IStagedResource resource = write(1);
+        assertTrue(resource.isCompressed());
+        assertTrue(resource.getSize() < TEST_STR.length() * 100);
+        assertEquals(repeat(100), read(resource));
+        assertEquals(repeat(100), new String(readBytes(resource), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testReadAfterCodecChanged() throws Exception {
+        IStagedResource plain = write(1);
+        stagingManager.setStagingCodec(new DeflateStagingCodec());
+        IStagedResource compressed = write(2);
+        stagingManager.setStagingCodec(null);
+        assertFalse(plain.isCompressed());
+        assertTrue(compressed.isCompressed());
+        assertEquals(repeat(100), read(plain));
+        assertEquals(repeat(100), read(compressed));
+    }
+
+    @Test
+    public void testOutputStreamCompressed() throws Exception {
+        stagingManager.setStagingCodec(new DeflateStagingCodec());
+        IStagedResource resource = stagingManager.create("test", 3);
+        OutputStream os = resource.getOutputStream();
+        os.write(TEST_STR.getBytes(StandardCharsets.UTF_8));
+        resource.close();
+        os = resource.getOutputStream(true);
+        os.write(TEST_STR.getBytes(StandardCharsets.UTF_8));
+        resource.close();
+        assertTrue(resource.isCompressed());
+        assertEquals(repeat(2), new String(readBytes(resource), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testMemoryBufferNotCompressed() throws Exception {
+        stagingManager.setStagingCodec(new DeflateStagingCodec());
+        IStagedResource resource = stagingManager.create("test", 4);
+        BufferedWriter writer = resource.getWriter(1024);
+        writer.write(TEST_STR);
+        resource.close();
+        assertTrue(resource.isMemoryResource());
+        assertFalse(resource.isCompressed());
+        assertEquals(TEST_STR, read(resource));
+    }
+
+    protected IStagedResource write(long batchId) throws Exception {
+        IStagedResource resource = stagingManager.create("test", batchId);
+        BufferedWriter writer = resource.getWriter(0);
+        for (int i = 0; i < 100; i++) {
+            writer.write(TEST_STR);
+        }
+        resource.close();
+        resource.setState(State.DONE);
+        return resource;
+    }
+
+    protected String read(IStagedResource resource) throws Exception {
+        BufferedReader reader = resource.getReader();
+        try {
+            return IOUtils.toString(reader);
+        } finally {
+            resource.close();
+        }
+    }
+
+    protected byte[] readBytes(IStagedResource resource) throws Exception {
+        InputStream is = resource.getInputStream();
+        try {
+            return IOUtils.toByteArray(is);
+        } finally {
+            resource.close();
+        }
+    }
+
+    protected String repeat(int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append(TEST_STR);
+        }
+        return sb.toString();
+    }
+}
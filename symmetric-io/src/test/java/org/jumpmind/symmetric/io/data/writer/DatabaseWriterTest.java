@@ -46,6 +46,7 @@ import org.jumpmind.db.platform.sqlanywhere.SqlAnywhereDatabasePlatform;
 import org.jumpmind.db.platform.tibero.TiberoDatabasePlatform;
 import org.jumpmind.symmetric.io.AbstractWriterTest;
 import org.jumpmind.symmetric.io.data.CsvData;
+import org.jumpmind.symmetric.io.data.DataContext;
 import org.jumpmind.symmetric.io.data.DataEventType;
 import org.jumpmind.symmetric.io.data.writer.Conflict.DetectConflict;
 import org.jumpmind.symmetric.io.data.writer.Conflict.ResolveConflict;
@@ -330,6 +331,61 @@ public class DatabaseWriterTest extends AbstractWriterTest {
         writeData(data, values);
     }
 
+    @Test
+    public void testBatchInsertsWithExisting() throws Exception {
+        writerSettings.setUseBatchInserts(true);
+        String[] existingValues = { getNextId(), "string2", "string not null2", "char2", "char not null2",
+                "2007-01-02 03:20:10.000", "2007-02-03 04:05:06.000", "0", "47", "67.89", "-0.0747663" };
+        massageExpectectedResultsForDialect(existingValues);
+        writeData(new CsvData(DataEventType.INSERT, existingValues), existingValues);
+        String[] firstValues = existingValues.clone();
+        firstValues[0] = getNextId();
+        String[] updatedValues = existingValues.clone();
+        updatedValues[1] = "batch insert fallback to update";
+        String[] lastValues = existingValues.clone();
+        lastValues[0] = getNextId();
+        writeData(new CsvData(DataEventType.INSERT, firstValues), new CsvData(DataEventType.INSERT, updatedValues),
+                new CsvData(DataEventType.INSERT, lastValues));
+        assertTestTableEquals(firstValues[0], firstValues);
+        assertTestTableEquals(updatedValues[0], updatedValues);
+        assertTestTableEquals(lastValues[0], lastValues);
+    }
+
+    @Test
+    public void testBatchInsertsFilterAfterRowIsWritten() throws Exception {
+        writerSettings.setUseBatchInserts(true);
+        String[] existingValues = { getNextId(), "string2", "string not null2", "char2", "char not null2",
+                "2007-01-02 03:20:10.000", "2007-02-03 04:05:06.000", "0", "47", "67.89", "-0.0747663" };
+        massageExpectectedResultsForDialect(existingValues);
+        writeData(new CsvData(DataEventType.INSERT, existingValues), existingValues);
+        String[] firstValues = existingValues.clone();
+        firstValues[0] = getNextId();
+        String[] updatedValues = existingValues.clone();
+        updatedValues[1] = "batch insert fallback to update";
+        String[] lastValues = existingValues.clone();
+        lastValues[0] = getNextId();
+        final DefaultDatabaseWriter writer = new DynamicDefaultDatabaseWriter(platform, platform, "sym", writerSettings);
+        final List<String> filteredIds = new ArrayList<String>();
+        final List<String> missingIds = new ArrayList<String>();
+        writerSettings.setDatabaseWriterFilters(Arrays.asList((IDatabaseWriterFilter) new DatabaseWriterFilterAdapter() {
+            @Override
+            public void afterWrite(DataContext context, Table table, CsvData data) {
+                String id = data.getParsedData(CsvData.ROW_DATA)[0];
+                filteredIds.add(id);
+                if (writer.getTransaction().queryForInt("select count(*) from " + TEST_TABLE + " where id=?", Long.valueOf(id)) == 0) {
+                    missingIds.add(id);
+                }
+            }
+        }));
+        writeData(writer, new TableCsvData(buildSourceTable(TEST_TABLE, TEST_KEYS, TEST_COLUMNS),
+                new CsvData(DataEventType.INSERT, firstValues), new CsvData(DataEventType.INSERT, updatedValues),
+                new CsvData(DataEventType.INSERT, lastValues)));
+        Assert.assertEquals(3, filteredIds.size());
+        Assert.assertTrue(filteredIds.containsAll(Arrays.asList(firstValues[0], updatedValues[0], lastValues[0])));
+        Assert.assertTrue("Filtered before the row was written: " + missingIds, missingIds.isEmpty());
+        assertTestTableEquals(updatedValues[0], updatedValues);
+    }
+
     @Test
     public void testLargeDouble() throws Exception {
         String[] values = new String[TEST_COLUMNS.length];
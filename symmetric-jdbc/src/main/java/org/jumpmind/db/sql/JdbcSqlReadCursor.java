@@ -40,6 +40,7 @@ public class JdbcSqlReadCursor<T> implements ISqlReadCursor<T> {
     protected int rsColumnCount;
     protected IConnectionHandler connectionHandler;
     protected boolean returnLobObjects;
+    protected PositionalRow.Columns positionalColumns;
 
     public JdbcSqlReadCursor() {
     }
@@ -111,8 +112,16 @@ public class JdbcSqlReadCursor<T> implements ISqlReadCursor<T> {
                 if (rsMetaData == null) {
                     rsMetaData = rs.getMetaData();
                     rsColumnCount = rsMetaData.getColumnCount();
+                    if (mapper instanceof ISqlPositionalRowMapper) {
+                        positionalColumns = getPositionalColumns(rsMetaData, rsColumnCount);
+                    }
+                }
+                Row row = null;
+                if (positionalColumns != null) {
+                    row = getPositionalRow(rs, rsMetaData, positionalColumns, sqlTemplate.getSettings().isReadStringsAsBytes(), returnLobObjects);
+                } else {
+                    row = getMapForRow(rs, rsMetaData, rsColumnCount, sqlTemplate.getSettings().isReadStringsAsBytes(), returnLobObjects);
                 }
-                Row row = getMapForRow(rs, rsMetaData, rsColumnCount, sqlTemplate.getSettings().isReadStringsAsBytes(), returnLobObjects);
                 T value = mapper.mapRow(row);
                 if (value != null) {
                     return value;
@@ -137,6 +146,24 @@ public class JdbcSqlReadCursor<T> implements ISqlReadCursor<T> {
         return mapOfColValues;
     }
 
+    protected static PositionalRow.Columns getPositionalColumns(ResultSetMetaData argResultSetMetaData, int columnCount) throws SQLException {
+        String[] names = new String[columnCount];
+        for (int i = 1; i <= columnCount; i++) {
+            names[i - 1] = JdbcSqlTemplate.lookupColumnName(argResultSetMetaData, i);
+        }
+        return new PositionalRow.Columns(names);
+    }
+
+    protected static Row getPositionalRow(ResultSet rs, ResultSetMetaData argResultSetMetaData,
+            PositionalRow.Columns columns, boolean readStringsAsBytes, boolean returnLobObjects) throws SQLException {
+        int columnCount = columns.size();
+        Object[] values = new Object[columnCount];
+        for (int i = 1; i <= columnCount; i++) {
+            values[i - 1] = JdbcSqlTemplate.getResultSetValue(rs, argResultSetMetaData, i, readStringsAsBytes, returnLobObjects);
+        }
+        return new PositionalRow(columns, values);
+    }
+
     public final void close() {
         if (this.connectionHandler != null) {
             this.connectionHandler.after(c);
@@ -263,9 +263,19 @@ public class JdbcSqlTransaction implements ISqlTransaction {
                     List<T> list = new ArrayList<T>();
                     ResultSetMetaData rsMetaData = rs.getMetaData();
                     int columnCount = rsMetaData.getColumnCount();
+                    PositionalRow.Columns positionalColumns = null;
+                    if (mapper instanceof ISqlPositionalRowMapper) {
+                        positionalColumns = JdbcSqlReadCursor.getPositionalColumns(rsMetaData, columnCount);
+                    }
                     while (rs.next()) {
-                        Row row = JdbcSqlReadCursor.getMapForRow(rs, rsMetaData, columnCount,
-                                jdbcSqlTemplate.getSettings().isReadStringsAsBytes(), false);
+                        Row row = null;
+                        if (positionalColumns != null) {
+                            row = JdbcSqlReadCursor.getPositionalRow(rs, rsMetaData, positionalColumns,
+                                    jdbcSqlTemplate.getSettings().isReadStringsAsBytes(), false);
+                        } else {
+                            row = JdbcSqlReadCursor.getMapForRow(rs, rsMetaData, columnCount,
+                                    jdbcSqlTemplate.getSettings().isReadStringsAsBytes(), false);
+                        }
                         T value = mapper.mapRow(row);
                         list.add(value);
                     }
@@ -29,6 +29,8 @@ import jakarta.servlet.http.HttpServletResponse;
 
 import org.jumpmind.symmetric.common.ParameterConstants;
 import org.jumpmind.symmetric.service.IParameterService;
+import org.jumpmind.symmetric.transport.CompressionCodecs;
+import org.jumpmind.symmetric.transport.ICompressionCodec;
 import org.jumpmind.symmetric.web.compression.CompressionServletResponseWrapper;
 
 abstract public class AbstractCompressionUriHandler extends AbstractUriHandler {
@@ -56,16 +58,19 @@ abstract public class AbstractCompressionUriHandler extends AbstractUriHandler {
                 handleWithCompression(req, res);
                 return;
             }
-            @SuppressWarnings("rawtypes")
-            Enumeration e = req.getHeaders("Accept-Encoding");
+            StringBuilder acceptEncoding = new StringBuilder();
+            Enumeration<String> e = req.getHeaders("Accept-Encoding");
             while (e.hasMoreElements()) {
-                String name = (String) e.nextElement();
-                if (name.indexOf("gzip") != -1) {
-                    log.debug("Supports compression.");
-                    supportCompression = true;
-                } else {
-                    log.debug("Does not support compression.");
-                }
+                acceptEncoding.append(e.nextElement()).append(",");
+            }
+            String spec = CompressionCodecs.getCodecSpec(parameterService, req.getHeader(WebConstants.CHANNEL_QUEUE));
+            ICompressionCodec codec = CompressionCodecs.negotiate(spec, acceptEncoding.toString());
+            if (codec != null && !codec.getName().equals(CompressionCodecs.IDENTITY)) {
+                log.debug("Supports compression with {}.", codec.getName());
+                supportCompression = true;
+                compressionLevel = CompressionCodecs.getLevel(spec, compressionLevel);
+            } else {
+                log.debug("Does not support compression.");
             }
             if (!supportCompression) {
                 log.debug("doFilter gets called without compression");
@@ -73,7 +78,7 @@ abstract public class AbstractCompressionUriHandler extends AbstractUriHandler {
                 return;
             } else {
                 CompressionServletResponseWrapper wrappedResponse = new CompressionServletResponseWrapper(
-                        res, compressionLevel, compressionStrategy);
+                        res, codec, compressionLevel, compressionStrategy);
                 log.debug("doFilter gets called with compression");
                 try {
                     handleWithCompression(req, wrappedResponse);
@@ -31,6 +31,8 @@ import jakarta.servlet.http.HttpServletRequest;
 
 import org.jumpmind.symmetric.model.ChannelMap;
 import org.jumpmind.symmetric.service.IParameterService;
+import org.jumpmind.symmetric.transport.CompressionCodecs;
+import org.jumpmind.symmetric.transport.ICompressionCodec;
 import org.jumpmind.symmetric.transport.IOutgoingTransport;
 import org.jumpmind.symmetric.transport.internal.InternalOutgoingTransport;
 import org.slf4j.Logger;
@@ -58,8 +60,11 @@ abstract public class AbstractUriHandler implements IUriHandler {
         String contentType = req.getHeader("Content-Type");
         boolean useCompression = contentType != null && (contentType.equalsIgnoreCase("gzip")
                 || contentType.equalsIgnoreCase("application/gzip"));
+        ICompressionCodec codec = CompressionCodecs.getCodec(req.getHeader("Content-Encoding"));
         is = req.getInputStream();
-        if (useCompression) {
+        if (codec != null) {
+            is = codec.decompress(is);
+        } else if (useCompression) {
             is = new GZIPInputStream(is);
         }
         return is;
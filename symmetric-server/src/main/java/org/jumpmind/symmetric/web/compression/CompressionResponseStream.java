@@ -22,12 +22,14 @@ package org.jumpmind.symmetric.web.compression;
 
 import java.io.IOException;
 import java.io.OutputStream;
-import java.util.zip.GZIPOutputStream;
 
 import jakarta.servlet.ServletOutputStream;
 import jakarta.servlet.WriteListener;
 import jakarta.servlet.http.HttpServletResponse;
 
+import org.jumpmind.symmetric.transport.CompressionCodecs;
+import org.jumpmind.symmetric.transport.ICompressionCodec;
+
 /**
  * Implementation of <b>ServletOutputStream</b> that works with the CompressionServletResponseWrapper implementation.
  * 
@@ -39,7 +41,7 @@ import jakarta.servlet.http.HttpServletResponse;
  */
 public class CompressionResponseStream extends ServletOutputStream {
     /**
-     * The underlying gzip output stream to which we should write data.
+     * The underlying compressed output stream to which we should write data.
      */
     protected OutputStream gzipstream = null;
     /**
@@ -58,15 +60,23 @@ public class CompressionResponseStream extends ServletOutputStream {
      *            The associated response
      */
     public CompressionResponseStream(HttpServletResponse response, final int compressionLevel, final int compressionStrategy) throws IOException {
+        this(response, CompressionCodecs.getCodec(CompressionCodecs.GZIP), compressionLevel, compressionStrategy);
+    }
+
+    /**
+     * Construct a servlet output stream associated with the specified Response that compresses with the codec.
+     * 
+     * @param response
+     *            The associated response
+     * @param codec
+     *            The codec named in the Content-Encoding header
+     */
+    public CompressionResponseStream(HttpServletResponse response, ICompressionCodec codec, int compressionLevel, int compressionStrategy)
+            throws IOException {
         this.closed = false;
         this.response = response;
-        response.addHeader("Content-Encoding", "gzip");
-        gzipstream = new GZIPOutputStream(response.getOutputStream()) {
-            {
-                this.def.setLevel(compressionLevel);
-                this.def.setStrategy(compressionStrategy);
-            }
-        };
+        response.addHeader("Content-Encoding", codec.getName());
+        gzipstream = codec.compress(response.getOutputStream(), compressionLevel, compressionStrategy);
     }
 
     /**
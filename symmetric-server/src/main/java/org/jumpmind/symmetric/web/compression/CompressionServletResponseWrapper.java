@@ -29,6 +29,8 @@ import jakarta.servlet.ServletOutputStream;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpServletResponseWrapper;
 
+import org.jumpmind.symmetric.transport.CompressionCodecs;
+import org.jumpmind.symmetric.transport.ICompressionCodec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -46,12 +48,22 @@ public class CompressionServletResponseWrapper extends HttpServletResponseWrappe
     private static final Logger log = LoggerFactory.getLogger(CompressionServletResponseWrapper.class);
     int compressionLevel = Deflater.DEFAULT_COMPRESSION;
     int compressionStrategy = Deflater.DEFAULT_STRATEGY;
+    ICompressionCodec codec;
 
     /**
      * Calls the parent constructor which creates a ServletResponse adaptor wrapping the given response object.
      */
     public CompressionServletResponseWrapper(HttpServletResponse response, int compressionLevel, int compressionStrategy) {
+        this(response, CompressionCodecs.getCodec(CompressionCodecs.GZIP), compressionLevel, compressionStrategy);
+    }
+
+    /**
+     * Calls the parent constructor which creates a ServletResponse adaptor wrapping the given response object, which will be compressed with the
+     * codec.
+     */
+    public CompressionServletResponseWrapper(HttpServletResponse response, ICompressionCodec codec, int compressionLevel, int compressionStrategy) {
         super(response);
+        this.codec = codec;
         this.compressionLevel = compressionLevel;
         this.compressionStrategy = compressionStrategy;
         origResponse = response;
@@ -97,7 +109,7 @@ public class CompressionServletResponseWrapper extends HttpServletResponseWrappe
      */
     public ServletOutputStream createOutputStream() throws IOException {
         log.debug("createOutputStream gets called");
-        CompressionResponseStream stream = new CompressionResponseStream(origResponse, compressionLevel,
+        CompressionResponseStream stream = new CompressionResponseStream(origResponse, codec, compressionLevel,
                 compressionStrategy);
         return stream;
     }
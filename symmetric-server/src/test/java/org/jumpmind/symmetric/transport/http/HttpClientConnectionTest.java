@@ -0,0 +1,212 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.transport.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyStore;
+import java.security.KeyStore.PrivateKeyEntry;
+import java.security.SecureRandom;
+import java.security.cert.Certificate;
+import java.util.concurrent.Executors;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.TrustManagerFactory;
+import javax.net.ssl.X509TrustManager;
+
+import org.jumpmind.security.BouncyCastleSecurityService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpServer;
+import com.sun.net.httpserver.HttpsConfigurator;
+import com.sun.net.httpserver.HttpsServer;
+
+public class HttpClientConnectionTest {
+    private static final String PASSWORD = "changeit";
+    private HttpServer server;
+
+    @AfterEach
+    public void tearDown() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testReadBody() throws Exception {
+        startServer(0);
+        HttpConnection connection = new HttpClientTransportManager().createConnection(getUrl("http"));
+        connection.setReadTimeout(5000);
+        assertEquals(200, connection.getResponseCode());
+        assertEquals("hello world", read(connection.getInputStream()));
+        connection.disconnect();
+    }
+
+    @Test
+    public void testReadTimeoutOnBody() throws Exception {
+        startServer(10000);
+        HttpConnection connection = new HttpClientTransportManager().createConnection(getUrl("http"));
+        connection.setReadTimeout(500);
+        assertEquals(200, connection.getResponseCode());
+        InputStream in = connection.getInputStream();
+        assertEquals('h', in.read());
+        long startTime = System.currentTimeMillis();
+        try {
+            read(in);
+            fail("Expected the read to time out");
+        } catch (SocketTimeoutException e) {
+        }
+        assertTrue(System.currentTimeMillis() - startTime < 5000);
+        connection.disconnect();
+    }
+
+    @Test
+    public void testVerifiedServerNames() throws Exception {
+        KeyStore keyStore = startHttpsServer("symmetric.example");
+        assertEquals("hello world", requestHttps(keyStore, "all"));
+        assertEquals("hello world", requestHttps(keyStore, "otherhost, localhost"));
+        try {
+            requestHttps(keyStore, "otherhost");
+            fail("Expected the server name to be rejected");
+        } catch (IOException e) {
+        }
+        try {
+            requestHttps(keyStore, null);
+            fail("Expected the server name to be rejected");
+        } catch (IOException e) {
+        }
+    }
+
+    @Test
+    public void testMatchingServerName() throws Exception {
+        KeyStore keyStore = startHttpsServer("localhost");
+        assertEquals("hello world", requestHttps(keyStore, "otherhost"));
+        assertEquals("hello world", requestHttps(keyStore, null));
+    }
+
+    @Test
+    public void testUntrustedCertificate() throws Exception {
+        startHttpsServer("localhost");
+        KeyStore otherKeyStore = createKeyStore("localhost");
+        try {
+            requestHttps(otherKeyStore, "all");
+            fail("Expected the certificate to be rejected");
+        } catch (IOException e) {
+        }
+    }
+
+    protected String requestHttps(KeyStore trustStore, String verifiedServerNames) throws Exception {
+        TrustManagerFactory factory = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        factory.init(trustStore);
+        X509TrustManager trustManager = (X509TrustManager) factory.getTrustManagers()[0];
+        if (verifiedServerNames != null) {
+            trustManager = new HostnameVerifierTrustManager(trustManager, new SimpleHostnameVerifier(verifiedServerNames));
+        }
+        SSLContext context = SSLContext.getInstance("TLS");
+        context.init(null, new TrustManager[] { trustManager }, new SecureRandom());
+        HttpClientTransportManager transportManager = new HttpClientTransportManager() {
+            @Override
+            protected SSLContext getSslContext() {
+                return context;
+            }
+        };
+        HttpConnection connection = transportManager.createConnection(getUrl("https"));
+        try {
+            connection.setReadTimeout(5000);
+            return read(connection.getInputStream());
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    protected void startServer(long delayMs) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        addHandler(delayMs);
+    }
+
+    protected KeyStore startHttpsServer(String host) throws Exception {
+        KeyStore keyStore = createKeyStore(host);
+        KeyManagerFactory factory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        factory.init(keyStore, PASSWORD.toCharArray());
+        SSLContext context = SSLContext.getInstance("TLS");
+        context.init(factory.getKeyManagers(), null, new SecureRandom());
+        HttpsServer httpsServer = HttpsServer.create(new InetSocketAddress("localhost", 0), 0);
+        httpsServer.setHttpsConfigurator(new HttpsConfigurator(context));
+        server = httpsServer;
+        addHandler(0);
+        return keyStore;
+    }
+
+    protected KeyStore createKeyStore(String host) throws Exception {
+        PrivateKeyEntry entry = new BouncyCastleSecurityService().createDefaultSslCert(host);
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        keyStore.load(null, null);
+        keyStore.setKeyEntry("server", entry.getPrivateKey(), PASSWORD.toCharArray(), new Certificate[] { entry.getCertificate() });
+        return keyStore;
+    }
+
+    protected void addHandler(long delayMs) {
+        server.createContext("/", (exchange) -> {
+            byte[] body = "hello world".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, delayMs > 0 ? 0 : body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body, 0, 1);
+                out.flush();
+                if (delayMs > 0) {
+                    try {
+                        Thread.sleep(delayMs);
+                    } catch (InterruptedException e) {
+                    }
+                }
+                out.write(body, 1, body.length - 1);
+            } catch (IOException e) {
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    protected URL getUrl(String protocol) throws IOException {
+        return new URL(protocol + "://localhost:" + server.getAddress().getPort() + "/");
+    }
+
+    protected String read(InputStream in) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        byte[] buffer = new byte[1024];
+        int count = 0;
+        while ((count = in.read(buffer)) != -1) {
+            sb.append(new String(buffer, 0, count, StandardCharsets.UTF_8));
+        }
+        return sb.toString();
+    }
+}
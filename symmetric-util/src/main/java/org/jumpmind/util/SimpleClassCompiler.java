@@ -29,6 +29,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -58,7 +59,7 @@ import org.slf4j.LoggerFactory;
 @SuppressWarnings({ "rawtypes" })
 public class SimpleClassCompiler {
     protected final static String REGEX_CLASS = "public\\s*class\\s*(\\w*)";
-    protected Map<Integer, Object> objectMap = new HashMap<Integer, Object>();
+    protected Map<Integer, Object> objectMap = new ConcurrentHashMap<Integer, Object>();
     protected int classSuffix;
     private Logger log = LoggerFactory.getLogger(SimpleClassCompiler.class);
 
@@ -0,0 +1,175 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.util;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An executor that starts a new virtual thread for each task. A fair semaphore limits how many tasks run at the same time. Tasks submitted above the
+ * limit wait in their own virtual thread, so they queue in order like they would on a fixed thread pool. Virtual threads need a Java 21 runtime.
+ * They are created by reflection because the code is compiled for an older release. Use {@link #isSupported()} before constructing one.
+ */
+public class VirtualThreadPerTaskExecutor extends AbstractExecutorService {
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPerTaskExecutor.class);
+    private static final boolean SUPPORTED = newVirtualThreadFactory("virtual-") != null;
+    protected ThreadFactory threadFactory;
+    protected Semaphore permits;
+    protected int maxConcurrency;
+    protected AtomicInteger activeCount = new AtomicInteger();
+    protected Set<Thread> threads = ConcurrentHashMap.newKeySet();
+    protected volatile boolean shutdown;
+    protected volatile boolean stopped;
+
+    public VirtualThreadPerTaskExecutor(String namePrefix, int maxConcurrency) {
+        this(newVirtualThreadFactory(namePrefix), maxConcurrency);
+    }
+
+    protected VirtualThreadPerTaskExecutor(ThreadFactory threadFactory, int maxConcurrency) {
+        if (threadFactory == null) {
+            throw new IllegalStateException("Virtual threads are not supported by this Java runtime");
+        }
+        this.threadFactory = threadFactory;
+        this.maxConcurrency = maxConcurrency;
+        this.permits = new Semaphore(maxConcurrency, true);
+    }
+
+    public static boolean isSupported() {
+        return SUPPORTED;
+    }
+
+    /**
+     * @return a factory for virtual threads that are named with the prefix and a sequence number, or null if the runtime does not support them
+     */
+    public static ThreadFactory newVirtualThreadFactory(String namePrefix) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> ofVirtualClass = Class.forName("java.lang.Thread$Builder$OfVirtual");
+            builder = ofVirtualClass.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 1L);
+            return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (shutdown) {
+            throw new RejectedExecutionException("Executor has been shut down");
+        }
+        Thread thread = threadFactory.newThread(() -> {
+            try {
+                permits.acquire();
+                try {
+                    if (stopped) {
+                        // a permit freed by an interrupted task can reach a waiting task before its own interrupt does
+                        throw new InterruptedException();
+                    }
+                    activeCount.incrementAndGet();
+                    try {
+                        command.run();
+                    } finally {
+                        activeCount.decrementAndGet();
+                    }
+                } finally {
+                    permits.release();
+                }
+            } catch (InterruptedException e) {
+                log.debug("Discarded a task that was waiting to run because the executor was shut down");
+                Thread.currentThread().interrupt();
+            } finally {
+                threads.remove(Thread.currentThread());
+            }
+        });
+        threads.add(thread);
+        thread.start();
+    }
+
+    public int getActiveCount() {
+        return activeCount.get();
+    }
+
+    public int getMaximumPoolSize() {
+        return maxConcurrency;
+    }
+
+    /**
+     * @return the number of tasks that are running or waiting for a permit
+     */
+    public int getTaskCount() {
+        return threads.size();
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown = true;
+        stopped = true;
+        for (Thread thread : threads) {
+            thread.interrupt();
+        }
+        return new ArrayList<Runnable>();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return shutdown && threads.isEmpty();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (!isTerminated()) {
+            long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMillis <= 0) {
+                return false;
+            }
+            Iterator<Thread> i = threads.iterator();
+            if (i.hasNext()) {
+                i.next().join(Math.min(remainingMillis, 1000));
+            } else {
+                Thread.sleep(Math.min(remainingMillis, 100));
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,81 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+public class LongListTest {
+    @Test
+    public void testGrowth() {
+        LongList list = new LongList();
+        assertTrue(list.isEmpty());
+        for (long i = 0; i < 1000; i++) {
+            list.add(i * 3);
+        }
+        assertEquals(1000, list.size());
+        assertEquals(0, list.get(0));
+        assertEquals(2997, list.getLast());
+        list = new LongList(0);
+        list.add(5);
+        assertEquals(5, list.get(0));
+        LongList other = new LongList(2);
+        other.addAll(Arrays.asList(6L, 7L, 8L));
+        other.addAll(list);
+        other.addAll(other);
+        assertArrayEquals(new long[] { 6, 7, 8, 5, 6, 7, 8, 5 }, other.toArray());
+        try {
+            other.get(8);
+            fail("Expected an IndexOutOfBoundsException");
+        } catch (IndexOutOfBoundsException e) {
+        }
+    }
+
+    @Test
+    public void testSort() {
+        LongList list = new LongList(16);
+        list.addAll(Arrays.asList(9L, 3L, Long.MAX_VALUE, 3L, -1L, 0L));
+        list.sort();
+        assertArrayEquals(new long[] { -1, 0, 3, 3, 9, Long.MAX_VALUE }, list.toArray());
+        assertEquals("[-1, 0, 3, 3, 9, " + Long.MAX_VALUE + "]", list.toString());
+    }
+
+    @Test
+    public void testRemoveAndClear() {
+        LongList list = new LongList();
+        list.addAll(Arrays.asList(1L, 2L, 3L, 2L));
+        assertTrue(list.removeValue(2));
+        assertArrayEquals(new long[] { 1, 3, 2 }, list.toArray());
+        assertFalse(list.removeValue(4));
+        list.clear();
+        assertTrue(list.isEmpty());
+        list.add(7);
+        assertEquals(7, list.getLast());
+        assertEquals("[7]", list.toString());
+    }
+}
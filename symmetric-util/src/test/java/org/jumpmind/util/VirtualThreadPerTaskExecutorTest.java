@@ -0,0 +1,143 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs the executor on platform threads, so the permit and shutdown behavior is tested on runtimes without virtual threads
+ */
+public class VirtualThreadPerTaskExecutorTest {
+    @Test
+    public void testPermitLimit() throws Exception {
+        VirtualThreadPerTaskExecutor executor = new VirtualThreadPerTaskExecutor(new CustomizableThreadFactory("test-permit"), 2);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        AtomicInteger completed = new AtomicInteger();
+        for (int i = 0; i < 6; i++) {
+            executor.execute(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                completed.incrementAndGet();
+            });
+        }
+        waitFor(() -> executor.getActiveCount() == 2);
+        Thread.sleep(100);
+        assertEquals(2, executor.getActiveCount());
+        assertEquals(6, executor.getTaskCount());
+        assertEquals(2, executor.getMaximumPoolSize());
+        release.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(6, completed.get());
+        assertEquals(2, maxRunning.get());
+        assertEquals(0, executor.getActiveCount());
+    }
+
+    @Test
+    public void testShutdownNow() throws Exception {
+        VirtualThreadPerTaskExecutor executor = new VirtualThreadPerTaskExecutor(new CustomizableThreadFactory("test-shutdown-now"), 1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        AtomicInteger started = new AtomicInteger();
+        for (int i = 0; i < 4; i++) {
+            executor.execute(() -> {
+                started.incrementAndGet();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    interrupted.set(true);
+                }
+            });
+        }
+        waitFor(() -> started.get() == 1);
+        assertEquals(4, executor.getTaskCount());
+        assertTrue(executor.shutdownNow().isEmpty());
+        assertTrue(executor.isShutdown());
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertTrue(executor.isTerminated());
+        assertTrue(interrupted.get());
+        assertEquals(1, started.get());
+        assertEquals(0, executor.getTaskCount());
+        try {
+            executor.execute(() -> started.incrementAndGet());
+            fail("Expected the task to be rejected after shutdown");
+        } catch (RejectedExecutionException e) {
+        }
+    }
+
+    @Test
+    public void testAwaitTermination() throws Exception {
+        VirtualThreadPerTaskExecutor executor = new VirtualThreadPerTaskExecutor(new CustomizableThreadFactory("test-await"), 1);
+        assertFalse(executor.isTerminated());
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+
+        executor = new VirtualThreadPerTaskExecutor(new CustomizableThreadFactory("test-await"), 1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger completed = new AtomicInteger();
+        for (int i = 0; i < 2; i++) {
+            executor.execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                completed.incrementAndGet();
+            });
+        }
+        executor.shutdown();
+        assertFalse(executor.awaitTermination(100, TimeUnit.MILLISECONDS));
+        assertFalse(executor.isTerminated());
+        release.countDown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertTrue(executor.isTerminated());
+        assertEquals(2, completed.get());
+    }
+
+    protected void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Timed out waiting for tasks to start");
+            }
+            Thread.sleep(10);
+        }
+    }
+}